@@ -0,0 +1,164 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.GenericEvent;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.api.core.v01.events.handler.PersonDepartureEventHandler;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.events.EventsManagerImpl;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.events.handler.EventHandler;
+import org.matsim.vehicles.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the event dispatch of {@link EventsManagerImpl} (with and without synchronizing on the handlers)
+ * to the dispatch that was used before, see {@link PreviousEventsManagerImpl}.
+ * <p>
+ * The event mix contains the most frequent mobsim events as well as a {@link GenericEvent}, which only a
+ * {@link BasicEventHandler} listens to.
+ * <p>
+ * Run with <code>java -cp matsim-benchmark.jar org.matsim.benchmark.events.EventsDispatchBenchmark</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventsDispatchBenchmark {
+
+	private static final int NUMBER_OF_EVENTS = 10_000;
+
+	private Event[] events;
+	private EventsManagerImpl synchronizedEvents;
+	private EventsManagerImpl unsynchronizedEvents;
+	private PreviousEventsManagerImpl previousEvents;
+
+	@Setup
+	public void setup() {
+		List<Event> events = new ArrayList<>(NUMBER_OF_EVENTS);
+		for (int i = 0; i < NUMBER_OF_EVENTS; i++) {
+			Id<Vehicle> vehicleId = Id.createVehicleId(i % 100);
+			Id<Link> linkId = Id.createLinkId(i % 1000);
+			switch (i % 4) {
+				case 0 -> events.add(new LinkEnterEvent(i, vehicleId, linkId));
+				case 1 -> events.add(new LinkLeaveEvent(i, vehicleId, linkId));
+				case 2 -> events.add(new PersonDepartureEvent(i, Id.create(i % 100, Person.class), linkId, "car", "car"));
+				default -> events.add(new GenericEvent("custom", i));
+			}
+		}
+		this.events = events.toArray(new Event[0]);
+
+		this.synchronizedEvents = new EventsManagerImpl(true);
+		this.unsynchronizedEvents = new EventsManagerImpl(false);
+		this.previousEvents = new PreviousEventsManagerImpl();
+		for (EventHandler handler : List.of(new LinkHandler(), new DepartureHandler(), new CountingBasicHandler())) {
+			this.synchronizedEvents.addHandler(handler);
+			this.unsynchronizedEvents.addHandler(handler);
+			this.previousEvents.addHandler(handler);
+		}
+	}
+
+	@Benchmark
+	public void previous(Blackhole bh) {
+		for (Event event : this.events) {
+			this.previousEvents.processEvent(event);
+		}
+		bh.consume(this.previousEvents);
+	}
+
+	@Benchmark
+	public void directCallSitesSynchronized(Blackhole bh) {
+		for (Event event : this.events) {
+			this.synchronizedEvents.processEvent(event);
+		}
+		bh.consume(this.synchronizedEvents);
+	}
+
+	@Benchmark
+	public void directCallSitesUnsynchronized(Blackhole bh) {
+		for (Event event : this.events) {
+			this.unsynchronizedEvents.processEvent(event);
+		}
+		bh.consume(this.unsynchronizedEvents);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(EventsDispatchBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	private static class LinkHandler implements LinkEnterEventHandler, LinkLeaveEventHandler {
+		private long count = 0;
+
+		@Override
+		public void handleEvent(LinkEnterEvent event) {
+			this.count += event.getLinkId().index();
+		}
+
+		@Override
+		public void handleEvent(LinkLeaveEvent event) {
+			this.count -= event.getVehicleId().index();
+		}
+	}
+
+	private static class DepartureHandler implements PersonDepartureEventHandler {
+		private long count = 0;
+
+		@Override
+		public void handleEvent(PersonDepartureEvent event) {
+			this.count += event.getPersonId().index();
+		}
+	}
+
+	private static class CountingBasicHandler implements BasicEventHandler {
+		private long count = 0;
+
+		@Override
+		public void handleEvent(Event event) {
+			this.count++;
+		}
+	}
+}
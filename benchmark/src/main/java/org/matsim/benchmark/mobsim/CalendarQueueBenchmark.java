@@ -0,0 +1,133 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark.mobsim;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.core.utils.collections.CalendarQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the {@link CalendarQueue} with the priority queue previously used by the activity and teleportation engines, by
+ * simulating a day in which every agent performs a number of activities: all agents are added before the first time step, and
+ * an agent whose activity ends is added again with the end time of its next activity.
+ * <p>
+ * Run with <code>java -cp matsim-benchmark.jar org.matsim.benchmark.mobsim.CalendarQueueBenchmark</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalendarQueueBenchmark {
+
+	private static final int ACTIVITIES_PER_AGENT = 4;
+	private static final int END_OF_DAY = 30 * 3600;
+
+	@Param({"100000", "1000000"})
+	public int agentsCount;
+
+	private Agent[] agents;
+	private double[][] activityEndTimes;
+
+	private record Agent(int id) {
+	}
+
+	private record Entry(double time, Agent agent) {
+	}
+
+	private static final Comparator<Agent> TIE_BREAKER = (a0, a1) -> Integer.compare(a1.id, a0.id);
+
+	@Setup
+	public void setup() {
+		Random random = new Random(4711);
+		this.agents = new Agent[this.agentsCount];
+		this.activityEndTimes = new double[this.agentsCount][ACTIVITIES_PER_AGENT];
+		for (int i = 0; i < this.agentsCount; i++) {
+			this.agents[i] = new Agent(i);
+			double time = 6 * 3600 + random.nextGaussian() * 3600;
+			for (int a = 0; a < ACTIVITIES_PER_AGENT; a++) {
+				this.activityEndTimes[i][a] = Math.max(0, Math.floor(time));
+				time += 1800 + random.nextInt(4 * 3600);
+			}
+		}
+	}
+
+	@Benchmark
+	public void priorityQueue(Blackhole bh) {
+		PriorityQueue<Entry> queue = new PriorityQueue<>(500,
+				Comparator.comparingDouble(Entry::time).thenComparing(Entry::agent, TIE_BREAKER));
+		int[] nextActivity = new int[this.agentsCount];
+		for (Agent agent : this.agents) {
+			queue.add(new Entry(this.activityEndTimes[agent.id][0], agent));
+		}
+		for (int now = 0; now < END_OF_DAY; now++) {
+			while (!queue.isEmpty() && queue.peek().time <= now) {
+				Agent agent = queue.poll().agent;
+				bh.consume(agent);
+				int activity = ++nextActivity[agent.id];
+				if (activity < ACTIVITIES_PER_AGENT) {
+					queue.add(new Entry(this.activityEndTimes[agent.id][activity], agent));
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public void calendarQueue(Blackhole bh) {
+		CalendarQueue<Agent> queue = new CalendarQueue<>(TIE_BREAKER);
+		int[] nextActivity = new int[this.agentsCount];
+		for (Agent agent : this.agents) {
+			queue.add(this.activityEndTimes[agent.id][0], agent);
+		}
+		for (int now = 0; now < END_OF_DAY; now++) {
+			Agent agent;
+			while ((agent = queue.poll(now)) != null) {
+				bh.consume(agent);
+				int activity = ++nextActivity[agent.id];
+				if (activity < ACTIVITIES_PER_AGENT) {
+					queue.add(this.activityEndTimes[agent.id][activity], agent);
+				}
+			}
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(CalendarQueueBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,173 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark.population;
+
+import java.lang.ref.Reference;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.PlansConfigGroup;
+import org.matsim.core.network.io.MatsimNetworkReader;
+import org.matsim.core.population.io.PopulationReader;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteFactories;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the network route implementations on the routes of the berlin example scenario (1% sample of commuters):
+ * <ul>
+ *     <li>{@link #linkTransitions} accesses the routes like the mobsim does, i.e. calls <code>getLinkIds()</code> at every link transition,</li>
+ *     <li>{@link #setLinkIds} creates new routes from lists of link ids, like the routers do.</li>
+ * </ul>
+ * The benchmarks are run with the GC profiler, which reports the memory allocated per operation. Before them, {@link #main} prints the heap used by the
+ * loaded population for each route implementation. Only the routes differ between them, so the differences to {@link PlansConfigGroup.NetworkRouteType#LinkNetworkRoute}
+ * are the differences in the footprint of the routes.
+ * <p>
+ * Run with <code>java -cp matsim-benchmark.jar org.matsim.benchmark.population.NetworkRouteBenchmark</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NetworkRouteBenchmark {
+
+	private static final URL CONTEXT = ExamplesUtils.getTestScenarioURL("berlin");
+
+	@Param({PlansConfigGroup.NetworkRouteType.LinkNetworkRoute, PlansConfigGroup.NetworkRouteType.MediumCompressedNetworkRoute,
+			PlansConfigGroup.NetworkRouteType.HeavyCompressedNetworkRoute, PlansConfigGroup.NetworkRouteType.PackedNetworkRoute})
+	public String networkRouteType;
+
+	private NetworkRoute[] routes;
+	private List<List<Id<Link>>> linkIds;
+	private RouteFactories routeFactories;
+
+	@Setup
+	public void setup() {
+		Scenario scenario = createScenario(this.networkRouteType);
+		new PopulationReader(scenario).parse(IOUtils.extendUrl(CONTEXT, "plans_hwh_1pct.xml.gz"));
+
+		List<NetworkRoute> routes = new ArrayList<>();
+		for (Person person : scenario.getPopulation().getPersons().values()) {
+			for (Plan plan : person.getPlans()) {
+				for (PlanElement pe : plan.getPlanElements()) {
+					if (pe instanceof Leg leg && leg.getRoute() instanceof NetworkRoute route) {
+						routes.add(route);
+					}
+				}
+			}
+		}
+		this.routes = routes.toArray(new NetworkRoute[0]);
+		this.linkIds = routes.stream().map(r -> (List<Id<Link>>) new ArrayList<>(r.getLinkIds())).toList();
+		this.routeFactories = scenario.getPopulation().getFactory().getRouteFactories();
+	}
+
+	private static Scenario createScenario(String networkRouteType) {
+		Config config = ConfigUtils.createConfig(CONTEXT);
+		config.plans().setNetworkRouteType(networkRouteType);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		new MatsimNetworkReader(scenario.getNetwork()).parse(IOUtils.extendUrl(CONTEXT, "network.xml.gz"));
+		return scenario;
+	}
+
+	/**
+	 * Prints the heap used by the population loaded with each route implementation. This is done once before the benchmarks, as the garbage collections
+	 * needed for the measurement would distort them.
+	 */
+	private static void printPopulationFootprints() {
+		String[] networkRouteTypes = {PlansConfigGroup.NetworkRouteType.LinkNetworkRoute, PlansConfigGroup.NetworkRouteType.MediumCompressedNetworkRoute,
+				PlansConfigGroup.NetworkRouteType.HeavyCompressedNetworkRoute, PlansConfigGroup.NetworkRouteType.PackedNetworkRoute};
+		long baseline = 0;
+		for (String networkRouteType : networkRouteTypes) {
+			Scenario scenario = createScenario(networkRouteType);
+			long memoryBefore = usedMemory();
+			new PopulationReader(scenario).parse(IOUtils.extendUrl(CONTEXT, "plans_hwh_1pct.xml.gz"));
+			long footprint = usedMemory() - memoryBefore;
+			if (baseline == 0) {
+				baseline = footprint;
+			}
+			System.out.printf("%s: population uses %.1f MB (%+.1f MB)%n", networkRouteType, footprint / 1024.0 / 1024.0, (footprint - baseline) / 1024.0 / 1024.0);
+			// keep the population reachable until it is measured
+			Reference.reachabilityFence(scenario);
+		}
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	@Benchmark
+	public void linkTransitions(Blackhole bh) {
+		for (NetworkRoute route : this.routes) {
+			for (int i = 0, n = route.getLinkIds().size(); i < n; i++) {
+				bh.consume(route.getLinkIds().get(i));
+			}
+		}
+	}
+
+	@Benchmark
+	public void setLinkIds(Blackhole bh) {
+		for (int i = 0; i < this.routes.length; i++) {
+			NetworkRoute template = this.routes[i];
+			NetworkRoute route = this.routeFactories.createRoute(NetworkRoute.class, template.getStartLinkId(), template.getEndLinkId());
+			route.setLinkIds(template.getStartLinkId(), this.linkIds.get(i), template.getEndLinkId());
+			bh.consume(route);
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		printPopulationFootprints();
+		new Runner(new OptionsBuilder().include(NetworkRouteBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,204 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark.router;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.pt.transitSchedule.api.Departure;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.pt.transitSchedule.api.TransitRouteStop;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.pt.transitSchedule.api.TransitScheduleFactory;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import ch.sbb.matsim.routing.pt.raptor.ParallelRangeRaptor;
+import ch.sbb.matsim.routing.pt.raptor.RangeRaptor;
+import ch.sbb.matsim.routing.pt.raptor.RaptorParameters;
+import ch.sbb.matsim.routing.pt.raptor.RaptorStaticConfig;
+import ch.sbb.matsim.routing.pt.raptor.RaptorUtils;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptor;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData;
+
+/**
+ * Compares the computation of all connections departing in a time window from a set of stops: looping over the
+ * departure times with {@link SwissRailRaptor#calcTreesObservable}, one Range-RAPTOR pass per stop with
+ * {@link RangeRaptor}, and the same distributed over several threads with {@link ParallelRangeRaptor}. The schedule
+ * is a grid of horizontal and vertical lines in both directions, intersecting at shared stops.
+ * <p>
+ * Run with <code>java -cp matsim-benchmark.jar org.matsim.benchmark.router.RangeRaptorBenchmark</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RangeRaptorBenchmark {
+
+	private static final double STOP_DISTANCE = 500;
+	private static final double TRAVEL_TIME_BETWEEN_STOPS = 90;
+	private static final double HEADWAY = 600;
+	private static final double FIRST_DEPARTURE = 5 * 3600;
+	private static final double LAST_DEPARTURE = 12 * 3600;
+	private static final double EARLIEST_DEPARTURE = 7 * 3600;
+	private static final double LATEST_DEPARTURE = 9 * 3600;
+	private static final int FROM_STOPS_COUNT = 32;
+
+	@Param({"20", "40"})
+	public int gridSize;
+
+	@Param({"4"})
+	public int threads;
+
+	private Config config;
+	private SwissRailRaptorData data;
+	private SwissRailRaptor raptor;
+	private RangeRaptor rangeRaptor;
+	private ParallelRangeRaptor parallelRangeRaptor;
+	private RaptorParameters parameters;
+	private List<TransitStopFacility> fromStops;
+
+	@Setup
+	public void setup() {
+		this.config = ConfigUtils.createConfig();
+		Scenario scenario = ScenarioUtils.createScenario(this.config);
+		TransitSchedule schedule = scenario.getTransitSchedule();
+		createGridSchedule(schedule, this.gridSize);
+
+		RaptorStaticConfig staticConfig = RaptorUtils.createStaticConfig(this.config);
+		staticConfig.setOptimization(RaptorStaticConfig.RaptorOptimization.OneToAllRouting);
+		this.data = SwissRailRaptorData.create(schedule, null, staticConfig, scenario.getNetwork(), null);
+		this.raptor = new SwissRailRaptor.Builder(this.data, this.config).build();
+		this.rangeRaptor = new RangeRaptor(this.data);
+		this.parallelRangeRaptor = new ParallelRangeRaptor(this.data, this.threads);
+		this.parameters = RaptorUtils.createParameters(this.config);
+
+		List<TransitStopFacility> stops = new ArrayList<>(schedule.getFacilities().values());
+		Random random = new Random(4711);
+		this.fromStops = new ArrayList<>();
+		for (int i = 0; i < FROM_STOPS_COUNT; i++) {
+			this.fromStops.add(stops.get(random.nextInt(stops.size())));
+		}
+	}
+
+	private static void createGridSchedule(TransitSchedule schedule, int gridSize) {
+		TransitScheduleFactory f = schedule.getFactory();
+		// the raptor needs network routes, but does not look at the links if all stops are on the same link
+		Id<Link> linkId = Id.createLinkId("pt");
+		TransitStopFacility[][] stops = new TransitStopFacility[gridSize][gridSize];
+		for (int x = 0; x < gridSize; x++) {
+			for (int y = 0; y < gridSize; y++) {
+				TransitStopFacility stop = f.createTransitStopFacility(Id.create(x + "_" + y, TransitStopFacility.class), new Coord(x * STOP_DISTANCE, y * STOP_DISTANCE), false);
+				stop.setLinkId(linkId);
+				schedule.addStopFacility(stop);
+				stops[x][y] = stop;
+			}
+		}
+		for (int i = 0; i < gridSize; i++) {
+			List<TransitStopFacility> row = new ArrayList<>();
+			List<TransitStopFacility> rowBack = new ArrayList<>();
+			List<TransitStopFacility> column = new ArrayList<>();
+			List<TransitStopFacility> columnBack = new ArrayList<>();
+			for (int j = 0; j < gridSize; j++) {
+				row.add(stops[j][i]);
+				rowBack.add(stops[gridSize - 1 - j][i]);
+				column.add(stops[i][j]);
+				columnBack.add(stops[i][gridSize - 1 - j]);
+			}
+			TransitLine line = f.createTransitLine(Id.create("line_" + i, TransitLine.class));
+			// shift the departures of the lines against each other, so that transfers have different waiting times
+			double offset = (i * 60) % HEADWAY;
+			addRoute(schedule, line, "row", row, linkId, offset);
+			addRoute(schedule, line, "row_back", rowBack, linkId, offset);
+			addRoute(schedule, line, "column", column, linkId, offset);
+			addRoute(schedule, line, "column_back", columnBack, linkId, offset);
+			schedule.addTransitLine(line);
+		}
+	}
+
+	private static void addRoute(TransitSchedule schedule, TransitLine line, String name, List<TransitStopFacility> facilities, Id<Link> linkId, double offset) {
+		TransitScheduleFactory f = schedule.getFactory();
+		List<TransitRouteStop> routeStops = new ArrayList<>();
+		for (int i = 0; i < facilities.size(); i++) {
+			double time = i * TRAVEL_TIME_BETWEEN_STOPS;
+			routeStops.add(f.createTransitRouteStop(facilities.get(i), time, time));
+		}
+		NetworkRoute networkRoute = RouteUtils.createLinkNetworkRouteImpl(linkId, linkId);
+		TransitRoute route = f.createTransitRoute(Id.create(line.getId() + "_" + name, TransitRoute.class), networkRoute, routeStops, "bus");
+		int index = 0;
+		for (double time = FIRST_DEPARTURE + offset; time <= LAST_DEPARTURE; time += HEADWAY) {
+			Departure departure = f.createDeparture(Id.create(index++, Departure.class), time);
+			route.addDeparture(departure);
+		}
+		line.addRoute(route);
+	}
+
+	@Benchmark
+	public void loopTrees(Blackhole bh) {
+		for (TransitStopFacility fromStop : this.fromStops) {
+			this.raptor.calcTreesObservable(fromStop, EARLIEST_DEPARTURE, LATEST_DEPARTURE, this.parameters, null,
+					(departureTime, stopFacility, arrivalTime, transferCount, route) -> bh.consume(arrivalTime));
+		}
+	}
+
+	@Benchmark
+	public void rangeRaptor(Blackhole bh) {
+		for (TransitStopFacility fromStop : this.fromStops) {
+			bh.consume(this.rangeRaptor.calcProfile(fromStop, EARLIEST_DEPARTURE, LATEST_DEPARTURE, this.parameters));
+		}
+	}
+
+	@Benchmark
+	public void parallelRangeRaptor(Blackhole bh) {
+		bh.consume(this.parallelRangeRaptor.calcProfiles(this.fromStops, EARLIEST_DEPARTURE, LATEST_DEPARTURE, this.parameters));
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(RangeRaptorBenchmark.class.getSimpleName()).build()).run();
+	}
+}
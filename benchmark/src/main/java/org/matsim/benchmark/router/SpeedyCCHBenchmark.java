@@ -0,0 +1,144 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark.router;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.groups.ScoringConfigGroup;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.speedy.SpeedyALTFactory;
+import org.matsim.core.router.speedy.SpeedyCCHFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the query times of SpeedyALT and SpeedyCCH on the same set of random queries in a grid network with
+ * randomized link lengths and speeds. The preprocessing (landmarks resp. contraction and customization) is done
+ * in the setup and is not measured.
+ * <p>
+ * Run with <code>java -cp matsim-benchmark.jar org.matsim.benchmark.router.SpeedyCCHBenchmark</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpeedyCCHBenchmark {
+
+	private static final int NUMBER_OF_QUERIES = 1_000;
+
+	@Param({"100", "300"})
+	public int gridSize;
+
+	private Node[] fromNodes;
+	private Node[] toNodes;
+	private double[] departureTimes;
+	private LeastCostPathCalculator alt;
+	private LeastCostPathCalculator cch;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(4711);
+		Network network = NetworkUtils.createNetwork();
+		Node[][] grid = new Node[this.gridSize][this.gridSize];
+		for (int x = 0; x < this.gridSize; x++) {
+			for (int y = 0; y < this.gridSize; y++) {
+				grid[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * 200, y * 200));
+			}
+		}
+		for (int x = 0; x < this.gridSize; x++) {
+			for (int y = 0; y < this.gridSize; y++) {
+				if (x + 1 < this.gridSize) {
+					addLinks(network, grid[x][y], grid[x + 1][y], random);
+				}
+				if (y + 1 < this.gridSize) {
+					addLinks(network, grid[x][y], grid[x][y + 1], random);
+				}
+			}
+		}
+
+		List<Node> nodes = new ArrayList<>(network.getNodes().values());
+		this.fromNodes = new Node[NUMBER_OF_QUERIES];
+		this.toNodes = new Node[NUMBER_OF_QUERIES];
+		this.departureTimes = new double[NUMBER_OF_QUERIES];
+		for (int i = 0; i < NUMBER_OF_QUERIES; i++) {
+			this.fromNodes[i] = nodes.get(random.nextInt(nodes.size()));
+			this.toNodes[i] = nodes.get(random.nextInt(nodes.size()));
+			this.departureTimes[i] = 6 * 3600 + random.nextInt(12 * 3600);
+		}
+
+		FreespeedTravelTimeAndDisutility travelCosts = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+		this.alt = new SpeedyALTFactory().createPathCalculator(network, travelCosts, travelCosts);
+		this.cch = new SpeedyCCHFactory().createPathCalculator(network, travelCosts, travelCosts);
+		// triggers the customization
+		this.cch.calcLeastCostPath(this.fromNodes[0], this.toNodes[0], this.departureTimes[0], null, null);
+	}
+
+	private static void addLinks(Network network, Node a, Node b, Random random) {
+		double length = 150 + random.nextInt(200);
+		double freespeed = 5 + random.nextInt(25);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(a.getId() + "-" + b.getId()), a, b, length, freespeed, 1000, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(b.getId() + "-" + a.getId()), b, a, length, freespeed, 1000, 1);
+	}
+
+	@Benchmark
+	public void speedyALT(Blackhole bh) {
+		route(this.alt, bh);
+	}
+
+	@Benchmark
+	public void speedyCCH(Blackhole bh) {
+		route(this.cch, bh);
+	}
+
+	private void route(LeastCostPathCalculator router, Blackhole bh) {
+		for (int i = 0; i < NUMBER_OF_QUERIES; i++) {
+			bh.consume(router.calcLeastCostPath(this.fromNodes[i], this.toNodes[i], this.departureTimes[i], null, null));
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(SpeedyCCHBenchmark.class.getSimpleName()).build()).run();
+	}
+}
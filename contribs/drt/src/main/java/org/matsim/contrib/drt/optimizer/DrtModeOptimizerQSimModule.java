@@ -102,7 +102,26 @@ public class DrtModeOptimizerQSimModule extends AbstractDvrpModeQSimModule {
 						getter.getModal(VehicleEntry.EntryFactory.class), getter.getModal(DrtInsertionSearch.class),
 						getter.getModal(DrtRequestInsertionRetryQueue.class), getter.getModal(DrtOfferAcceptor.class),
 						getter.getModal(QSimScopeForkJoinPoolHolder.class).getPool(),
-						getter.getModal(PassengerStopDurationProvider.class)))).asEagerSingleton();
+						getter.getModal(PassengerStopDurationProvider.class),
+						drtCfg.numberOfConcurrentInsertionSearches > 1 ?
+								getter.getModal(ConcurrentInsertionSearches.class) :
+								null,
+						drtCfg.useVehicleEntryIndex ? getter.getModal(VehicleEntryIndex.class) : null)))
+				.asEagerSingleton();
+
+		if (drtCfg.useVehicleEntryIndex) {
+			bindModal(VehicleEntryIndex.class).toProvider(modalProvider(getter -> {
+				Network network = getter.getModal(Network.class);
+				// with soft constraints, requests may be picked up after their latest start time
+				double maxSpeed = drtCfg.addOrGetDrtOptimizationConstraintsParams()
+						.addOrGetDefaultDrtOptimizationConstraintsSet().rejectRequestIfMaxWaitOrTravelTimeViolated ?
+						VehicleEntryIndex.getMaxFreespeed(network) :
+						Double.POSITIVE_INFINITY;
+				return new VehicleEntryIndex(getter.getModal(Fleet.class),
+						getter.getModal(VehicleEntry.EntryFactory.class),
+						getter.getModal(QSimScopeForkJoinPoolHolder.class).getPool(), network, maxSpeed);
+			})).asEagerSingleton();
+		}
 
 		bindModal(InsertionCostCalculator.class).toProvider(modalProvider(
 				getter -> new DefaultInsertionCostCalculator(getter.getModal(CostCalculationStrategy.class),
@@ -63,6 +63,16 @@ public class VehicleEntry {
 		this.createTime = that.createTime;
 	}
 
+	VehicleEntry(VehicleEntry that, double createTime) {
+		this.vehicle = that.vehicle;
+		this.start = that.start;
+		this.stops = that.stops;
+		this.end = that.end;
+		this.slackTimes = that.slackTimes;
+		this.precedingStayTimes = that.precedingStayTimes;
+		this.createTime = createTime;
+	}
+
 	public Waypoint getWaypoint(int index) {
 		return index == 0 ? start : (index == stops.size() + 1 ? end : stops.get(index - 1));
 	}
@@ -0,0 +1,232 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.contrib.drt.optimizer;
+
+import static org.matsim.contrib.drt.schedule.DrtTaskBaseType.STOP;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.contrib.drt.passenger.DrtRequest;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
+import org.matsim.contrib.dvrp.fleet.Fleet;
+import org.matsim.contrib.dvrp.schedule.Schedule;
+import org.matsim.contrib.dvrp.schedule.Schedule.ScheduleStatus;
+import org.matsim.contrib.dvrp.schedule.Task;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.utils.collections.QuadTree;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Keeps the {@link VehicleEntry}s of the fleet between time steps. An entry is recreated only if the schedule of the
+ * vehicle may have changed since the entry was created (different current task, end time of the current task, number
+ * of tasks or timing of the last task; or a modification reported via {@link #updateEntry}), or if the entry depends
+ * on the current time (e.g. the vehicle is idle or driving and can be diverted). Only entries created by
+ * {@link VehicleDataEntryFactoryImpl} are reused; other factories may depend on additional state (e.g. battery or
+ * shifts), so their entries are recreated at every update. Since the entries of idle and driving vehicles depend on
+ * the current time, only vehicles serving a stop or with a planned schedule benefit from the reuse.
+ * <p>
+ * Changes to a schedule that the stamp does not capture, such as removing a pickup or dropoff from an existing stop
+ * (as done by the request unschedulers of prebooking), must be reported via {@link #updateEntry}. Therefore, the
+ * index is not used with prebooking (see {@link org.matsim.contrib.drt.run.DrtConfigGroup#useVehicleEntryIndex}).
+ * <p>
+ * The waypoints (start and stops) of all entries are also indexed spatially. If {@code maxSpeed} is finite, only
+ * vehicles with a waypoint from which the pickup link of a request can be reached before the request's latest start
+ * time (assuming beeline distance and {@code maxSpeed}) are returned as candidates for insertion. This bound is only
+ * valid if no route is shorter than the beeline distance between its end nodes; with links shorter than the distance
+ * between their nodes, vehicles that could reach the pickup in time may be missed.
+ */
+public final class VehicleEntryIndex {
+	private record ScheduleStamp(ScheduleStatus status, Task currentTask, double currentTaskEndTime, int taskCount,
+								 double lastTaskBeginTime, double lastTaskEndTime) {
+		private static ScheduleStamp of(Schedule schedule) {
+			var status = schedule.getStatus();
+			var currentTask = status == ScheduleStatus.STARTED ? schedule.getCurrentTask() : null;
+			int taskCount = schedule.getTaskCount();
+			var lastTask = taskCount > 0 ? schedule.getTasks().get(taskCount - 1) : null;
+			return new ScheduleStamp(status, currentTask, currentTask != null ? currentTask.getEndTime() : Double.NaN,
+					taskCount, lastTask != null ? lastTask.getBeginTime() : Double.NaN,
+					lastTask != null ? lastTask.getEndTime() : Double.NaN);
+		}
+	}
+
+	private record CachedEntry(VehicleEntry entry, ScheduleStamp stamp) {
+	}
+
+	private final Fleet fleet;
+	private final VehicleEntry.EntryFactory entryFactory;
+	private final boolean reuseEntries;
+	private final ForkJoinPool forkJoinPool;
+	private final double maxSpeed;
+
+	private final Map<Id<DvrpVehicle>, CachedEntry> cachedEntries = new ConcurrentHashMap<>();
+	private final Map<Id<DvrpVehicle>, VehicleEntry> entries = new HashMap<>();
+	private final QuadTree<DvrpVehicle> waypointTree;
+
+	public VehicleEntryIndex(Fleet fleet, VehicleEntry.EntryFactory entryFactory, ForkJoinPool forkJoinPool,
+			Network network, double maxSpeed) {
+		this.fleet = fleet;
+		this.entryFactory = entryFactory;
+		this.reuseEntries = entryFactory.getClass() == VehicleDataEntryFactoryImpl.class;
+		this.forkJoinPool = forkJoinPool;
+		this.maxSpeed = maxSpeed;
+
+		double[] bounds = NetworkUtils.getBoundingBox(network.getNodes().values());
+		waypointTree = new QuadTree<>(bounds[0], bounds[1], bounds[2], bounds[3]);
+	}
+
+	/**
+	 * @return the maximum free speed of all links in the network
+	 */
+	public static double getMaxFreespeed(Network network) {
+		return network.getLinks().values().stream().mapToDouble(Link::getFreespeed).max().orElse(0);
+	}
+
+	/**
+	 * Brings the entries of all vehicles up to date. The returned map is owned by this index and must not be modified
+	 * directly; use {@link #updateEntry} instead.
+	 */
+	public Map<Id<DvrpVehicle>, VehicleEntry> updateEntries(double now) {
+		List<VehicleEntry> updatedEntries = forkJoinPool.submit(() -> fleet.getVehicles()
+				.values()
+				.parallelStream()
+				.map(v -> getOrCreateEntry(v, now))
+				.filter(Objects::nonNull)
+				.toList()).join();
+
+		entries.clear();
+		waypointTree.clear();
+		for (VehicleEntry entry : updatedEntries) {
+			entries.put(entry.vehicle.getId(), entry);
+			addWaypoints(entry);
+		}
+		return entries;
+	}
+
+	/**
+	 * Recreates the entry of a vehicle whose schedule has just been modified (e.g. by inserting a request).
+	 */
+	public void updateEntry(DvrpVehicle vehicle, double now) {
+		VehicleEntry entry = createEntry(vehicle, now);
+		VehicleEntry previousEntry = entry != null ?
+				entries.put(vehicle.getId(), entry) :
+				entries.remove(vehicle.getId());
+		if (previousEntry != null) {
+			removeWaypoints(previousEntry);
+		}
+		if (entry != null) {
+			addWaypoints(entry);
+		}
+	}
+
+	/**
+	 * @return entries of vehicles that may be able to pick up the request before its latest start time
+	 */
+	public Collection<VehicleEntry> getCandidateEntries(DrtRequest request, double now) {
+		double maxDistance = (request.getLatestStartTime() - now) * maxSpeed;
+		if (!(maxDistance < Double.POSITIVE_INFINITY)) {
+			return Collections.unmodifiableCollection(entries.values());
+		}
+
+		Coord coord = request.getFromLink().getToNode().getCoord();
+		Set<DvrpVehicle> vehicles = Sets.newIdentityHashSet();
+		vehicles.addAll(waypointTree.getDisk(coord.getX(), coord.getY(), Math.max(maxDistance, 0)));
+
+		// iterate over entries to keep the (deterministic) order of the map
+		List<VehicleEntry> candidates = new ArrayList<>(vehicles.size());
+		for (VehicleEntry entry : entries.values()) {
+			if (vehicles.contains(entry.vehicle)) {
+				candidates.add(entry);
+			}
+		}
+		return candidates;
+	}
+
+	private VehicleEntry getOrCreateEntry(DvrpVehicle vehicle, double now) {
+		CachedEntry cached = cachedEntries.get(vehicle.getId());
+		Schedule schedule = vehicle.getSchedule();
+		if (cached != null && cached.stamp.equals(ScheduleStamp.of(schedule)) && !dependsOnTime(schedule, now)) {
+			return new VehicleEntry(cached.entry, now);
+		}
+		return createEntry(vehicle, now);
+	}
+
+	private VehicleEntry createEntry(DvrpVehicle vehicle, double now) {
+		VehicleEntry entry = entryFactory.create(vehicle, now);
+		if (reuseEntries && entry != null) {
+			cachedEntries.put(vehicle.getId(), new CachedEntry(entry, ScheduleStamp.of(vehicle.getSchedule())));
+		} else {
+			cachedEntries.remove(vehicle.getId());
+		}
+		return entry;
+	}
+
+	// see VehicleDataEntryFactoryImpl: the start of idle or divertible vehicles, and the slack time of vehicles
+	// that have already started their last task, change with time
+	private static boolean dependsOnTime(Schedule schedule, double now) {
+		return switch (schedule.getStatus()) {
+			case PLANNED -> lastTaskBeginTime(schedule) < now;
+			case STARTED -> !STOP.isBaseTypeOf(schedule.getCurrentTask()) || lastTaskBeginTime(schedule) < now;
+			default -> true;
+		};
+	}
+
+	private static double lastTaskBeginTime(Schedule schedule) {
+		return schedule.getTasks().get(schedule.getTaskCount() - 1).getBeginTime();
+	}
+
+	private void addWaypoints(VehicleEntry entry) {
+		addWaypoint(entry.start.getLink(), entry.vehicle);
+		for (Waypoint.Stop stop : entry.stops) {
+			addWaypoint(stop.getLink(), entry.vehicle);
+		}
+	}
+
+	private void addWaypoint(Link link, DvrpVehicle vehicle) {
+		// vehicles leave a waypoint at the end of its link
+		Coord coord = link.getToNode().getCoord();
+		waypointTree.put(coord.getX(), coord.getY(), vehicle);
+	}
+
+	// the tree holds each vehicle at most once per coordinate, so waypoints at the same coordinate are removed only once
+	private void removeWaypoints(VehicleEntry entry) {
+		removeWaypoint(entry.start.getLink(), entry.vehicle);
+		for (Waypoint.Stop stop : entry.stops) {
+			removeWaypoint(stop.getLink(), entry.vehicle);
+		}
+	}
+
+	private void removeWaypoint(Link link, DvrpVehicle vehicle) {
+		Coord coord = link.getToNode().getCoord();
+		waypointTree.remove(coord.getX(), coord.getY(), vehicle);
+	}
+}
@@ -0,0 +1,54 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.contrib.drt.optimizer.insertion;
+
+import java.util.List;
+
+import org.matsim.core.mobsim.framework.events.MobsimBeforeCleanupEvent;
+import org.matsim.core.mobsim.framework.listeners.MobsimBeforeCleanupListener;
+
+/**
+ * Independent instances of the insertion search of a mode, used by {@link DefaultUnplannedRequestInserter} to search
+ * the insertions of several requests concurrently. Each instance is used by one thread at a time.
+ *
+ * @see org.matsim.contrib.drt.run.DrtConfigGroup#numberOfConcurrentInsertionSearches
+ */
+public final class ConcurrentInsertionSearches implements MobsimBeforeCleanupListener {
+	private final List<DrtInsertionSearch> searches;
+	private final List<? extends MobsimBeforeCleanupListener> cleanupListeners;
+
+	/**
+	 * @param cleanupListeners components of the searches that need to be notified at the end of the mobsim, e.g. to
+	 *                         shut down their executors
+	 */
+	public ConcurrentInsertionSearches(List<DrtInsertionSearch> searches,
+			List<? extends MobsimBeforeCleanupListener> cleanupListeners) {
+		this.searches = List.copyOf(searches);
+		this.cleanupListeners = List.copyOf(cleanupListeners);
+	}
+
+	public List<DrtInsertionSearch> getSearches() {
+		return searches;
+	}
+
+	@Override
+	public void notifyMobsimBeforeCleanup(@SuppressWarnings("rawtypes") MobsimBeforeCleanupEvent e) {
+		cleanupListeners.forEach(listener -> listener.notifyMobsimBeforeCleanup(e));
+	}
+}
@@ -19,21 +19,30 @@
 
 package org.matsim.contrib.drt.optimizer.insertion;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.function.DoubleSupplier;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.Id;
 import org.matsim.contrib.drt.optimizer.DrtRequestInsertionRetryQueue;
 import org.matsim.contrib.drt.optimizer.VehicleEntry;
+import org.matsim.contrib.drt.optimizer.VehicleEntryIndex;
 import org.matsim.contrib.drt.passenger.DrtOfferAcceptor;
 import org.matsim.contrib.drt.passenger.DrtRequest;
 import org.matsim.contrib.drt.run.DrtConfigGroup;
@@ -49,6 +58,19 @@ import org.matsim.core.mobsim.framework.MobsimTimer;
 import com.google.common.annotations.VisibleForTesting;
 
 /**
+ * Schedules the unplanned requests one after another, each at the best insertion found by the {@link DrtInsertionSearch}.
+ * <p>
+ * If {@link ConcurrentInsertionSearches} are provided and there is more than one request, the best insertions of all
+ * requests are first searched concurrently against the vehicle entries at the beginning of the time step. The requests
+ * are then scheduled in the same order as before. A request whose best insertion uses a vehicle that has already
+ * been modified by an earlier request is searched again against the updated vehicle entries. Insertions into other
+ * vehicles are still valid and are scheduled as found. In contrast to scheduling strictly one after another, a
+ * request may therefore miss a better insertion into a vehicle modified earlier in the same time step; as each
+ * request adds stops to its vehicle, this is rare.
+ * <p>
+ * If a {@link VehicleEntryIndex} is provided, it maintains the vehicle entries between time steps and restricts the
+ * insertion search to vehicles that may reach the pickup location of a request in time.
+ *
  * @author michalm
  */
 public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter {
@@ -67,14 +89,30 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 	private final DrtOfferAcceptor drtOfferAcceptor;
 	private final ForkJoinPool forkJoinPool;
 	private final PassengerStopDurationProvider stopDurationProvider;
+	private final List<DrtInsertionSearch> concurrentInsertionSearches;
+	@Nullable
+	private final VehicleEntryIndex vehicleEntryIndex;
 
 	public DefaultUnplannedRequestInserter(DrtConfigGroup drtCfg, Fleet fleet, MobsimTimer mobsimTimer,
 			EventsManager eventsManager, RequestInsertionScheduler insertionScheduler,
 			VehicleEntry.EntryFactory vehicleEntryFactory, DrtInsertionSearch insertionSearch,
 			DrtRequestInsertionRetryQueue insertionRetryQueue, DrtOfferAcceptor drtOfferAcceptor,
 			ForkJoinPool forkJoinPool, PassengerStopDurationProvider stopDurationProvider) {
+		this(drtCfg, fleet, mobsimTimer, eventsManager, insertionScheduler, vehicleEntryFactory, insertionSearch,
+				insertionRetryQueue, drtOfferAcceptor, forkJoinPool, stopDurationProvider, null, null);
+	}
+
+	public DefaultUnplannedRequestInserter(DrtConfigGroup drtCfg, Fleet fleet, MobsimTimer mobsimTimer,
+			EventsManager eventsManager, RequestInsertionScheduler insertionScheduler,
+			VehicleEntry.EntryFactory vehicleEntryFactory, DrtInsertionSearch insertionSearch,
+			DrtRequestInsertionRetryQueue insertionRetryQueue, DrtOfferAcceptor drtOfferAcceptor,
+			ForkJoinPool forkJoinPool, PassengerStopDurationProvider stopDurationProvider,
+			@Nullable ConcurrentInsertionSearches concurrentInsertionSearches,
+			@Nullable VehicleEntryIndex vehicleEntryIndex) {
 		this(drtCfg.getMode(), fleet, mobsimTimer::getTimeOfDay, eventsManager, insertionScheduler, vehicleEntryFactory,
-				insertionRetryQueue, insertionSearch, drtOfferAcceptor, forkJoinPool, stopDurationProvider);
+				insertionRetryQueue, insertionSearch, drtOfferAcceptor, forkJoinPool, stopDurationProvider,
+				concurrentInsertionSearches == null ? List.of() : concurrentInsertionSearches.getSearches(),
+				vehicleEntryIndex);
 	}
 
 	@VisibleForTesting
@@ -82,6 +120,16 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 			RequestInsertionScheduler insertionScheduler, VehicleEntry.EntryFactory vehicleEntryFactory,
 			DrtRequestInsertionRetryQueue insertionRetryQueue, DrtInsertionSearch insertionSearch,
 			DrtOfferAcceptor drtOfferAcceptor, ForkJoinPool forkJoinPool, PassengerStopDurationProvider stopDurationProvider) {
+		this(mode, fleet, timeOfDay, eventsManager, insertionScheduler, vehicleEntryFactory, insertionRetryQueue,
+				insertionSearch, drtOfferAcceptor, forkJoinPool, stopDurationProvider, List.of(), null);
+	}
+
+	@VisibleForTesting
+	DefaultUnplannedRequestInserter(String mode, Fleet fleet, DoubleSupplier timeOfDay, EventsManager eventsManager,
+			RequestInsertionScheduler insertionScheduler, VehicleEntry.EntryFactory vehicleEntryFactory,
+			DrtRequestInsertionRetryQueue insertionRetryQueue, DrtInsertionSearch insertionSearch,
+			DrtOfferAcceptor drtOfferAcceptor, ForkJoinPool forkJoinPool, PassengerStopDurationProvider stopDurationProvider,
+			List<DrtInsertionSearch> concurrentInsertionSearches, @Nullable VehicleEntryIndex vehicleEntryIndex) {
 		this.mode = mode;
 		this.fleet = fleet;
 		this.timeOfDay = timeOfDay;
@@ -93,6 +141,8 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 		this.drtOfferAcceptor = drtOfferAcceptor;
 		this.forkJoinPool = forkJoinPool;
 		this.stopDurationProvider = stopDurationProvider;
+		this.concurrentInsertionSearches = concurrentInsertionSearches;
+		this.vehicleEntryIndex = vehicleEntryIndex;
 	}
 
 	@Override
@@ -104,12 +154,23 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 			return;
 		}
 
-		var vehicleEntries = forkJoinPool.submit(() -> fleet.getVehicles()
-				.values()
-				.parallelStream()
-				.map(v -> vehicleEntryFactory.create(v, now))
-				.filter(Objects::nonNull)
-				.collect(Collectors.toMap(e -> e.vehicle.getId(), e -> e))).join();
+		var vehicleEntries = vehicleEntryIndex != null ?
+				vehicleEntryIndex.updateEntries(now) :
+				forkJoinPool.submit(() -> fleet.getVehicles()
+						.values()
+						.parallelStream()
+						.map(v -> vehicleEntryFactory.create(v, now))
+						.filter(Objects::nonNull)
+						.collect(Collectors.toMap(e -> e.vehicle.getId(), e -> e))).join();
+
+		if (concurrentInsertionSearches.size() > 1 && requestsToRetry.size() + unplannedRequests.size() > 1) {
+			//first old requests, then new requests
+			List<DrtRequest> requests = new ArrayList<>(requestsToRetry);
+			requests.addAll(unplannedRequests);
+			unplannedRequests.clear();
+			scheduleUnplannedRequestsConcurrently(requests, vehicleEntries, now);
+			return;
+		}
 
 		//first retry scheduling old requests
 		requestsToRetry.forEach(req -> scheduleUnplannedRequest(req, vehicleEntries, now));
@@ -121,12 +182,89 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 		}
 	}
 
+	private void scheduleUnplannedRequestsConcurrently(List<DrtRequest> requests,
+			Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries, double now) {
+		List<Optional<InsertionWithDetourData>> bestInsertions = findBestInsertionsConcurrently(requests,
+				vehicleEntries, now);
+
+		Set<Id<DvrpVehicle>> modifiedVehicles = new HashSet<>();
+		for (int i = 0; i < requests.size(); i++) {
+			DrtRequest req = requests.get(i);
+			Optional<InsertionWithDetourData> best = bestInsertions.get(i);
+			if (best.isPresent() && modifiedVehicles.contains(best.get().insertion.vehicleEntry.vehicle.getId())) {
+				// the insertion is based on an outdated schedule of the vehicle
+				best = insertionSearch.findBestInsertion(req, getCandidateEntries(req, vehicleEntries, now));
+			}
+			DvrpVehicle vehicle = scheduleUnplannedRequest(req, best, vehicleEntries, now);
+			if (vehicle != null) {
+				modifiedVehicles.add(vehicle.getId());
+			}
+		}
+	}
+
+	private List<Optional<InsertionWithDetourData>> findBestInsertionsConcurrently(List<DrtRequest> requests,
+			Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries, double now) {
+		@SuppressWarnings("unchecked")
+		Optional<InsertionWithDetourData>[] bestInsertions = new Optional[requests.size()];
+		int searchCount = concurrentInsertionSearches.size();
+		List<Callable<Void>> tasks = new ArrayList<>(searchCount);
+		for (int s = 0; s < searchCount; s++) {
+			int firstRequest = s;
+			DrtInsertionSearch search = concurrentInsertionSearches.get(s);
+			tasks.add(() -> {
+				// interleaved, as the requests in the retry queue and the new requests may differ in their search effort
+				for (int i = firstRequest; i < bestInsertions.length; i += searchCount) {
+					DrtRequest req = requests.get(i);
+					bestInsertions[i] = search.findBestInsertion(req, getCandidateEntries(req, vehicleEntries, now));
+					bestInsertions[i].ifPresent(DefaultUnplannedRequestInserter::createDetourPaths);
+				}
+				return null;
+			});
+		}
+		try {
+			for (Future<Void> future : forkJoinPool.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		}
+		return List.of(bestInsertions);
+	}
+
+	/**
+	 * Paths may be created lazily from the state of the path search, which is overwritten by the search for the next
+	 * request. So the paths of an insertion found concurrently are created before the search continues.
+	 */
+	private static void createDetourPaths(InsertionWithDetourData insertion) {
+		var detourData = insertion.detourData;
+		detourData.detourToPickup.getPath();
+		detourData.detourFromPickup.getPath();
+		detourData.detourToDropoff.getPath();
+		detourData.detourFromDropoff.getPath();
+	}
+
 	private void scheduleUnplannedRequest(DrtRequest req, Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries,
 			double now) {
 		Optional<InsertionWithDetourData> best = insertionSearch.findBestInsertion(req,
-				Collections.unmodifiableCollection(vehicleEntries.values()));
+				getCandidateEntries(req, vehicleEntries, now));
+		scheduleUnplannedRequest(req, best, vehicleEntries, now);
+	}
+
+	private Collection<VehicleEntry> getCandidateEntries(DrtRequest req,
+			Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries, double now) {
+		return vehicleEntryIndex != null ?
+				vehicleEntryIndex.getCandidateEntries(req, now) :
+				Collections.unmodifiableCollection(vehicleEntries.values());
+	}
+
+	/**
+	 * @return the vehicle the request was inserted into, or <code>null</code> if it was not scheduled
+	 */
+	private DvrpVehicle scheduleUnplannedRequest(DrtRequest req, Optional<InsertionWithDetourData> best,
+			Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries, double now) {
 		if (best.isEmpty()) {
 			retryOrReject(req, now, NO_INSERTION_FOUND_CAUSE);
+			return null;
 		} else {
 			InsertionWithDetourData insertion = best.get();
 
@@ -139,11 +277,15 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 				var vehicle = insertion.insertion.vehicleEntry.vehicle;
 				var pickupDropoffTaskPair = insertionScheduler.scheduleRequest(acceptedRequest.get(), insertion);
 
-				VehicleEntry newVehicleEntry = vehicleEntryFactory.create(vehicle, now);
-				if (newVehicleEntry != null) {
-					vehicleEntries.put(vehicle.getId(), newVehicleEntry);
+				if (vehicleEntryIndex != null) {
+					vehicleEntryIndex.updateEntry(vehicle, now);
 				} else {
-					vehicleEntries.remove(vehicle.getId());
+					VehicleEntry newVehicleEntry = vehicleEntryFactory.create(vehicle, now);
+					if (newVehicleEntry != null) {
+						vehicleEntries.put(vehicle.getId(), newVehicleEntry);
+					} else {
+						vehicleEntries.remove(vehicle.getId());
+					}
 				}
 
 				double expectedPickupTime = pickupDropoffTaskPair.pickupTask.getBeginTime();
@@ -156,8 +298,10 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 				eventsManager.processEvent(
 						new PassengerRequestScheduledEvent(now, mode, req.getId(), req.getPassengerIds(), vehicle.getId(),
 								expectedPickupTime, expectedDropoffTime));
+				return vehicle;
 			} else {
 				retryOrReject(req, now, OFFER_REJECTED_CAUSE);
+				return null;
 			}
 		}
 	}
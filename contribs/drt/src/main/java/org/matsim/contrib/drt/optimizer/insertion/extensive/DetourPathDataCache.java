@@ -21,6 +21,7 @@
 package org.matsim.contrib.drt.optimizer.insertion.extensive;
 
 import java.util.Map;
+import java.util.function.Function;
 
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.contrib.drt.optimizer.Waypoint;
@@ -33,14 +34,20 @@ import org.matsim.contrib.dvrp.path.OneToManyPathSearch.PathData;
  * Typically, all path data of a given type (i.e. to/from pickup/delivery) are precomputed in one go and then cached.
  */
 public final class DetourPathDataCache {
-	private final Map<Link, PathData> detourToPickup;
-	private final Map<Link, PathData> detourFromPickup;
-	private final Map<Link, PathData> detourToDropoff;
-	private final Map<Link, PathData> detourFromDropoff;
+	private final Function<Link, PathData> detourToPickup;
+	private final Function<Link, PathData> detourFromPickup;
+	private final Function<Link, PathData> detourToDropoff;
+	private final Function<Link, PathData> detourFromDropoff;
 	private final PathData zeroDetour;
 
 	public DetourPathDataCache(Map<Link, PathData> detourToPickup, Map<Link, PathData> detourFromPickup,
 			Map<Link, PathData> detourToDropoff, Map<Link, PathData> detourFromDropoff, PathData zeroDetour) {
+		this(detourToPickup::get, detourFromPickup::get, detourToDropoff::get, detourFromDropoff::get, zeroDetour);
+	}
+
+	DetourPathDataCache(Function<Link, PathData> detourToPickup, Function<Link, PathData> detourFromPickup,
+			Function<Link, PathData> detourToDropoff, Function<Link, PathData> detourFromDropoff,
+			PathData zeroDetour) {
 		this.detourToPickup = detourToPickup;
 		this.detourFromPickup = detourFromPickup;
 		this.detourToDropoff = detourToDropoff;
@@ -49,14 +56,14 @@ public final class DetourPathDataCache {
 	}
 
 	public InsertionDetourData createInsertionDetourData(Insertion insertion) {
-		PathData toPickup = detourToPickup.get(insertion.pickup.previousWaypoint.getLink());
-		PathData fromPickup = detourFromPickup.get(insertion.pickup.nextWaypoint.getLink());
+		PathData toPickup = detourToPickup.apply(insertion.pickup.previousWaypoint.getLink());
+		PathData fromPickup = detourFromPickup.apply(insertion.pickup.nextWaypoint.getLink());
 		PathData toDropoff = insertion.dropoff.previousWaypoint instanceof Waypoint.Pickup ?
 				null :
-				detourToDropoff.get(insertion.dropoff.previousWaypoint.getLink());
+				detourToDropoff.apply(insertion.dropoff.previousWaypoint.getLink());
 		PathData fromDropoff = insertion.dropoff.nextWaypoint instanceof Waypoint.End ?
 				zeroDetour :
-				detourFromDropoff.get(insertion.dropoff.nextWaypoint.getLink());
+				detourFromDropoff.apply(insertion.dropoff.nextWaypoint.getLink());
 		return new InsertionDetourData(toPickup, fromPickup, toDropoff, fromDropoff);
 	}
 }
@@ -20,21 +20,29 @@
 
 package org.matsim.contrib.drt.optimizer.insertion.extensive;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.contrib.drt.optimizer.QSimScopeForkJoinPoolHolder;
+import org.matsim.contrib.drt.optimizer.insertion.ConcurrentInsertionSearches;
 import org.matsim.contrib.drt.optimizer.insertion.DetourTimeEstimator;
 import org.matsim.contrib.drt.optimizer.insertion.DrtInsertionSearch;
 import org.matsim.contrib.drt.optimizer.insertion.InsertionCostCalculator;
 import org.matsim.contrib.drt.run.DrtConfigGroup;
 import org.matsim.contrib.drt.stops.StopTimeCalculator;
 import org.matsim.contrib.dvrp.run.AbstractDvrpModeQSimModule;
+import org.matsim.contrib.dvrp.run.DvrpMode;
 import org.matsim.contrib.dvrp.run.DvrpModes;
 import org.matsim.contrib.zone.skims.TravelTimeMatrix;
+import org.matsim.core.mobsim.framework.MobsimTimer;
 import org.matsim.core.modal.ModalProviders;
 import org.matsim.core.router.costcalculators.TravelDisutilityFactory;
 import org.matsim.core.router.util.TravelDisutility;
 import org.matsim.core.router.util.TravelTime;
 
+import com.google.inject.Inject;
+
 /**
  * @author Michal Maciejewski (michalm)
  */
@@ -56,25 +64,52 @@ public class ExtensiveInsertionSearchQSimModule extends AbstractDvrpModeQSimModu
 			return admissibleTimeEstimator;
 		}));
 		
-		bindModal(DrtInsertionSearch.class).toProvider(modalProvider(getter -> {
-			var insertionCostCalculator = getter.getModal(InsertionCostCalculator.class);
-			var provider = ExtensiveInsertionProvider.create(drtCfg, insertionCostCalculator,
-					getter.getModal(QSimScopeForkJoinPoolHolder.class).getPool(),
-					getter.getModal(StopTimeCalculator.class), getter.getModal(DetourTimeEstimator.class));
-			return new ExtensiveInsertionSearch(provider, getter.getModal(MultiInsertionDetourPathCalculator.class),
-					insertionCostCalculator, getter.getModal(StopTimeCalculator.class));
-		})).asEagerSingleton();
+		bindModal(DrtInsertionSearch.class).toProvider(modalProvider(
+				getter -> createSearch(getter, getter.getModal(MultiInsertionDetourPathCalculator.class))))
+				.asEagerSingleton();
+
+		if (drtCfg.numberOfConcurrentInsertionSearches > 1) {
+			// each search needs its own path searches; the searches already run on the threads of the QSim-scope
+			// fork-join pool, so each of them computes its paths on its own thread
+			addModalComponent(ConcurrentInsertionSearches.class, modalProvider(getter -> {
+				List<DrtInsertionSearch> searches = new ArrayList<>();
+				List<MultiInsertionDetourPathCalculator> detourPathCalculators = new ArrayList<>();
+				for (int i = 0; i < drtCfg.numberOfConcurrentInsertionSearches; i++) {
+					var travelTime = getter.getModal(TravelTime.class);
+					var detourPathCalculator = new MultiInsertionDetourPathCalculator(getter.getModal(Network.class),
+							travelTime, getter.getModal(TravelDisutilityFactory.class).createTravelDisutility(travelTime),
+							1, getter.get(MobsimTimer.class)::getTimeOfDay);
+					detourPathCalculators.add(detourPathCalculator);
+					searches.add(createSearch(getter, detourPathCalculator));
+				}
+				return new ConcurrentInsertionSearches(searches, detourPathCalculators);
+			}));
+		}
 
 		addModalComponent(MultiInsertionDetourPathCalculator.class,
 				new ModalProviders.AbstractProvider<>(getMode(), DvrpModes::mode) {
+					@Inject
+					private MobsimTimer timer;
+
 					@Override
 					public MultiInsertionDetourPathCalculator get() {
 						var travelTime = getModalInstance(TravelTime.class);
 						Network network = getModalInstance(Network.class);
 						TravelDisutility travelDisutility = getModalInstance(
 								TravelDisutilityFactory.class).createTravelDisutility(travelTime);
-						return new MultiInsertionDetourPathCalculator(network, travelTime, travelDisutility, drtCfg);
+						return new MultiInsertionDetourPathCalculator(network, travelTime, travelDisutility, drtCfg,
+								timer::getTimeOfDay);
 					}
 				});
 	}
+
+	private ExtensiveInsertionSearch createSearch(ModalProviders.InstanceGetter<DvrpMode> getter,
+			MultiInsertionDetourPathCalculator detourPathCalculator) {
+		var insertionCostCalculator = getter.getModal(InsertionCostCalculator.class);
+		var provider = ExtensiveInsertionProvider.create(drtCfg, insertionCostCalculator,
+				getter.getModal(QSimScopeForkJoinPoolHolder.class).getPool(),
+				getter.getModal(StopTimeCalculator.class), getter.getModal(DetourTimeEstimator.class));
+		return new ExtensiveInsertionSearch(provider, detourPathCalculator, insertionCostCalculator,
+				getter.getModal(StopTimeCalculator.class));
+	}
 }
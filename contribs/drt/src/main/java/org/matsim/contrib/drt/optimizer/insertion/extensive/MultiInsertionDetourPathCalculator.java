@@ -22,15 +22,19 @@ package org.matsim.contrib.drt.optimizer.insertion.extensive;
 
 import static org.matsim.contrib.drt.optimizer.insertion.InsertionGenerator.Insertion;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.DoubleSupplier;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
+
+import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.IdMap;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
@@ -50,48 +54,89 @@ import org.matsim.core.router.util.TravelTime;
 import com.google.common.annotations.VisibleForTesting;
 
 /**
+ * Computes the detours to/from pickup and to/from dropoff with four one-to-many searches, each terminated once all
+ * its detour links are reached. The results are kept in arrays indexed by link index, so the returned
+ * {@link DetourPathDataCache} is valid only until the next call to {@link #calculatePaths}.
+ * <p>
+ * If a search starts at the same link and time, and in the same time step, as the previous one, and all its detour
+ * links have already been reached by the previous one, the previous results are reused (e.g. for several requests
+ * submitted at the same stop).
+ * <p>
+ * The four searches run on a thread pool of up to {@link #MAX_THREADS} threads, or on the calling thread if only one
+ * thread is used (e.g. if several calculators are used concurrently).
+ *
  * @author michalm
  */
 class MultiInsertionDetourPathCalculator implements MobsimBeforeCleanupListener {
 	public static final int MAX_THREADS = 4;
 
-	private final OneToManyPathSearch toPickupPathSearch;
-	private final OneToManyPathSearch fromPickupPathSearch;
-	private final OneToManyPathSearch toDropoffPathSearch;
-	private final OneToManyPathSearch fromDropoffPathSearch;
+	private final DetourPathSearch toPickupPathSearch;
+	private final DetourPathSearch fromPickupPathSearch;
+	private final DetourPathSearch toDropoffPathSearch;
+	private final DetourPathSearch fromDropoffPathSearch;
 
+	private final DoubleSupplier timeOfDay;
+	@Nullable
 	private final ExecutorService executorService;
 
 	MultiInsertionDetourPathCalculator(Network network, TravelTime travelTime, TravelDisutility travelDisutility,
-			DrtConfigGroup drtCfg) {
+			DrtConfigGroup drtCfg, DoubleSupplier timeOfDay) {
+		this(network, travelTime, travelDisutility, drtCfg.numberOfThreads, timeOfDay);
+	}
+
+	MultiInsertionDetourPathCalculator(Network network, TravelTime travelTime, TravelDisutility travelDisutility,
+			int numberOfThreads, DoubleSupplier timeOfDay) {
 		SpeedyGraph graph = SpeedyGraphBuilder.build(network);
 		IdMap<Node, Node> nodeMap = new IdMap<>(Node.class);
 		nodeMap.putAll(network.getNodes());
 
-		toPickupPathSearch = OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true);
-		fromPickupPathSearch = OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true);
-		toDropoffPathSearch = OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true);
-		fromDropoffPathSearch = OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true);
-		executorService = Executors.newFixedThreadPool(Math.min(drtCfg.numberOfThreads, MAX_THREADS));
+		toPickupPathSearch = new DetourPathSearch(
+				OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true), false);
+		fromPickupPathSearch = new DetourPathSearch(
+				OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true), true);
+		toDropoffPathSearch = new DetourPathSearch(
+				OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true), false);
+		fromDropoffPathSearch = new DetourPathSearch(
+				OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true), true);
+		this.timeOfDay = timeOfDay;
+		executorService = createExecutorService(numberOfThreads);
 	}
 
 	@VisibleForTesting
 	MultiInsertionDetourPathCalculator(OneToManyPathSearch toPickupPathSearch, OneToManyPathSearch fromPickupPathSearch,
-			OneToManyPathSearch toDropoffPathSearch, OneToManyPathSearch fromDropoffPathSearch, int numberOfThreads) {
-		this.toPickupPathSearch = toPickupPathSearch;
-		this.fromPickupPathSearch = fromPickupPathSearch;
-		this.toDropoffPathSearch = toDropoffPathSearch;
-		this.fromDropoffPathSearch = fromDropoffPathSearch;
-		executorService = Executors.newFixedThreadPool(Math.min(numberOfThreads, MAX_THREADS));
+			OneToManyPathSearch toDropoffPathSearch, OneToManyPathSearch fromDropoffPathSearch, int numberOfThreads,
+			DoubleSupplier timeOfDay) {
+		this.toPickupPathSearch = new DetourPathSearch(toPickupPathSearch, false);
+		this.fromPickupPathSearch = new DetourPathSearch(fromPickupPathSearch, true);
+		this.toDropoffPathSearch = new DetourPathSearch(toDropoffPathSearch, false);
+		this.fromDropoffPathSearch = new DetourPathSearch(fromDropoffPathSearch, true);
+		this.timeOfDay = timeOfDay;
+		executorService = createExecutorService(numberOfThreads);
+	}
+
+	private static ExecutorService createExecutorService(int numberOfThreads) {
+		return numberOfThreads > 1 ? Executors.newFixedThreadPool(Math.min(numberOfThreads, MAX_THREADS)) : null;
 	}
 
 	DetourPathDataCache calculatePaths(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+		double now = timeOfDay.getAsDouble();
+
+		if (executorService == null) {
+			return new DetourPathDataCache(calcPathsToPickup(drtRequest, filteredInsertions, now),
+					calcPathsFromPickup(drtRequest, filteredInsertions, now),
+					calcPathsToDropoff(drtRequest, filteredInsertions, now),
+					calcPathsFromDropoff(drtRequest, filteredInsertions, now), PathData.EMPTY);
+		}
+
 		// with vehicle insertion filtering -- pathsToPickup is the most computationally demanding task, while
 		// pathsFromDropoff is the least demanding one
-		var pathsToPickupFuture = executorService.submit(() -> calcPathsToPickup(drtRequest, filteredInsertions));
-		var pathsFromPickupFuture = executorService.submit(() -> calcPathsFromPickup(drtRequest, filteredInsertions));
-		var pathsToDropoffFuture = executorService.submit(() -> calcPathsToDropoff(drtRequest, filteredInsertions));
-		var pathsFromDropoffFuture = executorService.submit(() -> calcPathsFromDropoff(drtRequest, filteredInsertions));
+		var pathsToPickupFuture = executorService.submit(() -> calcPathsToPickup(drtRequest, filteredInsertions, now));
+		var pathsFromPickupFuture = executorService.submit(
+				() -> calcPathsFromPickup(drtRequest, filteredInsertions, now));
+		var pathsToDropoffFuture = executorService.submit(
+				() -> calcPathsToDropoff(drtRequest, filteredInsertions, now));
+		var pathsFromDropoffFuture = executorService.submit(
+				() -> calcPathsFromDropoff(drtRequest, filteredInsertions, now));
 
 		try {
 			return new DetourPathDataCache(pathsToPickupFuture.get(), pathsFromPickupFuture.get(),
@@ -101,49 +146,126 @@ class MultiInsertionDetourPathCalculator implements MobsimBeforeCleanupListener
 		}
 	}
 
-	private Map<Link, PathData> calcPathsToPickup(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+	private Function<Link, PathData> calcPathsToPickup(DrtRequest drtRequest, List<Insertion> filteredInsertions,
+			double now) {
 		// calc backward dijkstra from pickup to ends of selected stops + starts
 		double earliestPickupTime = drtRequest.getEarliestStartTime(); // optimistic
-		Collection<Link> toLinks = getDetourLinks(filteredInsertions.stream(),
-				insertion -> insertion.pickup.previousWaypoint.getLink());
-		return toPickupPathSearch.calcPathDataMap(drtRequest.getFromLink(), toLinks, earliestPickupTime, false);
+		return toPickupPathSearch.calcPathData(drtRequest.getFromLink(),
+				filteredInsertions.stream().map(insertion -> insertion.pickup.previousWaypoint.getLink()),
+				earliestPickupTime, now);
 	}
 
-	private Map<Link, PathData> calcPathsFromPickup(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+	private Function<Link, PathData> calcPathsFromPickup(DrtRequest drtRequest, List<Insertion> filteredInsertions,
+			double now) {
 		// calc forward dijkstra from pickup to beginnings of selected stops + dropoff
 		double earliestPickupTime = drtRequest.getEarliestStartTime(); // optimistic
-		Collection<Link> toLinks = getDetourLinks(filteredInsertions.stream(),
-				insertion -> insertion.pickup.nextWaypoint.getLink());
-		return fromPickupPathSearch.calcPathDataMap(drtRequest.getFromLink(), toLinks, earliestPickupTime, true);
+		return fromPickupPathSearch.calcPathData(drtRequest.getFromLink(),
+				filteredInsertions.stream().map(insertion -> insertion.pickup.nextWaypoint.getLink()),
+				earliestPickupTime, now);
 	}
 
-	private Map<Link, PathData> calcPathsToDropoff(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+	private Function<Link, PathData> calcPathsToDropoff(DrtRequest drtRequest, List<Insertion> filteredInsertions,
+			double now) {
 		// calc backward dijkstra from dropoff to ends of selected stops
 		double latestDropoffTime = drtRequest.getLatestArrivalTime(); // pessimistic
-		Collection<Link> toLinks = getDetourLinks(filteredInsertions.stream()
-						.filter(insertion -> !(insertion.dropoff.previousWaypoint instanceof Waypoint.Pickup)),
-				insertion -> insertion.dropoff.previousWaypoint.getLink());
-		return toDropoffPathSearch.calcPathDataMap(drtRequest.getToLink(), toLinks, latestDropoffTime, false);
+		return toDropoffPathSearch.calcPathData(drtRequest.getToLink(), filteredInsertions.stream()
+						.filter(insertion -> !(insertion.dropoff.previousWaypoint instanceof Waypoint.Pickup))
+						.map(insertion -> insertion.dropoff.previousWaypoint.getLink()), latestDropoffTime, now);
 	}
 
-	private Map<Link, PathData> calcPathsFromDropoff(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+	private Function<Link, PathData> calcPathsFromDropoff(DrtRequest drtRequest, List<Insertion> filteredInsertions,
+			double now) {
 		// calc forward dijkstra from dropoff to beginnings of selected stops
 		double latestDropoffTime = drtRequest.getLatestArrivalTime(); // pessimistic
-		Collection<Link> toLinks = getDetourLinks(filteredInsertions.stream()
-						.filter(insertion -> !(insertion.dropoff.nextWaypoint instanceof Waypoint.End)),
-				insertion -> insertion.dropoff.nextWaypoint.getLink());
-		return fromDropoffPathSearch.calcPathDataMap(drtRequest.getToLink(), toLinks, latestDropoffTime, true);
-	}
-
-	private Collection<Link> getDetourLinks(Stream<Insertion> filteredInsertions,
-			Function<Insertion, Link> detourLinkExtractor) {
-		IdMap<Link, Link> detourLinks = new IdMap<>(Link.class);
-		filteredInsertions.map(detourLinkExtractor).forEach(link -> detourLinks.putIfAbsent(link.getId(), link));
-		return detourLinks.values();
+		return fromDropoffPathSearch.calcPathData(drtRequest.getToLink(), filteredInsertions.stream()
+						.filter(insertion -> !(insertion.dropoff.nextWaypoint instanceof Waypoint.End))
+						.map(insertion -> insertion.dropoff.nextWaypoint.getLink()), latestDropoffTime, now);
 	}
 
 	@Override
 	public void notifyMobsimBeforeCleanup(@SuppressWarnings("rawtypes") MobsimBeforeCleanupEvent e) {
-		executorService.shutdown();
+		if (executorService != null) {
+			executorService.shutdown();
+		}
+	}
+
+	/**
+	 * One-to-many search in one direction, with the results of the last search stored by link index. An entry is
+	 * valid if its stamp equals the stamp of the last search, so the arrays need not be cleared between searches.
+	 */
+	private static final class DetourPathSearch implements Function<Link, PathData> {
+		private final OneToManyPathSearch pathSearch;
+		private final boolean forward;
+
+		private PathData[] pathDataByLinkIndex = new PathData[0];
+		private int[] resultStampByLinkIndex = new int[0];
+		private int resultStamp = 0;
+
+		// used for removing duplicate detour links
+		private int[] linkStampByLinkIndex = new int[0];
+		private int linkStamp = 0;
+		private final List<Link> toLinks = new ArrayList<>();
+
+		private Link lastFromLink = null;
+		private double lastStartTime = Double.NaN;
+		private double lastTimeOfDay = Double.NaN;
+
+		private DetourPathSearch(OneToManyPathSearch pathSearch, boolean forward) {
+			this.pathSearch = pathSearch;
+			this.forward = forward;
+		}
+
+		private Function<Link, PathData> calcPathData(Link fromLink, Stream<Link> detourLinks, double startTime,
+				double timeOfDay) {
+			ensureCapacity(Id.getNumberOfIds(Link.class));
+
+			// travel times may change between time steps
+			boolean sameSearch = fromLink == lastFromLink && startTime == lastStartTime && timeOfDay == lastTimeOfDay;
+			boolean allReached = sameSearch;
+
+			linkStamp++;
+			toLinks.clear();
+			for (Link link : (Iterable<Link>)detourLinks::iterator) {
+				int linkIndex = link.getId().index();
+				if (linkStampByLinkIndex[linkIndex] != linkStamp) {
+					linkStampByLinkIndex[linkIndex] = linkStamp;
+					toLinks.add(link);
+					allReached &= resultStampByLinkIndex[linkIndex] == resultStamp;
+				}
+			}
+
+			if (allReached || toLinks.isEmpty()) {
+				return this;
+			}
+
+			PathData[] pathData = pathSearch.calcPathDataArray(fromLink, toLinks, startTime, forward);
+			resultStamp++;
+			for (int i = 0; i < pathData.length; i++) {
+				int linkIndex = toLinks.get(i).getId().index();
+				pathDataByLinkIndex[linkIndex] = pathData[i];
+				resultStampByLinkIndex[linkIndex] = resultStamp;
+			}
+
+			lastFromLink = fromLink;
+			lastStartTime = startTime;
+			lastTimeOfDay = timeOfDay;
+			return this;
+		}
+
+		@Override
+		public PathData apply(Link link) {
+			int linkIndex = link.getId().index();
+			return linkIndex < resultStampByLinkIndex.length && resultStampByLinkIndex[linkIndex] == resultStamp ?
+					pathDataByLinkIndex[linkIndex] :
+					null;
+		}
+
+		private void ensureCapacity(int linkCount) {
+			if (pathDataByLinkIndex.length < linkCount) {
+				pathDataByLinkIndex = Arrays.copyOf(pathDataByLinkIndex, linkCount);
+				resultStampByLinkIndex = Arrays.copyOf(resultStampByLinkIndex, linkCount);
+				linkStampByLinkIndex = Arrays.copyOf(linkStampByLinkIndex, linkCount);
+			}
+		}
 	}
 }
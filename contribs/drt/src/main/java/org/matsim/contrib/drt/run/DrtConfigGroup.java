@@ -147,6 +147,29 @@ public class DrtConfigGroup extends ReflectiveConfigGroupWithConfigurableParamet
 	@Positive
 	public int numberOfThreads = Runtime.getRuntime().availableProcessors();
 
+	@Parameter
+	@Comment("Number of requests submitted in the same time step for which insertions are searched concurrently."
+			+ " If larger than 1, the insertions of all pending requests are first searched concurrently against the"
+			+ " same vehicle schedules, and then scheduled one after another; a request whose chosen vehicle was"
+			+ " modified by an earlier request is searched again. Each concurrent search has its own path search data"
+			+ " and runs on one of the numberOfThreads threads, including its detour path searches."
+			+ " Only supported by the extensive insertion search. Default is 1 (one request after another).")
+	@Positive
+	public int numberOfConcurrentInsertionSearches = 1;
+
+	@Parameter
+	@Comment("If true, vehicle entries (the input to the insertion search) are kept between time steps and recreated"
+			+ " only for vehicles whose schedules may have changed. In addition, if requests are rejected when"
+			+ " violating the max wait/travel time constraints, the insertion search only considers vehicles"
+			+ " that can reach the pickup location before the latest start time, assuming beeline distance and"
+			+ " the maximum free speed of the network (not valid with time-variant networks that increase speeds, or"
+			+ " with links shorter than the distance between their nodes)."
+			+ " The entries of idle (stay) and driving vehicles depend on the current time and are always recreated,"
+			+ " so the savings are small unless many vehicles are serving stops or have planned tasks ahead."
+			+ " Not supported with prebooking, which modifies stops in place when unscheduling requests."
+			+ " False by default.")
+	public boolean useVehicleEntryIndex = false;
+
 	@Parameter
 	@Comment("Store planned unshared drt route as a link sequence")
 	public boolean storeUnsharedPath = false; // If true, the planned unshared path is stored and exported in plans
@@ -297,6 +320,15 @@ public class DrtConfigGroup extends ReflectiveConfigGroupWithConfigurableParamet
 		Verify.verify(numberOfThreads <= Runtime.getRuntime().availableProcessors(),
 				"numberOfThreads is higher than the number of logical cores available to JVM");
 
+		Verify.verify(numberOfConcurrentInsertionSearches == 1
+						|| getDrtInsertionSearchParams() instanceof ExtensiveInsertionSearchParams,
+				"numberOfConcurrentInsertionSearches > 1 is only supported by the extensive insertion search");
+
+		// the request unschedulers of prebooking remove pickups and dropoffs from existing stops, which the index does
+		// not notice, so it would keep outdated entries
+		Verify.verify(!useVehicleEntryIndex || getPrebookingParams().isEmpty(),
+				"useVehicleEntryIndex is not supported with prebooking");
+
 		if (config.global().getNumberOfThreads() < numberOfThreads) {
 			log.warn("Consider increasing global.numberOfThreads to at least the value of drt.numberOfThreads"
 					+ " in order to speed up the DRT route update during the replanning phase.");
@@ -0,0 +1,188 @@
+/*
+ * *********************************************************************** *
+ * project: org.matsim.*
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** *
+ */
+
+package org.matsim.contrib.drt.optimizer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Identifiable;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.contrib.drt.optimizer.insertion.ForkJoinPoolExtension;
+import org.matsim.contrib.drt.passenger.DrtRequest;
+import org.matsim.contrib.drt.schedule.DefaultDrtStopTask;
+import org.matsim.contrib.drt.schedule.DrtDriveTask;
+import org.matsim.contrib.drt.schedule.DrtStayTask;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicleImpl;
+import org.matsim.contrib.dvrp.fleet.Fleet;
+import org.matsim.contrib.dvrp.fleet.ImmutableDvrpVehicleSpecification;
+import org.matsim.contrib.dvrp.optimizer.Request;
+import org.matsim.contrib.dvrp.path.VrpPathWithTravelDataImpl;
+import org.matsim.core.network.NetworkUtils;
+
+import com.google.common.collect.ImmutableMap;
+
+public class VehicleEntryIndexTest {
+	@RegisterExtension
+	public final ForkJoinPoolExtension forkJoinPoolExtension = new ForkJoinPoolExtension();
+
+	private final Network network = NetworkUtils.createNetwork();
+	private final Node node0 = NetworkUtils.createAndAddNode(network, Id.createNodeId("0"), new Coord(0, 0));
+	private final Node node1 = NetworkUtils.createAndAddNode(network, Id.createNodeId("1"), new Coord(1000, 0));
+	private final Node node2 = NetworkUtils.createAndAddNode(network, Id.createNodeId("2"), new Coord(5000, 0));
+	private final Link link01 = NetworkUtils.createAndAddLink(network, Id.createLinkId("01"), node0, node1, 1000, 10,
+			1000, 1);
+	private final Link link12 = NetworkUtils.createAndAddLink(network, Id.createLinkId("12"), node1, node2, 4000, 10,
+			1000, 1);
+
+	@Test
+	void entryOfVehicleAtStop_reusedUntilScheduleChanges() {
+		var vehicle = vehicle("a", link01);
+		vehicle.getSchedule().addTask(new DefaultDrtStopTask(0, 100, link01));
+		vehicle.getSchedule().addTask(new DrtStayTask(100, 1000, link01));
+		vehicle.getSchedule().nextTask();
+		var index = index(Double.POSITIVE_INFINITY, vehicle);
+
+		var entry = index.updateEntries(10).get(vehicle.getId());
+		var reusedEntry = index.updateEntries(20).get(vehicle.getId());
+		assertThat(reusedEntry.start).isSameAs(entry.start);
+		assertThat(reusedEntry.createTime).isEqualTo(20);
+
+		// stop delayed
+		vehicle.getSchedule().getCurrentTask().setEndTime(150);
+		vehicle.getSchedule().getTasks().get(1).setBeginTime(150);
+		var recreatedEntry = index.updateEntries(30).get(vehicle.getId());
+		assertThat(recreatedEntry.start).isNotSameAs(entry.start);
+		assertThat(recreatedEntry.start.getDepartureTime()).isEqualTo(150);
+
+		// schedule modified without changing the stamp (e.g. a pickup added to the current stop)
+		index.updateEntry(vehicle, 40);
+		assertThat(index.updateEntries(50).get(vehicle.getId()).start).isNotSameAs(recreatedEntry.start);
+	}
+
+	@Test
+	void entryOfIdleVehicle_alwaysRecreated() {
+		var vehicle = vehicle("a", link01);
+		vehicle.getSchedule().addTask(new DrtStayTask(0, 1000, link01));
+		vehicle.getSchedule().nextTask();
+		var index = index(Double.POSITIVE_INFINITY, vehicle);
+
+		var entry = index.updateEntries(10).get(vehicle.getId());
+		var recreatedEntry = index.updateEntries(20).get(vehicle.getId());
+		assertThat(recreatedEntry.start).isNotSameAs(entry.start);
+		assertThat(recreatedEntry.start.getDepartureTime()).isEqualTo(20);
+	}
+
+	@Test
+	void candidateEntries_withinReachOfPickup() {
+		var vehicleA = idleVehicle("a", link01);
+		var vehicleB = idleVehicle("b", link12);
+		var index = index(10, vehicleA, vehicleB);
+		var entries = index.updateEntries(0);
+
+		// 1000 m reachable: only vehicle a (at the pickup link)
+		assertThat(index.getCandidateEntries(request(link01, 100), 0)).containsExactly(entries.get(vehicleA.getId()));
+		// 5000 m reachable: both vehicles (b is 4000 m away)
+		assertThat(index.getCandidateEntries(request(link01, 500), 0)).containsExactlyInAnyOrderElementsOf(
+				entries.values());
+	}
+
+	@Test
+	void candidateEntries_unlimitedSpeed() {
+		var vehicleA = idleVehicle("a", link01);
+		var vehicleB = idleVehicle("b", link12);
+		var index = index(Double.POSITIVE_INFINITY, vehicleA, vehicleB);
+		var entries = index.updateEntries(0);
+
+		assertThat(index.getCandidateEntries(request(link01, 100), 0)).containsExactlyInAnyOrderElementsOf(
+				entries.values());
+	}
+
+	@Test
+	void candidateEntries_waypointsOfUpdatedEntry() {
+		var vehicle = vehicle("a", link01);
+		var schedule = vehicle.getSchedule();
+		schedule.addTask(new DefaultDrtStopTask(0, 100, link01));
+		schedule.addTask(new DrtDriveTask(
+				new VrpPathWithTravelDataImpl(100, 400, new Link[] { link01, link12 }, new double[] { 0, 400 }),
+				DrtDriveTask.TYPE));
+		schedule.addTask(new DefaultDrtStopTask(500, 600, link12));
+		schedule.addTask(new DrtStayTask(600, 1000, link12));
+		schedule.nextTask();
+		var index = index(10, vehicle);
+		index.updateEntries(0);
+
+		// 100 m reachable: only the planned stop at the end of link 12
+		var request = request(link12, 10);
+		assertThat(index.getCandidateEntries(request, 0)).hasSize(1);
+
+		// planned stop removed
+		schedule.removeLastTask();
+		schedule.removeLastTask();
+		schedule.removeLastTask();
+		schedule.addTask(new DrtStayTask(100, 1000, link01));
+		index.updateEntry(vehicle, 0);
+		assertThat(index.getCandidateEntries(request, 0)).isEmpty();
+	}
+
+	private VehicleEntryIndex index(double maxSpeed, DvrpVehicle... vehicles) {
+		var map = Arrays.stream(vehicles).collect(ImmutableMap.toImmutableMap(Identifiable::getId, v -> v));
+		Fleet fleet = () -> map;
+		return new VehicleEntryIndex(fleet, new VehicleDataEntryFactoryImpl(), forkJoinPoolExtension.forkJoinPool,
+				network, maxSpeed);
+	}
+
+	private DvrpVehicle idleVehicle(String id, Link link) {
+		var vehicle = vehicle(id, link);
+		vehicle.getSchedule().addTask(new DrtStayTask(0, 1000, link));
+		vehicle.getSchedule().nextTask();
+		return vehicle;
+	}
+
+	private DvrpVehicle vehicle(String id, Link startLink) {
+		return new DvrpVehicleImpl(ImmutableDvrpVehicleSpecification.newBuilder()
+				.id(Id.create(id, DvrpVehicle.class))
+				.startLinkId(startLink.getId())
+				.capacity(4)
+				.serviceBeginTime(0)
+				.serviceEndTime(1000)
+				.build(), startLink);
+	}
+
+	private DrtRequest request(Link fromLink, double latestStartTime) {
+		return DrtRequest.newBuilder()
+				.id(Id.create("r", Request.class))
+				.passengerIds(List.of(Id.createPersonId("r")))
+				.fromLink(fromLink)
+				.toLink(link12)
+				.mode("drt")
+				.latestStartTime(latestStartTime)
+				.build();
+	}
+}
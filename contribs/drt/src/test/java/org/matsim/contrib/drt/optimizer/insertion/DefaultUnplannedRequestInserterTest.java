@@ -52,6 +52,7 @@ import org.matsim.contrib.drt.stops.StaticPassengerStopDurationProvider;
 import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
 import org.matsim.contrib.dvrp.fleet.Fleet;
 import org.matsim.contrib.dvrp.optimizer.Request;
+import org.matsim.contrib.dvrp.path.OneToManyPathSearch.PathData;
 import org.matsim.contrib.dvrp.passenger.PassengerRequestRejectedEvent;
 import org.matsim.contrib.dvrp.passenger.PassengerRequestScheduledEvent;
 import org.matsim.core.api.experimental.events.EventsManager;
@@ -256,6 +257,64 @@ public class DefaultUnplannedRequestInserterTest {
 		assertThat(createEntryCounter.getValue()).isEqualTo(2);
 	}
 
+	@Test
+	void concurrentInsertion_searchAgainIfVehicleModified() {
+		var vehicle1 = vehicle("1");
+		var vehicle2 = vehicle("2");
+		var fleet = fleet(vehicle1, vehicle2);
+		var request2 = request("r2", "from2", "to2");
+		var unplannedRequests = requests(request1, request2);
+		double now = 15;
+
+		VehicleEntry.EntryFactory entryFactory = (vehicle, currentTime) -> new VehicleEntry(vehicle, null, null, null,
+				null, 0);
+		DrtRequestInsertionRetryQueue retryQueue = new DrtRequestInsertionRetryQueue(
+				new DrtRequestInsertionRetryParams());//retry OFF, empty queue
+
+		// against the initial vehicle entries, both requests are best inserted into vehicle 1
+		DrtInsertionSearch concurrentSearch = (drtRequest, vEntries) -> Optional.of(insertion(vEntries, vehicle1));
+		// after request 1 has been inserted into vehicle 1, request 2 is best inserted into vehicle 2
+		var searchCounter = new MutableInt();
+		DrtInsertionSearch insertionSearch = (drtRequest, vEntries) -> {
+			assertThat(drtRequest).isSameAs(request2);
+			searchCounter.increment();
+			return Optional.of(insertion(vEntries, vehicle2));
+		};
+
+		Map<DrtRequest, DvrpVehicle> scheduledVehicles = new HashMap<>();
+		RequestInsertionScheduler insertionScheduler = (request, insertion) -> {
+			scheduledVehicles.put(request.getRequest(), insertion.insertion.vehicleEntry.vehicle);
+			var pickupTask = new DefaultDrtStopTask(now + 10, now + 20, request.getFromLink());
+			var dropoffTask = new DefaultDrtStopTask(now + 40, now + 50, request.getToLink());
+			return new PickupDropoffTaskPair(pickupTask, dropoffTask);
+		};
+
+		//call insertion
+		new DefaultUnplannedRequestInserter(mode, fleet, () -> now, eventsManager, insertionScheduler, entryFactory,
+				retryQueue, insertionSearch, new DefaultOfferAcceptor(), forkJoinPoolExtension.forkJoinPool,
+				StaticPassengerStopDurationProvider.of(10.0, 0.0),
+				List.of(concurrentSearch, concurrentSearch), null).scheduleUnplannedRequests(unplannedRequests);
+
+		//requests are removed from unplanned requests
+		assertThat(unplannedRequests).isEmpty();
+
+		//only request 2 was searched again
+		assertThat(searchCounter.getValue()).isEqualTo(1);
+		assertThat(scheduledVehicles).containsExactlyInAnyOrderEntriesOf(
+				Map.of(request1, vehicle1, request2, vehicle2));
+		verify(eventsManager, times(2)).processEvent(any(PassengerRequestScheduledEvent.class));
+	}
+
+	private InsertionWithDetourData insertion(Collection<VehicleEntry> vehicleEntries, DvrpVehicle vehicle) {
+		var vehicleEntry = vehicleEntries.stream().filter(e -> e.vehicle == vehicle).findFirst().orElseThrow();
+		return new InsertionWithDetourData(new InsertionGenerator.Insertion(vehicleEntry, null, null),
+				new InsertionWithDetourData.InsertionDetourData(PathData.EMPTY, PathData.EMPTY, PathData.EMPTY,
+						PathData.EMPTY),
+				new InsertionDetourTimeCalculator.DetourTimeInfo(
+						mock(InsertionDetourTimeCalculator.PickupDetourInfo.class),
+						mock(InsertionDetourTimeCalculator.DropoffDetourInfo.class)));
+	}
+
 	private Collection<DrtRequest> requests(DrtRequest... requests) {
 		return new ArrayList<>(Arrays.asList(requests));//returned collection needs to be modifiable
 	}
@@ -0,0 +1,230 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.contrib.drt.optimizer.insertion.extensive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.contrib.drt.optimizer.DrtRequestInsertionRetryParams;
+import org.matsim.contrib.drt.optimizer.DrtRequestInsertionRetryQueue;
+import org.matsim.contrib.drt.optimizer.VehicleEntry;
+import org.matsim.contrib.drt.optimizer.Waypoint;
+import org.matsim.contrib.drt.optimizer.insertion.ConcurrentInsertionSearches;
+import org.matsim.contrib.drt.optimizer.insertion.CostCalculationStrategy;
+import org.matsim.contrib.drt.optimizer.insertion.DefaultInsertionCostCalculator;
+import org.matsim.contrib.drt.optimizer.insertion.DefaultUnplannedRequestInserter;
+import org.matsim.contrib.drt.optimizer.insertion.DetourTimeEstimator;
+import org.matsim.contrib.drt.optimizer.insertion.DrtInsertionSearch;
+import org.matsim.contrib.drt.optimizer.insertion.ForkJoinPoolExtension;
+import org.matsim.contrib.drt.optimizer.insertion.InsertionCostCalculator;
+import org.matsim.contrib.drt.optimizer.insertion.InsertionGenerator;
+import org.matsim.contrib.drt.passenger.DefaultOfferAcceptor;
+import org.matsim.contrib.drt.passenger.DrtRequest;
+import org.matsim.contrib.drt.run.DrtConfigGroup;
+import org.matsim.contrib.drt.schedule.DefaultDrtStopTask;
+import org.matsim.contrib.drt.scheduler.RequestInsertionScheduler;
+import org.matsim.contrib.drt.scheduler.RequestInsertionScheduler.PickupDropoffTaskPair;
+import org.matsim.contrib.drt.stops.DefaultStopTimeCalculator;
+import org.matsim.contrib.drt.stops.StaticPassengerStopDurationProvider;
+import org.matsim.contrib.drt.stops.StopTimeCalculator;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicleImpl;
+import org.matsim.contrib.dvrp.fleet.Fleet;
+import org.matsim.contrib.dvrp.fleet.ImmutableDvrpVehicleSpecification;
+import org.matsim.contrib.dvrp.optimizer.Request;
+import org.matsim.contrib.dvrp.path.OneToManyPathSearch.PathData;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.mobsim.framework.MobsimTimer;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.costcalculators.OnlyTimeDependentTravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.trafficmonitoring.FreeSpeedTravelTime;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Schedules the same requests with concurrent {@link ExtensiveInsertionSearch}es and with a single one, and compares
+ * the detour paths passed to the scheduler.
+ */
+public class ConcurrentExtensiveInsertionSearchTest {
+	private static final int GRID_SIZE = 6;
+	private static final double NOW = 0;
+
+	@RegisterExtension
+	public final ForkJoinPoolExtension forkJoinPoolExtension = new ForkJoinPoolExtension();
+
+	private final DrtConfigGroup drtCfg = new DrtConfigGroup();
+	private final Network network = createGridNetwork();
+	private final TravelTime travelTime = new FreeSpeedTravelTime();
+	private final StopTimeCalculator stopTimeCalculator = new DefaultStopTimeCalculator(60);
+	private final InsertionCostCalculator insertionCostCalculator = new DefaultInsertionCostCalculator(
+			new CostCalculationStrategy.RejectSoftConstraintViolations(),
+			drtCfg.addOrGetDrtOptimizationConstraintsParams().addOrGetDefaultDrtOptimizationConstraintsSet());
+	private final MobsimTimer timer = new MobsimTimer();
+
+	private final List<DvrpVehicle> vehicles = List.of(vehicle("v1", link(0, 0)), vehicle("v2", link(5, 0)),
+			vehicle("v3", link(0, 5)), vehicle("v4", link(5, 5)));
+
+	@Test
+	void concurrentSearches_sameDetourPathsAsSequentialSearch() {
+		// several requests per search; each one near a different vehicle, so most insertions are found concurrently
+		List<DrtRequest> requests = List.of(request("r1", link(1, 0), link(3, 2)), request("r2", link(4, 1), link(2, 3)),
+				request("r3", link(1, 4), link(3, 1)), request("r4", link(4, 4), link(1, 2)),
+				request("r5", link(0, 1), link(4, 3)), request("r6", link(5, 2), link(0, 4)),
+				request("r7", link(2, 5), link(2, 0)), request("r8", link(3, 4), link(5, 1)));
+
+		Map<Id<Request>, List<Object>> sequential = scheduleRequests(requests, 1);
+		Map<Id<Request>, List<Object>> concurrent = scheduleRequests(requests, 2);
+
+		assertThat(sequential).hasSize(requests.size());
+		assertThat(concurrent).containsExactlyEntriesOf(sequential);
+	}
+
+	/**
+	 * @return per request the vehicle and the links of the four detour paths, as read by the scheduler
+	 */
+	private Map<Id<Request>, List<Object>> scheduleRequests(List<DrtRequest> requests, int searchCount) {
+		Map<Id<Request>, List<Object>> scheduled = new LinkedHashMap<>();
+		RequestInsertionScheduler insertionScheduler = (request, insertion) -> {
+			var detourData = insertion.detourData;
+			scheduled.put(request.getId(), List.of(insertion.insertion.vehicleEntry.vehicle.getId(),
+					linkIds(detourData.detourToPickup), linkIds(detourData.detourFromPickup),
+					linkIds(detourData.detourToDropoff), linkIds(detourData.detourFromDropoff)));
+			var pickupTask = new DefaultDrtStopTask(NOW + 10, NOW + 20, request.getFromLink());
+			var dropoffTask = new DefaultDrtStopTask(NOW + 40, NOW + 50, request.getToLink());
+			return new PickupDropoffTaskPair(pickupTask, dropoffTask);
+		};
+
+		List<DrtInsertionSearch> searches = new ArrayList<>();
+		List<MultiInsertionDetourPathCalculator> detourPathCalculators = new ArrayList<>();
+		for (int i = 0; i < searchCount; i++) {
+			var detourPathCalculator = new MultiInsertionDetourPathCalculator(network, travelTime,
+					new OnlyTimeDependentTravelDisutility(travelTime), 1, timer::getTimeOfDay);
+			detourPathCalculators.add(detourPathCalculator);
+			searches.add(new ExtensiveInsertionSearch(new ExtensiveInsertionProvider(new ExtensiveInsertionSearchParams(),
+					insertionCostCalculator, new InsertionGenerator(stopTimeCalculator,
+					DetourTimeEstimator.createBeelineBasedEstimator(15)), forkJoinPoolExtension.forkJoinPool),
+					detourPathCalculator, insertionCostCalculator, stopTimeCalculator));
+		}
+
+		// the scheduler does not change the schedules, so the vehicles are always idle at their start link
+		VehicleEntry.EntryFactory entryFactory = (vehicle, currentTime) -> new VehicleEntry(vehicle,
+				new Waypoint.Start(null, vehicle.getStartLink(), currentTime, 0), ImmutableList.of(),
+				infiniteSlackTimes(), List.of(), currentTime);
+		var fleetMap = new LinkedHashMap<Id<DvrpVehicle>, DvrpVehicle>();
+		vehicles.forEach(v -> fleetMap.put(v.getId(), v));
+		Fleet fleet = () -> fleetMap;
+
+		var inserter = new DefaultUnplannedRequestInserter(drtCfg, fleet, timer, mock(EventsManager.class),
+				insertionScheduler, entryFactory, searches.get(0),
+				new DrtRequestInsertionRetryQueue(new DrtRequestInsertionRetryParams()), new DefaultOfferAcceptor(),
+				forkJoinPoolExtension.forkJoinPool, StaticPassengerStopDurationProvider.of(10.0, 0.0),
+				searchCount > 1 ? new ConcurrentInsertionSearches(searches, detourPathCalculators) : null, null);
+		inserter.scheduleUnplannedRequests(new ArrayList<>(requests));
+		return scheduled;
+	}
+
+	private static double[] infiniteSlackTimes() {
+		var slackTimes = new double[2];
+		Arrays.fill(slackTimes, Double.POSITIVE_INFINITY);
+		return slackTimes;
+	}
+
+	private static List<Id<Link>> linkIds(PathData pathData) {
+		var links = pathData.getPath().links;
+		return links == null ? List.of() : links.stream().map(Link::getId).toList();
+	}
+
+	private static Network createGridNetwork() {
+		Network network = NetworkUtils.createNetwork();
+		Node[][] nodes = new Node[GRID_SIZE][GRID_SIZE];
+		for (int x = 0; x < GRID_SIZE; x++) {
+			for (int y = 0; y < GRID_SIZE; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y),
+						new Coord(x * 500, y * 500));
+			}
+		}
+		for (int x = 0; x < GRID_SIZE; x++) {
+			for (int y = 0; y < GRID_SIZE; y++) {
+				if (x + 1 < GRID_SIZE) {
+					addLinks(network, nodes[x][y], nodes[x + 1][y]);
+				}
+				if (y + 1 < GRID_SIZE) {
+					addLinks(network, nodes[x][y], nodes[x][y + 1]);
+				}
+			}
+		}
+		return network;
+	}
+
+	private static void addLinks(Network network, Node a, Node b) {
+		// slightly different speeds, so the least-cost paths are unique
+		double speed = 10 + (a.getId().index() * 31 + b.getId().index() * 17) % 7;
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(a.getId() + "-" + b.getId()), a, b, 500, speed, 1000, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(b.getId() + "-" + a.getId()), b, a, 500, speed, 1000, 1);
+	}
+
+	/**
+	 * @return the link leaving the node at the given position to the east, or to the west at the eastern edge
+	 */
+	private Link link(int x, int y) {
+		String from = x + "_" + y;
+		String to = (x + 1 < GRID_SIZE ? x + 1 : x - 1) + "_" + y;
+		return network.getLinks().get(Id.createLinkId(from + "-" + to));
+	}
+
+	private DvrpVehicle vehicle(String id, Link startLink) {
+		return new DvrpVehicleImpl(ImmutableDvrpVehicleSpecification.newBuilder()
+				.id(Id.create(id, DvrpVehicle.class))
+				.capacity(4)
+				.startLinkId(startLink.getId())
+				.serviceBeginTime(0)
+				.serviceEndTime(24 * 3600)
+				.build(), startLink);
+	}
+
+	private DrtRequest request(String id, Link fromLink, Link toLink) {
+		return DrtRequest.newBuilder()
+				.id(Id.create(id, Request.class))
+				.passengerIds(List.of(Id.createPersonId(id)))
+				.submissionTime(NOW)
+				.earliestStartTime(NOW)
+				.latestStartTime(NOW + 3600)
+				.latestArrivalTime(NOW + 7200)
+				.maxRideDuration(7200)
+				.fromLink(fromLink)
+				.toLink(toLink)
+				.mode(drtCfg.getMode())
+				.build();
+	}
+}
@@ -22,15 +22,18 @@ package org.matsim.contrib.drt.optimizer.insertion.extensive;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 
+import org.apache.commons.lang3.mutable.MutableDouble;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.matsim.api.core.v01.Id;
@@ -67,8 +70,10 @@ public class MultiInsertionDetourPathCalculatorTest {
 
 	private final OneToManyPathSearch pathSearch = mock(OneToManyPathSearch.class);
 
+	private final MutableDouble timeOfDay = new MutableDouble(0);
+
 	private final MultiInsertionDetourPathCalculator detourPathCalculator = new MultiInsertionDetourPathCalculator(
-			pathSearch, pathSearch, pathSearch, pathSearch, 1);
+			pathSearch, pathSearch, pathSearch, pathSearch, 1, timeOfDay::doubleValue);
 
 	@AfterEach
 	public void after() {
@@ -95,6 +100,28 @@ public class MultiInsertionDetourPathCalculatorTest {
 		assertThat(insertionWithDetourData.detourFromDropoff).isEqualTo(pathFromDropoff);
 	}
 
+	@Test
+	void calculatePaths_reuseSearchesInSameTimeStep() {
+		mockCalcPathData(pickupLink, beforePickupLink, request.getEarliestStartTime(), false, 11);
+		mockCalcPathData(pickupLink, afterPickupLink, request.getEarliestStartTime(), true, 22);
+		mockCalcPathData(dropoffLink, beforeDropoffLink, request.getLatestArrivalTime(), false, 33);
+		mockCalcPathData(dropoffLink, afterDropoffLink, request.getLatestArrivalTime(), true, 44);
+
+		var pickup = insertionPoint(waypoint(beforePickupLink), waypoint(afterPickupLink));
+		var dropoff = insertionPoint(waypoint(beforeDropoffLink), waypoint(afterDropoffLink));
+		var insertion = new InsertionGenerator.Insertion(null, pickup, dropoff);
+
+		// same time step: the previous search results are reused
+		detourPathCalculator.calculatePaths(request, List.of(insertion));
+		detourPathCalculator.calculatePaths(request, List.of(insertion));
+		verify(pathSearch, times(4)).calcPathDataArray(any(), any(), anyDouble(), anyBoolean());
+
+		// next time step: travel times may have changed
+		timeOfDay.setValue(1);
+		detourPathCalculator.calculatePaths(request, List.of(insertion));
+		verify(pathSearch, times(8)).calcPathDataArray(any(), any(), anyDouble(), anyBoolean());
+	}
+
 	@Test
 	void calculatePaths_dropoffAfterPickup_dropoffAtEnd() {
 		//compute only 2 paths (instead of 4)
@@ -118,13 +145,13 @@ public class MultiInsertionDetourPathCalculatorTest {
 
 	@Test
 	void calculatePaths_noDetours() {
-		// OneToManyPathSearch.calcPathDataMap() returns a map that contains entries for all toLinks
+		// OneToManyPathSearch.calcPathDataArray() returns an array that contains entries for all toLinks
 		// (unless the stop criterion terminates computations earlier)
-		// If fromLink is in toLinks than PathData.EMPTY is mapped for such a link
-		when(pathSearch.calcPathDataMap(eq(pickupLink), eqSingleLinkCollection(pickupLink),
-				eq(request.getEarliestStartTime()), anyBoolean())).thenReturn(Map.of(pickupLink, PathData.EMPTY));
-		when(pathSearch.calcPathDataMap(eq(dropoffLink), eqSingleLinkCollection(dropoffLink),
-				eq(request.getLatestArrivalTime()), anyBoolean())).thenReturn(Map.of(dropoffLink, PathData.EMPTY));
+		// If fromLink is in toLinks than PathData.EMPTY is set for such a link
+		when(pathSearch.calcPathDataArray(eq(pickupLink), eqSingleLinkList(pickupLink),
+				eq(request.getEarliestStartTime()), anyBoolean())).thenReturn(new PathData[] { PathData.EMPTY });
+		when(pathSearch.calcPathDataArray(eq(dropoffLink), eqSingleLinkList(dropoffLink),
+				eq(request.getLatestArrivalTime()), anyBoolean())).thenReturn(new PathData[] { PathData.EMPTY });
 
 		var pickup = insertionPoint(waypoint(pickupLink), waypoint(pickupLink));
 		var dropoff = insertionPoint(waypoint(dropoffLink), waypoint(dropoffLink));
@@ -145,12 +172,12 @@ public class MultiInsertionDetourPathCalculatorTest {
 		var toNode = toLink.getFromNode();
 		var path = new Path(List.of(fromNode, toNode), List.of(), pathTravelTime, pathTravelTime + 1000);
 		var pathData = new PathData(path, 99);
-		when(pathSearch.calcPathDataMap(eq(fromLink), eqSingleLinkCollection(toLink), eq(startTimeArg),
-				eq(forward))).thenReturn(Map.of(toLink, pathData));
+		when(pathSearch.calcPathDataArray(eq(fromLink), eqSingleLinkList(toLink), eq(startTimeArg),
+				eq(forward))).thenReturn(new PathData[] { pathData });
 		return pathData;
 	}
 
-	private Collection<Link> eqSingleLinkCollection(Link link) {
+	private List<Link> eqSingleLinkList(Link link) {
 		return ArgumentMatchers.argThat(argument -> argument.contains(link) && argument.size() == 1);
 	}
 
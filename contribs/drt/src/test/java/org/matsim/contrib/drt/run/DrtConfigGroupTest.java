@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.matsim.contrib.drt.optimizer.constraints.DefaultDrtOptimizationConstraintsSet;
 import org.matsim.contrib.drt.optimizer.constraints.DrtOptimizationConstraintsParams;
 import org.matsim.contrib.drt.optimizer.constraints.DrtOptimizationConstraintsSet;
+import org.matsim.contrib.drt.prebooking.PrebookingParams;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.ConfigUtils;
 
@@ -71,4 +72,19 @@ class DrtConfigGroupTest {
 		Assertions.assertEquals(2, optimizationConstraintsParams.getDrtOptimizationConstraintsSets().size());
 		Assertions.assertThrows(VerifyException.class, () -> drtConfig.checkConsistency(config));
 	}
+
+	@Test
+	void testVehicleEntryIndexNotSupportedWithPrebooking() {
+		Config config = ConfigUtils.createConfig();
+		DrtConfigGroup drtConfig = new DrtConfigGroup();
+		config.addModule(drtConfig);
+		drtConfig.stopDuration = 0;
+		drtConfig.addOrGetDrtOptimizationConstraintsParams().addOrGetDefaultDrtOptimizationConstraintsSet().maxWaitTime = 0;
+
+		drtConfig.useVehicleEntryIndex = true;
+		Assertions.assertDoesNotThrow(() -> drtConfig.checkConsistency(config));
+
+		drtConfig.addParameterSet(new PrebookingParams());
+		Assertions.assertThrows(VerifyException.class, () -> drtConfig.checkConsistency(config));
+	}
 }
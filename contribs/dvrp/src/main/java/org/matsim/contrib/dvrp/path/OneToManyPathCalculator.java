@@ -67,8 +67,6 @@ class OneToManyPathCalculator {
 		this.forwardSearch = forwardSearch;
 		this.fromLink = fromLink;
 		this.startTime = startTime;
-
-		verifyParallelLinks();
 	}
 
 	void calculateDijkstraTree(Collection<Link> toLinks) {
@@ -194,7 +192,8 @@ class OneToManyPathCalculator {
 	private final static Logger logger = LogManager.getLogger(OneToManyPathCalculator.class);
 	private static int parallelLinksWarningCount = 0;
 
-	private void verifyParallelLinks() {
+	// called once per search (not per query), as it iterates over the whole network
+	static void verifyParallelLinks(IdMap<Node, Node> nodeMap) {
 		if (parallelLinksWarningCount < 20) {
 			for (Node prevNode : nodeMap.values()) {
 				Set<Integer> candidates = new HashSet<>();
@@ -94,6 +94,8 @@ public class OneToManyPathSearch {
 		this.dijkstraTree = dijkstraTree;
 		this.travelTime = travelTime;
 		this.lazyPathCreation = lazyPathCreation;
+
+		OneToManyPathCalculator.verifyParallelLinks(nodeMap);
 	}
 
 	public PathData[] calcPathDataArray(Link fromLink, List<Link> toLinks, double startTime, boolean forward) {
@@ -29,8 +29,11 @@ import org.matsim.contrib.common.zones.ZoneSystem;
 import org.matsim.contrib.common.zones.ZoneSystemUtils;
 import org.matsim.contrib.dvrp.run.AbstractDvrpModeModule;
 import org.matsim.contrib.dvrp.run.DvrpConfigGroup;
+import org.matsim.contrib.dvrp.trafficmonitoring.DvrpTravelTimeModule;
 import org.matsim.contrib.zone.skims.DvrpTravelTimeMatrixParams;
 import org.matsim.contrib.zone.skims.FreeSpeedTravelTimeMatrix;
+import org.matsim.contrib.zone.skims.TimeDependentTravelTimeMatrix;
+import org.matsim.contrib.zone.skims.TimeDependentTravelTimeMatrixUpdater;
 import org.matsim.contrib.zone.skims.TravelTimeMatrix;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.ConfigGroup;
@@ -39,6 +42,7 @@ import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.network.NetworkUtils;
 import org.matsim.core.network.algorithms.NetworkCleaner;
 import org.matsim.core.network.algorithms.TransportModeNetworkFilter;
+import org.matsim.core.router.util.TravelTime;
 
 import com.google.common.base.Preconditions;
 import com.google.inject.Inject;
@@ -88,8 +92,19 @@ public class DvrpModeRoutingNetworkModule extends AbstractDvrpModeModule {
 						DvrpTravelTimeMatrixParams matrixParams = dvrpConfigGroup.getTravelTimeMatrixParams();
 						ZoneSystem zoneSystem = ZoneSystemUtils.createZoneSystem(getConfig().getContext(), network,
 							matrixParams.getZoneSystemParams(), getConfig().global().getCoordinateSystem(), zone -> true);
-						
-						
+
+						if (matrixParams.timeBinSize > 0) {
+							var travelTime = getter.getNamed(TravelTime.class, DvrpTravelTimeModule.DVRP_ESTIMATED);
+							double maxTime = qSimConfigGroup.getEndTime().orElse(TimeDependentTravelTimeMatrix.DEFAULT_MAX_TIME);
+							var matrix = matrixParams.cachePath == null ?
+								new TimeDependentTravelTimeMatrix(network, zoneSystem, matrixParams, globalConfigGroup.getNumberOfThreads(),
+									travelTime, maxTime) :
+								TimeDependentTravelTimeMatrix.createMatrixFromCache(network, zoneSystem, matrixParams,
+									globalConfigGroup.getNumberOfThreads(), travelTime, maxTime,
+									new File(ConfigGroup.getInputFileURL(getConfig().getContext(), matrixParams.cachePath).getPath()));
+							return getter.get(TimeDependentTravelTimeMatrixUpdater.class).register(matrix);
+						}
+
 						if (matrixParams.cachePath == null) {
 							return FreeSpeedTravelTimeMatrix.createFreeSpeedMatrix(network, zoneSystem, matrixParams, globalConfigGroup.getNumberOfThreads(),
 								qSimConfigGroup.getTimeStepSize());
@@ -102,10 +102,21 @@ public class DvrpConfigGroup extends ReflectiveConfigGroupWithConfigurableParame
 	public double travelTimeEstimationBeta = 0; // [s], 0 ==> only offline TT estimation
 
 	@Parameter
-	@Comment("File containing the initial link travel time estimates. Ignored if null")
+	@Comment("File containing the initial link travel time estimates. Ignored if null."
+			+ " Files with the extension '.bin' are read (memory-mapped) as binary travel time files,"
+			+ " all others are read as CSV files.")
 	@Nullable
 	public String initialTravelTimesFile = null;
 
+	public enum TravelTimesFileFormat {csv, binary}
+
+	@Parameter
+	@Comment("Format of the link travel time estimates written after each iteration:"
+			+ " 'csv' (dvrp_travel_times.csv.gz; default) or 'binary' (dvrp_travel_times.bin)."
+			+ " Binary files are much faster to load as 'initialTravelTimesFile' in large networks.")
+	@NotNull
+	public TravelTimesFileFormat travelTimesFileFormat = TravelTimesFileFormat.csv;
+
 	@Nullable
 	private DvrpTravelTimeMatrixParams travelTimeMatrixParams;
 
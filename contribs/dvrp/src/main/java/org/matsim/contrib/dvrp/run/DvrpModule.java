@@ -32,15 +32,20 @@ import org.matsim.contrib.dvrp.vrpagent.VrpAgentQueryHelper;
 import org.matsim.contrib.dynagent.run.DynActivityEngine;
 import org.matsim.contrib.zone.skims.DvrpTravelTimeMatrixParams;
 import org.matsim.contrib.zone.skims.FreeSpeedTravelTimeMatrix;
+import org.matsim.contrib.zone.skims.TimeDependentTravelTimeMatrix;
+import org.matsim.contrib.zone.skims.TimeDependentTravelTimeMatrixUpdater;
 import org.matsim.contrib.zone.skims.TravelTimeMatrix;
 import org.matsim.core.config.ConfigGroup;
 import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.controler.AbstractModule;
 import org.matsim.core.mobsim.framework.MobsimTimer;
 import org.matsim.core.mobsim.qsim.AbstractQSimModule;
+import org.matsim.core.router.util.TravelTime;
 import org.matsim.vis.otfvis.OnTheFlyServer.NonPlanAgentQueryHelper;
 
 import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import com.google.inject.name.Names;
@@ -86,6 +91,9 @@ public final class DvrpModule extends AbstractModule {
 			@Inject
 			private QSimConfigGroup qSimConfigGroup;
 
+			@Inject
+			private Injector injector;
+
 			@Override
 			public TravelTimeMatrix get() {
 				var numberOfThreads = getConfig().global().getNumberOfThreads();
@@ -93,7 +101,17 @@ public final class DvrpModule extends AbstractModule {
 				DvrpTravelTimeMatrixParams matrixParams = dvrpConfigGroup.getTravelTimeMatrixParams();
 				ZoneSystem zoneSystem = ZoneSystemUtils.createZoneSystem(getConfig().getContext(), network,
 					matrixParams.getZoneSystemParams(), getConfig().global().getCoordinateSystem(), zone -> true);
-				
+
+				if (params.timeBinSize > 0) {
+					var travelTime = injector.getInstance(Key.get(TravelTime.class, Names.named(DvrpTravelTimeModule.DVRP_ESTIMATED)));
+					double maxTime = qSimConfigGroup.getEndTime().orElse(TimeDependentTravelTimeMatrix.DEFAULT_MAX_TIME);
+					var matrix = params.cachePath == null ?
+						new TimeDependentTravelTimeMatrix(network, zoneSystem, params, numberOfThreads, travelTime, maxTime) :
+						TimeDependentTravelTimeMatrix.createMatrixFromCache(network, zoneSystem, params, numberOfThreads, travelTime,
+							maxTime, new File(ConfigGroup.getInputFileURL(getConfig().getContext(), params.cachePath).getPath()));
+					return injector.getInstance(TimeDependentTravelTimeMatrixUpdater.class).register(matrix);
+				}
+
 				if (params.cachePath == null) {
 					return FreeSpeedTravelTimeMatrix.createFreeSpeedMatrix(network, zoneSystem, params, numberOfThreads,
 						qSimConfigGroup.getTimeStepSize());
@@ -105,6 +123,11 @@ public final class DvrpModule extends AbstractModule {
 			}
 		}).in(Singleton.class);
 
+		if (dvrpConfigGroup.getTravelTimeMatrixParams().timeBinSize > 0) {
+			bind(TimeDependentTravelTimeMatrixUpdater.class).in(Singleton.class);
+			addControlerListenerBinding().to(TimeDependentTravelTimeMatrixUpdater.class);
+		}
+
 		bind(Network.class).annotatedWith(Names.named(DvrpGlobalRoutingNetworkProvider.DVRP_ROUTING))
 				.toProvider(DvrpGlobalRoutingNetworkProvider.class)
 				.asEagerSingleton();
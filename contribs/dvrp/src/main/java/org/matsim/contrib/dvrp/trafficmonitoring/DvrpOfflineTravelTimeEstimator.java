@@ -22,6 +22,8 @@ package org.matsim.contrib.dvrp.trafficmonitoring;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.nio.file.Path;
+
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.population.Person;
@@ -65,6 +67,7 @@ public class DvrpOfflineTravelTimeEstimator
 	private final double alpha;
 
 	private final String delimiter;
+	private final DvrpConfigGroup.TravelTimesFileFormat fileFormat;
 
 	@Inject
 	public DvrpOfflineTravelTimeEstimator(@Named(DvrpTravelTimeModule.DVRP_INITIAL) TravelTime initialTT,
@@ -73,12 +76,20 @@ public class DvrpOfflineTravelTimeEstimator
 										  TravelTimeCalculatorConfigGroup ttCalcConfig, DvrpConfigGroup dvrpConfig,
 										  OutputDirectoryHierarchy outputDirectoryHierarchy, GlobalConfigGroup globalConfig) {
 		this(initialTT, observedTT, network, new TimeDiscretizer(ttCalcConfig), dvrpConfig.travelTimeEstimationAlpha,
-				outputDirectoryHierarchy, globalConfig.getDefaultDelimiter());
+				outputDirectoryHierarchy, globalConfig.getDefaultDelimiter(), dvrpConfig.travelTimesFileFormat);
 	}
 
 	public DvrpOfflineTravelTimeEstimator(TravelTime initialTT, TravelTime observedTT, Network network,
 			TimeDiscretizer timeDiscretizer, double travelTimeEstimationAlpha,
 			OutputDirectoryHierarchy outputDirectoryHierarchy, String delimiter) {
+		this(initialTT, observedTT, network, timeDiscretizer, travelTimeEstimationAlpha, outputDirectoryHierarchy, delimiter,
+				DvrpConfigGroup.TravelTimesFileFormat.csv);
+	}
+
+	public DvrpOfflineTravelTimeEstimator(TravelTime initialTT, TravelTime observedTT, Network network,
+			TimeDiscretizer timeDiscretizer, double travelTimeEstimationAlpha,
+			OutputDirectoryHierarchy outputDirectoryHierarchy, String delimiter,
+			DvrpConfigGroup.TravelTimesFileFormat fileFormat) {
 		this.observedTT = observedTT;
 		this.network = network;
 
@@ -88,6 +99,7 @@ public class DvrpOfflineTravelTimeEstimator
 
 		this.outputDirectoryHierarchy = outputDirectoryHierarchy;
 		this.delimiter = delimiter;
+		this.fileFormat = fileFormat;
 
 		alpha = travelTimeEstimationAlpha;
 		checkArgument(alpha >= 0 && alpha <= 1, "travelTimeEstimationAlpha must be in [0,1]");
@@ -121,9 +133,13 @@ public class DvrpOfflineTravelTimeEstimator
 
 	@Override
 	public void notifyAfterMobsim(AfterMobsimEvent event) {
-		DvrpOfflineTravelTimes.saveLinkTravelTimes(timeDiscretizer, linkTravelTimes,
-				outputDirectoryHierarchy.getIterationFilename(event.getIteration(),
-						"dvrp_travel_times.csv.gz"), delimiter);
+		switch (fileFormat) {
+			case csv -> DvrpOfflineTravelTimes.saveLinkTravelTimes(timeDiscretizer, linkTravelTimes,
+					outputDirectoryHierarchy.getIterationFilename(event.getIteration(), "dvrp_travel_times.csv.gz"),
+					delimiter);
+			case binary -> DvrpOfflineTravelTimes.saveLinkTravelTimesBinary(timeDiscretizer, linkTravelTimes,
+					Path.of(outputDirectoryHierarchy.getIterationFilename(event.getIteration(), "dvrp_travel_times.bin")));
+		}
 	}
 
 	private void updateTTs(TravelTime travelTime, double alpha) {
@@ -28,19 +28,24 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Writer;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.IdMap;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.contrib.common.timeprofile.TimeDiscretizer;
 import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.trafficmonitoring.MappedLinkTravelTimes;
 import org.matsim.core.utils.io.IOUtils;
 
 /**
  * @author Michal Maciejewski (michalm)
  */
 public class DvrpOfflineTravelTimes {
+	private static final int BINARY_MAGIC = 0x44545454; // "DTTT"
 
 	public static void saveLinkTravelTimes(TimeDiscretizer timeDiscretizer, double[][] linkTravelTimes,
 			String filename, String delimiter) {
@@ -83,6 +88,29 @@ public class DvrpOfflineTravelTimes {
 		}
 	}
 
+	/**
+	 * Binary counterpart of {@link #saveLinkTravelTimes(TimeDiscretizer, double[][], String, String)}, which can be
+	 * memory-mapped with {@link #asTravelTime(TimeDiscretizer, Path)}. See {@link MappedLinkTravelTimes} for the file
+	 * layout; links are ordered by their id index. Unlike in the CSV file, travel times are not rounded.
+	 */
+	public static void saveLinkTravelTimesBinary(TimeDiscretizer timeDiscretizer, double[][] linkTravelTimes, Path file) {
+		int intervalCount = timeDiscretizer.getIntervalCount();
+		List<Id<Link>> linkIds = new ArrayList<>();
+		List<double[]> rows = new ArrayList<>();
+		for (int idx = 0; idx < linkTravelTimes.length; idx++) {
+			double[] ttRow = linkTravelTimes[idx];
+
+			// rows in linkTTs that are null are skipped
+			if (ttRow != null) {
+				checkArgument(ttRow.length == intervalCount);
+				linkIds.add(Id.get(idx, Link.class));
+				rows.add(ttRow);
+			}
+		}
+		MappedLinkTravelTimes.write(file, BINARY_MAGIC, timeDiscretizer.getTimeInterval(), intervalCount, linkIds,
+				(row, bin) -> rows.get(row)[bin]);
+	}
+
 	public static double[][] convertToLinkTravelTimeMatrix(TravelTime travelTime, Collection<? extends Link> links,
 			TimeDiscretizer timeDiscretizer) {
 		var linkTTs = new double[Id.getNumberOfIds(Link.class)][];
@@ -101,6 +129,25 @@ public class DvrpOfflineTravelTimes {
 		};
 	}
 
+	/**
+	 * Memory-maps a file written by {@link #saveLinkTravelTimesBinary(TimeDiscretizer, double[][], Path)}. Only the link
+	 * ids are read upfront; the travel times are read by the operating system when they are accessed.
+	 */
+	public static TravelTime asTravelTime(TimeDiscretizer timeDiscretizer, Path file) {
+		var travelTimes = MappedLinkTravelTimes.open(file, BINARY_MAGIC, "binary DVRP travel time file");
+		verify(travelTimes.getBinSize() == timeDiscretizer.getTimeInterval());
+		verify(travelTimes.getNumberOfBins() == timeDiscretizer.getIntervalCount());
+
+		return (link, time, person, vehicle) -> {
+			int row = travelTimes.getRow(link.getId());
+			if (row < 0) {// same failure as for the in-memory matrix
+				throw new NullPointerException(
+						String.format("Link (%s) does not belong to network. No travel time data.", link.getId()));
+			}
+			return travelTimes.getTravelTime(row, timeDiscretizer.getIdx(time));
+		};
+	}
+
 	public static double[][] loadLinkTravelTimes(TimeDiscretizer timeDiscretizer, URL url, String delimiter) {
 		try (BufferedReader reader = IOUtils.getBufferedReader(url)) {
 			return loadLinkTravelTimes(timeDiscretizer, reader, delimiter);
@@ -19,6 +19,7 @@
 
 package org.matsim.contrib.dvrp.trafficmonitoring;
 
+import java.io.File;
 import java.net.URL;
 
 import org.matsim.contrib.dvrp.run.DvrpConfigGroup;
@@ -48,6 +49,9 @@ public class DvrpTravelTimeModule extends AbstractModule {
 			addTravelTimeBinding(DvrpTravelTimeModule.DVRP_INITIAL).toProvider(() -> {
 				URL url = ConfigGroup.getInputFileURL(getConfig().getContext(), dvrpCfg.initialTravelTimesFile);
 				var timeDiscretizer = new TimeDiscretizer(getConfig().travelTimeCalculator());
+				if (dvrpCfg.initialTravelTimesFile.endsWith(".bin")) {
+					return DvrpOfflineTravelTimes.asTravelTime(timeDiscretizer, new File(url.getPath()).toPath());
+				}
 				var linkTravelTimes = DvrpOfflineTravelTimes.loadLinkTravelTimes(timeDiscretizer, url,
 						getConfig().global().getDefaultDelimiter());
 				return DvrpOfflineTravelTimes.asTravelTime(timeDiscretizer, linkTravelTimes);
@@ -57,11 +57,25 @@ public class DvrpTravelTimeMatrixParams extends ReflectiveConfigGroupWithConfigu
 			+ " The unit is seconds. Default value is 0 s (for backward compatibility).")
 	@PositiveOrZero
 	public double maxNeighborTravelTime = 0; //[s]
+
+	@Parameter
+	@Comment("Size of the time bins of the time-dependent travel time matrix."
+			+ " If positive, a separate zonal (and sparse) matrix is calculated for each time bin (up to the QSim end time)"
+			+ " from the DVRP travel time estimates, i.e. initially from 'initialTravelTimesFile' if set (otherwise from the"
+			+ " free-speed travel times) and, at the start of each subsequent iteration, from the estimates of the previous iterations."
+			+ " Each recalculation costs as much as building the single matrix once per time bin."
+			+ " If 0, a single free-speed matrix is used. The unit is seconds. Default value is 0 s (for backward compatibility).")
+	@PositiveOrZero
+	public double timeBinSize = 0; //[s]
+
 	@NotNull
 	private ZoneSystemParams zoneSystemParams;
 
 	@Parameter
-	@Comment("Caches the travel time matrix data into a binary file. If the file exists, the matrix will be read from the file, if not, the file will be created.")
+	@Comment("Caches the travel time matrix data into a binary file. If the file exists, the matrix will be read from the file, if not, the file will be created."
+			+ " For the time-dependent matrix, only the time bin size and the number of bins are checked when reading;"
+			+ " zones and nodes are only checked by their number and ids. So a cache created from other travel times or"
+			+ " neighbourhood settings is silently reused; delete the file when changing them.")
 	public String cachePath = null;
 
 	public DvrpTravelTimeMatrixParams() {
@@ -112,6 +112,10 @@ public final class SparseMatrix {
 		int get(int toNodeIndex) {
 			return presentNodes.get(toNodeIndex) ? buckets[toNodeIndex & mask].get(toNodeIndex) : -1; // value not present in the row
 		}
+
+		List<NodeAndTime> getEntries() {
+			return presentNodes.stream().mapToObj(toNodeIndex -> new NodeAndTime(toNodeIndex, get(toNodeIndex))).toList();
+		}
 	}
 
 	private final SparseRow[] rows = new SparseRow[Id.getNumberOfIds(Node.class)];
@@ -126,6 +130,10 @@ public final class SparseMatrix {
 		return get(fromNode.getId().index(), toNode.getId().index());
 	}
 
+	SparseRow getRow(Node fromNode) {
+		return rows[fromNode.getId().index()];
+	}
+
 	void setRow(Node fromNode, SparseRow row) {
 		rows[fromNode.getId().index()] = row;
 	}
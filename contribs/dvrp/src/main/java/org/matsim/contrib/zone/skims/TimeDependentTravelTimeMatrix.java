@@ -0,0 +1,277 @@
+/*
+ * *********************************************************************** *
+ * project: org.matsim.*
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** *
+ */
+
+package org.matsim.contrib.zone.skims;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.contrib.common.zones.Zone;
+import org.matsim.contrib.common.zones.ZoneSystem;
+import org.matsim.contrib.common.zones.ZoneSystemUtils;
+import org.matsim.contrib.dvrp.router.TimeAsTravelDisutility;
+import org.matsim.contrib.zone.skims.SparseMatrix.NodeAndTime;
+import org.matsim.contrib.zone.skims.SparseMatrix.SparseRow;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.trafficmonitoring.TimeBinUtils;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Verify;
+
+/**
+ * Time-sliced variant of {@link FreeSpeedTravelTimeMatrix}: one zonal {@link Matrix} (and optionally one {@link SparseMatrix}
+ * for the node neighbourhoods) per time bin. Each slice is calculated for a departure in the middle of its time bin.
+ * Departures after the last bin use the last slice.
+ * <p>
+ * The slices can be recalculated with {@link #update(TravelTime)}, e.g. from the travel times of the previous iteration
+ * (see {@link TimeDependentTravelTimeMatrixUpdater}). Each recalculation computes {@code numberOfBins} full matrices.
+ */
+public class TimeDependentTravelTimeMatrix implements TravelTimeMatrix {
+	// used if the QSim end time is undefined
+	public static final double DEFAULT_MAX_TIME = 30 * 3600;
+
+	private static final int CACHE_MAGIC = 0x54445454; // "TDTT"
+	private static final int CACHE_VERSION = 1;
+
+	public static TimeDependentTravelTimeMatrix createMatrixFromCache(Network dvrpNetwork, ZoneSystem zoneSystem,
+		DvrpTravelTimeMatrixParams params, int numberOfThreads, TravelTime travelTime, double maxTime, File cachePath) {
+		if (cachePath.exists()) {
+			return new TimeDependentTravelTimeMatrix(dvrpNetwork, zoneSystem, params, numberOfThreads, maxTime, cachePath);
+		}
+
+		var matrix = new TimeDependentTravelTimeMatrix(dvrpNetwork, zoneSystem, params, numberOfThreads, travelTime, maxTime);
+		matrix.write(cachePath);
+		return matrix;
+	}
+
+	private record Slice(Matrix matrix, SparseMatrix sparseMatrix) {
+	}
+
+	private final Network dvrpNetwork;
+	private final ZoneSystem zoneSystem;
+	private final DvrpTravelTimeMatrixParams params;
+	private final int numberOfThreads;
+	private final Map<Zone, Node> centralNodes;
+
+	private final double timeBinSize;
+	private final int numberOfBins;
+
+	private volatile Slice[] slices;
+
+	public TimeDependentTravelTimeMatrix(Network dvrpNetwork, ZoneSystem zoneSystem, DvrpTravelTimeMatrixParams params, int numberOfThreads,
+		TravelTime travelTime, double maxTime) {
+		this(dvrpNetwork, zoneSystem, params, numberOfThreads, maxTime);
+		update(travelTime);
+	}
+
+	public TimeDependentTravelTimeMatrix(Network dvrpNetwork, ZoneSystem zoneSystem, DvrpTravelTimeMatrixParams params, int numberOfThreads,
+		double maxTime, File cachePath) {
+		this(dvrpNetwork, zoneSystem, params, numberOfThreads, maxTime);
+		slices = read(cachePath);
+	}
+
+	private TimeDependentTravelTimeMatrix(Network dvrpNetwork, ZoneSystem zoneSystem, DvrpTravelTimeMatrixParams params, int numberOfThreads,
+		double maxTime) {
+		Preconditions.checkArgument(params.timeBinSize > 0, "timeBinSize must be positive");
+		this.dvrpNetwork = dvrpNetwork;
+		this.zoneSystem = zoneSystem;
+		this.params = params;
+		this.numberOfThreads = numberOfThreads;
+		this.centralNodes = ZoneSystemUtils.computeMostCentralNodes(dvrpNetwork.getNodes().values(), zoneSystem);
+		this.timeBinSize = params.timeBinSize;
+		this.numberOfBins = (int)Math.ceil(maxTime / timeBinSize);
+		Preconditions.checkArgument(numberOfBins > 0, "maxTime must be positive");
+	}
+
+	/**
+	 * Recalculates all slices. The bins are processed one after another; each of them is computed with {@code numberOfThreads}
+	 * threads. Queries running concurrently keep using the previous slices until all new ones are ready.
+	 */
+	public void update(TravelTime travelTime) {
+		var travelDisutility = new TimeAsTravelDisutility(travelTime);
+		var routingParams = new TravelTimeMatrices.RoutingParams(dvrpNetwork, travelTime, travelDisutility, numberOfThreads);
+
+		Slice[] newSlices = new Slice[numberOfBins];
+		for (int bin = 0; bin < numberOfBins; bin++) {
+			double departureTime = (bin + 0.5) * timeBinSize;
+			var matrix = TravelTimeMatrices.calculateTravelTimeMatrix(routingParams, centralNodes, departureTime);
+			var sparseMatrix = TravelTimeMatrices.calculateTravelTimeSparseMatrix(routingParams, params.maxNeighborDistance,
+				params.maxNeighborTravelTime, departureTime).orElse(null);
+			newSlices[bin] = new Slice(matrix, sparseMatrix);
+		}
+		slices = newSlices;
+	}
+
+	@Override
+	public int getTravelTime(Node fromNode, Node toNode, double departureTime) {
+		if (fromNode == toNode) {
+			return 0;
+		}
+		Slice slice = slices[getBin(departureTime)];
+		if (slice.sparseMatrix != null) {
+			int time = slice.sparseMatrix.get(fromNode, toNode);
+			if (time >= 0) {// value is present
+				return time;
+			}
+		}
+		return slice.matrix.get(zoneSystem.getZoneForNodeId(fromNode.getId()).orElseThrow(),
+			zoneSystem.getZoneForNodeId(toNode.getId()).orElseThrow());
+	}
+
+	int getBin(double departureTime) {
+		return TimeBinUtils.getTimeBinIndex(departureTime, timeBinSize, numberOfBins);
+	}
+
+	// Only the time bins are checked, and the zones and nodes by number and id. The travel times and the neighbourhood
+	// parameters the cache was created with are not stored, so a stale cache is not detected.
+	private Slice[] read(File cachePath) {
+		try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(cachePath)))) {
+			Verify.verify(inputStream.readInt() == CACHE_MAGIC, "Not a time-dependent travel time matrix: %s", cachePath);
+			Verify.verify(inputStream.readInt() == CACHE_VERSION, "Unsupported cache version: %s", cachePath);
+			Verify.verify(inputStream.readDouble() == timeBinSize, "Cached matrix has a different time bin size");
+			Verify.verify(inputStream.readInt() == numberOfBins, "Cached matrix has a different number of time bins");
+
+			// read zone list
+			int numberOfZones = inputStream.readInt();
+			Verify.verify(numberOfZones == zoneSystem.getZones().size());
+			List<Zone> zones = new ArrayList<>(numberOfZones);
+			for (int i = 0; i < numberOfZones; i++) {
+				Id<Zone> zoneId = Id.create(inputStream.readUTF(), Zone.class);
+				zones.add(Objects.requireNonNull(zoneSystem.getZones().get(zoneId), () -> "Unknown zone: " + zoneId));
+			}
+
+			// read node list (only if there are sparse matrices)
+			List<Node> nodes = null;
+			if (inputStream.readBoolean()) {
+				int numberOfNodes = inputStream.readInt();
+				Verify.verify(numberOfNodes == dvrpNetwork.getNodes().size());
+				nodes = new ArrayList<>(numberOfNodes);
+				for (int i = 0; i < numberOfNodes; i++) {
+					Id<Node> nodeId = Id.createNodeId(inputStream.readUTF());
+					nodes.add(Objects.requireNonNull(dvrpNetwork.getNodes().get(nodeId), () -> "Unknown node: " + nodeId));
+				}
+			}
+
+			Slice[] cachedSlices = new Slice[numberOfBins];
+			for (int bin = 0; bin < numberOfBins; bin++) {
+				Matrix matrix = new Matrix(new HashSet<>(zones));
+				for (Zone from : zones) {
+					for (Zone to : zones) {
+						matrix.set(from, to, inputStream.readUnsignedShort());
+					}
+				}
+
+				SparseMatrix sparseMatrix = null;
+				if (inputStream.readBoolean()) {
+					Verify.verifyNotNull(nodes);
+					sparseMatrix = new SparseMatrix();
+					for (Node from : nodes) {
+						int numberOfElements = inputStream.readInt();
+						if (numberOfElements > 0) {
+							List<NodeAndTime> nodeTimeList = new ArrayList<>(numberOfElements);
+							for (int j = 0; j < numberOfElements; j++) {
+								Node to = nodes.get(inputStream.readInt());
+								nodeTimeList.add(new NodeAndTime(to.getId().index(), inputStream.readUnsignedShort()));
+							}
+							sparseMatrix.setRow(from, new SparseRow(nodeTimeList));
+						}
+					}
+				}
+				cachedSlices[bin] = new Slice(matrix, sparseMatrix);
+			}
+			return cachedSlices;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public void write(File outputPath) {
+		Slice[] currentSlices = slices;
+		boolean hasSparseMatrices = Arrays.stream(currentSlices).anyMatch(slice -> slice.sparseMatrix != null);
+
+		try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outputPath)))) {
+			outputStream.writeInt(CACHE_MAGIC);
+			outputStream.writeInt(CACHE_VERSION);
+			outputStream.writeDouble(timeBinSize);
+			outputStream.writeInt(numberOfBins);
+
+			// obtain fixed order of zones
+			List<Zone> zones = new ArrayList<>(zoneSystem.getZones().values());
+			outputStream.writeInt(zones.size());
+			for (Zone zone : zones) {
+				outputStream.writeUTF(zone.getId().toString());
+			}
+
+			// obtain fixed order of nodes
+			List<Node> nodes = new ArrayList<>(dvrpNetwork.getNodes().values());
+			int[] nodeIndex2position = new int[Id.getNumberOfIds(Node.class)];
+			outputStream.writeBoolean(hasSparseMatrices);
+			if (hasSparseMatrices) {
+				outputStream.writeInt(nodes.size());
+				for (int i = 0; i < nodes.size(); i++) {
+					Node node = nodes.get(i);
+					outputStream.writeUTF(node.getId().toString());
+					nodeIndex2position[node.getId().index()] = i;
+				}
+			}
+
+			for (Slice slice : currentSlices) {
+				// write matrix (values are unsigned shorts, see Matrix)
+				for (Zone from : zones) {
+					for (Zone to : zones) {
+						outputStream.writeShort(slice.matrix.get(from, to));
+					}
+				}
+
+				// write sparse matrix rows
+				outputStream.writeBoolean(slice.sparseMatrix != null);
+				if (slice.sparseMatrix != null) {
+					for (Node from : nodes) {
+						SparseRow row = slice.sparseMatrix.getRow(from);
+						List<NodeAndTime> entries = row != null ? row.getEntries() : List.of();
+						outputStream.writeInt(entries.size());
+						for (NodeAndTime entry : entries) {
+							outputStream.writeInt(nodeIndex2position[entry.nodeIdx()]);
+							outputStream.writeShort((int)entry.time());
+						}
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
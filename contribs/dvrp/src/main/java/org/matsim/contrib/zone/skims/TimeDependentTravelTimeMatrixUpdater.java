@@ -0,0 +1,65 @@
+/*
+ * *********************************************************************** *
+ * project: org.matsim.*
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** *
+ */
+
+package org.matsim.contrib.zone.skims;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.matsim.contrib.dvrp.trafficmonitoring.DvrpTravelTimeModule;
+import org.matsim.core.config.groups.ControllerConfigGroup;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.router.util.TravelTime;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Recalculates the registered {@link TimeDependentTravelTimeMatrix} instances at the beginning of each iteration (except
+ * the first one) using the DVRP travel time estimates, which at that point reflect the previous iteration. This costs
+ * one full matrix calculation per time bin and matrix in every iteration.
+ * <p>
+ * Matrices are registered when they get created, so lazily initialised matrices that are never used are not updated.
+ */
+public class TimeDependentTravelTimeMatrixUpdater implements IterationStartsListener {
+	private final TravelTime travelTime;
+	private final int firstIteration;
+	private final List<TimeDependentTravelTimeMatrix> matrices = new CopyOnWriteArrayList<>();
+
+	@Inject
+	public TimeDependentTravelTimeMatrixUpdater(@Named(DvrpTravelTimeModule.DVRP_ESTIMATED) TravelTime travelTime,
+		ControllerConfigGroup controllerConfig) {
+		this.travelTime = travelTime;
+		this.firstIteration = controllerConfig.getFirstIteration();
+	}
+
+	public TimeDependentTravelTimeMatrix register(TimeDependentTravelTimeMatrix matrix) {
+		matrices.add(matrix);
+		return matrix;
+	}
+
+	@Override
+	public void notifyIterationStarts(IterationStartsEvent event) {
+		if (event.getIteration() > firstIteration) {
+			matrices.forEach(matrix -> matrix.update(travelTime));
+		}
+	}
+}
@@ -32,6 +32,7 @@ import org.matsim.contrib.common.zones.Zone;
 import org.matsim.contrib.util.ExecutorServiceWithResource;
 import org.matsim.contrib.zone.skims.SparseMatrix.NodeAndTime;
 import org.matsim.contrib.zone.skims.SparseMatrix.SparseRow;
+import org.matsim.core.router.speedy.LeastCostPathMatrix;
 import org.matsim.core.router.speedy.LeastCostPathTree;
 import org.matsim.core.router.speedy.SpeedyGraph;
 import org.matsim.core.router.speedy.SpeedyGraphBuilder;
@@ -51,26 +52,22 @@ public final class TravelTimeMatrices {
 	}
 
 	public static Matrix calculateTravelTimeMatrix(RoutingParams params, Map<Zone, Node> centralNodes, double departureTime) {
-		Matrix travelTimeMatrix = new Matrix(centralNodes.keySet());
-		Calculation<Zone> calculation = (lcpTree, z) -> computeForDepartureZone(z, centralNodes, departureTime, travelTimeMatrix, lcpTree);
-		calculate(params, centralNodes.keySet(), calculation, "DVRP free-speed TT matrix: zone ");
-		return travelTimeMatrix;
-	}
-
-	private static void computeForDepartureZone(Zone fromZone, Map<Zone, Node> centralNodes, double departureTime, Matrix travelTimeMatrix,
-		LeastCostPathTree lcpTree) {
-		Node fromNode = centralNodes.get(fromZone);
-		lcpTree.calculate(fromNode.getId().index(), departureTime, null, null);
+		List<Zone> zones = new ArrayList<>(centralNodes.keySet());
+		int[] nodes = zones.stream().mapToInt(z -> centralNodes.get(z).getId().index()).toArray();
+		SpeedyGraph graph = SpeedyGraphBuilder.build(params.routingNetwork);
+		LeastCostPathMatrix lcpMatrix = LeastCostPathMatrix.calculate(graph, params.travelTime, params.travelDisutility, nodes, nodes, departureTime,
+			params.numberOfThreads);
 
-		for (Zone toZone : centralNodes.keySet()) {
-			Node toNode = centralNodes.get(toZone);
-			int nodeIndex = toNode.getId().index();
-			OptionalTime currOptionalTime = lcpTree.getTime(nodeIndex);
-			double currTime = currOptionalTime.orElseThrow(() -> new RuntimeException(
-				"Undefined Time. Reason could be that the dvrp network is not fully connected. Please check and/or clean."));
-			double tt = currTime - departureTime;
-			travelTimeMatrix.set(fromZone, toZone, tt);
+		Matrix travelTimeMatrix = new Matrix(centralNodes.keySet());
+		for (int from = 0; from < zones.size(); from++) {
+			for (int to = 0; to < zones.size(); to++) {
+				if (!lcpMatrix.isReachable(from, to)) {
+					throw new RuntimeException("Undefined Time. Reason could be that the dvrp network is not fully connected. Please check and/or clean.");
+				}
+				travelTimeMatrix.set(zones.get(from), zones.get(to), lcpMatrix.getTravelTime(from, to));
+			}
 		}
+		return travelTimeMatrix;
 	}
 
 	public static Optional<SparseMatrix> calculateTravelTimeSparseMatrix(RoutingParams params, double maxDistance, double maxTravelTime,
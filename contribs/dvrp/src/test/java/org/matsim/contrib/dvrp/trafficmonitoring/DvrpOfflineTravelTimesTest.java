@@ -31,10 +31,12 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.contrib.common.timeprofile.TimeDiscretizer;
@@ -124,4 +126,35 @@ public class DvrpOfflineTravelTimesTest {
 				NullPointerException.class)
 				.hasMessage("Link (%s) does not belong to network. No travel time data.", linkB.getId());
 	}
+
+	@Test
+	void saveAndMapLinkTravelTimesBinary(@TempDir Path tempDir) {
+		var linkA = new FakeLink(linkIdA);
+		var linkB = new FakeLink(linkIdB);
+		var linkC = new FakeLink(Id.createLinkId("C"));
+		var timeDiscretizer = new TimeDiscretizer(3600, 900);
+
+		//the matrix may have more than 2 rows (depends on how many link ids are cached)
+		var linkTTs = new double[Id.getNumberOfIds(Link.class)][];
+		linkTTs[linkIdA.index()] = new double[] { 0.5, 1.5, 2.5, 3.5, 4.5 };
+		linkTTs[linkIdB.index()] = new double[] { 5.5, 6.5, 7.5, 8.5, 9.5 };
+
+		Path file = tempDir.resolve("dvrp_travel_times.bin");
+		DvrpOfflineTravelTimes.saveLinkTravelTimesBinary(timeDiscretizer, linkTTs, file);
+		var travelTime = DvrpOfflineTravelTimes.asTravelTime(timeDiscretizer, file);
+
+		// not rounded (unlike in CSV)
+		assertThat(travelTime.getLinkTravelTime(linkA, 0, null, null)).isEqualTo(0.5);
+		assertThat(travelTime.getLinkTravelTime(linkA, 899, null, null)).isEqualTo(0.5);
+		assertThat(travelTime.getLinkTravelTime(linkA, 900, null, null)).isEqualTo(1.5);
+		assertThat(travelTime.getLinkTravelTime(linkB, 3600, null, null)).isEqualTo(9.5);
+
+		assertThatThrownBy(() -> travelTime.getLinkTravelTime(linkC, 0, null, null)).isExactlyInstanceOf(
+				NullPointerException.class)
+				.hasMessage("Link (%s) does not belong to network. No travel time data.", linkC.getId());
+
+		// a different time discretization is not accepted
+		assertThatThrownBy(() -> DvrpOfflineTravelTimes.asTravelTime(new TimeDiscretizer(3600, 600), file)).isInstanceOf(
+				RuntimeException.class);
+	}
 }
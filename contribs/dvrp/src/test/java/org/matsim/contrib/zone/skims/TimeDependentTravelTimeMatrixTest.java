@@ -0,0 +1,129 @@
+/*
+ * *********************************************************************** *
+ * project: org.matsim.*
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** *
+ */
+
+package org.matsim.contrib.zone.skims;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.contrib.common.zones.ZoneSystem;
+import org.matsim.contrib.common.zones.systems.grid.square.SquareGridZoneSystem;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class TimeDependentTravelTimeMatrixTest {
+
+	@RegisterExtension
+	MatsimTestUtils utils = new MatsimTestUtils();
+
+	private final Network network = NetworkUtils.createNetwork();
+	private final Node nodeA = NetworkUtils.createAndAddNode(network, Id.createNodeId("A"), new Coord(0, 0));
+	private final Node nodeB = NetworkUtils.createAndAddNode(network, Id.createNodeId("B"), new Coord(150, 150));
+	private final Node nodeC = NetworkUtils.createAndAddNode(network, Id.createNodeId("C"), new Coord(-10, -10));
+
+	private final ZoneSystem zoneSystem = new SquareGridZoneSystem(network, 100.);
+
+	// free speed until 1:00, then twice as slow
+	private final TravelTime peakTravelTime = (link, time, person, vehicle) -> (time < 3600 ? 1 : 2) * link.getLength()
+		/ link.getFreespeed();
+
+	public TimeDependentTravelTimeMatrixTest() {
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("AB"), nodeA, nodeB, 150, 15, 20, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("BA"), nodeB, nodeA, 300, 15, 40, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("AC"), nodeA, nodeC, 165, 15, 20, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("CA"), nodeC, nodeA, 135, 15, 20, 1);
+	}
+
+	@Test
+	void matrix() {
+		var matrix = new TimeDependentTravelTimeMatrix(network, zoneSystem, createParams(0), 1, peakTravelTime, 7200);
+		assertZonalTravelTimes(matrix);
+
+		// write and read cache
+		File cachePath = new File(utils.getOutputDirectory(), "cache.bin");
+		matrix.write(cachePath);
+		matrix = TimeDependentTravelTimeMatrix.createMatrixFromCache(network, zoneSystem, createParams(0), 1, null, 7200, cachePath);
+		assertZonalTravelTimes(matrix);
+	}
+
+	private void assertZonalTravelTimes(TravelTimeMatrix matrix) {
+		// first bin: free speed
+		assertThat(matrix.getTravelTime(nodeA, nodeA, 0)).isEqualTo(0);
+		assertThat(matrix.getTravelTime(nodeA, nodeB, 0)).isEqualTo(10);
+		assertThat(matrix.getTravelTime(nodeB, nodeA, 3599)).isEqualTo(20);
+		assertThat(matrix.getTravelTime(nodeC, nodeB, 0)).isEqualTo(10); // C and A are in the same zone
+
+		// second bin: peak
+		assertThat(matrix.getTravelTime(nodeA, nodeB, 3600)).isEqualTo(20);
+		assertThat(matrix.getTravelTime(nodeB, nodeA, 7199)).isEqualTo(40);
+
+		// departures after maxTime use the last bin
+		assertThat(matrix.getTravelTime(nodeA, nodeB, 100_000)).isEqualTo(20);
+	}
+
+	@Test
+	void sparseMatrix() {
+		var matrix = new TimeDependentTravelTimeMatrix(network, zoneSystem, createParams(9999), 1, peakTravelTime, 7200);
+		assertSparseTravelTimes(matrix);
+
+		// write and read cache
+		File cachePath = new File(utils.getOutputDirectory(), "cache.bin");
+		matrix.write(cachePath);
+		matrix = TimeDependentTravelTimeMatrix.createMatrixFromCache(network, zoneSystem, createParams(9999), 1, null, 7200, cachePath);
+		assertSparseTravelTimes(matrix);
+	}
+
+	private void assertSparseTravelTimes(TravelTimeMatrix matrix) {
+		// first bin: free speed
+		assertThat(matrix.getTravelTime(nodeA, nodeC, 0)).isEqualTo(11);
+		assertThat(matrix.getTravelTime(nodeB, nodeC, 0)).isEqualTo(20 + 11);
+		assertThat(matrix.getTravelTime(nodeC, nodeB, 0)).isEqualTo(9 + 10);
+
+		// second bin: peak
+		assertThat(matrix.getTravelTime(nodeA, nodeC, 3600)).isEqualTo(22);
+		assertThat(matrix.getTravelTime(nodeB, nodeC, 3600)).isEqualTo(40 + 22);
+		assertThat(matrix.getTravelTime(nodeC, nodeB, 3600)).isEqualTo(18 + 20);
+	}
+
+	@Test
+	void update() {
+		TravelTime freeSpeedTravelTime = (link, time, person, vehicle) -> link.getLength() / link.getFreespeed();
+		var matrix = new TimeDependentTravelTimeMatrix(network, zoneSystem, createParams(0), 1, freeSpeedTravelTime, 7200);
+		assertThat(matrix.getTravelTime(nodeA, nodeB, 3600)).isEqualTo(10);
+
+		matrix.update(peakTravelTime);
+		assertZonalTravelTimes(matrix);
+	}
+
+	private static DvrpTravelTimeMatrixParams createParams(double maxNeighborDistance) {
+		DvrpTravelTimeMatrixParams params = new DvrpTravelTimeMatrixParams();
+		params.maxNeighborDistance = maxNeighborDistance;
+		params.timeBinSize = 3600;
+		return params;
+	}
+}
@@ -66,6 +66,10 @@ public class SwissRailRaptorConfigGroup extends ReflectiveConfigGroup {
     private static final String PARAM_INTERMODAL_LEG_ONLYHANDLING_DESC = "Define how routes containing only intermodal legs are handled: Useful options: alllow, avoid, forbid";
     private static final String PARAM_TRANSFER_CALCULATION = "transferCalculation";
     private static final String PARAM_TRANFER_CALCULATION_DESC = "Defines whether all potential transfers are precomputed at the beginning of the simulation (Initial) or whether they are constructed on-demand when needed (Adaptive). The former incurs potentially long up-front caclulations, but quicker routing. The latter avoids any initial computation, but may require longer routing time.";
+    private static final String PARAM_USE_INCREMENTAL_DATA_UPDATE = "useIncrementalDataUpdate";
+    private static final String PARAM_USE_INCREMENTAL_DATA_UPDATE_DESC = "If true, the transfers of unchanged transit routes are re-used when the transit schedule changes during the simulation, instead of calculating all of them again. Changes to the coordinates of stop facilities, to minimal transfer times or to the boarding and alighting flags of route stops are not detected.";
+    private static final String PARAM_DATA_CACHE_DIRECTORY = "dataCacheDirectory";
+    private static final String PARAM_DATA_CACHE_DIRECTORY_DESC = "Directory in which the precomputed transfers are stored per transit schedule, so later runs with the same schedule and settings can read them instead of calculating them again. Only used with transferCalculation=Initial. 'null' disables the cache.";
 
     private boolean useRangeQuery = false;
     private boolean useIntermodality = false;
@@ -80,6 +84,8 @@ public class SwissRailRaptorConfigGroup extends ReflectiveConfigGroup {
     private double transferWalkMargin = 5;
 	private IntermodalLegOnlyHandling intermodalLegOnlyHandling = IntermodalLegOnlyHandling.forbid;
 	private RaptorTransferCalculation transferCalculation = RaptorTransferCalculation.Initial;
+	private boolean useIncrementalDataUpdate = false;
+	private String dataCacheDirectory = null;
 
     private ScoringParameters scoringParameters = ScoringParameters.Default;
 
@@ -149,6 +155,26 @@ public class SwissRailRaptorConfigGroup extends ReflectiveConfigGroup {
 		return transferCalculation;
 	}
 
+	@StringSetter(PARAM_USE_INCREMENTAL_DATA_UPDATE)
+	public void setUseIncrementalDataUpdate(boolean useIncrementalDataUpdate) {
+		this.useIncrementalDataUpdate = useIncrementalDataUpdate;
+	}
+
+	@StringGetter(PARAM_USE_INCREMENTAL_DATA_UPDATE)
+	public boolean isUseIncrementalDataUpdate() {
+		return this.useIncrementalDataUpdate;
+	}
+
+	@StringSetter(PARAM_DATA_CACHE_DIRECTORY)
+	public void setDataCacheDirectory(String dataCacheDirectory) {
+		this.dataCacheDirectory = dataCacheDirectory;
+	}
+
+	@StringGetter(PARAM_DATA_CACHE_DIRECTORY)
+	public String getDataCacheDirectory() {
+		return this.dataCacheDirectory;
+	}
+
 	@StringGetter(PARAM_USE_RANGE_QUERY)
     public boolean isUseRangeQuery() {
         return this.useRangeQuery;
@@ -724,6 +750,8 @@ public class SwissRailRaptorConfigGroup extends ReflectiveConfigGroup {
         comments.put(PARAM_TRANSFER_WALK_MARGIN, PARAM_TRANSFER_WALK_MARGIN_DESC);
 		comments.put(PARAM_INTERMODAL_ACCESS_EGRESS_MODE_SELECTION,PARAM_INTERMODAL_ACCESS_EGRESS_MODE_SELECTION_DESC);
 		comments.put(PARAM_TRANSFER_CALCULATION, PARAM_TRANFER_CALCULATION_DESC);
+		comments.put(PARAM_USE_INCREMENTAL_DATA_UPDATE, PARAM_USE_INCREMENTAL_DATA_UPDATE_DESC);
+		comments.put(PARAM_DATA_CACHE_DIRECTORY, PARAM_DATA_CACHE_DIRECTORY_DESC);
         return comments;
     }
 
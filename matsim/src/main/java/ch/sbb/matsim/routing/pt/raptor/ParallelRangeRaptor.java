@@ -0,0 +1,120 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package ch.sbb.matsim.routing.pt.raptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+import ch.sbb.matsim.routing.pt.raptor.RangeRaptor.ProfileEntry;
+
+/**
+ * Calculates the arrival profiles of many start stops with several threads, e.g. for accessibility computations or skims.
+ * All threads share the same {@link SwissRailRaptorData}, every thread has its own {@link RangeRaptor}.  The
+ * {@link RangeRaptor}s are kept for later calls, so repeated calls do not need to allocate their internal state again.
+ */
+public final class ParallelRangeRaptor {
+
+	private final SwissRailRaptorData data;
+	private final int numberOfThreads;
+	private final ConcurrentLinkedQueue<RangeRaptor> raptors = new ConcurrentLinkedQueue<>();
+
+	public ParallelRangeRaptor(SwissRailRaptorData data, int numberOfThreads) {
+		this.data = data;
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * Receives the profiles of one start stop.  Is called from several threads at the same time.
+	 */
+	public interface ProfileConsumer {
+		void accept(TransitStopFacility fromStop, Map<Id<TransitStopFacility>, List<ProfileEntry>> profiles);
+	}
+
+	/**
+	 * Calculates the profiles of all <code>fromStops</code> and returns them, by start stop.
+	 *
+	 * @see RangeRaptor#calcProfile(TransitStopFacility, double, double, RaptorParameters)
+	 */
+	public Map<Id<TransitStopFacility>, Map<Id<TransitStopFacility>, List<ProfileEntry>>> calcProfiles(List<TransitStopFacility> fromStops, double earliestDepartureTime, double latestDepartureTime, RaptorParameters parameters) {
+		Map<Id<TransitStopFacility>, Map<Id<TransitStopFacility>, List<ProfileEntry>>> result = new ConcurrentHashMap<>();
+		calcProfiles(fromStops, earliestDepartureTime, latestDepartureTime, parameters, (fromStop, profiles) -> result.put(fromStop.getId(), profiles));
+		return result;
+	}
+
+	/**
+	 * Calculates the profiles of all <code>fromStops</code> and passes them to the consumer, so they need not all be kept
+	 * in memory.  Returns when all profiles are calculated.
+	 */
+	public void calcProfiles(List<TransitStopFacility> fromStops, double earliestDepartureTime, double latestDepartureTime, RaptorParameters parameters, ProfileConsumer consumer) {
+		AtomicInteger nextStop = new AtomicInteger();
+		AtomicReference<Throwable> exception = new AtomicReference<>();
+
+		Runnable worker = () -> {
+			RangeRaptor raptor = this.raptors.poll();
+			if (raptor == null) {
+				raptor = new RangeRaptor(this.data);
+			}
+			try {
+				int index;
+				while (exception.get() == null && (index = nextStop.getAndIncrement()) < fromStops.size()) {
+					TransitStopFacility fromStop = fromStops.get(index);
+					consumer.accept(fromStop, raptor.calcProfile(fromStop, earliestDepartureTime, latestDepartureTime, parameters));
+				}
+			} catch (Throwable t) {
+				exception.compareAndSet(null, t);
+			} finally {
+				this.raptors.add(raptor);
+			}
+		};
+
+		int threadCount = Math.max(1, Math.min(this.numberOfThreads, fromStops.size()));
+		List<Thread> threads = new ArrayList<>(threadCount);
+		for (int i = 0; i < threadCount; i++) {
+			Thread thread = new Thread(worker, "RangeRaptor-" + i);
+			thread.setDaemon(true);
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		Throwable t = exception.get();
+		if (t instanceof RuntimeException re) {
+			throw re;
+		}
+		if (t != null) {
+			throw new RuntimeException(t);
+		}
+	}
+}
@@ -0,0 +1,330 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package ch.sbb.matsim.routing.pt.raptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+import ch.sbb.matsim.routing.pt.raptor.RaptorStaticConfig.RaptorTransferCalculation;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData.RRoute;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData.RRouteStop;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData.RTransfer;
+
+/**
+ * Profile queries with the Range-RAPTOR algorithm (rRAPTOR, Delling et al, Round-Based Public Transit Routing):
+ * for one start stop and a departure time window, calculates for every reachable stop all journeys that are Pareto-optimal
+ * with regard to departure time (later is better), arrival time and number of transfers.
+ * <p></p>
+ * The algorithm runs one RAPTOR query per actual departure at the start stop, from the latest to the earliest, and keeps
+ * the arrival times of later departures as upper bounds for the earlier ones.  So every run only has to explore the
+ * journeys that improve on a later departure, which makes the profile much cheaper than a tree per departure time
+ * (see {@link SwissRailRaptor#calcTreesObservable}).
+ * <p></p>
+ * In contrast to {@link SwissRailRaptorCore}, this optimizes arrival times and not generalized costs, as the labels of later
+ * departures could not be re-used for costs.  Capacity constraints are not considered.
+ * <p></p>
+ * This class is <b>NOT</b> thread-safe due to the use of internal state during the calculation.  Use one instance per
+ * thread, see {@link ParallelRangeRaptor}.  The {@link SwissRailRaptorData} can be shared.
+ */
+public final class RangeRaptor {
+
+	private static final int TIME_UNREACHED = Integer.MAX_VALUE;
+
+	private final SwissRailRaptorData data;
+	private final boolean useAdaptiveTransferCalculation;
+	private final TransitStopFacility[] stopFacilities;
+
+	private int countRounds = -1;
+	/** earliest arrival at a stop, by vehicle or by walking, per round (= number of pt legs) */
+	private int[][] arrivalAtStop;
+	/** earliest arrival at a route stop by a vehicle of that route, per round */
+	private int[][] arrivalAtRouteStop;
+	/** earliest time at which a route stop can be boarded after the given round */
+	private int[][] boardingAtRouteStop;
+	private BitSet[] improvedStops;
+
+	private final BitSet markedRouteStops;
+	private final BitSet improvedByVehicle;
+	private final List<ProfileEntry>[] profiles;
+
+	@SuppressWarnings("unchecked")
+	public RangeRaptor(SwissRailRaptorData data) {
+		this.data = data;
+		this.useAdaptiveTransferCalculation = data.config.getTransferCalculation().equals(RaptorTransferCalculation.Adaptive);
+		this.stopFacilities = new TransitStopFacility[data.countStops];
+		for (Map.Entry<TransitStopFacility, Integer> e : data.stopFacilityIndices.entrySet()) {
+			this.stopFacilities[e.getValue()] = e.getKey();
+		}
+		this.markedRouteStops = new BitSet(data.countRouteStops);
+		this.improvedByVehicle = new BitSet(data.countRouteStops);
+		this.profiles = new List[data.countStops];
+	}
+
+	/**
+	 * Calculates the arrival profiles from <code>fromStop</code> for all departures at this stop between
+	 * <code>earliestDepartureTime</code> and <code>latestDepartureTime</code>.  Only journeys with at least one pt leg are
+	 * part of the profiles, and at most {@link RaptorParameters#getMaxTransfers()} transfers are made.
+	 *
+	 * @return the profile of every reached stop, the entries sorted by increasing departure time.
+	 */
+	public Map<Id<TransitStopFacility>, List<ProfileEntry>> calcProfile(TransitStopFacility fromStop, double earliestDepartureTime, double latestDepartureTime, RaptorParameters parameters) {
+		int[] fromRouteStopIndices = this.data.routeStopsPerStopFacility.get(fromStop);
+		if (fromRouteStopIndices == null) {
+			return Collections.emptyMap(); // not served by any route
+		}
+		reset(parameters.getMaxTransfers() + 2);
+
+		int fromStopIndex = this.data.stopFacilityIndices.get(fromStop);
+		int[] departureTimes = collectDepartureTimes(fromRouteStopIndices, earliestDepartureTime, latestDepartureTime);
+
+		// latest departure first, so the earlier ones only need to find improvements
+		for (int i = departureTimes.length - 1; i >= 0; i--) {
+			int departureTime = departureTimes[i];
+			runRounds(departureTime, fromStopIndex, fromRouteStopIndices);
+			collectProfileEntries(departureTime);
+		}
+
+		Map<Id<TransitStopFacility>, List<ProfileEntry>> result = new HashMap<>();
+		for (int stopIndex = 0; stopIndex < this.profiles.length; stopIndex++) {
+			List<ProfileEntry> profile = this.profiles[stopIndex];
+			if (profile != null) {
+				Collections.reverse(profile);
+				result.put(this.stopFacilities[stopIndex].getId(), profile);
+				this.profiles[stopIndex] = null;
+			}
+		}
+		return result;
+	}
+
+	private void reset(int countRounds) {
+		if (countRounds != this.countRounds) {
+			this.countRounds = countRounds;
+			this.arrivalAtStop = new int[countRounds][this.data.countStops];
+			this.arrivalAtRouteStop = new int[countRounds][this.data.countRouteStops];
+			this.boardingAtRouteStop = new int[countRounds][this.data.countRouteStops];
+			this.improvedStops = new BitSet[countRounds];
+			for (int round = 0; round < countRounds; round++) {
+				this.improvedStops[round] = new BitSet(this.data.countStops);
+			}
+		}
+		for (int round = 0; round < countRounds; round++) {
+			Arrays.fill(this.arrivalAtStop[round], TIME_UNREACHED);
+			Arrays.fill(this.arrivalAtRouteStop[round], TIME_UNREACHED);
+			Arrays.fill(this.boardingAtRouteStop[round], TIME_UNREACHED);
+		}
+	}
+
+	private int[] collectDepartureTimes(int[] fromRouteStopIndices, double earliestDepartureTime, double latestDepartureTime) {
+		int count = 0;
+		int[] departureTimes = new int[16];
+		for (int routeStopIndex : fromRouteStopIndices) {
+			RRouteStop routeStop = this.data.routeStops[routeStopIndex];
+			if (!routeStop.routeStop.isAllowBoarding()) {
+				continue;
+			}
+			RRoute route = this.data.routes[routeStop.transitRouteIndex];
+			for (int depIndex = route.indexFirstDeparture; depIndex < route.indexFirstDeparture + route.countDepartures; depIndex++) {
+				int departureTime = this.data.departures[depIndex] + routeStop.departureOffset;
+				if (departureTime >= earliestDepartureTime && departureTime <= latestDepartureTime) {
+					if (count == departureTimes.length) {
+						departureTimes = Arrays.copyOf(departureTimes, count * 2);
+					}
+					departureTimes[count++] = departureTime;
+				}
+			}
+		}
+		return Arrays.stream(departureTimes, 0, count).sorted().distinct().toArray();
+	}
+
+	/**
+	 * One RAPTOR query for the given departure time.  Round 0 is the start stop (and walking from there), round k
+	 * contains the journeys with k pt legs.
+	 */
+	private void runRounds(int departureTime, int fromStopIndex, int[] fromRouteStopIndices) {
+		this.markedRouteStops.clear();
+		this.improvedByVehicle.clear();
+
+		improve(this.arrivalAtStop, 0, fromStopIndex, departureTime);
+		for (int routeStopIndex : fromRouteStopIndices) {
+			improve(this.boardingAtRouteStop, 0, routeStopIndex, departureTime);
+			this.markedRouteStops.set(routeStopIndex);
+			// make sure we can transfer even at the start stop
+			improve(this.arrivalAtRouteStop, 0, routeStopIndex, departureTime);
+			this.improvedByVehicle.set(routeStopIndex);
+		}
+		handleTransfers(0);
+
+		for (int round = 1; round < this.countRounds; round++) {
+			if (this.markedRouteStops.isEmpty()) {
+				break;
+			}
+			exploreRoutes(round);
+			handleTransfers(round);
+		}
+	}
+
+	private void exploreRoutes(int round) {
+		int[] boardingTimes = this.boardingAtRouteStop[round - 1];
+		for (int firstRouteStopIndex = this.markedRouteStops.nextSetBit(0); firstRouteStopIndex >= 0; firstRouteStopIndex = this.markedRouteStops.nextSetBit(firstRouteStopIndex + 1)) {
+			RRouteStop firstRouteStop = this.data.routeStops[firstRouteStopIndex];
+			RRoute route = this.data.routes[firstRouteStop.transitRouteIndex];
+			int lastRouteStopIndex = route.indexFirstRouteStop + route.countRouteStops - 1;
+
+			int currentDepartureIndex = -1;
+			for (int routeStopIndex = firstRouteStopIndex; routeStopIndex <= lastRouteStopIndex; routeStopIndex++) {
+				RRouteStop routeStop = this.data.routeStops[routeStopIndex];
+				if (currentDepartureIndex >= 0 && routeStop.routeStop.isAllowAlighting()) {
+					int arrivalTime = this.data.departures[currentDepartureIndex] + routeStop.arrivalOffset;
+					if (improve(this.arrivalAtRouteStop, round, routeStopIndex, arrivalTime)) {
+						this.improvedByVehicle.set(routeStopIndex);
+						if (improve(this.arrivalAtStop, round, routeStop.stopFacilityIndex, arrivalTime)) {
+							this.improvedStops[round].set(routeStop.stopFacilityIndex);
+						}
+					}
+				}
+				int boardingTime = boardingTimes[routeStopIndex];
+				if (boardingTime != TIME_UNREACHED && routeStop.routeStop.isAllowBoarding()
+						&& (currentDepartureIndex < 0 || boardingTime < this.data.departures[currentDepartureIndex] + routeStop.departureOffset)) {
+					int departureIndex = findNextDepartureIndex(route, routeStop, boardingTime);
+					if (departureIndex >= 0 && (currentDepartureIndex < 0 || departureIndex < currentDepartureIndex)) {
+						currentDepartureIndex = departureIndex;
+					}
+				}
+			}
+			firstRouteStopIndex = lastRouteStopIndex; // we've handled this route, skip its other route stops
+		}
+		this.markedRouteStops.clear();
+	}
+
+	private void handleTransfers(int round) {
+		int[] arrivalTimes = this.arrivalAtRouteStop[round];
+		for (int routeStopIndex = this.improvedByVehicle.nextSetBit(0); routeStopIndex >= 0; routeStopIndex = this.improvedByVehicle.nextSetBit(routeStopIndex + 1)) {
+			RRouteStop fromRouteStop = this.data.routeStops[routeStopIndex];
+			int arrivalTime = arrivalTimes[routeStopIndex];
+
+			final int firstTransferIndex;
+			final int lastTransferIndex;
+			final RTransfer[] transfers;
+			if (!this.useAdaptiveTransferCalculation) {
+				transfers = this.data.transfers;
+				firstTransferIndex = fromRouteStop.indexFirstTransfer;
+				lastTransferIndex = firstTransferIndex + fromRouteStop.countTransfers;
+			} else {
+				transfers = this.data.calculateTransfers(fromRouteStop);
+				firstTransferIndex = 0;
+				lastTransferIndex = transfers.length;
+			}
+
+			for (int transferIndex = firstTransferIndex; transferIndex < lastTransferIndex; transferIndex++) {
+				RTransfer transfer = transfers[transferIndex];
+				int newArrivalTime = arrivalTime + transfer.transferTime;
+				if (improve(this.boardingAtRouteStop, round, transfer.toRouteStop, newArrivalTime)) {
+					this.markedRouteStops.set(transfer.toRouteStop);
+					int toStopIndex = this.data.routeStops[transfer.toRouteStop].stopFacilityIndex;
+					if (improve(this.arrivalAtStop, round, toStopIndex, newArrivalTime) && round > 0) {
+						this.improvedStops[round].set(toStopIndex);
+					}
+				}
+			}
+		}
+		this.improvedByVehicle.clear();
+	}
+
+	/**
+	 * Sets the label of the given round and all later rounds to <code>time</code> where this is an improvement, since a
+	 * journey with fewer pt legs is also valid in every later round.
+	 *
+	 * @return true if the label of the given round was improved
+	 */
+	private boolean improve(int[][] labels, int round, int index, int time) {
+		if (time >= labels[round][index]) {
+			return false;
+		}
+		for (int r = round; r < this.countRounds && time < labels[r][index]; r++) {
+			labels[r][index] = time;
+		}
+		return true;
+	}
+
+	/*
+	 * Every stop that was improved in a run is Pareto-optimal: the labels of later departures were already better
+	 * otherwise, and within a run, a later round only improves a stop with an earlier arrival.
+	 */
+	private void collectProfileEntries(int departureTime) {
+		for (int round = 1; round < this.countRounds; round++) {
+			BitSet stops = this.improvedStops[round];
+			for (int stopIndex = stops.nextSetBit(0); stopIndex >= 0; stopIndex = stops.nextSetBit(stopIndex + 1)) {
+				List<ProfileEntry> profile = this.profiles[stopIndex];
+				if (profile == null) {
+					profile = new ArrayList<>();
+					this.profiles[stopIndex] = profile;
+				}
+				profile.add(new ProfileEntry(departureTime, this.arrivalAtStop[round][stopIndex], round - 1));
+			}
+			stops.clear();
+		}
+	}
+
+	private int findNextDepartureIndex(RRoute route, RRouteStop routeStop, int time) {
+		int depTimeAtRouteStart = time - routeStop.departureOffset;
+		int fromIndex = route.indexFirstDeparture;
+		int toIndex = fromIndex + route.countDepartures;
+		int pos = Arrays.binarySearch(this.data.departures, fromIndex, toIndex, depTimeAtRouteStart);
+		if (pos < 0) {
+			pos = -(pos + 1);
+		}
+		if (pos >= toIndex) {
+			return -1;
+		}
+		return pos;
+	}
+
+	/**
+	 * One Pareto-optimal journey in an arrival profile.
+	 */
+	public static final class ProfileEntry {
+		/** departure time at the start stop */
+		public final double departureTime;
+		/** arrival time at the stop of the profile */
+		public final double arrivalTime;
+		/** number of transfers, i.e. number of pt legs minus one */
+		public final int transferCount;
+
+		ProfileEntry(double departureTime, double arrivalTime, int transferCount) {
+			this.departureTime = departureTime;
+			this.arrivalTime = arrivalTime;
+			this.transferCount = transferCount;
+		}
+
+		@Override
+		public String toString() {
+			return "[departure=" + this.departureTime + " arrival=" + this.arrivalTime + " transfers=" + this.transferCount + "]";
+		}
+	}
+}
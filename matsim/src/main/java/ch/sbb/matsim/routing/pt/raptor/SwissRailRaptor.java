@@ -64,6 +64,7 @@ public class SwissRailRaptor implements TransitRouter {
     private final RaptorStopFinder stopFinder;
 
     private boolean treeWarningShown = false;
+    private RangeRaptor rangeRaptor = null;
 
     public SwissRailRaptor(SwissRailRaptorData data,
                            RaptorParametersForPerson parametersForPerson,
@@ -281,6 +282,18 @@ public class SwissRailRaptor implements TransitRouter {
 			}
 		}
 
+	/** Calculates the Pareto-optimal arrival profiles (departure time, arrival time, transfers) to all stops for the
+	 *  departures between <code>earliestDepartureTime</code> and <code>latestDepartureTime</code> at the provided
+	 *  stop-facility, in one pass.  In contrast to the trees, this optimizes arrival times, not costs.
+	 *  See {@link RangeRaptor}, and {@link ParallelRangeRaptor} for many stop-facilities.
+	 */
+	public Map<Id<TransitStopFacility>, List<RangeRaptor.ProfileEntry>> calcProfile(TransitStopFacility stopFacility, double earliestDepartureTime, double latestDepartureTime, RaptorParameters parameters) {
+		if (this.rangeRaptor == null) {
+			this.rangeRaptor = new RangeRaptor(this.data);
+		}
+		return this.rangeRaptor.calcProfile(stopFacility, earliestDepartureTime, latestDepartureTime, parameters);
+	}
+
     private Map<Id<TransitStopFacility>, SwissRailRaptorCore.TravelInfo> calcLeastCostTree(Collection<InitialStop> accessStops, double departureTime, RaptorParameters parameters, Person person, RaptorObserver observer) {
         return this.raptor.calcLeastCostTree(departureTime, accessStops, parameters, person, observer);
     }
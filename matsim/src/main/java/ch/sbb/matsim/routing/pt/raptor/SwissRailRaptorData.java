@@ -102,6 +102,24 @@ public class SwissRailRaptorData {
     }
 
     public static SwissRailRaptorData create(TransitSchedule schedule, @Nullable Vehicles transitVehicles, RaptorStaticConfig staticConfig, Network network, OccupancyData occupancyData) {
+        return create(schedule, transitVehicles, staticConfig, network, occupancyData, SwissRailRaptorData::calculateRouteStopTransfers);
+    }
+
+    /**
+     * Creates the data for a changed schedule, re-using the transfers of <code>previous</code> where possible instead of
+     * calculating all of them again. See {@link SwissRailRaptorDataUpdater} for which changes are detected.
+     * The configuration of <code>previous</code> is used.
+     */
+    public static SwissRailRaptorData update(SwissRailRaptorData previous, TransitSchedule schedule, @Nullable Vehicles transitVehicles, Network network, OccupancyData occupancyData) {
+        SwissRailRaptorDataUpdater updater = new SwissRailRaptorDataUpdater(previous, schedule);
+        SwissRailRaptorData data = create(schedule, transitVehicles, previous.config, network, occupancyData, updater::calculateRouteStopTransfers);
+        if (previous.config.getTransferCalculation().equals(RaptorTransferCalculation.Adaptive)) {
+            updater.copyTransferCache(data);
+        }
+        return data;
+    }
+
+    static SwissRailRaptorData create(TransitSchedule schedule, @Nullable Vehicles transitVehicles, RaptorStaticConfig staticConfig, Network network, OccupancyData occupancyData, RouteStopTransfersCalculator transfersCalculator) {
         log.info("Preparing data for SwissRailRaptor...");
         long startMillis = System.currentTimeMillis();
 
@@ -209,7 +227,7 @@ public class SwissRailRaptorData {
 		final Map<Integer, RTransfer[]> allTransfers;
 
 		if (staticConfig.getTransferCalculation().equals(RaptorTransferCalculation.Initial)) {
-			allTransfers = calculateRouteStopTransfers(schedule, stopsQT, routeStopsPerStopFacility, routeStops,
+			allTransfers = transfersCalculator.calculate(schedule, stopsQT, routeStopsPerStopFacility, routeStops,
 					staticConfig);
 		} else {
 			allTransfers = Collections.emptyMap();
@@ -264,9 +282,23 @@ public class SwissRailRaptorData {
         return data;
     }
 
+    /**
+     * Calculates the transfers between the route stops, by route stop index. Implementations may re-use transfers
+     * calculated before instead of calculating all of them.
+     */
+    @FunctionalInterface
+    interface RouteStopTransfersCalculator {
+        Map<Integer, RTransfer[]> calculate(TransitSchedule schedule, QuadTree<TransitStopFacility> stopsQT, Map<TransitStopFacility, int[]> routeStopsPerStopFacility, RRouteStop[] routeStops, RaptorStaticConfig config);
+    }
+
     // calculate possible transfers between TransitRouteStops
-    private static Map<Integer, RTransfer[]> calculateRouteStopTransfers(TransitSchedule schedule, QuadTree<TransitStopFacility> stopsQT, Map<TransitStopFacility, int[]> routeStopsPerStopFacility, RRouteStop[] routeStops, RaptorStaticConfig config) {
-        Map<Integer, RTransfer[]> transfers = new HashMap<>(stopsQT.size() * 5);
+    static Map<Integer, RTransfer[]> calculateRouteStopTransfers(TransitSchedule schedule, QuadTree<TransitStopFacility> stopsQT, Map<TransitStopFacility, int[]> routeStopsPerStopFacility, RRouteStop[] routeStops, RaptorStaticConfig config) {
+        return calculateRouteStopTransfers(schedule, routeStopsPerStopFacility.keySet(), stopsQT, routeStopsPerStopFacility, routeStops, config);
+    }
+
+    // calculate possible transfers from the route stops at the given stop facilities
+    static Map<Integer, RTransfer[]> calculateRouteStopTransfers(TransitSchedule schedule, Set<TransitStopFacility> fromStops, QuadTree<TransitStopFacility> stopsQT, Map<TransitStopFacility, int[]> routeStopsPerStopFacility, RRouteStop[] routeStops, RaptorStaticConfig config) {
+        Map<Integer, RTransfer[]> transfers = new HashMap<>(fromStops.size() * 5);
         double maxBeelineWalkConnectionDistance = config.getBeelineWalkConnectionDistance();
         double beelineWalkSpeed = config.getBeelineWalkSpeed();
         double beelineDistanceFactor = config.getBeelineWalkDistanceFactor();
@@ -275,7 +307,7 @@ public class SwissRailRaptorData {
         Map<TransitStopFacility, List<TransitStopFacility>> stopToStopsTransfers = new HashMap<>();
 
         // first, add transfers based on distance
-        for (TransitStopFacility fromStop : routeStopsPerStopFacility.keySet()) {
+        for (TransitStopFacility fromStop : fromStops) {
             Coord fromCoord = fromStop.getCoord();
             Collection<TransitStopFacility> nearbyStops = stopsQT.getDisk(fromCoord.getX(), fromCoord.getY(), maxBeelineWalkConnectionDistance);
             stopToStopsTransfers.computeIfAbsent(fromStop, stop -> new ArrayList<>(5)).addAll(nearbyStops);
@@ -287,6 +319,9 @@ public class SwissRailRaptorData {
             iter.next();
             Id<TransitStopFacility> fromStopId = iter.getFromStopId();
             TransitStopFacility fromStop = schedule.getFacilities().get(fromStopId);
+            if (!fromStops.contains(fromStop)) {
+                continue;
+            }
             Id<TransitStopFacility> toStopId = iter.getToStopId();
             TransitStopFacility toStop = schedule.getFacilities().get(toStopId);
             List<TransitStopFacility> destinationStops = stopToStopsTransfers.computeIfAbsent(fromStop, stop -> new ArrayList<>(5));
@@ -409,7 +444,7 @@ public class SwissRailRaptorData {
         return earliestArrival > latestDeparture;
     }
 
-    private static Departure getEarliestDeparture(TransitRoute route) {
+    static Departure getEarliestDeparture(TransitRoute route) {
         Departure earliest = null;
         for (Departure dep : route.getDepartures().values()) {
             if (earliest == null || dep.getDepartureTime() < earliest.getDepartureTime()) {
@@ -419,7 +454,7 @@ public class SwissRailRaptorData {
         return earliest;
     }
 
-    private static Departure getLatestDeparture(TransitRoute route) {
+    static Departure getLatestDeparture(TransitRoute route) {
         Departure latest = null;
         for (Departure dep : route.getDepartures().values()) {
             if (latest == null || dep.getDepartureTime() > latest.getDepartureTime()) {
@@ -0,0 +1,192 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package ch.sbb.matsim.routing.pt.raptor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.utils.collections.QuadTree;
+import org.matsim.core.utils.io.CacheFiles;
+import org.matsim.pt.transitSchedule.api.Departure;
+import org.matsim.pt.transitSchedule.api.MinimalTransferTimes;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+import org.matsim.vehicles.Vehicles;
+
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData.RRouteStop;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData.RTransfer;
+
+/**
+ * Stores the precomputed transfers of {@link SwissRailRaptorData} in binary files in a directory.
+ * <p>
+ * Calculating the transfers between the route stops takes most of the time when the data is created for a large
+ * schedule. All other data is built from the schedule in linear time and references the schedule's objects, so only the
+ * transfers are stored. If a file for the schedule already exists, the transfers are read from it instead of being
+ * calculated again.
+ * <p>
+ * The file names contain a fingerprint of everything the transfers depend on: the route stops in the order in which
+ * they are enumerated, their stop facilities and coordinates, the first and last departure of each route, the minimal
+ * transfer times and the relevant settings. See {@link CacheFiles} for how changed inputs and concurrent runs are
+ * handled.
+ * <p>
+ * File layout: int magic, int version, int number of route stops, per route stop the number of transfers and per
+ * transfer the index of the route stop transferred to, the transfer time and the transfer distance, all as int.
+ */
+public final class SwissRailRaptorDataCache {
+
+	private static final Logger log = LogManager.getLogger(SwissRailRaptorDataCache.class);
+
+	private static final int MAGIC = 0x53525452; // SRTR
+	private static final int VERSION = 1;
+
+	private final Path directory;
+
+	public SwissRailRaptorDataCache(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Creates the data like {@link SwissRailRaptorData#create}, but reads the transfers from the cache if possible.
+	 * With adaptive transfer calculation, no transfers are precomputed and the cache is not used.
+	 */
+	public SwissRailRaptorData getData(TransitSchedule schedule, @Nullable Vehicles transitVehicles, RaptorStaticConfig staticConfig, Network network, OccupancyData occupancyData) {
+		return SwissRailRaptorData.create(schedule, transitVehicles, staticConfig, network, occupancyData, this::getRouteStopTransfers);
+	}
+
+	private Map<Integer, RTransfer[]> getRouteStopTransfers(TransitSchedule schedule, QuadTree<TransitStopFacility> stopsQT, Map<TransitStopFacility, int[]> routeStopsPerStopFacility, RRouteStop[] routeStops, RaptorStaticConfig config) {
+		Path file = this.directory.resolve("transfers-" + fingerprint(schedule, routeStops, config) + ".bin");
+		if (Files.exists(file)) {
+			log.info("reading SwissRailRaptor transfers from " + file);
+			Map<Integer, RTransfer[]> transfers = readTransfers(file, routeStops.length);
+			if (transfers != null) {
+				return transfers;
+			}
+		}
+		Map<Integer, RTransfer[]> transfers = SwissRailRaptorData.calculateRouteStopTransfers(schedule, stopsQT, routeStopsPerStopFacility, routeStops, config);
+		log.info("writing SwissRailRaptor transfers to " + file);
+		writeTransfers(transfers, routeStops.length, file);
+		return transfers;
+	}
+
+	private static void writeTransfers(Map<Integer, RTransfer[]> transfers, int countRouteStops, Path file) {
+		CacheFiles.writeAtomically(file, tmpFile -> {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(countRouteStops);
+				for (int routeStopIndex = 0; routeStopIndex < countRouteStops; routeStopIndex++) {
+					RTransfer[] stopTransfers = transfers.get(routeStopIndex);
+					if (stopTransfers == null) {
+						out.writeInt(0);
+						continue;
+					}
+					out.writeInt(stopTransfers.length);
+					for (RTransfer transfer : stopTransfers) {
+						out.writeInt(transfer.toRouteStop);
+						out.writeInt(transfer.transferTime);
+						out.writeInt(transfer.transferDistance);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * @return the transfers, or <code>null</code> if the file does not match the route stops.
+	 */
+	private static Map<Integer, RTransfer[]> readTransfers(Path file, int countRouteStops) {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC) {
+				throw new IllegalArgumentException(file + " does not contain SwissRailRaptor transfers.");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IllegalArgumentException("unsupported version of SwissRailRaptor transfers: " + version);
+			}
+			if (in.readInt() != countRouteStops) {
+				log.warn(file + " does not match the transit schedule, calculating the transfers again.");
+				return null;
+			}
+			Map<Integer, RTransfer[]> transfers = new HashMap<>();
+			for (int routeStopIndex = 0; routeStopIndex < countRouteStops; routeStopIndex++) {
+				int count = in.readInt();
+				if (count > 0) {
+					RTransfer[] stopTransfers = new RTransfer[count];
+					for (int i = 0; i < count; i++) {
+						stopTransfers[i] = new RTransfer(routeStopIndex, in.readInt(), in.readInt(), in.readInt());
+					}
+					transfers.put(routeStopIndex, stopTransfers);
+				}
+			}
+			return transfers;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static String fingerprint(TransitSchedule schedule, RRouteStop[] routeStops, RaptorStaticConfig config) {
+		CacheFiles.Fingerprint fp = new CacheFiles.Fingerprint();
+		fp.putDouble(config.getBeelineWalkConnectionDistance());
+		fp.putDouble(config.getBeelineWalkSpeed());
+		fp.putDouble(config.getBeelineWalkDistanceFactor());
+		fp.putDouble(config.getMinimalTransferTime());
+		fp.putString(config.getOptimization().name());
+		fp.putInt(routeStops.length);
+		for (RRouteStop routeStop : routeStops) {
+			TransitStopFacility stop = routeStop.routeStop.getStopFacility();
+			fp.putString(routeStop.line.getId().toString());
+			fp.putString(routeStop.route.getId().toString());
+			fp.putString(stop.getId().toString());
+			fp.putDouble(stop.getCoord().getX());
+			fp.putDouble(stop.getCoord().getY());
+			fp.putInt(routeStop.arrivalOffset);
+			fp.putInt(routeStop.departureOffset);
+			fp.putInt((routeStop.routeStop.isAllowBoarding() ? 1 : 0) + (routeStop.routeStop.isAllowAlighting() ? 2 : 0));
+			if (routeStop.routeStop == routeStop.route.getStops().get(0)) {
+				Departure earliest = SwissRailRaptorData.getEarliestDeparture(routeStop.route);
+				Departure latest = SwissRailRaptorData.getLatestDeparture(routeStop.route);
+				fp.putDouble(earliest == null ? Double.NaN : earliest.getDepartureTime());
+				fp.putDouble(latest == null ? Double.NaN : latest.getDepartureTime());
+			}
+		}
+		MinimalTransferTimes.MinimalTransferTimesIterator iter = schedule.getMinimalTransferTimes().iterator();
+		while (iter.hasNext()) {
+			iter.next();
+			fp.putString(iter.getFromStopId().toString());
+			fp.putString(iter.getToStopId().toString());
+			fp.putDouble(iter.getSeconds());
+		}
+		return fp.toHex();
+	}
+}
@@ -0,0 +1,217 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package ch.sbb.matsim.routing.pt.raptor;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.core.utils.collections.QuadTree;
+import org.matsim.pt.transitSchedule.api.Departure;
+import org.matsim.pt.transitSchedule.api.MinimalTransferTimes;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData.RRoute;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData.RRouteStop;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData.RTransfer;
+
+/**
+ * Re-uses the transfers of a previous {@link SwissRailRaptorData} when the data is created again for a changed schedule.
+ * <p>
+ * Transit routes are matched by their line and route id. A route counts as unchanged if it serves the same stop
+ * facilities with the same offsets, and its first and last departure are the same; other departures may be added or
+ * removed. A stop facility is affected if a changed, added or removed route serves it, or if it is within the beeline
+ * walk connection distance of such a stop or has a minimal transfer time to it. Transfers from route stops at
+ * affected stop facilities are calculated again, all other transfers are copied from the previous data, as they can
+ * only lead to unchanged routes.
+ * <p>
+ * Changes to the coordinates of stop facilities, to the minimal transfer times or to the boarding and alighting
+ * flags of route stops are not detected; use {@link SwissRailRaptorData#create} after such changes.
+ */
+final class SwissRailRaptorDataUpdater {
+
+	private static final Logger log = LogManager.getLogger(SwissRailRaptorDataUpdater.class);
+
+	private final SwissRailRaptorData previous;
+	private final TransitSchedule schedule;
+
+	private int[] previousRouteStopIndices; // per route stop, the index of the same route stop in the previous data, or -1
+	private int[] routeStopIndices; // per previous route stop, the index of the same route stop in the new data, or -1
+	private Set<TransitStopFacility> affectedStops;
+
+	SwissRailRaptorDataUpdater(SwissRailRaptorData previous, TransitSchedule schedule) {
+		this.previous = previous;
+		this.schedule = schedule;
+	}
+
+	Map<Integer, RTransfer[]> calculateRouteStopTransfers(TransitSchedule schedule, QuadTree<TransitStopFacility> stopsQT, Map<TransitStopFacility, int[]> routeStopsPerStopFacility, RRouteStop[] routeStops, RaptorStaticConfig config) {
+		matchRouteStops(routeStops, stopsQT, config);
+
+		Set<TransitStopFacility> fromStops = new HashSet<>(this.affectedStops);
+		fromStops.retainAll(routeStopsPerStopFacility.keySet());
+		Map<Integer, RTransfer[]> transfers = SwissRailRaptorData.calculateRouteStopTransfers(schedule, fromStops, stopsQT, routeStopsPerStopFacility, routeStops, config);
+
+		for (Map.Entry<TransitStopFacility, int[]> e : routeStopsPerStopFacility.entrySet()) {
+			if (this.affectedStops.contains(e.getKey())) {
+				continue;
+			}
+			for (int routeStopIndex : e.getValue()) {
+				RRouteStop previousRouteStop = this.previous.routeStops[this.previousRouteStopIndices[routeStopIndex]];
+				if (previousRouteStop.countTransfers > 0) {
+					int from = previousRouteStop.indexFirstTransfer;
+					RTransfer[] copied = copyTransfers(routeStopIndex, Arrays.copyOfRange(this.previous.transfers, from, from + previousRouteStop.countTransfers));
+					if (copied.length > 0) {
+						transfers.put(routeStopIndex, copied);
+					}
+				}
+			}
+		}
+		return transfers;
+	}
+
+	/**
+	 * With adaptive transfer calculation, copies the transfers that were already calculated for route stops at
+	 * unaffected stop facilities.
+	 */
+	void copyTransferCache(SwissRailRaptorData data) {
+		if (this.previousRouteStopIndices == null) {
+			matchRouteStops(data.routeStops, data.stopsQT, data.config);
+		}
+		for (RRouteStop routeStop : data.routeStops) {
+			int previousIndex = this.previousRouteStopIndices[routeStop.index];
+			if (previousIndex >= 0 && !this.affectedStops.contains(routeStop.routeStop.getStopFacility())) {
+				RTransfer[] cached = this.previous.transferCache[previousIndex];
+				if (cached != null) {
+					data.transferCache[routeStop.index] = copyTransfers(routeStop.index, cached);
+				}
+			}
+		}
+	}
+
+	private RTransfer[] copyTransfers(int fromRouteStopIndex, RTransfer[] previousTransfers) {
+		RTransfer[] transfers = new RTransfer[previousTransfers.length];
+		int count = 0;
+		for (RTransfer transfer : previousTransfers) {
+			int toRouteStopIndex = this.routeStopIndices[transfer.toRouteStop];
+			if (toRouteStopIndex >= 0) {
+				transfers[count++] = new RTransfer(fromRouteStopIndex, toRouteStopIndex, transfer.transferTime, transfer.transferDistance);
+			}
+		}
+		return count == transfers.length ? transfers : Arrays.copyOf(transfers, count);
+	}
+
+	private void matchRouteStops(RRouteStop[] routeStops, QuadTree<TransitStopFacility> stopsQT, RaptorStaticConfig config) {
+		TransitStopFacility[] previousStops = new TransitStopFacility[this.previous.countStops];
+		this.previous.stopFacilityIndices.forEach((stop, index) -> previousStops[index] = stop);
+
+		Map<Id<TransitLine>, Map<Id<TransitRoute>, Integer>> previousRoutes = new HashMap<>();
+		for (int routeIndex = 0; routeIndex < this.previous.routes.length; routeIndex++) {
+			RRoute route = this.previous.routes[routeIndex];
+			if (route.countRouteStops > 0) {
+				RRouteStop firstRouteStop = this.previous.routeStops[route.indexFirstRouteStop];
+				previousRoutes.computeIfAbsent(firstRouteStop.line.getId(), id -> new HashMap<>()).put(firstRouteStop.route.getId(), routeIndex);
+			}
+		}
+
+		this.previousRouteStopIndices = new int[routeStops.length];
+		Arrays.fill(this.previousRouteStopIndices, -1);
+		this.routeStopIndices = new int[this.previous.countRouteStops];
+		Arrays.fill(this.routeStopIndices, -1);
+		int countChangedRoutes = 0;
+		int first = 0;
+		while (first < routeStops.length) {
+			RRouteStop firstRouteStop = routeStops[first];
+			int count = firstRouteStop.route.getStops().size();
+			Integer previousRouteIndex = previousRoutes.getOrDefault(firstRouteStop.line.getId(), Map.of()).get(firstRouteStop.route.getId());
+			if (previousRouteIndex != null && isUnchanged(routeStops, first, count, this.previous.routes[previousRouteIndex], previousStops)) {
+				int previousFirst = this.previous.routes[previousRouteIndex].indexFirstRouteStop;
+				for (int i = 0; i < count; i++) {
+					this.previousRouteStopIndices[first + i] = previousFirst + i;
+					this.routeStopIndices[previousFirst + i] = first + i;
+				}
+			} else {
+				countChangedRoutes++;
+			}
+			first += count;
+		}
+
+		// stop facilities served by added or changed routes, and by removed routes or the previous version of changed routes
+		Set<TransitStopFacility> changedStops = new HashSet<>();
+		for (RRouteStop routeStop : routeStops) {
+			if (this.previousRouteStopIndices[routeStop.index] < 0) {
+				changedStops.add(routeStop.routeStop.getStopFacility());
+			}
+		}
+		for (RRouteStop routeStop : this.previous.routeStops) {
+			if (this.routeStopIndices[routeStop.index] < 0) {
+				changedStops.add(previousStops[routeStop.stopFacilityIndex]);
+			}
+		}
+
+		this.affectedStops = new HashSet<>(changedStops);
+		for (TransitStopFacility stop : changedStops) {
+			Collection<TransitStopFacility> nearbyStops = stopsQT.getDisk(stop.getCoord().getX(), stop.getCoord().getY(), config.getBeelineWalkConnectionDistance());
+			this.affectedStops.addAll(nearbyStops);
+		}
+		MinimalTransferTimes.MinimalTransferTimesIterator iter = this.schedule.getMinimalTransferTimes().iterator();
+		while (iter.hasNext()) {
+			iter.next();
+			TransitStopFacility toStop = this.schedule.getFacilities().get(iter.getToStopId());
+			if (changedStops.contains(toStop)) {
+				this.affectedStops.add(this.schedule.getFacilities().get(iter.getFromStopId()));
+			}
+		}
+		log.info("SwissRailRaptor data update: " + countChangedRoutes + " added or changed routes, transfers at " + this.affectedStops.size() + " stop facilities are calculated again.");
+	}
+
+	private boolean isUnchanged(RRouteStop[] routeStops, int first, int count, RRoute previousRoute, TransitStopFacility[] previousStops) {
+		if (previousRoute.countRouteStops != count) {
+			return false;
+		}
+		for (int i = 0; i < count; i++) {
+			RRouteStop routeStop = routeStops[first + i];
+			RRouteStop previousRouteStop = this.previous.routeStops[previousRoute.indexFirstRouteStop + i];
+			if (routeStop.routeStop.getStopFacility() != previousStops[previousRouteStop.stopFacilityIndex]
+					|| routeStop.arrivalOffset != previousRouteStop.arrivalOffset
+					|| routeStop.departureOffset != previousRouteStop.departureOffset) {
+				return false;
+			}
+		}
+		// the departures of the previous data are sorted per route
+		TransitRoute route = routeStops[first].route;
+		if (previousRoute.countDepartures == 0 || route.getDepartures().isEmpty()) {
+			return previousRoute.countDepartures == 0 && route.getDepartures().isEmpty();
+		}
+		Departure earliest = SwissRailRaptorData.getEarliestDeparture(route);
+		Departure latest = SwissRailRaptorData.getLatestDeparture(route);
+		return (int) earliest.getDepartureTime() == this.previous.departures[previousRoute.indexFirstDeparture]
+				&& (int) latest.getDepartureTime() == this.previous.departures[previousRoute.indexFirstDeparture + previousRoute.countDepartures - 1];
+	}
+}
@@ -20,14 +20,18 @@
 
 package ch.sbb.matsim.routing.pt.raptor;
 
+import java.nio.file.Path;
+
 import org.matsim.api.core.v01.Scenario;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
 import org.matsim.pt.router.TransitScheduleChangedEventHandler;
 import org.matsim.pt.transitSchedule.api.TransitSchedule;
 import org.matsim.vehicles.Vehicles;
 
+import ch.sbb.matsim.config.SwissRailRaptorConfigGroup;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
@@ -39,6 +43,7 @@ import jakarta.inject.Singleton;
 public class SwissRailRaptorFactory implements Provider<SwissRailRaptor> {
 
     private SwissRailRaptorData data = null;
+    private SwissRailRaptorData previousData = null;
     private final TransitSchedule schedule;
     private final Vehicles transitVehicles;
     private final RaptorStaticConfig raptorConfig;
@@ -48,6 +53,8 @@ public class SwissRailRaptorFactory implements Provider<SwissRailRaptor> {
     private final OccupancyData occupancyData;
     private final RaptorInVehicleCostCalculator inVehicleCostCalculator;
     private final RaptorTransferCostCalculator transferCostCalculator;
+    private final boolean useIncrementalDataUpdate;
+    private final SwissRailRaptorDataCache dataCache;
 
     private final Network network;
 
@@ -69,8 +76,12 @@ public class SwissRailRaptorFactory implements Provider<SwissRailRaptor> {
         this.inVehicleCostCalculator = inVehicleCostCalculator;
         this.transferCostCalculator = transferCostCalculator;
 
+        SwissRailRaptorConfigGroup srrConfig = ConfigUtils.addOrGetModule(config, SwissRailRaptorConfigGroup.class);
+        this.useIncrementalDataUpdate = srrConfig.isUseIncrementalDataUpdate();
+        this.dataCache = srrConfig.getDataCacheDirectory() == null ? null : new SwissRailRaptorDataCache(Path.of(srrConfig.getDataCacheDirectory()));
+
         if (events != null) {
-            events.addHandler((TransitScheduleChangedEventHandler) event -> this.data = null);
+            events.addHandler((TransitScheduleChangedEventHandler) event -> resetData());
         }
     }
 
@@ -93,8 +104,22 @@ public class SwissRailRaptorFactory implements Provider<SwissRailRaptor> {
             // prevent doing the work twice.
             return this.data;
         }
-        this.data = SwissRailRaptorData.create(this.schedule, this.transitVehicles, this.raptorConfig, this.network, this.occupancyData);
+        if (this.previousData != null) {
+            this.data = SwissRailRaptorData.update(this.previousData, this.schedule, this.transitVehicles, this.network, this.occupancyData);
+            this.previousData = null;
+        } else if (this.dataCache != null) {
+            this.data = this.dataCache.getData(this.schedule, this.transitVehicles, this.raptorConfig, this.network, this.occupancyData);
+        } else {
+            this.data = SwissRailRaptorData.create(this.schedule, this.transitVehicles, this.raptorConfig, this.network, this.occupancyData);
+        }
         return this.data;
     }
 
+    synchronized private void resetData() {
+        if (this.useIncrementalDataUpdate && this.data != null) {
+            this.previousData = this.data;
+        }
+        this.data = null;
+    }
+
 }
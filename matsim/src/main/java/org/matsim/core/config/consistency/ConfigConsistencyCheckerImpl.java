@@ -25,6 +25,7 @@ import org.matsim.api.core.v01.TransportMode;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.ControllerConfigGroup.EventsFileFormat;
 import org.matsim.core.config.groups.ControllerConfigGroup.RoutingAlgorithmType;
+import org.matsim.core.config.groups.RoutingConfigGroup;
 import org.matsim.core.config.groups.ScoringConfigGroup;
 import org.matsim.core.config.groups.ScoringConfigGroup.ActivityParams;
 import org.matsim.core.config.groups.ScoringConfigGroup.ModeParams;
@@ -48,6 +49,7 @@ public final class ConfigConsistencyCheckerImpl implements ConfigConsistencyChec
 		checkScenarioFeaturesEnabled(config);
 		checkEventsFormatLanesSignals(config);
 		checkTravelTimeCalculationRoutingConfiguration(config);
+		checkRoutingAlgorithm(config);
 		checkLaneDefinitionRoutingConfiguration(config);
 		checkPlanCalcScore(config);
 		checkTransit(config);
@@ -161,6 +163,16 @@ public final class ConfigConsistencyCheckerImpl implements ConfigConsistencyChec
 	}
 
 
+	/*package because of test */ static void checkRoutingAlgorithm(final Config config) {
+		// SpeedyCCH prepares the travel costs of all links in advance, without knowing the persons that will be routed.  The randomizing travel
+		// disutility cannot be evaluated without a person.
+		if (config.controller().getRoutingAlgorithmType() == RoutingAlgorithmType.SpeedyCCH &&
+				config.routing().getRoutingRandomness() != 0.) {
+			throw new IllegalStateException("The routing algorithm SpeedyCCH does not support randomized routing. Set routingRandomness in the " +
+					RoutingConfigGroup.GROUP_NAME + " config group to zero, or use another routing algorithm.");
+		}
+	}
+
 	private static void checkLaneDefinitionRoutingConfiguration(final Config config) {
 		if ((config.qsim().isUseLanes()) &&
 		    !config.controller().isLinkToLinkRoutingEnabled()){
@@ -475,6 +475,7 @@ public final class VspConfigConsistencyCheckerImpl implements ConfigConsistencyC
 		switch ( config.controller().getRoutingAlgorithmType() ) {
 			case Dijkstra:
 			case AStarLandmarks:
+			case SpeedyCCH:
 				log.log( lvl, "you are not using SpeedyALT as routing algorithm.  vsp default (since may'21) is to use SpeedeALT.") ;
 				System.out.flush();
 				break;
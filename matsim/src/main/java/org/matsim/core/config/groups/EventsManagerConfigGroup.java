@@ -45,6 +45,9 @@ public final class EventsManagerConfigGroup extends ReflectiveConfigGroup {
 	private final static String ONE_THREAD_PER_HANDLER = "oneThreadPerHandler";
 	private Boolean oneThreadPerHandler = false;
 
+	private final static String PARTITION_EVENTS = "partitionEvents";
+	private boolean partitionEvents = false;
+
 	private final static String EVENTS_QUEUE_SIZE = "eventsQueueSize";
 	private final static String EVENTS_QUEUE_SIZE_COMMENT = "Size of the events Queue. Increase for very large scenarios";
 	private int eventsQueueSize = 65536 * 2 ;
@@ -67,6 +70,9 @@ public final class EventsManagerConfigGroup extends ReflectiveConfigGroup {
 		comments.put(ONE_THREAD_PER_HANDLER, "If enabled, each event handler is assigned to its own thread. Note that enabling this feature disabled the " + NUMBER_OF_THREADS + " option! "
 				+ "This feature is still experimental!");
 		comments.put(EVENTS_QUEUE_SIZE,EVENTS_QUEUE_SIZE_COMMENT);
+		comments.put(PARTITION_EVENTS, "If enabled together with " + NUMBER_OF_THREADS + " and " + SYNCHRONIZE_ON_SIMSTEPS + ", each events processing thread has its own queue "
+				+ "and handlers implementing PartitionedEventHandler only receive the events of their person, vehicle or link partition on each thread. "
+				+ "This feature is still experimental!");
 		return comments;
 	}
 
@@ -144,6 +150,20 @@ public final class EventsManagerConfigGroup extends ReflectiveConfigGroup {
 		}
 	}
 
+	@StringGetter( PARTITION_EVENTS )
+	public boolean isPartitionEvents() {
+		return this.partitionEvents;
+	}
+
+	@StringSetter( PARTITION_EVENTS )
+	public void setPartitionEvents(boolean partitionEvents) {
+		if ( !this.locked ) {
+			this.partitionEvents = partitionEvents;
+		} else {
+			throw new RuntimeException("it is too late in the control flow to modify this parameter");
+		}
+	}
+
 	public void makeLocked() {
 		this.locked = true;
 	}
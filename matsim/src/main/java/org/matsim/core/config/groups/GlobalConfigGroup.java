@@ -39,6 +39,8 @@ public final class GlobalConfigGroup extends ReflectiveConfigGroup {
 	@Override public Map<String, String> getComments() {
 		Map<String,String> map = super.getComments();
 		map.put(NUMBER_OF_THREADS, NUMBER_OF_THREADS_CMT ) ;
+		map.put(REPLANNING_SCHEDULING, REPLANNING_SCHEDULING_CMT ) ;
+		map.put(USING_PERSON_RANDOM_STREAMS, USING_PERSON_RANDOM_STREAMS_CMT ) ;
 		return map ;
 	}
 
@@ -94,6 +96,49 @@ public final class GlobalConfigGroup extends ReflectiveConfigGroup {
 		this.numberOfThreads = numberOfThreads;
 	}
 	// ---
+	public enum ReplanningScheduling { roundRobin, workStealing }
+	private ReplanningScheduling replanningScheduling = ReplanningScheduling.roundRobin;
+	private static final String REPLANNING_SCHEDULING = "replanningScheduling";
+	private static final String REPLANNING_SCHEDULING_CMT = "How the plans are distributed among the replanning threads.  "
+			+ ReplanningScheduling.roundRobin + ": each of the numberOfThreads threads of a strategy module gets every n-th plan, and the strategies are finished one after the other.  "
+			+ ReplanningScheduling.workStealing + ": all strategies are finished concurrently on one shared pool of numberOfThreads threads, which handle the plans in small chunks, "
+			+ "so slow plans do not stall the other threads.  Plans are then not always handled by the same plan algorithm instance, "
+			+ "so the strategy modules always draw the random numbers from per-person streams (see usingPersonRandomStreams) to keep the results reproducible.";
+	/**
+	 * @return {@link #REPLANNING_SCHEDULING_CMT}
+	 */
+	@StringGetter( REPLANNING_SCHEDULING )
+	public ReplanningScheduling getReplanningScheduling() {
+		return this.replanningScheduling;
+	}
+	/**
+	 * @param replanningScheduling -- {@link #REPLANNING_SCHEDULING_CMT}
+	 */
+	@StringSetter( REPLANNING_SCHEDULING )
+	public void setReplanningScheduling(final ReplanningScheduling replanningScheduling) {
+		this.replanningScheduling = replanningScheduling;
+	}
+	// ---
+	private boolean usingPersonRandomStreams = false;
+	private static final String USING_PERSON_RANDOM_STREAMS = "usingPersonRandomStreams";
+	private static final String USING_PERSON_RANDOM_STREAMS_CMT = "If true, the replanning and the preparation of the plans for the simulation draw the random numbers for each person "
+			+ "from a separate stream, which only depends on the random seed, the iteration, the person and the strategy module.  "
+			+ "The results are then independent of the numberOfThreads and of the " + REPLANNING_SCHEDULING + ", but differ from the results with false.";
+	/**
+	 * @return {@link #USING_PERSON_RANDOM_STREAMS_CMT}
+	 */
+	@StringGetter( USING_PERSON_RANDOM_STREAMS )
+	public boolean isUsingPersonRandomStreams() {
+		return this.usingPersonRandomStreams;
+	}
+	/**
+	 * @param usingPersonRandomStreams -- {@link #USING_PERSON_RANDOM_STREAMS_CMT}
+	 */
+	@StringSetter( USING_PERSON_RANDOM_STREAMS )
+	public void setUsingPersonRandomStreams(final boolean usingPersonRandomStreams) {
+		this.usingPersonRandomStreams = usingPersonRandomStreams;
+	}
+	// ---
 	private String coordinateSystem = "Atlantis" ;
 	// see https://matsim.atlassian.net/browse/MATSIM-898
 	private static final String COORDINATE_SYSTEM = "coordinateSystem";
@@ -38,6 +38,7 @@ public final class PlansConfigGroup extends ReflectiveConfigGroup {
 		@Deprecated public static final String CompressedNetworkRoute = "CompressedNetworkRoute";
 		public static final String MediumCompressedNetworkRoute = "MediumCompressedNetworkRoute";
 		public static final String HeavyCompressedNetworkRoute = "HeavyCompressedNetworkRoute";
+		public static final String PackedNetworkRoute = "PackedNetworkRoute";
 	}
 
 	public enum ActivityDurationInterpretation { minOfDurationAndEndTime, tryEndTimeThenDuration, @Deprecated endTimeOnly }
@@ -87,7 +88,8 @@ public final class PlansConfigGroup extends ReflectiveConfigGroup {
 				"Defines how routes are stored in memory. Currently supported: " +
 				NetworkRouteType.LinkNetworkRoute + ", " +
 				NetworkRouteType.MediumCompressedNetworkRoute + ", " +
-				NetworkRouteType.HeavyCompressedNetworkRoute + ".");
+				NetworkRouteType.HeavyCompressedNetworkRoute + ", " +
+				NetworkRouteType.PackedNetworkRoute + ".");
 //		comments.put(
 //				INPUT_PERSON_ATTRIBUTES_FILE,
 //				"Path to a file containing person attributes (required file format: ObjectAttributes).");
@@ -110,6 +112,10 @@ public final class PlansConfigGroup extends ReflectiveConfigGroup {
 		comments.put(REMOVING_UNNECESSARY_PLAN_ATTRIBUTES, "(not tested) will remove plan attributes that are presumably not used, such as " +
                 "activityStartTime. default=false. Use with Caution!");
 
+		comments.put(COMPACTING_NON_SELECTED_PLANS, "If true, the activities, legs and network routes of all non-selected plans are stored in a packed form before the mobsim, " +
+				"and restored when they are accessed again. Reduces the memory consumption of large populations with many plans per person. " +
+				"Restoring creates new activity, leg and route instances, so code keeping references to plan elements of non-selected plans across iterations must not use this. default=false.");
+
 		comments.put( INPUT_CRS , "The Coordinates Reference System in which the coordinates are expressed in the input file." +
 				" At import, the coordinates will be converted to the coordinate system defined in \"global\", and will" +
 				"be converted back at export. If not specified, no conversion happens." );
@@ -246,6 +252,19 @@ public final class PlansConfigGroup extends ReflectiveConfigGroup {
 		this.removingUnneccessaryPlanAttributes = removingUnneccessaryPlanAttributes;
 	}
 
+	// ---
+
+	private static final String COMPACTING_NON_SELECTED_PLANS = "compactingNonSelectedPlans";
+	private boolean compactingNonSelectedPlans = false;
+	@StringGetter(COMPACTING_NON_SELECTED_PLANS)
+	public boolean isCompactingNonSelectedPlans() {
+		return this.compactingNonSelectedPlans;
+	}
+	@StringSetter(COMPACTING_NON_SELECTED_PLANS)
+	public void setCompactingNonSelectedPlans(final boolean compactingNonSelectedPlans) {
+		this.compactingNonSelectedPlans = compactingNonSelectedPlans;
+	}
+
 
 	@StringGetter( INPUT_CRS )
 	public String getInputCRS() {
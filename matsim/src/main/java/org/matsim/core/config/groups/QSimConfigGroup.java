@@ -58,6 +58,8 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 	private static final String STUCK_TIME = "stuckTime";
 	private static final String REMOVE_STUCK_VEHICLES = "removeStuckVehicles";
 	private static final String NUMBER_OF_THREADS = "numberOfThreads";
+	private static final String USING_PARALLEL_AGENT_ENGINES = "usingParallelActivityAndTeleportationEngines";
+	private static final String LOAD_BALANCING_PERIOD = "loadBalancingPeriod";
 	private static final String TRAFFIC_DYNAMICS = "trafficDynamics";
 	private static final String SIM_STARTTIME_INTERPRETATION = "simStarttimeInterpretation";
 	private static final String USE_PERSON_ID_FOR_MISSING_VEHICLE_ID = "usePersonIdForMissingVehicleId";
@@ -91,6 +93,9 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 	private boolean usePersonIdForMissingVehicleId = true;
 	@Positive
 	private int numberOfThreads = 1;
+	private boolean usingParallelAgentEngines = false;
+	@PositiveOrZero
+	private double loadBalancingPeriod = 0; // off, round robin
 	//	private static final String CREATING_VEHICLES_FOR_ALL_NETWORK_MODES = "creatingVehiclesForAllNetworkModes";
 //	private boolean creatingVehiclesForAllNetworkModes = true;
 	// ---
@@ -171,6 +176,14 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 		map.put(NUMBER_OF_THREADS, "Number of threads used for the QSim.  "
 				+ "Note that this setting is independent from the \"global\" threads setting.  "
 				+ "In contrast to earlier versions, the non-parallel special version is no longer there.");
+		map.put(USING_PARALLEL_AGENT_ENGINES, "If true and " + NUMBER_OF_THREADS + " is larger than one, the activity engine and the "
+				+ "teleportation engine compute the next state of the agents that are due in a time step in parallel.  The agents are "
+				+ "then handed on, and their events passed on, in the same order as without threads.  Only the default agents are "
+				+ "handled in parallel; other agents are handled sequentially.");
+		map.put(LOAD_BALANCING_PERIOD, "time in seconds.  If larger than zero and " + NUMBER_OF_THREADS + " is larger than one, the nodes "
+				+ "and links of the network are re-assigned to the threads of the network engine at this interval, based on the work "
+				+ "measured on them during the previous interval.  Neighbouring nodes are kept on the same thread.  Default is 0, i.e. "
+				+ "a fixed round robin assignment.");
 		map.put(REMOVE_STUCK_VEHICLES, REMOVE_STUCK_VEHICLES_STRING);
 		map.put(STUCK_TIME, STUCK_TIME_STRING);
 
@@ -484,6 +497,26 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 		this.numberOfThreads = numberOfThreads;
 	}
 
+	@StringGetter(USING_PARALLEL_AGENT_ENGINES)
+	public boolean isUsingParallelActivityAndTeleportationEngines() {
+		return this.usingParallelAgentEngines;
+	}
+
+	@StringSetter(USING_PARALLEL_AGENT_ENGINES)
+	public void setUsingParallelActivityAndTeleportationEngines(final boolean usingParallelAgentEngines) {
+		this.usingParallelAgentEngines = usingParallelAgentEngines;
+	}
+
+	@StringGetter(LOAD_BALANCING_PERIOD)
+	public double getLoadBalancingPeriod() {
+		return this.loadBalancingPeriod;
+	}
+
+	@StringSetter(LOAD_BALANCING_PERIOD)
+	public void setLoadBalancingPeriod(final double loadBalancingPeriod) {
+		this.loadBalancingPeriod = loadBalancingPeriod;
+	}
+
 	@StringGetter(SIM_STARTTIME_INTERPRETATION)
 	public StarttimeInterpretation getSimStarttimeInterpretation() {
 		return simStarttimeInterpretation;
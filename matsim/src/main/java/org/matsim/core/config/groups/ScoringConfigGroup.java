@@ -80,6 +80,8 @@ public final class ScoringConfigGroup extends ConfigGroup {
 
 	private static final String WRITE_SCORE_EXPLANATIONS = "writeScoreExplanations";
 
+	private static final String NUMBER_OF_SCORING_THREADS = "numberOfScoringThreads";
+
 	private final ReflectiveDelegate delegate = new ReflectiveDelegate();
 
 	private boolean usesDeprecatedSyntax = false ;
@@ -423,6 +425,11 @@ public final class ScoringConfigGroup extends ConfigGroup {
 		map.put(WRITE_SCORE_EXPLANATIONS,
 				 "Write detailed score composition into plan attributes after execution.");
 
+		map.put(NUMBER_OF_SCORING_THREADS,
+				"number of threads the scoring functions are run on, the persons being distributed among them.  "
+						+ "0 (default) runs the scoring functions directly in the events handling.  The scores are the same in both cases, "
+						+ "as long as the scoring functions of different persons do not share state.");
+
 		return map;
 	}
 
@@ -701,6 +708,14 @@ public final class ScoringConfigGroup extends ConfigGroup {
 		return delegate.isWriteScoreExplanations();
 	}
 
+	public void setNumberOfScoringThreads(int numberOfScoringThreads) {
+		delegate.setNumberOfScoringThreads(numberOfScoringThreads);
+	}
+
+	public int getNumberOfScoringThreads() {
+		return delegate.getNumberOfScoringThreads();
+	}
+
 	public double getPathSizeLogitBeta() {
 		return delegate.getPathSizeLogitBeta();
 	}
@@ -1600,6 +1615,8 @@ public final class ScoringConfigGroup extends ConfigGroup {
 
 		private boolean explainScores = false;
 
+		private int numberOfScoringThreads = 0;
+
 		@StringGetter(FRACTION_OF_ITERATIONS_TO_START_SCORE_MSA)
 		public Double getFractionOfIterationsToStartScoreMSA() {
 			return fractionOfIterationsToStartScoreMSA;
@@ -1683,5 +1700,16 @@ public final class ScoringConfigGroup extends ConfigGroup {
 		public boolean isWriteScoreExplanations() {
 			return explainScores;
 		}
+
+		@StringSetter(NUMBER_OF_SCORING_THREADS)
+		public void setNumberOfScoringThreads(int numberOfScoringThreads) {
+			testForLocked();
+			this.numberOfScoringThreads = numberOfScoringThreads;
+		}
+
+		@StringGetter(NUMBER_OF_SCORING_THREADS)
+		public int getNumberOfScoringThreads() {
+			return numberOfScoringThreads;
+		}
 	}
 }
@@ -51,6 +51,9 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	private static final String FILTERMODES = "filterModes";
 	private static final String SEPARATEMODES = "separateModes";
 
+	private static final String WRITE_SNAPSHOT_INTERVAL = "writeTravelTimeSnapshotInterval";
+	private static final String INITIAL_SNAPSHOT_FILE = "initialTravelTimeSnapshotFile";
+
 	private String travelTimeAggregator = "optimistic";
 	private String travelTimeGetter = "average";
 	private double traveltimeBinSize = 15 * 60; // use a default of 15min time-bins for analyzing the travel times
@@ -63,6 +66,9 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	private boolean filterModes = false;
 	private boolean separateModes = true;
 
+	private int writeSnapshotInterval = 0;
+	private String initialSnapshotFile = null;
+
 	public TravelTimeCalculatorConfigGroup() {
 		super(GROUPNAME);
 		analyzedModes.add( TransportMode.car ) ;
@@ -83,6 +89,11 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 							 "respected by the travel time collector. 'car' is default which includes also buses from the pt simulation module.");
 		map.put(FILTERMODES, "(only for backwards compatiblity; only used if " + SEPARATEMODES + "==false)  Only modes included in analyzedModes are included." ) ;
 		map.put(SEPARATEMODES, "(only for backwards compatibility) If false, link travel times are measured and aggregated over all vehicles using the link." ) ;
+		map.put(WRITE_SNAPSHOT_INTERVAL, "iterationNumber % " + WRITE_SNAPSHOT_INTERVAL + " == 0 defines in which iterations the observed link travel times " +
+				"are written to a binary snapshot file per mode (travelTimes.<mode>.bin). 0 disables the snapshots.") ;
+		map.put(INITIAL_SNAPSHOT_FILE, "A travel time snapshot file written in a previous run. If set, its link travel times are used instead of " +
+				"free speed travel times until travel times have been observed in the simulation. For separate modes, the mode is inserted " +
+				"into the file name in place of '<mode>'.") ;
 		return map;
 	}
 
@@ -195,5 +206,25 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	public void setSeparateModes(boolean separateModes) {
 		this.separateModes = separateModes;
 	}
+	// ---
+	@StringGetter(WRITE_SNAPSHOT_INTERVAL)
+	public int getWriteSnapshotInterval() {
+		return this.writeSnapshotInterval;
+	}
+
+	@StringSetter(WRITE_SNAPSHOT_INTERVAL)
+	public void setWriteSnapshotInterval(int writeSnapshotInterval) {
+		this.writeSnapshotInterval = writeSnapshotInterval;
+	}
+	// ---
+	@StringGetter(INITIAL_SNAPSHOT_FILE)
+	public String getInitialSnapshotFile() {
+		return this.initialSnapshotFile;
+	}
+
+	@StringSetter(INITIAL_SNAPSHOT_FILE)
+	public void setInitialSnapshotFile(String initialSnapshotFile) {
+		this.initialSnapshotFile = initialSnapshotFile;
+	}
 
 }
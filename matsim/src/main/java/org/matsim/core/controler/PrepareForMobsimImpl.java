@@ -103,7 +103,8 @@ public final class PrepareForMobsimImpl implements PrepareForMobsim {
 					}
 					// yyyyyy This prepared network is only used for computing the distance.  So the full network would
 					// actually be better than the car-only network, without doing damage elsewhere.  No?  kai, jul'18
-				}
+				},
+				globalConfigGroup.isUsingPersonRandomStreams() ? "prepareForMobsim" : null
 		);
 
 		// yy Could now set the vehicle IDs in the routes.  But can as well also do this later (currently in PopulationAgentSource).  kai, jun'18
@@ -192,7 +192,8 @@ public final class PrepareForSimImpl implements PrepareForSim, PrepareForMobsim
 		// (i.e. we introduce a separate PersonPrepareForMobsim).  kai, jul'18
 		ParallelPersonAlgorithmUtils.run(population, globalConfigGroup.getNumberOfThreads(),
 				() -> new PersonPrepareForSim(new PlanRouter(tripRouterProvider.get(), activityFacilities, timeInterpretation), scenario,
-						carOnlyNetwork)
+						carOnlyNetwork),
+				globalConfigGroup.isUsingPersonRandomStreams() ? "prepareForSim" : null
 		);
 
 		if (scenario instanceof Lockable) {
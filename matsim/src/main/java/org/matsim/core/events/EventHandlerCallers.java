@@ -0,0 +1,118 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * EventHandlerCallers.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.events.handler.EventHandler;
+
+/**
+ * Creates direct call sites for the <code>handleEvent</code> methods of event handler interfaces.
+ * <p>
+ * For each handler method, a small class is generated via {@link LambdaMetafactory} that casts
+ * the arguments and calls the handler method directly, so the JIT can inline the call like any
+ * other interface call. If the handler interface or the event class is not accessible from this
+ * package (or was loaded by another class loader), a caller based on a plain {@link MethodHandle}
+ * is used instead.
+ */
+final class EventHandlerCallers {
+
+	private static final Logger log = LogManager.getLogger(EventHandlerCallers.class);
+
+	private static final MethodType CALLER_METHOD_TYPE = MethodType.methodType(void.class, EventHandler.class, Event.class);
+
+	private static final Map<Method, EventHandlerCaller> callers = new ConcurrentHashMap<>();
+
+	interface EventHandlerCaller {
+		void call(EventHandler handler, Event event);
+	}
+
+	private EventHandlerCallers() {
+	}
+
+	/**
+	 * @param method the <code>handleEvent(SomeEvent)</code> method of an event handler interface
+	 * @return a caller invoking the given method. Callers are cached and can be shared between threads.
+	 */
+	static EventHandlerCaller getCaller(final Method method) {
+		return callers.computeIfAbsent(method, EventHandlerCallers::createCaller);
+	}
+
+	private static EventHandlerCaller createCaller(final Method method) {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		if (isAccessible(lookup, method.getDeclaringClass()) && isAccessible(lookup, method.getParameterTypes()[0])) {
+			try {
+				MethodHandle target = lookup.unreflect(method);
+				CallSite site = LambdaMetafactory.metafactory(lookup, "call", MethodType.methodType(EventHandlerCaller.class),
+						CALLER_METHOD_TYPE, target, target.type());
+				return (EventHandlerCaller) site.getTarget().invokeExact();
+			} catch (Throwable e) {
+				log.warn("could not create direct call site for " + method + ", falling back to method handle.", e);
+			}
+		}
+		try {
+			method.trySetAccessible();
+			return new MethodHandleCaller(lookup.unreflect(method).asType(CALLER_METHOD_TYPE));
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException("cannot access event handler method " + method, e);
+		}
+	}
+
+	private static boolean isAccessible(final MethodHandles.Lookup lookup, final Class<?> klass) {
+		try {
+			lookup.accessClass(klass);
+			return Class.forName(klass.getName(), false, EventHandlerCallers.class.getClassLoader()) == klass;
+		} catch (IllegalAccessException | ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	private static final class MethodHandleCaller implements EventHandlerCaller {
+
+		private final MethodHandle handle;
+
+		MethodHandleCaller(final MethodHandle handle) {
+			this.handle = handle;
+		}
+
+		@Override
+		public void call(final EventHandler handler, final Event event) {
+			try {
+				this.handle.invokeExact(handler, event);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+}
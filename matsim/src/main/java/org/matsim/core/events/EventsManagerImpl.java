@@ -20,7 +20,6 @@
 
 package org.matsim.core.events;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -31,16 +30,25 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.matsim.api.core.v01.events.*;
-import org.matsim.api.core.v01.events.handler.*;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.ActivityStartEvent;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.PersonEntersVehicleEvent;
+import org.matsim.api.core.v01.events.PersonLeavesVehicleEvent;
+import org.matsim.api.core.v01.events.PersonMoneyEvent;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.api.core.v01.events.TransitDriverStartsEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
 import org.matsim.core.api.experimental.events.AgentWaitingForPtEvent;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.api.experimental.events.VehicleArrivesAtFacilityEvent;
 import org.matsim.core.api.experimental.events.VehicleDepartsAtFacilityEvent;
-import org.matsim.core.api.experimental.events.handler.AgentWaitingForPtEventHandler;
-import org.matsim.core.api.experimental.events.handler.VehicleArrivesAtFacilityEventHandler;
-import org.matsim.core.api.experimental.events.handler.VehicleDepartsAtFacilityEventHandler;
-import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.events.EventHandlerCallers.EventHandlerCaller;
 import org.matsim.core.events.handler.EventHandler;
 
 /**
@@ -51,9 +59,14 @@ import org.matsim.core.events.handler.EventHandler;
  * <li>add method public void handleEvent(MyEvent event) to it</li>
  * <li>ready to go, just implement the interface somewhere and add a
  * HandlerObject with a call to <code>Events.addHandler(HandlerObject)</code></li>
- * <li>(optional) add an appropriate line in callHandlerFast() for speeding
- * up execution!</li>
  * </ol>
+ * Handlers are not called via reflection, but through call sites generated once per handler
+ * method (see {@link EventHandlerCallers}), so no additional code is required for new event types.
+ * <p>
+ * By default, every call to a handler is synchronized on the handler, as the same handler could
+ * be called from multiple threads. Events managers that dispatch each handler from exactly one
+ * thread (like the per-thread instances in {@link ParallelEventsManagerImpl} or
+ * {@link SimStepParallelEventsManagerImpl}) can disable this to save the monitor per call.
  *
  * @author dstrippgen
  * @author mrieser
@@ -66,31 +79,54 @@ public final class EventsManagerImpl implements EventsManager {
 
 		protected Class<? extends Event> eventClass;
 		protected ArrayList<EventHandler> handlerList = new ArrayList<EventHandler>(5);
-		protected Method method;
+		protected ArrayList<EventHandlerCaller> callerList = new ArrayList<EventHandlerCaller>(5);
 
-		protected HandlerData(final Class<? extends Event> eventClass, final Method method) {
+		protected HandlerData(final Class<? extends Event> eventClass) {
 			this.eventClass = eventClass;
-			this.method = method;
+		}
+
+		protected void addHandler(final EventHandler handler, final EventHandlerCaller caller) {
+			this.handlerList.add(handler);
+			this.callerList.add(caller);
 		}
 
 		protected void removeHandler(final EventHandler handler) {
-			this.handlerList.remove(handler);
+			int index = this.handlerList.indexOf(handler);
+			if (index >= 0) {
+				this.handlerList.remove(index);
+				this.callerList.remove(index);
+			}
 		}
 	}
 
 	static private class HandlerInfo {
 		protected final Class<? extends Event> eventClass;
 		protected final EventHandler eventHandler;
-		protected final Method method;
+		protected final EventHandlerCaller caller;
+		protected final boolean wrapExceptions;
 
 		protected HandlerInfo(final Class<? extends Event> eventClass, final EventHandler eventHandler,
-				final Method method) {
+				final EventHandlerCaller caller) {
 			this.eventClass = eventClass;
 			this.eventHandler = eventHandler;
-			this.method = method;
+			this.caller = caller;
+			this.wrapExceptions = !DIRECTLY_CALLED_EVENT_CLASSES.contains(eventClass);
 		}
 	}
 
+	/**
+	 * The handlers of these event classes used to be called directly, all others via reflection.  Exceptions thrown by
+	 * handlers of the former are passed on unchanged, those of the latter wrapped, as before.
+	 */
+	private static final Set<Class<? extends Event>> DIRECTLY_CALLED_EVENT_CLASSES = Set.of(LinkLeaveEvent.class,
+			LinkEnterEvent.class, VehicleEntersTrafficEvent.class, VehicleLeavesTrafficEvent.class, PersonArrivalEvent.class,
+			PersonDepartureEvent.class, ActivityEndEvent.class, ActivityStartEvent.class, TransitDriverStartsEvent.class,
+			PersonStuckEvent.class, PersonMoneyEvent.class, AgentWaitingForPtEvent.class, PersonEntersVehicleEvent.class,
+			PersonLeavesVehicleEvent.class, VehicleDepartsAtFacilityEvent.class, VehicleArrivesAtFacilityEvent.class,
+			Event.class);
+
+	private final boolean synchronizeOnHandlers;
+
 	private final List<HandlerData> handlerData = new ArrayList<>();
 
 	private final Map<Class<? extends Event>, HandlerInfo[]> cacheHandlers = new ConcurrentHashMap<>(15);
@@ -98,6 +134,20 @@ public final class EventsManagerImpl implements EventsManager {
 	private long counter = 0;
 	private long nextCounterMsg = 1;
 
+	public EventsManagerImpl() {
+		this(true);
+	}
+
+	/**
+	 * @param synchronizeOnHandlers if <code>false</code>, handlers are called without synchronizing on them.
+	 * Only use this if it is guaranteed that the handlers registered to this instance are never called
+	 * concurrently, i.e. if all events are processed by a single thread and the handlers are not registered
+	 * to any other events manager that is active at the same time.
+	 */
+	public EventsManagerImpl(final boolean synchronizeOnHandlers) {
+		this.synchronizeOnHandlers = synchronizeOnHandlers;
+	}
+
 	private HandlerData findHandler(final Class<? extends Event> evklass) {
 		for (HandlerData handler : this.handlerData) {
 			if (handler.eventClass == evklass) {
@@ -115,17 +165,19 @@ public final class EventsManagerImpl implements EventsManager {
 			log.info(" event # " + this.counter);
 		}
 		for (HandlerInfo info : getHandlersForClass( event.getClass() )) {
-			synchronized(info.eventHandler) {
-				if (callHandlerFast(info.eventClass, event, info.eventHandler )) {
-					continue;
+			try {
+				if (this.synchronizeOnHandlers) {
+					synchronized(info.eventHandler) {
+						info.caller.call(info.eventHandler, event);
+					}
+				} else {
+					info.caller.call(info.eventHandler, event);
 				}
-				try {
-					info.method.invoke(info.eventHandler, event );
-				} catch (IllegalArgumentException | IllegalAccessException e) {
-					throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e);
-				} catch (InvocationTargetException e) {
-					throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e.getCause());
+			} catch (RuntimeException e) {
+				if (!info.wrapExceptions) {
+					throw e;
 				}
+				throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e);
 			}
 		}
 	}
@@ -205,10 +257,10 @@ public final class EventsManagerImpl implements EventsManager {
 					log.info("    > " + eventClass.getName());
 					HandlerData dat = findHandler(eventClass);
 					if (dat == null) {
-						dat = new HandlerData(eventClass, method);
+						dat = new HandlerData(eventClass);
 						this.handlerData.add(dat);
 					}
-					dat.handlerList.add(handler);
+					dat.addHandler(handler, EventHandlerCallers.getCaller(method));
 				}
 			}
 		}
@@ -227,8 +279,8 @@ public final class EventsManagerImpl implements EventsManager {
 			Class<? extends Event> eventKlass = (Class<? extends Event>)klass;
 			HandlerData dat = findHandler(eventKlass);
 			if (dat != null) {
-				for (EventHandler handler : dat.handlerList) {
-					info.add(new HandlerInfo(eventKlass, handler, dat.method));
+				for (int i = 0; i < dat.handlerList.size(); i++) {
+					info.add(new HandlerInfo(eventKlass, dat.handlerList.get(i), dat.callerList.get(i)));
 				}
 			}
 			klass = klass.getSuperclass();
@@ -239,64 +291,6 @@ public final class EventsManagerImpl implements EventsManager {
 		return cache;
 	}
 
-	// this method is purely for performance reasons and need not be implemented
-	private static boolean callHandlerFast(final Class<? extends Event> klass, final Event ev,
-			final EventHandler handler) {
-		if (klass == LinkLeaveEvent.class) {
-			((LinkLeaveEventHandler)handler).handleEvent((LinkLeaveEvent)ev);
-			return true;
-		} else if (klass == LinkEnterEvent.class) {
-			((LinkEnterEventHandler)handler).handleEvent((LinkEnterEvent)ev);
-			return true;
-		} else if (klass == VehicleEntersTrafficEvent.class) {
-			((VehicleEntersTrafficEventHandler) handler).handleEvent((VehicleEntersTrafficEvent) ev);
-			return true;
-		} else if (klass == VehicleLeavesTrafficEvent.class) {
-			((VehicleLeavesTrafficEventHandler) handler).handleEvent((VehicleLeavesTrafficEvent) ev);
-			return true;
-		} else if (klass == PersonArrivalEvent.class) {
-			((PersonArrivalEventHandler)handler).handleEvent((PersonArrivalEvent)ev);
-			return true;
-		} else if (klass == PersonDepartureEvent.class) {
-			((PersonDepartureEventHandler)handler).handleEvent((PersonDepartureEvent)ev);
-			return true;
-		} else if (klass == ActivityEndEvent.class) {
-			((ActivityEndEventHandler)handler).handleEvent((ActivityEndEvent)ev);
-			return true;
-		} else if (klass == ActivityStartEvent.class) {
-			((ActivityStartEventHandler)handler).handleEvent((ActivityStartEvent)ev);
-			return true;
-		} else if (klass == TransitDriverStartsEvent.class) {
-			((TransitDriverStartsEventHandler) handler).handleEvent((TransitDriverStartsEvent) ev);
-			return true;
-		} else if (klass == PersonStuckEvent.class) {
-			((PersonStuckEventHandler)handler).handleEvent((PersonStuckEvent)ev);
-			return true;
-		} else if (klass == PersonMoneyEvent.class) {
-			((PersonMoneyEventHandler)handler).handleEvent((PersonMoneyEvent)ev);
-			return true;
-		} else if (klass == AgentWaitingForPtEvent.class) {
-			((AgentWaitingForPtEventHandler)handler).handleEvent((AgentWaitingForPtEvent)ev);
-			return true;
-		} else if (klass == PersonEntersVehicleEvent.class) {
-			((PersonEntersVehicleEventHandler)handler).handleEvent((PersonEntersVehicleEvent)ev);
-			return true;
-		} else if (klass == PersonLeavesVehicleEvent.class) {
-			((PersonLeavesVehicleEventHandler)handler).handleEvent((PersonLeavesVehicleEvent)ev);
-			return true;
-		} else if (klass == VehicleDepartsAtFacilityEvent.class) {
-			((VehicleDepartsAtFacilityEventHandler) handler).handleEvent((VehicleDepartsAtFacilityEvent) ev);
-			return true;
-		} else if (klass == VehicleArrivesAtFacilityEvent.class) {
-			((VehicleArrivesAtFacilityEventHandler) handler).handleEvent((VehicleArrivesAtFacilityEvent) ev);
-			return true;
-		} else if (klass == Event.class) {
-			((BasicEventHandler)handler).handleEvent(ev);
-			return true;
-		}
-		return false;
-	}
-
 	public void printEventHandlers() {
 		log.info("currently registered event-handlers:");
 		for (HandlerData handlerType : this.handlerData) {
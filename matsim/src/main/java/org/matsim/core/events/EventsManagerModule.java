@@ -38,7 +38,11 @@ public final class EventsManagerModule extends AbstractModule {
 			bindEventsManager().to(ParallelEventsManager.class).in(Singleton.class);
 		} else if (getConfig().eventsManager().getNumberOfThreads() != null) {
 			if (BooleanUtils.isTrue(getConfig().eventsManager().getSynchronizeOnSimSteps())) {
-				bindEventsManager().to(SimStepParallelEventsManagerImpl.class).in(Singleton.class);
+				if (getConfig().eventsManager().isPartitionEvents()) {
+					bindEventsManager().to(PartitionedEventsManagerImpl.class).in(Singleton.class);
+				} else {
+					bindEventsManager().to(SimStepParallelEventsManagerImpl.class).in(Singleton.class);
+				}
 			} else {
 				bindEventsManager().to(ParallelEventsManagerImpl.class).in(Singleton.class);
 			}
@@ -0,0 +1,282 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.Stack;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.MatsimEventsReader.CustomEventMapper;
+import org.matsim.core.events.algorithms.EventWriterBinary;
+import org.matsim.core.utils.io.IOUtils;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Reads events written by {@link EventWriterBinary}.
+ * <p>
+ * Blocks outside of the {@link #setTimeWindow(double, double) time window} are skipped without decoding them, and
+ * only the columns of the {@link #setEventTypes(Set) selected event types} are decoded. The events are created by
+ * {@link EventsReaderXMLv1}, so they are the same as when reading the events from an xml file.
+ */
+public final class EventsReaderBinary {
+
+	private final static Logger LOG = LogManager.getLogger(EventsReaderBinary.class);
+
+	private final EventsReaderXMLv1 delegate;
+	private double fromTime = Double.NEGATIVE_INFINITY;
+	private double toTime = Double.POSITIVE_INFINITY;
+	private Set<String> eventTypes = null;
+
+	private final List<String> dictionary = new ArrayList<>();
+	private final List<Schema> schemas = new ArrayList<>();
+	private final AttributesImpl attributes = new AttributesImpl();
+	private final Stack<String> context = new Stack<>();
+	private byte[] payload = new byte[0];
+	private int position;
+
+	public EventsReaderBinary(final EventsManager events) {
+		this.delegate = new EventsReaderXMLv1(events);
+	}
+
+	public void addCustomEventMapper(String eventType, CustomEventMapper cem) {
+		this.delegate.addCustomEventMapper(eventType, cem);
+	}
+
+	/**
+	 * Only events with <code>fromTime &lt;= time &lt;= toTime</code> are read.
+	 */
+	public void setTimeWindow(double fromTime, double toTime) {
+		this.fromTime = fromTime;
+		this.toTime = toTime;
+	}
+
+	/**
+	 * Only events of the given types are read, <code>null</code> reads all events.
+	 */
+	public void setEventTypes(Set<String> eventTypes) {
+		this.eventTypes = eventTypes;
+	}
+
+	public void readFile(final String filename) throws UncheckedIOException {
+		LOG.info("starting to read binary events from " + filename);
+		readURL(IOUtils.getFileUrl(filename));
+	}
+
+	public void readURL(final URL url) throws UncheckedIOException {
+		try (InputStream stream = IOUtils.getInputStream(url)) {
+			readStream(stream);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public void readStream(final InputStream stream) throws UncheckedIOException {
+		this.dictionary.clear();
+		this.dictionary.add(null); // references are 1-based, 0 is null
+		this.schemas.clear();
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+			byte[] magic = new byte[EventWriterBinary.MAGIC.length];
+			in.readFully(magic);
+			if (!Arrays.equals(magic, EventWriterBinary.MAGIC)) {
+				throw new IllegalArgumentException("not a binary events file.");
+			}
+			int version = (int) readVarint(in);
+			if (version != EventWriterBinary.VERSION) {
+				throw new IllegalArgumentException("unsupported version of binary events file: " + version);
+			}
+			while (in.readByte() == EventWriterBinary.BLOCK_MARKER) {
+				readBlock(in);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void readBlock(DataInputStream in) throws IOException {
+		// the dictionary and schemas must be read for every block, even if it is skipped
+		int newStrings = (int) readVarint(in);
+		for (int i = 0; i < newStrings; i++) {
+			byte[] bytes = new byte[(int) readVarint(in)];
+			in.readFully(bytes);
+			this.dictionary.add(new String(bytes, StandardCharsets.UTF_8));
+		}
+		int newSchemas = (int) readVarint(in);
+		for (int i = 0; i < newSchemas; i++) {
+			String type = this.dictionary.get((int) readVarint(in));
+			String[] keys = new String[(int) readVarint(in)];
+			boolean[] ids = new boolean[keys.length];
+			for (int k = 0; k < keys.length; k++) {
+				keys[k] = this.dictionary.get((int) readVarint(in));
+				ids[k] = in.readByte() != 0;
+			}
+			this.schemas.add(new Schema(type, keys, ids, this.eventTypes == null || this.eventTypes.contains(type)));
+		}
+
+		double minTime = in.readDouble();
+		double maxTime = in.readDouble();
+		int eventCount = (int) readVarint(in);
+		Schema[] blockSchemas = new Schema[(int) readVarint(in)];
+		int[] rows = new int[blockSchemas.length];
+		boolean anySelected = false;
+		for (int i = 0; i < blockSchemas.length; i++) {
+			blockSchemas[i] = this.schemas.get((int) readVarint(in));
+			rows[i] = (int) readVarint(in);
+			anySelected |= blockSchemas[i].selected;
+		}
+		int payloadLength = in.readInt();
+		if (maxTime < this.fromTime || minTime > this.toTime || !anySelected) {
+			skipFully(in, payloadLength);
+			return;
+		}
+		if (this.payload.length < payloadLength) {
+			this.payload = new byte[payloadLength];
+		}
+		in.readFully(this.payload, 0, payloadLength);
+		this.position = 0;
+
+		int[] sequence = new int[eventCount];
+		for (int i = 0; i < eventCount; i++) {
+			sequence[i] = (int) readVarint();
+		}
+		double[] times = new double[eventCount];
+		long previousTime = 0;
+		for (int i = 0; i < eventCount; i++) {
+			long code = readVarint();
+			if (code == 1) {
+				long bits = 0;
+				for (int b = 0; b < 8; b++) {
+					bits = (bits << 8) | (this.payload[this.position++] & 0xFF);
+				}
+				times[i] = Double.longBitsToDouble(bits);
+			} else {
+				long zigzag = code >>> 1;
+				previousTime += (zigzag >>> 1) ^ -(zigzag & 1);
+				times[i] = previousTime;
+			}
+		}
+		String[][][] columns = new String[blockSchemas.length][][];
+		for (int s = 0; s < blockSchemas.length; s++) {
+			int sectionLength = readInt();
+			Schema schema = blockSchemas[s];
+			if (!schema.selected) {
+				this.position += sectionLength;
+				continue;
+			}
+			columns[s] = new String[schema.keys.length][rows[s]];
+			for (int k = 0; k < schema.keys.length; k++) {
+				String[] values = columns[s][k];
+				for (int row = 0; row < values.length; row++) {
+					values[row] = schema.ids[k] ? this.dictionary.get((int) readVarint()) : readString();
+				}
+			}
+		}
+
+		int[] nextRow = new int[blockSchemas.length];
+		for (int i = 0; i < eventCount; i++) {
+			int s = sequence[i];
+			int row = nextRow[s]++;
+			Schema schema = blockSchemas[s];
+			double time = times[i];
+			if (!schema.selected || time < this.fromTime || time > this.toTime) {
+				continue;
+			}
+			this.attributes.clear();
+			this.attributes.addAttribute("", Event.ATTRIBUTE_TIME, Event.ATTRIBUTE_TIME, "CDATA", Double.toString(time));
+			this.attributes.addAttribute("", Event.ATTRIBUTE_TYPE, Event.ATTRIBUTE_TYPE, "CDATA", schema.type);
+			for (int k = 0; k < schema.keys.length; k++) {
+				String key = schema.keys[k];
+				this.attributes.addAttribute("", key, key, "CDATA", columns[s][k][row]);
+			}
+			this.delegate.startTag(EventsReaderXMLv1.EVENT, this.attributes, this.context);
+		}
+	}
+
+	private long readVarint() {
+		long value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = this.payload[this.position++];
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+
+	private String readString() {
+		int length = (int) readVarint();
+		if (length == 0) {
+			return null;
+		}
+		String value = new String(this.payload, this.position, length - 1, StandardCharsets.UTF_8);
+		this.position += length - 1;
+		return value;
+	}
+
+	private int readInt() {
+		int value = 0;
+		for (int b = 0; b < 4; b++) {
+			value = (value << 8) | (this.payload[this.position++] & 0xFF);
+		}
+		return value;
+	}
+
+	private static long readVarint(DataInputStream in) throws IOException {
+		long value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = in.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+
+	private static void skipFully(DataInputStream in, int length) throws IOException {
+		int remaining = length;
+		while (remaining > 0) {
+			int skipped = in.skipBytes(remaining);
+			if (skipped == 0) {
+				// skipBytes may return 0 before the end of the stream is reached
+				in.readByte();
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
+	}
+
+	private record Schema(String type, String[] keys, boolean[] ids, boolean selected) {
+	}
+}
@@ -50,6 +50,7 @@ public final class MatsimEventsReader implements MatsimReader {
 	private final EventsManager events;
 
 	private final Map<String, CustomEventMapper> customEventMappers = new LinkedHashMap<>();
+	private int numberOfThreads = 1;
 
 	public interface CustomEventMapper {
 		Event apply(GenericEvent event);
@@ -59,6 +60,14 @@ public final class MatsimEventsReader implements MatsimReader {
 		this.customEventMappers.put(eventType, mapper);
 	}
 
+	/**
+	 * Sets the number of threads used to create the events when reading xml events. With more than one thread, the
+	 * events are created by a {@link ParallelEventsReaderXML}, and the events manager is called from a separate thread.
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
 	/**
 	 * Creates a new reader for MATSim events files.
 	 *
@@ -77,11 +86,15 @@ public final class MatsimEventsReader implements MatsimReader {
 	public void readFile(final String filename) {
 		String lcFilename = filename.toLowerCase(Locale.ROOT);
 		if (lcFilename.endsWith(".xml") || lcFilename.endsWith(".xml.gz") || lcFilename.endsWith(".xml.zst") || lcFilename.endsWith(".xml.lz4")) {
-			new XmlEventsReader(this.events, this.customEventMappers).readFile(filename );
+			new XmlEventsReader(this.events, this.customEventMappers, this.numberOfThreads).readFile(filename );
 		} else if (lcFilename.endsWith(".ndjson") || lcFilename.endsWith(".ndjson.gz") || lcFilename.endsWith(".ndjson.zst")) {
 			EventsReaderJson reader = new EventsReaderJson(this.events);
 			customEventMappers.forEach(reader::addCustomEventMapper);
 			reader.parse(filename);
+		} else if (lcFilename.endsWith(".bin") || lcFilename.endsWith(".bin.gz") || lcFilename.endsWith(".bin.zst") || lcFilename.endsWith(".bin.lz4")) {
+			EventsReaderBinary reader = new EventsReaderBinary(this.events);
+			customEventMappers.forEach(reader::addCustomEventMapper);
+			reader.readFile(filename);
 		} else if (lcFilename.endsWith(".txt") || lcFilename.endsWith(".txt.gz")) {
 			throw new RuntimeException("text events are no longer supported. Please use MATSim 0.6.1 or earlier to read text events.");
 		} else {
@@ -91,13 +104,13 @@ public final class MatsimEventsReader implements MatsimReader {
 
 	@Deprecated // use readStream(InputStream, EventsFileFormat)
 	public void readStream(final InputStream stream) {
-		new XmlEventsReader(this.events, this.customEventMappers).parse(stream );
+		new XmlEventsReader(this.events, this.customEventMappers, this.numberOfThreads).parse(stream );
 	}
 
 	public void readStream(final InputStream stream, final ControllerConfigGroup.EventsFileFormat format) {
 		switch (format) {
 			case xml:
-				new XmlEventsReader(this.events, this.customEventMappers).parse(stream);
+				new XmlEventsReader(this.events, this.customEventMappers, this.numberOfThreads).parse(stream);
 				break;
 			case pb:
 				throw new UnsupportedOperationException(
@@ -107,17 +120,26 @@ public final class MatsimEventsReader implements MatsimReader {
 				customEventMappers.forEach(reader::addCustomEventMapper);
 				reader.parse(stream);
 				break;
+			case binary:
+				EventsReaderBinary binaryReader = new EventsReaderBinary(this.events);
+				customEventMappers.forEach(binaryReader::addCustomEventMapper);
+				binaryReader.readStream(stream);
+				break;
 		}
 	}
 
 	@Override
 	public void readURL( final URL url ) {
 		if (url.getFile().contains(".xml")) {
-			new XmlEventsReader( this.events, this.customEventMappers).readURL( url );
+			new XmlEventsReader( this.events, this.customEventMappers, this.numberOfThreads).readURL( url );
 		} else if (url.getFile().contains(".ndjson")) {
 			EventsReaderJson reader = new EventsReaderJson(this.events);
 			customEventMappers.forEach(reader::addCustomEventMapper);
 			reader.parse(url);
+		} else if (url.getFile().contains(".bin")) {
+			EventsReaderBinary reader = new EventsReaderBinary(this.events);
+			customEventMappers.forEach(reader::addCustomEventMapper);
+			reader.readURL(url);
 		}
 	}
 
@@ -128,11 +150,13 @@ public final class MatsimEventsReader implements MatsimReader {
 		private MatsimXmlEventsParser delegate = null;
 
 		private final Map<String, CustomEventMapper> map ;
+		private final int numberOfThreads;
 
-		private XmlEventsReader( final EventsManager events, Map<String, CustomEventMapper> map ) {
+		private XmlEventsReader( final EventsManager events, Map<String, CustomEventMapper> map, int numberOfThreads ) {
 			super(ValidationType.NO_VALIDATION);
 			this.events = events;
 			this.map = map;
+			this.numberOfThreads = numberOfThreads;
 			this.setValidating(false); // events-files have no DTD, thus they cannot validate
 			setDoctype("events_v1.dtd"); // manually set a doctype, otherwise delegate would not be initialized
 		}
@@ -163,9 +187,14 @@ public final class MatsimEventsReader implements MatsimReader {
 			super.setDoctype(doctype);
 			// Currently the only events-type is v1
 			if (EVENTS_V1.equals(doctype)) {
-				this.delegate = new EventsReaderXMLv1(this.events);
+				if (this.numberOfThreads > 1) {
+					this.delegate = new ParallelEventsReaderXML(this.events, this.numberOfThreads);
+					log.info("using parallel events_v1-reader.");
+				} else {
+					this.delegate = new EventsReaderXMLv1(this.events);
+					log.info("using events_v1-reader.");
+				}
 				map.forEach(delegate::addCustomEventMapper);
-				log.info("using events_v1-reader.");
 			} else {
 				throw new IllegalArgumentException("Doctype \"" + doctype + "\" not known.");
 			}
@@ -19,6 +19,8 @@
 package org.matsim.core.events;
 
 import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
 import jakarta.inject.Inject;
@@ -66,6 +68,7 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 	private ProcessEventThread[] eventsProcessThread = null;
 	private Thread[] threads = null;
 	private int numberOfAddedEventsHandler = 0;
+	private final Map<EventHandler, Integer> threadOfHandler = new IdentityHashMap<>();
 	private final AtomicReference<Throwable> hadException = new AtomicReference<>();
 	private final ExceptionHandler uncaughtExceptionHandler = new ExceptionHandler(hadException);
 
@@ -124,9 +127,18 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 	@Override
 	public void addHandler(final EventHandler handler) {
 		synchronized (this) {
-			log.info("adding Event-Handler " + handler.getClass().getName() + " to thread " + numberOfAddedEventsHandler);
-			events[numberOfAddedEventsHandler].addHandler(handler);
-			numberOfAddedEventsHandler = (numberOfAddedEventsHandler + 1) % numberOfThreads;
+			/*
+			 * A handler that is added more than once is assigned to the same thread again, so that each handler is
+			 * only called from one thread. This allows the EventsManagerImpls to skip synchronizing on the handlers.
+			 */
+			Integer thread = this.threadOfHandler.get(handler);
+			if (thread == null) {
+				thread = numberOfAddedEventsHandler;
+				this.threadOfHandler.put(handler, thread);
+				numberOfAddedEventsHandler = (numberOfAddedEventsHandler + 1) % numberOfThreads;
+			}
+			log.info("adding Event-Handler " + handler.getClass().getName() + " to thread " + thread);
+			events[thread].addHandler(handler);
 		}
 	}
 
@@ -145,6 +157,7 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 			for (int i = 0; i < events.length; i++) {
 				events[i].removeHandler(handler);
 			}
+			this.threadOfHandler.remove(handler);
 		}
 	}
 
@@ -164,7 +177,7 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 		this.threads = new Thread[numberOfThreads];
 		// the additional 1 is for the simulation barrier
 		for (int i = 0; i < numberOfThreads; i++) {
-			events[i] = new EventsManagerImpl();
+			events[i] = new EventsManagerImpl(false);
 		}
 	}
 
@@ -0,0 +1,201 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Parallel implementation of the {@link EventsReaderXMLv1}. The parsing thread only reads the file and collects
+ * the attributes of the events in chunks. The chunks are converted to events by a pool of worker threads, and the
+ * events are passed to the events manager by a single delivery thread in the order of the file.
+ * <p>
+ * The events manager is thus called from another thread than the one reading the file, but never concurrently.
+ * Reading returns after all events have been processed.
+ */
+public final class ParallelEventsReaderXML extends MatsimXmlEventsParser {
+
+	private static final Logger log = LogManager.getLogger(ParallelEventsReaderXML.class);
+
+	static final String EVENTS = "events";
+	private static final int DEFAULT_CHUNK_SIZE = 1024;
+
+	private final EventsManager events;
+	private final EventsReaderXMLv1 converter;
+	private final int numberOfThreads;
+	private final int chunkSize;
+
+	private ExecutorService executor;
+	private BlockingQueue<Future<Event[]>> chunkQueue;
+	private Thread deliveryThread;
+	private List<Attributes> currentChunk;
+	private volatile Throwable exception = null;
+
+	public ParallelEventsReaderXML(final EventsManager events, final int numberOfThreads) {
+		this(events, numberOfThreads, DEFAULT_CHUNK_SIZE);
+	}
+
+	ParallelEventsReaderXML(final EventsManager events, final int numberOfThreads, final int chunkSize) {
+		this.events = events;
+		// the converter is only used to create events, it does not pass them to the events manager
+		this.converter = new EventsReaderXMLv1(events);
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+		this.chunkSize = chunkSize;
+		this.setValidating(false);// events-files have no DTD, thus they cannot validate
+	}
+
+	@Override
+	public void addCustomEventMapper(String eventType, MatsimEventsReader.CustomEventMapper cem) {
+		this.converter.addCustomEventMapper(eventType, cem);
+	}
+
+	@Override
+	public void startTag(final String name, final Attributes atts, final Stack<String> context) {
+		if (EventsReaderXMLv1.EVENT.equals(name)) {
+			if (this.executor == null) {
+				initThreads();
+			}
+			// We have to create copies of the attributes because the object is re-used by the parser!
+			this.currentChunk.add(new AttributesImpl(atts));
+			if (this.currentChunk.size() == this.chunkSize) {
+				submitChunk();
+			}
+		}
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) throws SAXException {
+		// ignore characters to prevent OutOfMemoryExceptions, see EventsReaderXMLv1
+	}
+
+	@Override
+	public void endTag(final String name, final String content, final Stack<String> context) {
+		if (EVENTS.equals(name) && this.executor != null) {
+			stopThreads();
+		}
+	}
+
+	private void initThreads() {
+		log.info("Start parallel events reading with " + this.numberOfThreads + " threads...");
+		this.exception = null;
+		this.executor = Executors.newFixedThreadPool(this.numberOfThreads, runnable -> {
+			Thread thread = new Thread(runnable);
+			thread.setDaemon(true);
+			thread.setName(ParallelEventsReaderXML.class.getSimpleName() + "-Converter");
+			return thread;
+		});
+		// bounded, so the parsing thread cannot run arbitrarily far ahead of the events manager
+		this.chunkQueue = new ArrayBlockingQueue<>(4 * this.numberOfThreads);
+		this.currentChunk = new ArrayList<>(this.chunkSize);
+		this.deliveryThread = new Thread(this::deliverEvents, ParallelEventsReaderXML.class.getSimpleName() + "-Delivery");
+		this.deliveryThread.setDaemon(true);
+		this.deliveryThread.start();
+	}
+
+	private void submitChunk() {
+		if (this.exception != null) {
+			stopThreads();
+		}
+		List<Attributes> chunk = this.currentChunk;
+		this.currentChunk = new ArrayList<>(this.chunkSize);
+		putChunk(this.executor.submit(() -> convert(chunk)));
+	}
+
+	private Event[] convert(List<Attributes> chunk) {
+		Event[] converted = new Event[chunk.size()];
+		for (int i = 0; i < converted.length; i++) {
+			converted[i] = this.converter.createEvent(chunk.get(i));
+		}
+		return converted;
+	}
+
+	private void putChunk(Future<Event[]> chunk) {
+		try {
+			this.chunkQueue.put(chunk);
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private void deliverEvents() {
+		while (true) {
+			try {
+				Event[] chunk = this.chunkQueue.take().get();
+				if (chunk == null) {
+					return;
+				}
+				// keep taking chunks after an exception, so the parsing thread does not block on the full queue
+				if (this.exception == null) {
+					for (Event event : chunk) {
+						this.events.processEvent(event);
+					}
+				}
+			} catch (InterruptedException e) {
+				this.exception = e;
+				return;
+			} catch (ExecutionException e) {
+				this.exception = e.getCause();
+			} catch (RuntimeException | Error e) {
+				this.exception = e;
+			}
+		}
+	}
+
+	private void stopThreads() {
+		if (!this.currentChunk.isEmpty() && this.exception == null) {
+			List<Attributes> chunk = this.currentChunk;
+			this.currentChunk = new ArrayList<>(this.chunkSize);
+			putChunk(this.executor.submit(() -> convert(chunk)));
+		}
+		// signal the delivery thread that no further chunks follow
+		putChunk(CompletableFuture.completedFuture(null));
+		try {
+			this.deliveryThread.join();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} finally {
+			this.executor.shutdownNow();
+			this.executor = null;
+		}
+
+		Throwable t = this.exception;
+		if (t != null) {
+			log.error("Error parsing events", t);
+			throw new RuntimeException(t);
+		}
+		log.info("Finished parallel events reading...");
+	}
+}
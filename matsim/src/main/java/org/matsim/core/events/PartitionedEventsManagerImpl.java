@@ -0,0 +1,397 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PartitionedEventsManagerImpl.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import jakarta.inject.Inject;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.EventsManagerConfigGroup;
+import org.matsim.core.events.handler.EventHandler;
+import org.matsim.core.events.handler.PartitionedEventHandler;
+import org.matsim.core.events.handler.PartitionedEventHandler.Partitioning;
+import org.matsim.core.gbl.Gbl;
+
+/**
+ * An EventsManager that, like {@link SimStepParallelEventsManagerImpl}, processes the events in separate threads
+ * and makes sure that all events of a time step of the mobsim have been processed before the simulation goes on.
+ * <p>
+ * In contrast to {@link SimStepParallelEventsManagerImpl}, the events are not passed from one thread to the next,
+ * but each thread has its own lock-free queue and only gets the events it actually needs:
+ * <ul>
+ * <li>Regular event handlers are distributed round-robin over the threads, like in the other parallel events managers.
+ * A thread with at least one regular handler receives all events.</li>
+ * <li>{@link PartitionedEventHandler}s are registered to every thread, and the events are split by the index of the
+ * person, vehicle or link id (depending on the handler's {@link Partitioning}). Each thread only passes the events of
+ * its partition to such handlers.</li>
+ * </ul>
+ * Thus, if all expensive handlers are partitioned, each thread only sees a fraction of the events.
+ *
+ * @see PartitionedEventHandler
+ */
+final class PartitionedEventsManagerImpl implements EventsManager {
+
+	private final static Logger log = LogManager.getLogger(PartitionedEventsManagerImpl.class);
+
+	private static final int SPINS_BEFORE_PARKING = 1000;
+
+	private final int numOfThreads;
+	private final EventsManagerImpl delegate;
+	private final EventsManagerImpl[] regularEventsManagers;
+	private final EventsManagerImpl[][] partitionedEventsManagers;
+	private final boolean[] hasRegularHandlers;
+	private final int[] partitionedHandlerCount = new int[Partitioning.values().length];
+
+	private final Map<EventHandler, Integer> threadOfHandler = new IdentityHashMap<>();
+	private int handlerCount = 0;
+
+	private ProcessEventsRunnable[] runnables;
+	private Thread[] threads;
+	private Phaser simStepEndPhaser;
+	private volatile boolean allEventsProcessed;
+	private final AtomicReference<Throwable> hadException = new AtomicReference<>();
+
+	private volatile boolean parallelMode = false;
+
+	@Inject
+	PartitionedEventsManagerImpl(EventsManagerConfigGroup config) {
+		this(config.getNumberOfThreads() != null ? config.getNumberOfThreads() : 1);
+	}
+
+	public PartitionedEventsManagerImpl(int numOfThreads) {
+		this.numOfThreads = numOfThreads;
+		log.info("number of threads=" + numOfThreads);
+
+		/*
+		 * The delegate processes events outside the sim step, from whichever thread calls processEvent, so it keeps
+		 * synchronizing on the handlers. Within the sim step, each handler is only ever called from one thread at a time
+		 * (the partitioned ones are thread-safe by contract), so the per-thread managers do not need to synchronize.
+		 */
+		this.delegate = new EventsManagerImpl();
+		this.regularEventsManagers = new EventsManagerImpl[numOfThreads];
+		this.partitionedEventsManagers = new EventsManagerImpl[Partitioning.values().length][numOfThreads];
+		this.hasRegularHandlers = new boolean[numOfThreads];
+		for (int i = 0; i < numOfThreads; i++) {
+			this.regularEventsManagers[i] = new EventsManagerImpl(false);
+			for (Partitioning partitioning : Partitioning.values()) {
+				this.partitionedEventsManagers[partitioning.ordinal()][i] = new EventsManagerImpl(false);
+			}
+		}
+	}
+
+	@Override
+	public void processEvent(final Event event) {
+		if (this.parallelMode) {
+			for (int i = 0; i < this.numOfThreads; i++) {
+				if (isRelevantForThread(event, i)) {
+					this.runnables[i].processEvent(event);
+				}
+			}
+		} else {
+			this.delegate.processEvent(event);
+		}
+	}
+
+	private boolean isRelevantForThread(final Event event, final int thread) {
+		if (this.hasRegularHandlers[thread]) {
+			return true;
+		}
+		for (Partitioning partitioning : Partitioning.values()) {
+			if (this.partitionedHandlerCount[partitioning.ordinal()] > 0 && partitioning.getPartition(event, this.numOfThreads) == thread) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public synchronized void addHandler(final EventHandler handler) {
+		this.delegate.addHandler(handler);
+		if (handler instanceof PartitionedEventHandler partitionedHandler) {
+			int p = partitionedHandler.getPartitioning().ordinal();
+			for (EventsManagerImpl eventsManager : this.partitionedEventsManagers[p]) {
+				eventsManager.addHandler(handler);
+			}
+			this.partitionedHandlerCount[p]++;
+		} else {
+			// a handler that is added more than once has to end up in the same thread again
+			Integer thread = this.threadOfHandler.get(handler);
+			if (thread == null) {
+				thread = this.handlerCount % this.numOfThreads;
+				this.threadOfHandler.put(handler, thread);
+				this.handlerCount++;
+			}
+			this.regularEventsManagers[thread].addHandler(handler);
+			this.hasRegularHandlers[thread] = true;
+		}
+	}
+
+	@Override
+	public synchronized void removeHandler(final EventHandler handler) {
+		this.delegate.removeHandler(handler);
+		if (handler instanceof PartitionedEventHandler partitionedHandler) {
+			int p = partitionedHandler.getPartitioning().ordinal();
+			for (EventsManagerImpl eventsManager : this.partitionedEventsManagers[p]) {
+				eventsManager.removeHandler(handler);
+			}
+			this.partitionedHandlerCount[p]--;
+		} else {
+			for (EventsManagerImpl eventsManager : this.regularEventsManagers) {
+				eventsManager.removeHandler(handler);
+			}
+			this.threadOfHandler.remove(handler);
+		}
+	}
+
+	@Override
+	public void resetHandlers(int iteration) {
+		this.delegate.resetHandlers(iteration);
+	}
+
+	@Override
+	public void initProcessing() {
+		this.delegate.initProcessing();
+
+		this.hadException.set(null);
+		this.simStepEndPhaser = new Phaser(this.numOfThreads + 1) {
+			@Override
+			protected boolean onAdvance(int phase, int registeredParties) {
+				// executed by the last arriving thread, while all others still wait
+				checkAllEventsProcessed();
+				return false;
+			}
+		};
+		ExceptionHandler uncaughtExceptionHandler = new ExceptionHandler(this.hadException, this.simStepEndPhaser);
+
+		this.runnables = new ProcessEventsRunnable[this.numOfThreads];
+		this.threads = new Thread[this.numOfThreads];
+		for (int i = 0; i < this.numOfThreads; i++) {
+			EventsManagerImpl[] partitioned = new EventsManagerImpl[Partitioning.values().length];
+			for (Partitioning partitioning : Partitioning.values()) {
+				int p = partitioning.ordinal();
+				partitioned[p] = this.partitionedHandlerCount[p] > 0 ? this.partitionedEventsManagers[p][i] : null;
+			}
+			this.runnables[i] = new ProcessEventsRunnable(i, this.numOfThreads, this.regularEventsManagers[i], partitioned,
+					this.simStepEndPhaser);
+			Thread thread = new Thread(this.runnables[i]);
+			thread.setDaemon(true);
+			thread.setUncaughtExceptionHandler(uncaughtExceptionHandler);
+			thread.setName(ProcessEventsRunnable.class.getSimpleName() + i);
+			this.runnables[i].thread = thread;
+			this.threads[i] = thread;
+		}
+		for (Thread thread : this.threads) {
+			thread.start();
+		}
+
+		/*
+		 * During the simulation Events are processed in
+		 * the EventsProcessingThreads.
+		 */
+		this.parallelMode = true;
+	}
+
+	@Override
+	public void afterSimStep(double time) {
+		if (this.hadException.get() != null) {
+			throw new RuntimeException(this.hadException.get());
+		}
+
+		/*
+		 * Event handlers might create additional events while processing the events of this time step. These could
+		 * end up in a queue after the thread has already passed its LastEventOfSimStep. So, we check when the phaser
+		 * advances (i.e. while all threads wait) whether all queues are empty, and repeat if not.
+		 */
+		do {
+			LastEventOfSimStep lastEvent = new LastEventOfSimStep(time);
+			for (ProcessEventsRunnable runnable : this.runnables) {
+				runnable.processEvent(lastEvent);
+			}
+			this.simStepEndPhaser.arriveAndAwaitAdvance();
+			if (this.hadException.get() != null) {
+				throw new RuntimeException(this.hadException.get());
+			}
+		} while (!this.allEventsProcessed);
+	}
+
+	private void checkAllEventsProcessed() {
+		boolean allEmpty = true;
+		for (ProcessEventsRunnable runnable : this.runnables) {
+			allEmpty &= runnable.eventsQueue.isEmpty();
+		}
+		this.allEventsProcessed = allEmpty;
+	}
+
+	@Override
+	public synchronized void finishProcessing() {
+		if (this.parallelMode) {
+			LastEventOfIteration lastEvent = new LastEventOfIteration(Double.POSITIVE_INFINITY);
+			for (ProcessEventsRunnable runnable : this.runnables) {
+				runnable.processEvent(lastEvent);
+			}
+			try {
+				for (Thread thread : this.threads) {
+					thread.join();
+				}
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+
+			/*
+			 * After the simulation Events are processed in
+			 * the Main Thread.
+			 */
+			this.parallelMode = false;
+
+			if (this.hadException.get() == null) {
+				// events created by handlers while processing the last events of the iteration
+				for (ProcessEventsRunnable runnable : this.runnables) {
+					runnable.processRemainingEvents();
+				}
+			}
+		}
+
+		this.delegate.finishProcessing();
+
+		if (this.hadException.get() != null) {
+			throw new RuntimeException("Exception while processing events. Cannot guarantee that all events have been fully processed.", this.hadException.get());
+		}
+	}
+
+	private static class ProcessEventsRunnable implements Runnable {
+
+		private final int threadIndex;
+		private final int numOfThreads;
+		private final EventsManagerImpl regularEventsManager;
+		private final EventsManagerImpl[] partitionedEventsManagers;
+		private final Phaser simStepEndPhaser;
+		private final Queue<Event> eventsQueue = new ConcurrentLinkedQueue<>();
+		private volatile boolean parked = false;
+		private Thread thread;
+
+		ProcessEventsRunnable(int threadIndex, int numOfThreads, EventsManagerImpl regularEventsManager,
+				EventsManagerImpl[] partitionedEventsManagers, Phaser simStepEndPhaser) {
+			this.threadIndex = threadIndex;
+			this.numOfThreads = numOfThreads;
+			this.regularEventsManager = regularEventsManager;
+			this.partitionedEventsManagers = partitionedEventsManagers;
+			this.simStepEndPhaser = simStepEndPhaser;
+		}
+
+		void processEvent(Event event) {
+			this.eventsQueue.add(event);
+			if (this.parked) {
+				LockSupport.unpark(this.thread);
+			}
+		}
+
+		@Override
+		public void run() {
+			int spins = 0;
+			while (true) {
+				Event event = this.eventsQueue.poll();
+				if (event == null) {
+					if (spins++ < SPINS_BEFORE_PARKING) {
+						Thread.onSpinWait();
+					} else {
+						/*
+						 * Announce that we are going to park and check the queue again afterwards, so we cannot miss an
+						 * event that was added in between (the producer unparks us if it sees the flag).
+						 */
+						this.parked = true;
+						if (this.eventsQueue.isEmpty()) {
+							LockSupport.park(this);
+						}
+						this.parked = false;
+					}
+					continue;
+				}
+				spins = 0;
+
+				if (event instanceof LastEventOfSimStep) {
+					this.simStepEndPhaser.arriveAndAwaitAdvance();
+					continue;
+				}
+				if (event instanceof LastEventOfIteration) {
+					break;
+				}
+				dispatch(event);
+			}
+			Gbl.printCurrentThreadCpuTime();
+		}
+
+		private void dispatch(Event event) {
+			this.regularEventsManager.processEvent(event);
+			for (Partitioning partitioning : Partitioning.values()) {
+				EventsManagerImpl eventsManager = this.partitionedEventsManagers[partitioning.ordinal()];
+				if (eventsManager != null && partitioning.getPartition(event, this.numOfThreads) == this.threadIndex) {
+					eventsManager.processEvent(event);
+				}
+			}
+		}
+
+		void processRemainingEvents() {
+			Event event;
+			while ((event = this.eventsQueue.poll()) != null) {
+				if (!(event instanceof LastEventOfSimStep) && !(event instanceof LastEventOfIteration)) {
+					dispatch(event);
+				}
+			}
+		}
+
+	}	// ProcessEventsRunnable
+
+	private static class ExceptionHandler implements UncaughtExceptionHandler {
+
+		private final AtomicReference<Throwable> hadException;
+		private final Phaser simStepEndPhaser;
+
+		ExceptionHandler(final AtomicReference<Throwable> hadException, Phaser simStepEndPhaser) {
+			this.hadException = hadException;
+			this.simStepEndPhaser = simStepEndPhaser;
+		}
+
+		@Override
+		public void uncaughtException(Thread t, Throwable e) {
+			// store the original exception
+			this.hadException.compareAndSet(null, e);
+			log.error("Thread " + t.getName() + " died with exception while handling events.", e);
+			/*
+			 * The dead thread will never arrive at the end of a sim step again. By deregistering it, the other threads
+			 * and the mobsim can still pass the phaser, and the mobsim then finds the exception.
+			 */
+			this.simStepEndPhaser.arriveAndDeregister();
+		}
+
+	}
+
+}
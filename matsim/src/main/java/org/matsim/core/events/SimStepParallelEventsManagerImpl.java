@@ -22,7 +22,9 @@ package org.matsim.core.events;
 
 import java.lang.Thread.UncaughtExceptionHandler;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
@@ -62,6 +64,7 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 
 	private boolean parallelMode = false;
 	private int handlerCount = 0;
+	private final Map<EventHandler, Integer> threadOfHandler = new IdentityHashMap<>();
 
 	private AtomicLong counter;
 	private AtomicReference<Throwable> hadException = new AtomicReference<>();
@@ -87,10 +90,15 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 		this.simStepEndBarrier = new CyclicBarrier(this.numOfThreads + 1);
 		this.iterationEndBarrier = new CyclicBarrier(this.numOfThreads + 1);
 
+		/*
+		 * The delegate processes events outside the sim step, from whichever thread calls processEvent, so it keeps
+		 * synchronizing on the handlers. Each handler is registered to exactly one of the per-thread managers, so these
+		 * are never called concurrently and do not need to synchronize on the handlers.
+		 */
 		this.delegate = new EventsManagerImpl();
 
 		this.eventsManagers = new EventsManagerImpl[this.numOfThreads];
-		for (int i = 0; i < numOfThreads; i++) this.eventsManagers[i] = new EventsManagerImpl();
+		for (int i = 0; i < numOfThreads; i++) this.eventsManagers[i] = new EventsManagerImpl(false);
 	}
 
 	@Override
@@ -109,8 +117,14 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 	public void addHandler(final EventHandler handler) {
 		delegate.addHandler(handler);
 
-		eventsManagers[handlerCount % numOfThreads].addHandler(handler);
-		handlerCount++;
+		// a handler that is added more than once has to end up in the same thread again
+		Integer thread = threadOfHandler.get(handler);
+		if (thread == null) {
+			thread = handlerCount % numOfThreads;
+			threadOfHandler.put(handler, thread);
+			handlerCount++;
+		}
+		eventsManagers[thread].addHandler(handler);
 	}
 
 	@Override
@@ -118,6 +132,7 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 		delegate.removeHandler(handler);
 
 		for (EventsManager eventsManager : eventsManagers) eventsManager.removeHandler(handler);
+		threadOfHandler.remove(handler);
 	}
 
 	@Override
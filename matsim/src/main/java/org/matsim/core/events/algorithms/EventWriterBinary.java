@@ -0,0 +1,378 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events.algorithms;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.utils.io.IOUtils;
+
+/**
+ * Writes events in a compact binary format that is organized in blocks of events.
+ * <p>
+ * Event types, attribute names and the values of id attributes (e.g. person, link or vehicle, and all attributes
+ * ending with "Id") are stored once in a dictionary and referenced by their index afterwards. All other attribute values, e.g. numbers or free text, are
+ * stored inline, so the dictionary only grows with the number of ids in the scenario. Events with the same type and
+ * the same attribute names share a schema. Within a block, the attribute values of each schema are stored
+ * column-wise, and the event times are delta-encoded.
+ * <p>
+ * File layout (varint = unsigned LEB128):
+ * <pre>
+ * header:  MAGIC, varint VERSION
+ * block:   byte BLOCK_MARKER
+ *          varint #new strings, each: varint byte length, UTF-8 bytes
+ *          varint #new schemas, each: varint type ref, varint #attributes, per attribute: varint name ref, byte id flag
+ *          double min time, double max time, varint #events
+ *          varint #schemas in block, each: varint schema id, varint #events of this schema
+ *          int payload length, payload:
+ *              varint local schema index per event
+ *              time per event: varint (zigzag(delta to previous integral time) &lt;&lt; 1), or varint 1 followed by the double
+ *              per schema: int section length, then per attribute one value per event:
+ *                  id attributes: varint value ref (0 = null)
+ *                  others: varint byte length + 1 (0 = null), UTF-8 bytes
+ * end:     byte END_MARKER
+ * </pre>
+ * String refs are 1-based indices into the dictionary. The block header allows readers to skip blocks by time window
+ * and schema sections by event type without decoding them, see {@link org.matsim.core.events.EventsReaderBinary}.
+ */
+public class EventWriterBinary implements EventWriter, BasicEventHandler {
+
+	public static final byte[] MAGIC = "MATSIM-EVENTS-BIN".getBytes(StandardCharsets.US_ASCII);
+	public static final int VERSION = 2;
+	public static final byte BLOCK_MARKER = 1;
+	public static final byte END_MARKER = 0;
+
+	private static final int DEFAULT_BLOCK_SIZE = 65536;
+
+	// attributes of the core events with id values, in addition to all attributes ending with "Id"
+	private static final Set<String> ID_ATTRIBUTES = Set.of("person", "link", "vehicle", "facility", "agent", "atStop", "destinationStop");
+
+	private final DataOutputStream out;
+	private final int blockSize;
+
+	private final Map<String, Integer> dictionary = new HashMap<>();
+	private final List<String> newStrings = new ArrayList<>();
+	private final Map<String, List<Schema>> schemasByType = new HashMap<>();
+	private final List<Schema> newSchemas = new ArrayList<>();
+	private int schemaCount = 0;
+
+	// the current block
+	private final List<Schema> blockSchemas = new ArrayList<>();
+	private final int[] sequence;
+	private final double[] times;
+	private int eventCount = 0;
+	private double minTime = Double.POSITIVE_INFINITY;
+	private double maxTime = Double.NEGATIVE_INFINITY;
+	private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+	private final ByteArrayOutputStream section = new ByteArrayOutputStream();
+
+	public EventWriterBinary(final String outfilename) {
+		this(IOUtils.getOutputStream(IOUtils.getFileUrl(outfilename), false));
+	}
+
+	public EventWriterBinary(final OutputStream stream) {
+		this(stream, DEFAULT_BLOCK_SIZE);
+	}
+
+	public EventWriterBinary(final OutputStream stream, int blockSize) {
+		this.out = new DataOutputStream(new BufferedOutputStream(stream));
+		this.blockSize = blockSize;
+		this.sequence = new int[blockSize];
+		this.times = new double[blockSize];
+		try {
+			this.out.write(MAGIC);
+			writeVarint(this.out, VERSION);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void handleEvent(final Event event) {
+		Map<String, String> attributes = event.getAttributes();
+		Schema schema = getSchema(event.getEventType(), attributes);
+		if (schema.localIndex < 0) {
+			schema.localIndex = this.blockSchemas.size();
+			this.blockSchemas.add(schema);
+		}
+		int row = schema.rows++;
+		int column = 0;
+		for (Map.Entry<String, String> e : attributes.entrySet()) {
+			if (isImplicit(e.getKey())) {
+				continue;
+			}
+			if (schema.ids[column]) {
+				int[] refs = schema.refColumns[column];
+				if (row == refs.length) {
+					refs = Arrays.copyOf(refs, refs.length * 2);
+					schema.refColumns[column] = refs;
+				}
+				refs[row] = ref(e.getValue());
+			} else {
+				String[] values = schema.valueColumns[column];
+				if (row == values.length) {
+					values = Arrays.copyOf(values, values.length * 2);
+					schema.valueColumns[column] = values;
+				}
+				values[row] = e.getValue();
+			}
+			column++;
+		}
+
+		double time = event.getTime();
+		this.sequence[this.eventCount] = schema.localIndex;
+		this.times[this.eventCount] = time;
+		this.minTime = Math.min(this.minTime, time);
+		this.maxTime = Math.max(this.maxTime, time);
+		this.eventCount++;
+		if (this.eventCount == this.blockSize) {
+			writeBlock();
+		}
+	}
+
+	@Override
+	public void closeFile() {
+		try {
+			if (this.eventCount > 0) {
+				writeBlock();
+			}
+			this.out.writeByte(END_MARKER);
+			this.out.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void reset(final int iter) {
+	}
+
+	private static boolean isImplicit(String key) {
+		return Event.ATTRIBUTE_TIME.equals(key) || Event.ATTRIBUTE_TYPE.equals(key);
+	}
+
+	/**
+	 * Returns whether the values of the attribute are ids, which are stored in the dictionary. The values of all
+	 * other attributes are stored inline.
+	 */
+	private static boolean isIdAttribute(String key) {
+		return ID_ATTRIBUTES.contains(key) || key.endsWith("Id");
+	}
+
+	/**
+	 * Returns the number of strings in the dictionary so far.
+	 */
+	int getDictionarySize() {
+		return this.dictionary.size();
+	}
+
+	private int ref(String value) {
+		if (value == null) {
+			return 0;
+		}
+		Integer ref = this.dictionary.get(value);
+		if (ref == null) {
+			ref = this.dictionary.size() + 1;
+			this.dictionary.put(value, ref);
+			this.newStrings.add(value);
+		}
+		return ref;
+	}
+
+	private Schema getSchema(String type, Map<String, String> attributes) {
+		List<Schema> schemas = this.schemasByType.computeIfAbsent(type, t -> new ArrayList<>(1));
+		for (Schema schema : schemas) {
+			if (schema.matches(attributes)) {
+				return schema;
+			}
+		}
+		List<String> keys = new ArrayList<>();
+		for (String key : attributes.keySet()) {
+			if (!isImplicit(key)) {
+				keys.add(key);
+			}
+		}
+		int[] keyRefs = new int[keys.size()];
+		for (int i = 0; i < keyRefs.length; i++) {
+			keyRefs[i] = ref(keys.get(i));
+		}
+		Schema schema = new Schema(this.schemaCount++, ref(type), keys.toArray(new String[0]), keyRefs);
+		schemas.add(schema);
+		this.newSchemas.add(schema);
+		return schema;
+	}
+
+	private void writeBlock() {
+		try {
+			this.out.writeByte(BLOCK_MARKER);
+			writeVarint(this.out, this.newStrings.size());
+			for (String s : this.newStrings) {
+				byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+				writeVarint(this.out, bytes.length);
+				this.out.write(bytes);
+			}
+			this.newStrings.clear();
+			writeVarint(this.out, this.newSchemas.size());
+			for (Schema schema : this.newSchemas) {
+				writeVarint(this.out, schema.typeRef);
+				writeVarint(this.out, schema.keyRefs.length);
+				for (int k = 0; k < schema.keyRefs.length; k++) {
+					writeVarint(this.out, schema.keyRefs[k]);
+					this.out.writeByte(schema.ids[k] ? 1 : 0);
+				}
+			}
+			this.newSchemas.clear();
+
+			this.out.writeDouble(this.minTime);
+			this.out.writeDouble(this.maxTime);
+			writeVarint(this.out, this.eventCount);
+			writeVarint(this.out, this.blockSchemas.size());
+			for (Schema schema : this.blockSchemas) {
+				writeVarint(this.out, schema.id);
+				writeVarint(this.out, schema.rows);
+			}
+
+			this.payload.reset();
+			for (int i = 0; i < this.eventCount; i++) {
+				writeVarint(this.payload, this.sequence[i]);
+			}
+			long previousTime = 0;
+			for (int i = 0; i < this.eventCount; i++) {
+				double time = this.times[i];
+				long integralTime = (long) time;
+				if (integralTime == time && Math.abs(integralTime) < (1L << 52) && (integralTime != 0 || Double.doubleToRawLongBits(time) == 0)) {
+					long delta = integralTime - previousTime;
+					writeVarint(this.payload, ((delta << 1) ^ (delta >> 63)) << 1);
+					previousTime = integralTime;
+				} else {
+					writeVarint(this.payload, 1);
+					long bits = Double.doubleToRawLongBits(time);
+					for (int shift = 56; shift >= 0; shift -= 8) {
+						this.payload.write((int) (bits >>> shift));
+					}
+				}
+			}
+			for (Schema schema : this.blockSchemas) {
+				this.section.reset();
+				for (int k = 0; k < schema.keys.length; k++) {
+					if (schema.ids[k]) {
+						int[] refs = schema.refColumns[k];
+						for (int row = 0; row < schema.rows; row++) {
+							writeVarint(this.section, refs[row]);
+						}
+					} else {
+						String[] values = schema.valueColumns[k];
+						for (int row = 0; row < schema.rows; row++) {
+							if (values[row] == null) {
+								writeVarint(this.section, 0);
+							} else {
+								byte[] bytes = values[row].getBytes(StandardCharsets.UTF_8);
+								writeVarint(this.section, bytes.length + 1L);
+								this.section.write(bytes);
+							}
+							values[row] = null;
+						}
+					}
+				}
+				int length = this.section.size();
+				for (int shift = 24; shift >= 0; shift -= 8) {
+					this.payload.write(length >>> shift);
+				}
+				this.section.writeTo(this.payload);
+				schema.rows = 0;
+				schema.localIndex = -1;
+			}
+			this.out.writeInt(this.payload.size());
+			this.payload.writeTo(this.out);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		this.blockSchemas.clear();
+		this.eventCount = 0;
+		this.minTime = Double.POSITIVE_INFINITY;
+		this.maxTime = Double.NEGATIVE_INFINITY;
+	}
+
+	private static void writeVarint(OutputStream stream, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			stream.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		stream.write((int) value);
+	}
+
+	private static final class Schema {
+		private final int id;
+		private final int typeRef;
+		private final String[] keys;
+		private final int[] keyRefs;
+		private final boolean[] ids;
+		// per attribute, the value refs of id attributes or the values of other attributes
+		private final int[][] refColumns;
+		private final String[][] valueColumns;
+		private int localIndex = -1;
+		private int rows = 0;
+
+		private Schema(int id, int typeRef, String[] keys, int[] keyRefs) {
+			this.id = id;
+			this.typeRef = typeRef;
+			this.keys = keys;
+			this.keyRefs = keyRefs;
+			this.ids = new boolean[keys.length];
+			this.refColumns = new int[keys.length][];
+			this.valueColumns = new String[keys.length][];
+			for (int i = 0; i < keys.length; i++) {
+				this.ids[i] = isIdAttribute(keys[i]);
+				if (this.ids[i]) {
+					this.refColumns[i] = new int[16];
+				} else {
+					this.valueColumns[i] = new String[16];
+				}
+			}
+		}
+
+		private boolean matches(Map<String, String> attributes) {
+			int i = 0;
+			for (String key : attributes.keySet()) {
+				if (isImplicit(key)) {
+					continue;
+				}
+				if (i == this.keys.length || !this.keys[i].equals(key)) {
+					return false;
+				}
+				i++;
+			}
+			return i == this.keys.length;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PartitionedEventHandler.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events.handler;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.HasLinkId;
+import org.matsim.api.core.v01.events.HasPersonId;
+import org.matsim.api.core.v01.events.HasVehicleId;
+
+/**
+ * An event handler whose state is organized by person, vehicle or link, and that can thus be fed by several threads
+ * at the same time, as long as all events belonging to the same entity are passed to it by the same thread.
+ * <p>
+ * Events managers supporting this (see <code>PartitionedEventsManagerImpl</code>) split the events by the
+ * index of the entity id returned by {@link #getPartitioning()} and process each partition on its own thread. Every partition
+ * thread calls the handler concurrently, so state that is shared between entities (e.g. per link data of a handler
+ * partitioned by vehicle) must be thread-safe. Events not referring to an entity of the partitioning (e.g. a
+ * {@link org.matsim.api.core.v01.events.GenericEvent} for a handler partitioned by vehicle) are all passed to the first partition.
+ * <p>
+ * Events managers not supporting this treat the handler like any other handler.
+ */
+public interface PartitionedEventHandler extends EventHandler {
+
+	enum Partitioning {
+		PERSON {
+			@Override
+			public Id<?> getPartitionKey(final Event event) {
+				return event instanceof HasPersonId hasPersonId ? hasPersonId.getPersonId() : null;
+			}
+		},
+		VEHICLE {
+			@Override
+			public Id<?> getPartitionKey(final Event event) {
+				return event instanceof HasVehicleId hasVehicleId ? hasVehicleId.getVehicleId() : null;
+			}
+		},
+		LINK {
+			@Override
+			public Id<?> getPartitionKey(final Event event) {
+				return event instanceof HasLinkId hasLinkId ? hasLinkId.getLinkId() : null;
+			}
+		};
+
+		/**
+		 * @return the id of the entity the event belongs to in this partitioning, or <code>null</code> if there is none.
+		 */
+		public abstract Id<?> getPartitionKey(Event event);
+
+		/**
+		 * @return the partition of the event, in the range <code>[0, numberOfPartitions)</code>.
+		 */
+		public int getPartition(final Event event, final int numberOfPartitions) {
+			Id<?> key = getPartitionKey(event);
+			return key == null ? 0 : key.index() % numberOfPartitions;
+		}
+	}
+
+	/**
+	 * @return the entity by which the events passed to this handler have to be partitioned.
+	 */
+	Partitioning getPartitioning();
+
+}
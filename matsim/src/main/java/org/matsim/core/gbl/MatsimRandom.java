@@ -22,11 +22,19 @@ package org.matsim.core.gbl;
 
 import java.util.Random;
 
+import org.matsim.api.core.v01.Id;
+
 
 /**
  * An abstract class, providing random numbers for MATSim. Also provides
  * Random Number Generators (RNG) for use in threads, which should all
  * use their own RNGs for deterministic behavior.
+ * <p></p>
+ * Code run with {@link #runWithPersonStream(Id, String, Runnable)} draws all random numbers of the global and the
+ * local instances from a stream that only depends on the seed, the person and the module.  As the controler resets
+ * the seed at the beginning of each iteration, the streams also differ between iterations. The results of
+ * such code are thus independent of the number of threads and of the order in which the persons are handled.
+ * Random number generators not created by this class (e.g. <code>new Random()</code>) are not affected.
  *
  * @author mrieser
  */
@@ -37,7 +45,9 @@ public abstract class MatsimRandom {
 	private static int internalCounter = 0;
 
 	/** the global random number generator */
-	private static final Random random = new Random(DEFAULT_RANDOM_SEED);
+	private static final Random random = new StreamAwareRandom(DEFAULT_RANDOM_SEED);
+
+	private static final ThreadLocal<PersonStream> personStream = ThreadLocal.withInitial(PersonStream::new);
 
 	/** Resets the random number generator with a default random seed. */
 	public static void reset() {
@@ -65,11 +75,102 @@ public abstract class MatsimRandom {
 	 */
 	public static Random getLocalInstance() {
 		internalCounter++;
-		Random r = new Random(lastUsedSeed + internalCounter*23l);
+		Random r = new StreamAwareRandom(lastUsedSeed + internalCounter*23l);
 		prepareRNG(r);
 		return r;
 	}
 
+	/**
+	 * Runs the given code with all random number generators of this class drawing from the stream of the given
+	 * person and module.  Calls may be nested; the stream of the outer call is continued afterwards.  Callers decide
+	 * themselves whether to use person streams, usually based on
+	 * {@link org.matsim.core.config.groups.GlobalConfigGroup#isUsingPersonRandomStreams()}.
+	 *
+	 * @param personId the person that is handled, may be <code>null</code> if there is none
+	 * @param module the name of the module handling the person, to get different streams in different modules
+	 */
+	public static void runWithPersonStream(final Id<?> personId, final String module, final Runnable runnable) {
+		if (personId == null) {
+			runnable.run();
+			return;
+		}
+		PersonStream stream = personStream.get();
+		boolean previousActive = stream.active;
+		long previousState = stream.state;
+		stream.state = mix(mix(lastUsedSeed) ^ hash(personId.toString()) ^ mix(module == null ? 0 : hash(module)));
+		stream.active = true;
+		try {
+			runnable.run();
+		} finally {
+			stream.state = previousState;
+			stream.active = previousActive;
+		}
+	}
+
+	private static long hash(final String s) {
+		// FNV-1a, as String.hashCode() only has 32 bits
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < s.length(); i++) {
+			h = (h ^ s.charAt(i)) * 0x100000001b3L;
+		}
+		return h;
+	}
+
+	/** the finalizer of SplitMix64 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * A SplitMix64 generator; the state of a person's stream is derived from its key, so no state needs to be stored per person.
+	 */
+	private static final class PersonStream {
+		private boolean active = false;
+		private long state = 0;
+
+		int next(final int bits) {
+			this.state += 0x9e3779b97f4a7c15L;
+			return (int) (mix(this.state) >>> (64 - bits));
+		}
+	}
+
+	/**
+	 * Draws from the current person stream of the calling thread if there is one, and from its own sequence otherwise.
+	 */
+	private static final class StreamAwareRandom extends Random {
+		private static final long serialVersionUID = 1L;
+
+		StreamAwareRandom(final long seed) {
+			super(seed);
+		}
+
+		@Override
+		protected int next(final int bits) {
+			PersonStream stream = personStream.get();
+			if (stream.active) {
+				return stream.next(bits);
+			}
+			return super.next(bits);
+		}
+
+		@Override
+		public double nextGaussian() {
+			if (personStream.get().active) {
+				// the polar method, without keeping the second value, as it would leak into the stream of the next person
+				double v1, v2, s;
+				do {
+					v1 = 2 * nextDouble() - 1;
+					v2 = 2 * nextDouble() - 1;
+					s = v1 * v1 + v2 * v2;
+				} while (s >= 1 || s == 0);
+				return v1 * StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+			}
+			return super.nextGaussian();
+		}
+	}
+
 	/**
 	 * Draw some random numbers to better initialize the pseudo-random number generator.
 	 *
@@ -109,6 +109,9 @@ class Agent {
     // Timestamp of when the agent will be ready to exit link.
     protected int linkFinishTime;
 
+    // Position among the agents scheduled for the same time step in partitioned runs, see ParallelRealms.
+    int scheduledOrdinal;
+
     // Number of passengers that this agent can take (zero for personal vehicles)
     private int capacity;
 
@@ -22,6 +22,8 @@ import java.util.Iterator;
 
 class HLink {
 
+	private static final long NOT_PROCESSED = Long.MIN_VALUE;
+
 	private float currentCapacity;
 	private final int initialCapacity;
 
@@ -144,6 +146,16 @@ class HLink {
     private final int velocity;
     // Queues of agents on this link. Boundary links use both queues.
     private final AgentQueue queue;
+    // Agents pushed during the current time step by the upstream realm of a boundary link, null for internal links.
+    private AgentQueue inbound;
+    // Key of the work item that pushed the first agent into the inbound queue in the current time step.
+    private long firstPushKey;
+    // Storage capacity released during the current time step by the downstream realm of a boundary link.
+    private float releasedCapacity;
+    // Key of the work item in which the downstream realm processed this boundary link in the current time step.
+    private volatile long processedKey = NOT_PROCESSED;
+    // Position among the links scheduled for the same time step in partitioned runs, see ParallelRealms.
+    int scheduledOrdinal;
     // Number of vehicles that can leave the link per time second.
     private final float flowCapacityPerS;
     private float flowLeftInTimestep;
@@ -173,6 +185,11 @@ class HLink {
 
 	public void reset() {
 		queue.clear();
+		if (inbound != null) {
+			inbound.clear();
+		}
+		this.releasedCapacity = 0;
+		this.processedKey = NOT_PROCESSED;
 		this.nextFreeFlowSlot = 0;
 		this.lastPush = 0;
 		this.lastUpdate = 0;
@@ -182,10 +199,32 @@ class HLink {
 	}
 
 	public boolean push(Agent agent, int timestep, float storageCapacityPCU) {
+		return push(agent, timestep, storageCapacityPCU, currentCapacity);
+	}
+
+	/**
+	 * Pushes an agent into a boundary link in the work item with the given key. Storage capacity released by the
+	 * downstream realm in an earlier work item of the same time step is available, as it is in a sequential run, so
+	 * the downstream realm must have completed all its work items before the key.
+	 */
+	boolean pushBoundary(Agent agent, int timestep, float storageCapacityPCU, long key) {
+		boolean first = inbound.size() == 0;
+		float released = processedKey < key ? releasedCapacity : 0;
+		if (push(agent, timestep, storageCapacityPCU, currentCapacity + released)) {
+			if (first) {
+				firstPushKey = key;
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private boolean push(Agent agent, int timestep, float storageCapacityPCU, float availableCapacity) {
 		//avoid long vehicles not being able to enter a short link
 		float effectiveStorageCapacity = Math.min(storageCapacityPCU, initialCapacity);
-		if (currentCapacity - effectiveStorageCapacity >= 0) {
-			if (queue.push(agent)) {
+		AgentQueue target = inbound == null ? queue : inbound;
+		if (availableCapacity - effectiveStorageCapacity >= 0) {
+			if (target.push(agent)) {
 				lastPush = timestep;
 				currentCapacity = currentCapacity - effectiveStorageCapacity;
 				return true;
@@ -193,7 +232,7 @@ class HLink {
 				throw new RuntimeException("should not happen?");
 			}
 		} else if (stuckTimePeriod != Integer.MAX_VALUE && (lastPush + stuckTimePeriod) < timestep) {
-			boolean result = queue.forcePush(agent);
+			boolean result = target.forcePush(agent);
 			lastPush = timestep;
 			currentCapacity = currentCapacity - effectiveStorageCapacity;
 			return result;
@@ -204,7 +243,68 @@ class HLink {
 
 	public void pop(float storageCapacityPCE) {
 		queue.pop();
-		currentCapacity += storageCapacityPCE;
+		if (inbound == null) {
+			currentCapacity += storageCapacityPCE;
+		} else {
+			releasedCapacity += storageCapacityPCE;
+		}
+	}
+
+	/**
+	 * Marks this link as a realm boundary. Afterwards, the upstream realm pushes agents into a separate inbound queue
+	 * and the downstream realm pops agents without handing back capacity, so both realms can work on the link
+	 * concurrently. {@link #mergeInbound()} combines both sides between two time steps.
+	 */
+	void setBoundary() {
+		this.inbound = new AgentQueue(Math.max(1, initialCapacity), Math.min(initialCapacity, 16));
+	}
+
+	boolean isBoundary() {
+		return inbound != null;
+	}
+
+	int inboundSize() {
+		return inbound.size();
+	}
+
+	Agent inboundHead() {
+		return inbound.peek();
+	}
+
+	/**
+	 * Called by the downstream realm before it pops agents from this boundary link in the work item with the given key.
+	 */
+	void markProcessed(long key) {
+		processedKey = key;
+	}
+
+	/**
+	 * Returns whether the queue was empty when an agent was pushed in the work item with the given key during the
+	 * last time step. Must be called before {@link #mergeInbound()}.
+	 */
+	boolean wasEmptyAt(long key) {
+		return queue.size() == 0 && processedKey < key;
+	}
+
+	/**
+	 * Returns whether agents were pushed into this boundary link before the downstream realm processed it in the
+	 * last time step, i.e. whether they were in the queue at that time. Must be called before {@link #mergeInbound()}.
+	 */
+	boolean hasInboundBeforeProcessing() {
+		return inbound.size() > 0 && processedKey != NOT_PROCESSED && firstPushKey < processedKey;
+	}
+
+	/**
+	 * Appends the agents pushed during the last time step to the queue and hands back the released storage capacity.
+	 */
+	void mergeInbound() {
+		currentCapacity += releasedCapacity;
+		releasedCapacity = 0;
+		processedKey = NOT_PROCESSED;
+		for (Agent agent : inbound) {
+			queue.push(agent);
+		}
+		inbound.clear();
 	}
 
     public int nexttime () {
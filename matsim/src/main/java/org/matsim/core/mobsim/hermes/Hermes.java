@@ -30,7 +30,8 @@ import org.matsim.core.mobsim.framework.Mobsim;
 final class Hermes implements Mobsim {
 
 	final private static Logger log = LogManager.getLogger(Hermes.class);
-	private Realm realm;
+	private Realm[] realms;
+	private ParallelRealms parallelRealms;
 	private Agent[] agents;
 	private ScenarioImporter scenarioImporter;
 	private final Scenario scenario;
@@ -44,12 +45,13 @@ final class Hermes implements Mobsim {
 	private void importScenario() throws Exception {
 		scenarioImporter = ScenarioImporter.instance(scenario, eventsManager);
 		scenarioImporter.generate();
-		this.realm = scenarioImporter.realm;
+		this.realms = scenarioImporter.realms;
+		this.parallelRealms = realms.length > 1 ? new ParallelRealms(realms, eventsManager) : null;
 		this.agents = scenarioImporter.hermesAgents;
 	}
 
 	private void processEvents() {
-        eventsManager.processEvents(realm.getSortedEvents());
+		eventsManager.processEvents(parallelRealms == null ? realms[0].getSortedEvents() : parallelRealms.takeSortedEvents());
 
 		for (Agent agent : agents) {
 			if (agent != null && !agent.finished() && !agent.isTransitVehicle()) {
@@ -72,7 +74,11 @@ final class Hermes implements Mobsim {
 			eventsManager.initProcessing();
 
 			time = System.currentTimeMillis();
-			realm.run();
+			if (parallelRealms == null) {
+				realms[0].run();
+			} else {
+				parallelRealms.run();
+			}
 			log.info(String.format(
 					"Hermes took %d ms", System.currentTimeMillis() - time));
 
@@ -77,6 +77,12 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
     @Positive
     private int stuckTime = 10;
 
+    private static final String NUMBER_OF_THREADS = "numberOfThreads";
+    private static final String NUMBER_OF_THREADS_DESC = "Number of threads used to simulate the network. If larger than 1, the network is partitioned spatially into"
+            + " one realm per thread and agents are handed over between realms at boundary links. The events are the same as with a single thread.";
+    @Positive
+    private int numberOfThreads = 1;
+
     public Set<String> getMainModes() {
         return mainModes;
     }
@@ -123,6 +129,16 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
         this.stuckTime = stuckTime;
     }
 
+    @StringGetter(NUMBER_OF_THREADS)
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    @StringSetter(NUMBER_OF_THREADS)
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+    }
+
     @StringSetter(FLOW_CAPACITY_FACTOR)
     public void setFlowCapacityFactor(double flowCapacityFactor) {
         this.flowCapacityFactor = flowCapacityFactor;
@@ -159,6 +175,7 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
         comments.put(END_TIME, "Simulation End Time");
         comments.put(STUCKTIMEPARAM, STUCKTIMEPARAMDESC);
         comments.put(DETPT, DETPTDESC);
+        comments.put(NUMBER_OF_THREADS, NUMBER_OF_THREADS_DESC);
         return comments;
     }
 
@@ -0,0 +1,264 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventArray;
+
+import java.util.List;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Runs several {@link Realm}s of a {@link RealmPartitioning} in parallel, one thread per realm, producing the same
+ * events in the same order as a single realm.
+ * <p>
+ * A sequential run processes the agents and then the links scheduled for a time step in the order they were
+ * scheduled. Here, each of these work items has a key encoding its position in that order, and every realm processes
+ * its own work items in key order. Realms only interact through boundary links: before pushing an agent into a
+ * boundary link, a realm waits until the downstream realm has completed all work items with lower keys, so that the
+ * storage capacity released by them is available, just as in a sequential run. Since realms only wait for lower keys,
+ * the realm with the lowest pending work item always makes progress.
+ * <p>
+ * Agents and links scheduled during a time step, including agents handed over to other realms, are put into the
+ * queues of their realms between two time steps, merged by the key of the work item that scheduled them. The events
+ * of all realms are merged by the same keys.
+ * <p>
+ * Fractional passenger car equivalents may be summed up in a different order than in a sequential run, which can
+ * change the last bits of the storage capacity of boundary links.
+ */
+final class ParallelRealms {
+
+	// Types of work items of a time step, in the order of a sequential run.
+	static final int AGENT_ITEMS = 0;
+	static final int PT_EVENT_ITEMS = 1;
+	static final int LINK_ITEMS = 2;
+	private static final int END_OF_STEP = 3;
+
+	// Key of the work item that scheduled the agents and links of the scenario importer.
+	static final long INITIAL_KEY = Long.MIN_VALUE;
+
+	/**
+	 * An agent or link scheduled in the work item with the parent key. The order breaks ties between the agents and
+	 * links scheduled by the scenario importer.
+	 */
+	interface Scheduled {
+		long parentKey();
+
+		int order();
+	}
+
+	record ScheduledAgent(long parentKey, int order, Agent agent, int time, int realm) implements Scheduled {
+	}
+
+	/**
+	 * Whether a boundary link gets a new head in a time step depends on both realms working on it, so those links are
+	 * scheduled under a condition that is only resolved between two time steps.
+	 */
+	record ScheduledLink(long parentKey, int order, HLink link, int time, int realm, int condition) implements Scheduled {
+		static final int ALWAYS = 0;
+		// The upstream realm pushed the first agent of the time step, which is the head if the queue was empty.
+		static final int IF_EMPTY = 1;
+		// The downstream realm emptied the queue, agents pushed before are the new head.
+		static final int IF_PUSHED_BEFORE = 2;
+	}
+
+	private final Realm[] realms;
+	private final EventsManager eventsManager;
+	private final Phaser phaser;
+	private final AtomicReference<Throwable> exception = new AtomicReference<>();
+	// Number of agents and links scheduled for each time step so far, i.e. the position of the next one.
+	private final int[] scheduledAgents = new int[HermesConfigGroup.SIM_STEPS + 2];
+	private final int[] scheduledLinks = new int[HermesConfigGroup.SIM_STEPS + 2];
+
+	ParallelRealms(Realm[] realms, EventsManager eventsManager) {
+		this.realms = realms;
+		this.eventsManager = eventsManager;
+		for (Realm realm : realms) {
+			realm.connect(this);
+		}
+		this.phaser = new Phaser(realms.length) {
+			@Override
+			protected boolean onAdvance(int phase, int registeredParties) {
+				try {
+					if (exception.get() == null) {
+						exchange();
+					}
+				} catch (RuntimeException | Error e) {
+					exception.compareAndSet(null, e);
+				}
+				return false;
+			}
+		};
+	}
+
+	static long key(int step, int type, int ordinal) {
+		return ((long) step << 34) | ((long) type << 32) | ordinal;
+	}
+
+	static long endOfStep(int step) {
+		return key(step, END_OF_STEP, 0);
+	}
+
+	void run() throws Exception {
+		// agents and links scheduled by the scenario importer
+		schedule();
+		Thread[] threads = new Thread[realms.length];
+		for (int i = 0; i < realms.length; i++) {
+			Realm realm = realms[i];
+			threads[i] = new Thread(() -> runRealm(realm), "Hermes-Realm-" + i);
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Throwable t = exception.get();
+		if (t != null) {
+			throw new RuntimeException("Exception while running Hermes realms", t);
+		}
+	}
+
+	private void runRealm(Realm realm) {
+		try {
+			while (realm.secs() != HermesConfigGroup.SIM_STEPS && exception.get() == null) {
+				realm.step();
+				phaser.arriveAndAwaitAdvance();
+			}
+		} catch (RuntimeException | Error e) {
+			exception.compareAndSet(null, e);
+			// let the other realms continue to the next check of the exception
+			phaser.arriveAndDeregister();
+		}
+	}
+
+	/**
+	 * Waits until the given realm has completed all its work items with keys lower than the given one.
+	 */
+	void awaitWorkItems(int realm, long key) {
+		Realm other = realms[realm];
+		int spins = 0;
+		while (other.nextKey() < key) {
+			if (exception.get() != null) {
+				throw new IllegalStateException("aborted, another Hermes realm failed");
+			}
+			if (++spins % 1024 == 0) {
+				Thread.yield();
+			} else {
+				Thread.onSpinWait();
+			}
+		}
+	}
+
+	private void exchange() {
+		schedule();
+		for (Realm realm : realms) {
+			realm.mergeBoundaryLinks();
+		}
+		int lastStep = realms[0].secs() - 1;
+		if (HermesConfigGroup.CONCURRENT_EVENT_PROCESSING && lastStep % 3600 == 0) {
+			EventArray events = takeSortedEvents();
+			if (events.size() > 0) {
+				eventsManager.processEvents(events);
+			}
+		}
+	}
+
+	/**
+	 * Puts the agents and links scheduled during the last time step into the queues of their realms, in the order of
+	 * the work items that scheduled them. Must be called before the boundary links are merged.
+	 */
+	private void schedule() {
+		int secs = realms[0].secs();
+		int[] next = new int[realms.length];
+		ScheduledAgent agent;
+		while ((agent = nextScheduled(next, Realm::scheduledAgents)) != null) {
+			realms[agent.realm()].enqueueAgent(agent.agent(), agent.time(), scheduledAgents[agent.time()]++);
+		}
+		next = new int[realms.length];
+		ScheduledLink link;
+		while ((link = nextScheduled(next, Realm::scheduledLinks)) != null) {
+			int time = link.time();
+			if (link.condition() == ScheduledLink.IF_EMPTY && !link.link().wasEmptyAt(link.parentKey())) {
+				continue;
+			}
+			if (link.condition() == ScheduledLink.IF_PUSHED_BEFORE) {
+				if (!link.link().hasInboundBeforeProcessing()) {
+					continue;
+				}
+				time = Math.min(Math.max(link.link().inboundHead().linkFinishTime, secs), HermesConfigGroup.SIM_STEPS + 1);
+			}
+			realms[link.realm()].enqueueLink(link.link(), time, scheduledLinks[time]++);
+		}
+		for (Realm realm : realms) {
+			realm.scheduledAgents().clear();
+			realm.scheduledLinks().clear();
+		}
+	}
+
+	private <T extends Scheduled> T nextScheduled(int[] next, Function<Realm, List<T>> scheduled) {
+		int best = -1;
+		T bestCandidate = null;
+		for (int i = 0; i < realms.length; i++) {
+			List<T> list = scheduled.apply(realms[i]);
+			if (next[i] < list.size()) {
+				T candidate = list.get(next[i]);
+				if (best < 0 || candidate.parentKey() < bestCandidate.parentKey()
+						|| (candidate.parentKey() == bestCandidate.parentKey() && candidate.order() < bestCandidate.order())) {
+					best = i;
+					bestCandidate = candidate;
+				}
+			}
+		}
+		if (best >= 0) {
+			next[best]++;
+		}
+		return bestCandidate;
+	}
+
+	/**
+	 * Removes the events of all realms and merges them in the order of a sequential run.
+	 */
+	EventArray takeSortedEvents() {
+		int total = 0;
+		for (Realm realm : realms) {
+			total += realm.getSortedEvents().size();
+		}
+		EventArray merged = new EventArray(Math.max(1, total));
+		int[] next = new int[realms.length];
+		for (int n = 0; n < total; n++) {
+			int best = -1;
+			long bestKey = 0;
+			for (int i = 0; i < realms.length; i++) {
+				if (next[i] < realms[i].getSortedEvents().size()) {
+					long key = realms[i].eventKey(next[i]);
+					if (best < 0 || key < bestKey) {
+						best = i;
+						bestKey = key;
+					}
+				}
+			}
+			merged.add(realms[best].getSortedEvents().get(next[best]++));
+		}
+		for (Realm realm : realms) {
+			realm.takeSortedEvents();
+		}
+		return merged;
+	}
+}
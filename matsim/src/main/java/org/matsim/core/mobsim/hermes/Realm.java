@@ -35,8 +35,13 @@ import org.matsim.core.utils.misc.Time;
 import org.matsim.pt.transitSchedule.api.TransitStopFacility;
 import org.matsim.vehicles.Vehicle;
 
+import org.matsim.core.mobsim.hermes.ParallelRealms.ScheduledAgent;
+import org.matsim.core.mobsim.hermes.ParallelRealms.ScheduledLink;
+
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 class Realm {
 	private final ScenarioImporter si;
@@ -61,9 +66,29 @@ class Realm {
     private final EventsManager eventsManager;
     // Current timestamp
     private int secs;
+    // Partitioning of the network among realms, null if this realm simulates the whole network.
+    private final RealmPartitioning partitioning;
+    private final int realmId;
+    // The following fields are only used in partitioned runs, see ParallelRealms.
+    private ParallelRealms parallelRealms;
+    // Agents and links scheduled in the current time step, put into the queues at the end of the time step.
+    private final List<ScheduledAgent> scheduledAgents;
+    private final List<ScheduledLink> scheduledLinks;
+    // Boundary links pushed or popped in the current time step.
+    private final List<HLink> touchedBoundaryLinks;
+    // Key of the current work item.
+    private long currentKey;
+    // Key of the work item processed next, all work items with lower keys are completed.
+    private volatile long nextKey;
+    // Keys of the work items that created the sorted events.
+    private long[] eventKeys;
     Logger log = LogManager.getLogger(Realm.class);
 
     public Realm(ScenarioImporter scenario, EventsManager eventsManager) {
+        this(scenario, eventsManager, null, 0);
+    }
+
+    public Realm(ScenarioImporter scenario, EventsManager eventsManager, RealmPartitioning partitioning, int realmId) {
         this.si = scenario;
         this.links = scenario.hermesLinks;
         // The plus one is necessary because we peek into the next slot on each tick.
@@ -74,11 +99,24 @@ class Realm {
         this.line_of_route = scenario.lineOfRoute;
         this.sortedEvents = new EventArray();
         this.eventsManager = eventsManager;
+        this.partitioning = partitioning;
+        this.realmId = realmId;
+        if (partitioning != null) {
+            this.scheduledAgents = new ArrayList<>();
+            this.scheduledLinks = new ArrayList<>();
+            this.touchedBoundaryLinks = new ArrayList<>();
+            this.eventKeys = new long[16];
+        } else {
+            this.scheduledAgents = null;
+            this.scheduledLinks = null;
+            this.touchedBoundaryLinks = null;
+        }
 
         // the last position is to store events that will not happen...
+        // Queues are created lazily, as partitioned runs have one set of queues per realm.
         for (int i = 0; i <= HermesConfigGroup.SIM_STEPS + 1; i++) {
-            delayedLinksByWakeupTime.add(new ArrayDeque<>());
-            delayedAgentsByWakeupTime.add(new ArrayDeque<>());
+            delayedLinksByWakeupTime.add(null);
+            delayedAgentsByWakeupTime.add(null);
         }
     }
 
@@ -88,15 +126,46 @@ class Realm {
         }
     }
 
+    private ArrayDeque<Agent> delayedAgentsAt(int time) {
+        ArrayDeque<Agent> agents = delayedAgentsByWakeupTime.get(time);
+        if (agents == null) {
+            agents = new ArrayDeque<>();
+            delayedAgentsByWakeupTime.set(time, agents);
+        }
+        return agents;
+    }
+
+    private ArrayDeque<HLink> delayedLinksAt(int time) {
+        ArrayDeque<HLink> links = delayedLinksByWakeupTime.get(time);
+        if (links == null) {
+            links = new ArrayDeque<>();
+            delayedLinksByWakeupTime.set(time, links);
+        }
+        return links;
+    }
+
+    // Note: in partitioned runs, the next plan element decides which realm wakes the agent up,
+    // so agents must be advanced before being delayed.
     private void addDelayedAgent(Agent agent, int until) {
         if (HermesConfigGroup.DEBUG_REALMS) log(secs, String.format("agent %d delayed until %d", agent.id, until));
-        delayedAgentsByWakeupTime.get(Math.min(until, HermesConfigGroup.SIM_STEPS + 1)).add(agent);
+        int wakeup = Math.min(until, HermesConfigGroup.SIM_STEPS + 1);
+        if (partitioning != null) {
+            int target = partitioning.realmOf(agent);
+            scheduledAgents.add(new ScheduledAgent(currentKey, 0, agent, wakeup, target == RealmPartitioning.ANY_REALM ? realmId : target));
+            return;
+        }
+        delayedAgentsAt(wakeup).add(agent);
     }
 
     private void addDelayedLink(HLink link, int until) {
         if (HermesConfigGroup.DEBUG_REALMS)
             log(secs, String.format("link %d delayed until %d size %d peek agent %d", link.id(), until, link.queue().size(), link.queue().peek().id));
-        delayedLinksByWakeupTime.get(Math.min(until, HermesConfigGroup.SIM_STEPS + 1)).add(link);
+        int wakeup = Math.min(until, HermesConfigGroup.SIM_STEPS + 1);
+        if (partitioning != null) {
+            scheduledLinks.add(new ScheduledLink(currentKey, 0, link, wakeup, realmId, ScheduledLink.ALWAYS));
+            return;
+        }
+        delayedLinksAt(wakeup).add(link);
     }
 
     private void advanceAgentandSetEventTime(Agent agent) {
@@ -128,10 +197,30 @@ class Realm {
         int traveltime = (HermesConfigGroup.LINK_ADVANCE_DELAY + (int) Math.round(Math.max(1, next.length() / Math.min(velocity, next.velocity()))));
         agent.linkFinishTime = secs + traveltime;
         float storageCapacityPCU = agent.getStorageCapacityPCUE();
-        if (next.push(agent,secs,storageCapacityPCU)) {
+        boolean boundary = next.isBoundary();
+        boolean firstPush = false;
+        boolean pushed;
+        if (boundary) {
+            // capacity released by the downstream realm in earlier work items is available
+            parallelRealms.awaitWorkItems(partitioning.downstreamRealm(linkid), currentKey);
+            firstPush = next.inboundSize() == 0;
+            pushed = next.pushBoundary(agent, secs, storageCapacityPCU, currentKey);
+        } else {
+            pushed = next.push(agent, secs, storageCapacityPCU);
+        }
+        if (pushed) {
             advanceAgentandSetEventTime(agent);
-            // If the agent we just added is the head, add to delayed links
-            if (currLinkId != next.id() && next.queue().peek() == agent) {
+            if (boundary) {
+                if (firstPush) {
+                    touchedBoundaryLinks.add(next);
+                    if (currLinkId != next.id()) {
+                        // the agent is the head if the queue was empty, which is only known at the end of the time step
+                        scheduledLinks.add(new ScheduledLink(currentKey, 0, next, Math.min(Math.max(agent.linkFinishTime, secs + 1), HermesConfigGroup.SIM_STEPS + 1),
+                                partitioning.downstreamRealm(linkid), ScheduledLink.IF_EMPTY));
+                    }
+                }
+            } else if (currLinkId != next.id() && next.queue().peek() == agent) {
+                // If the agent we just added is the head, add to delayed links
                 addDelayedLink(next, Math.max(agent.linkFinishTime, secs + 1));
             }
             return true;
@@ -148,9 +237,9 @@ class Realm {
 
     protected boolean processAgentSleepUntil(Agent agent, long planentry) {
         int sleep = Agent.getSleepPlanEntry(planentry);
-        addDelayedAgent(agent, Math.max(sleep, secs + 1));
         updateCapacities(agent);
         advanceAgentandSetEventTime(agent);
+        addDelayedAgent(agent, Math.max(sleep, secs + 1));
         return true;
     }
 
@@ -188,8 +277,8 @@ class Realm {
     }
 
     protected boolean processAgentStopArrive(Agent agent, long planentry) {
-        addDelayedAgent(agent, secs + 1);
         advanceAgentandSetEventTime(agent);
+        addDelayedAgent(agent, secs + 1);
         // Although we want the agent to be processed in the next tick, we
         // return true to remove the vehicle from the link that it is currently.
         return true;
@@ -200,16 +289,16 @@ class Realm {
         int departure = Agent.getDeparture(planentry);
 
         // consume stop delay
-        addDelayedAgent(agent, Math.max(secs + 1, departure));
         advanceAgent(agent);
+        addDelayedAgent(agent, Math.max(secs + 1, departure));
 
         // drop agents
         for (Agent out : agent.egress(stopid)) {
-            addDelayedAgent(out, secs + 1);
             // consume access, activate egress
             advanceAgentandSetEventTime(out);
             // set driver in agent's event
             setEventVehicle(out, Agent.getPlanEvent(out.currPlan()), agent.id);
+            addDelayedAgent(out, secs + 1);
         }
 
         // True is returned as the agent is already in the delayed list.
@@ -253,6 +342,14 @@ class Realm {
     }
 
     protected boolean processAgent(Agent agent, int currLinkId) {
+        if (partitioning != null) {
+            int target = partitioning.realmOf(agent);
+            if (target != RealmPartitioning.ANY_REALM && target != realmId) {
+                // The next plan element accesses state of another realm, hand the agent over.
+                addDelayedAgent(agent, secs + 1);
+                return true;
+            }
+        }
         // Peek the next plan element and try to execute it.
         long planentry = agent.plan.get(agent.planIndex + 1);
         int type = Agent.getPlanHeader(planentry);
@@ -289,6 +386,10 @@ class Realm {
 
     protected int processLinks(HLink link) {
         int routed = 0;
+        if (link.isBoundary()) {
+            link.markProcessed(currentKey);
+            touchedBoundaryLinks.add(link);
+        }
         Agent agent = link.queue().peek();
         while (agent.linkFinishTime <= secs && link.flow(secs, agent.getFlowCapacityPCUE())) {
             boolean finished = agent.finished();
@@ -311,52 +412,129 @@ class Realm {
         // In addition we check if this agent was not added in this tick.
         if (agent != null) {
             addDelayedLink(link, Math.max(agent.linkFinishTime, secs + 1));
+        } else if (link.isBoundary()) {
+            // agents pushed earlier in this time step are the new head, which is only known at the end of the time step
+            scheduledLinks.add(new ScheduledLink(currentKey, 0, link, 0, realmId, ScheduledLink.IF_PUSHED_BEFORE));
         }
         return routed;
     }
 
     public void run() throws Exception {
+        while (secs != HermesConfigGroup.SIM_STEPS) {
+            step();
+        }
+    }
+
+    /**
+     * Simulates the current time step and advances the clock by one second. In partitioned runs, the agents and links
+     * scheduled in this time step are put into the queues by {@link ParallelRealms}.
+     */
+    void step() {
         int routed = 0;
         Agent agent;
         HLink link;
+        boolean mainRealm = partitioning == null || realmId == 0;
 
-        while (secs != HermesConfigGroup.SIM_STEPS) {
-            if (secs % 3600 == 0) {
-                log.info("Hermes running at " + Time.writeTime(secs));
-            }
-            while ((agent = delayedAgentsByWakeupTime.get(secs).poll()) != null) {
+        if (mainRealm && secs % 3600 == 0) {
+            log.info("Hermes running at " + Time.writeTime(secs));
+        }
+        ArrayDeque<Agent> agents = delayedAgentsByWakeupTime.get(secs);
+        if (agents != null) {
+            while ((agent = agents.poll()) != null) {
                 if (HermesConfigGroup.DEBUG_REALMS) {
                     log(secs, String.format("Processing agent %d", agent.id));
                 }
+                startWorkItem(ParallelRealms.AGENT_ITEMS, agent.scheduledOrdinal);
                 routed += processAgentActivities(agent);
-
             }
             delayedAgentsByWakeupTime.set(secs, null);
-            if (si.isDeterministicPt()) {
-                for (Event e : si.getDeterministicPtEvents().get(secs)) {
-                    sortedEvents.add(e);
-                }
-                si.getDeterministicPtEvents().get(secs).clear();
+        }
+        if (mainRealm && si.isDeterministicPt()) {
+            startWorkItem(ParallelRealms.PT_EVENT_ITEMS, 0);
+            for (Event e : si.getDeterministicPtEvents().get(secs)) {
+                addEvent(e);
             }
+            si.getDeterministicPtEvents().get(secs).clear();
+        }
 
-            while ((link = delayedLinksByWakeupTime.get(secs).poll()) != null) {
+        ArrayDeque<HLink> links = delayedLinksByWakeupTime.get(secs);
+        if (links != null) {
+            while ((link = links.poll()) != null) {
                 if (HermesConfigGroup.DEBUG_REALMS) {
                     log(secs, String.format("Processing link %d", link.id()));
                 }
+                startWorkItem(ParallelRealms.LINK_ITEMS, link.scheduledOrdinal);
                 routed += processLinks(link);
             }
             delayedLinksByWakeupTime.set(secs, null);
-            if (HermesConfigGroup.DEBUG_REALMS && routed > 0) {
-                log(secs, String.format("Processed %d agents", routed));
-            }
-            if (HermesConfigGroup.CONCURRENT_EVENT_PROCESSING && secs % 3600 == 0 && sortedEvents.size() > 0) {
-                eventsManager.processEvents(sortedEvents);
-                sortedEvents = new EventArray();
+        }
+        if (HermesConfigGroup.DEBUG_REALMS && routed > 0) {
+            log(secs, String.format("Processed %d agents", routed));
+        }
+        // partitioned runs merge the events of all realms, see ParallelRealms
+        if (partitioning == null && HermesConfigGroup.CONCURRENT_EVENT_PROCESSING && secs % 3600 == 0 && sortedEvents.size() > 0) {
+            eventsManager.processEvents(sortedEvents);
+            sortedEvents = new EventArray();
+        }
+        if (partitioning != null) {
+            nextKey = ParallelRealms.endOfStep(secs);
+        }
+
+        secs += 1;
+    }
+
+    private void startWorkItem(int type, int ordinal) {
+        if (partitioning != null) {
+            currentKey = ParallelRealms.key(secs, type, ordinal);
+            nextKey = currentKey;
+        }
+    }
+
+    private void addEvent(Event event) {
+        if (partitioning != null) {
+            if (sortedEvents.size() == eventKeys.length) {
+                eventKeys = Arrays.copyOf(eventKeys, eventKeys.length * 2);
             }
+            eventKeys[sortedEvents.size()] = currentKey;
+        }
+        sortedEvents.add(event);
+    }
 
-            routed = 0;
-            secs += 1;
+    void connect(ParallelRealms parallelRealms) {
+        this.parallelRealms = parallelRealms;
+    }
+
+    long nextKey() {
+        return nextKey;
+    }
+
+    List<ScheduledAgent> scheduledAgents() {
+        return scheduledAgents;
+    }
+
+    List<ScheduledLink> scheduledLinks() {
+        return scheduledLinks;
+    }
+
+    void enqueueAgent(Agent agent, int time, int ordinal) {
+        agent.scheduledOrdinal = ordinal;
+        delayedAgentsAt(time).add(agent);
+    }
+
+    void enqueueLink(HLink link, int time, int ordinal) {
+        link.scheduledOrdinal = ordinal;
+        delayedLinksAt(time).add(link);
+    }
+
+    /**
+     * Hands the agents pushed and the capacity released on boundary links during the last time step over to the
+     * links. Must only be called while no realm is running {@link #step()}.
+     */
+    void mergeBoundaryLinks() {
+        for (HLink link : touchedBoundaryLinks) {
+            link.mergeInbound();
         }
+        touchedBoundaryLinks.clear();
     }
 
     public void setEventTime(Agent agent, int agentId, int time, boolean lastEvent) {
@@ -368,7 +546,7 @@ class Realm {
                 agentEvents.get(agent.eventsIndex).setTime(time);
                 if (HermesConfigGroup.DEBUG_REALMS)
                     log(secs, String.format("agent %d setEventTime (eventsIndex=%d) %s", agent.id, agent.eventsIndex, agentEvents.get(agent.eventsIndex).toString()));
-                sortedEvents.add(agentEvents.get(agent.eventsIndex));
+                addEvent(agentEvents.get(agent.eventsIndex));
             }
 
             // Fix delay for PT events.
@@ -400,13 +578,37 @@ class Realm {
         }
     }
 
-    ArrayList<ArrayDeque<HLink>> delayedLinks() { return this.delayedLinksByWakeupTime; }
+    void scheduleLink(HLink link, int time) {
+        if (partitioning != null) {
+            scheduledLinks.add(new ScheduledLink(ParallelRealms.INITIAL_KEY, link.id(), link, time, realmId, ScheduledLink.ALWAYS));
+            return;
+        }
+        delayedLinksAt(time).add(link);
+    }
 
-    ArrayList<ArrayDeque<Agent>> delayedAgents() {
-        return this.delayedAgentsByWakeupTime;
+    void scheduleAgent(Agent agent, int time) {
+        if (partitioning != null) {
+            scheduledAgents.add(new ScheduledAgent(ParallelRealms.INITIAL_KEY, agent.id, agent, time, realmId));
+            return;
+        }
+        delayedAgentsAt(time).add(agent);
+    }
+
+    int secs() {
+        return this.secs;
     }
 
     EventArray getSortedEvents() {
         return this.sortedEvents;
     }
+
+    long eventKey(int index) {
+        return eventKeys[index];
+    }
+
+    EventArray takeSortedEvents() {
+        EventArray events = this.sortedEvents;
+        this.sortedEvents = new EventArray();
+        return events;
+    }
 }
@@ -0,0 +1,161 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Spatial partitioning of the network among several {@link Realm}s.
+ * <p>
+ * Nodes are assigned to realms using recursive coordinate bisection, balancing the number of incoming links per realm.
+ * A link is popped (i.e. agents leave it) by the realm of its to-node and pushed (i.e. agents enter it) by the realm
+ * of its from-node. Links where the two realms differ are boundary links; agents crossing them are handed over to
+ * the downstream realm at the end of each time step. Transit stops belong to the realm of the to-node of their link,
+ * so that waiting agents are only accessed by a single realm.
+ */
+final class RealmPartitioning {
+
+	// Returned by realmOf if the next plan element of an agent can be processed by any realm.
+	static final int ANY_REALM = -1;
+
+	private final int numberOfRealms;
+	// Realm of the from-node of each link, indexed by link id.
+	private final int[] upstreamRealmOfLink;
+	// Realm of the to-node of each link, indexed by link id.
+	private final int[] downstreamRealmOfLink;
+	// Realm of each transit stop, indexed by stop id.
+	private final int[] realmOfStop;
+
+	private RealmPartitioning(int numberOfRealms, int[] upstreamRealmOfLink, int[] downstreamRealmOfLink, int[] realmOfStop) {
+		this.numberOfRealms = numberOfRealms;
+		this.upstreamRealmOfLink = upstreamRealmOfLink;
+		this.downstreamRealmOfLink = downstreamRealmOfLink;
+		this.realmOfStop = realmOfStop;
+	}
+
+	static RealmPartitioning create(Network network, TransitSchedule schedule, int numberOfRealms) {
+		int[] realmOfNode = new int[Id.getNumberOfIds(Node.class)];
+		Node[] nodes = network.getNodes().values().toArray(new Node[0]);
+		bisect(nodes, 0, nodes.length, 0, numberOfRealms, realmOfNode);
+
+		int[] upstreamRealmOfLink = new int[Id.getNumberOfIds(Link.class)];
+		int[] downstreamRealmOfLink = new int[Id.getNumberOfIds(Link.class)];
+		for (Link link : network.getLinks().values()) {
+			upstreamRealmOfLink[link.getId().index()] = realmOfNode[link.getFromNode().getId().index()];
+			downstreamRealmOfLink[link.getId().index()] = realmOfNode[link.getToNode().getId().index()];
+		}
+
+		int[] realmOfStop = new int[Id.getNumberOfIds(TransitStopFacility.class)];
+		for (TransitStopFacility stop : schedule.getFacilities().values()) {
+			Link link = stop.getLinkId() == null ? null : network.getLinks().get(stop.getLinkId());
+			realmOfStop[stop.getId().index()] = link == null ? 0 : downstreamRealmOfLink[link.getId().index()];
+		}
+		return new RealmPartitioning(numberOfRealms, upstreamRealmOfLink, downstreamRealmOfLink, realmOfStop);
+	}
+
+	private static void bisect(Node[] nodes, int from, int to, int firstRealm, int realms, int[] realmOfNode) {
+		if (realms == 1 || to - from <= 1) {
+			for (int i = from; i < to; i++) {
+				realmOfNode[nodes[i].getId().index()] = firstRealm;
+			}
+			return;
+		}
+
+		// split along the longer side of the bounding box
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		long totalWeight = 0;
+		for (int i = from; i < to; i++) {
+			double x = nodes[i].getCoord().getX();
+			double y = nodes[i].getCoord().getY();
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+			totalWeight += weight(nodes[i]);
+		}
+		Comparator<Node> comparator = (maxX - minX >= maxY - minY)
+				? Comparator.comparingDouble(node -> node.getCoord().getX())
+				: Comparator.comparingDouble(node -> node.getCoord().getY());
+		// the id makes the partitioning deterministic for nodes with equal coordinates
+		Arrays.sort(nodes, from, to, comparator.thenComparingInt(node -> node.getId().index()));
+
+		int leftRealms = realms / 2;
+		long leftWeight = totalWeight * leftRealms / realms;
+		int split = from;
+		long weight = 0;
+		while (split < to - 1 && weight + weight(nodes[split]) <= leftWeight) {
+			weight += weight(nodes[split]);
+			split++;
+		}
+		bisect(nodes, from, split, firstRealm, leftRealms, realmOfNode);
+		bisect(nodes, split, to, firstRealm + leftRealms, realms - leftRealms, realmOfNode);
+	}
+
+	private static int weight(Node node) {
+		// links are processed by the realm of their to-node
+		return 1 + node.getInLinks().size();
+	}
+
+	int numberOfRealms() {
+		return numberOfRealms;
+	}
+
+	int upstreamRealm(int linkId) {
+		return upstreamRealmOfLink[linkId];
+	}
+
+	int downstreamRealm(int linkId) {
+		return downstreamRealmOfLink[linkId];
+	}
+
+	boolean isBoundary(int linkId) {
+		return upstreamRealmOfLink[linkId] != downstreamRealmOfLink[linkId];
+	}
+
+	/**
+	 * Returns the realm that has to process the next plan element of the agent, or {@link #ANY_REALM} if the element
+	 * does not access any state shared between realms.
+	 */
+	int realmOf(Agent agent) {
+		if (agent.finished()) {
+			return ANY_REALM;
+		}
+		long planentry = agent.nextPlan();
+		switch (Agent.getPlanHeader(planentry)) {
+			case Agent.LinkType:
+				return upstreamRealmOfLink[Agent.getLinkPlanEntry(planentry)];
+			case Agent.WaitType:
+			case Agent.StopDepartType:
+				return realmOfStop[Agent.getStopPlanEntry(planentry)];
+			default:
+				return ANY_REALM;
+		}
+	}
+}
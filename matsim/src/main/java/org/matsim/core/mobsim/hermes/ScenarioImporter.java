@@ -77,7 +77,10 @@ class ScenarioImporter {
 	// Array of links that define the network.
 	protected HLink[] hermesLinks;
 
-	protected Realm realm;
+	// One realm per thread, each simulating one partition of the network.
+	protected Realm[] realms;
+	// Partitioning of the network among the realms, null if there is a single realm.
+	private final RealmPartitioning partitioning;
 	private final boolean deterministicPt;
 	// Agents waiting in pt stations. Should be used as follows:
 	// agent_stops.get(curr station id).get(line id) -> queue of agents
@@ -109,6 +112,7 @@ class ScenarioImporter {
 		generateLinks();
 		generatePT();
 		generateAgents();
+		this.partitioning = generatePartitioning();
 
 	}
 
@@ -271,8 +275,40 @@ class ScenarioImporter {
 		}
 	}
 
+	private RealmPartitioning generatePartitioning() {
+		int numberOfRealms = scenario.getConfig().hermes().getNumberOfThreads();
+		if (numberOfRealms <= 1) {
+			return null;
+		}
+		RealmPartitioning realmPartitioning = RealmPartitioning.create(scenario.getNetwork(), scenario.getTransitSchedule(), numberOfRealms);
+		int boundaryLinks = 0;
+		for (HLink link : hermesLinks) {
+			if (link != null && realmPartitioning.isBoundary(link.id())) {
+				link.setBoundary();
+				boundaryLinks++;
+			}
+		}
+		log.info(String.format("Hermes partitioned the network into %d realms with %d boundary links", numberOfRealms, boundaryLinks));
+		return realmPartitioning;
+	}
+
+	private Realm realmOf(Agent agent) {
+		if (partitioning == null) {
+			return realms[0];
+		}
+		int realmId = partitioning.realmOf(agent);
+		return realms[realmId == RealmPartitioning.ANY_REALM ? 0 : realmId];
+	}
+
 	private void generateRealms() {
-		realm = new Realm(this, eventsManager);
+		if (partitioning == null) {
+			realms = new Realm[] { new Realm(this, eventsManager) };
+		} else {
+			realms = new Realm[partitioning.numberOfRealms()];
+			for (int i = 0; i < realms.length; i++) {
+				realms[i] = new Realm(this, eventsManager, partitioning, i);
+			}
+		}
 
 		// Put agents in their initial location (link or activity center)
 		for (Agent agent : hermesAgents) {
@@ -294,7 +330,7 @@ class ScenarioImporter {
 				case Agent.SleepForType:
 				case Agent.SleepUntilType:
 					int sleep = Agent.getSleepPlanEntry(planentry);
-					realm.delayedAgents().get(Math.min(sleep, scenario.getConfig().hermes().getEndTime() + 1)).add(agent);
+					realmOf(agent).scheduleAgent(agent, Math.min(sleep, scenario.getConfig().hermes().getEndTime() + 1));
 					break;
 				default:
 					LogManager.getLogger(getClass()).error(String.format("ERROR -> unknown plan element type %d", type));
@@ -303,9 +339,13 @@ class ScenarioImporter {
 
 		for (HLink link : this.hermesLinks) {
 			if (link != null) {
+				if (link.isBoundary()) {
+					link.mergeInbound();
+				}
 				int nextwakeup = link.nexttime();
 				if (nextwakeup > 0) {
-					realm.delayedLinks().get(nextwakeup).add(link);
+					Realm realm = partitioning == null ? realms[0] : realms[partitioning.downstreamRealm(link.id())];
+					realm.scheduleLink(link, nextwakeup);
 				}
 			}
 		}
@@ -19,9 +19,8 @@
 
 package org.matsim.core.mobsim.qsim;
 
-import java.util.Iterator;
-import java.util.Queue;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.ArrayList;
+import java.util.List;
 
 import jakarta.inject.Inject;
 
@@ -32,62 +31,64 @@ import org.matsim.api.core.v01.events.PersonStuckEvent;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.mobsim.framework.MobsimAgent.State;
+import org.matsim.core.utils.collections.CalendarQueue;
 
 class ActivityEngineDefaultImpl implements ActivityEngine {
 	private static final Logger log = LogManager.getLogger( ActivityEngineDefaultImpl.class ) ;
 
 	private final EventsManager eventsManager;
+	private final ParallelAgentStepRunner stepRunner;
+
+	/**
+	 * Agents whose activity ends in the current time step, in the order in which they leave.  Only used if the
+	 * activity ends are computed in parallel.
+	 */
+	private final List<MobsimAgent> dueAgents = new ArrayList<>();
 
 	@Inject
+	ActivityEngineDefaultImpl( EventsManager eventsManager, QSimConfigGroup qsimConfig ) {
+		this.eventsManager = eventsManager;
+		this.stepRunner = new ParallelAgentStepRunner(
+				qsimConfig.isUsingParallelActivityAndTeleportationEngines() ? qsimConfig.getNumberOfThreads() : 1, "ActivityEngine" );
+	}
+
 	ActivityEngineDefaultImpl( EventsManager eventsManager ) {
 		this.eventsManager = eventsManager;
+		this.stepRunner = new ParallelAgentStepRunner( 1, "ActivityEngine" );
 	}
 
 //	public ActivityEngineDefaultImpl( EventsManager eventsManager, AgentCounter agentCounter ) {
 //		this.eventsManager = eventsManager;
 //	}
 
+	private InternalInterface internalInterface;
+
 	/**
-	 * Agents cannot be added directly to the activityEndsList since that would
+	 * Agents are added together with their activity end time, and not sorted by the time they report, since that would
 	 * not be thread-safe when within-day replanning is used. There, an agent's
 	 * activity end time can be modified. As a result, the agent is located at
 	 * the wrong position in the activityEndsList until it is updated by using
 	 * rescheduleActivityEnd(...). However, if another agent is added to the list
 	 * in the mean time, it might be inserted at the wrong position.
 	 * cdobler, apr'12
-	 */
-	private static class AgentEntry {
-		AgentEntry( MobsimAgent agent, double activityEndTime ) {
-			this.agent = agent;
-			this.activityEndTime = activityEndTime;
-		}
-		private final MobsimAgent agent;
-		private final double activityEndTime;
-	}
-
-	private InternalInterface internalInterface;
-
-	/**
-	 * This list needs to be a "blocking" queue since this is needed for
+	 * <p></p>
+	 * All accesses need to be synchronized on the list since this is needed for
 	 * thread-safety in the parallel qsim. cdobler, oct'10
 	 */
-	private final Queue<AgentEntry> activityEndsList = new PriorityBlockingQueue<>(500, (e0, e1) -> {
-		int cmp = Double.compare(e0.activityEndTime, e1.activityEndTime);
-		if (cmp == 0) {
-			// Both depart at the same time -> let the one with the larger id be first (=smaller)
-			//
-			// yy We are not sure what the above comment line is supposed to say.  Presumably, it is supposed
-			// to say that the agent with the larger ID should be "smaller" one in the comparison.
-			// In practice, it seems
-			// that something like "emob_9" is before "emob_8", and something like "emob_10" before "emob_1".
-			// It is unclear why this convention is supposed to be helpful.
-			// kai & dominik, jul'12
-			//
-			return e1.agent.getId().compareTo(e0.agent.getId());
-		}
-		return cmp;
+	private final CalendarQueue<MobsimAgent> activityEndsList = new CalendarQueue<>((a0, a1) -> {
+		// Both depart at the same time -> let the one with the larger id be first (=smaller)
+		//
+		// yy We are not sure what the above comment line is supposed to say.  Presumably, it is supposed
+		// to say that the agent with the larger ID should be "smaller" one in the comparison.
+		// In practice, it seems
+		// that something like "emob_9" is before "emob_8", and something like "emob_10" before "emob_1".
+		// It is unclear why this convention is supposed to be helpful.
+		// kai & dominik, jul'12
+		//
+		return a1.getId().compareTo(a0.getId());
 	});
 
 	// See handleActivity for the reason for this.
@@ -101,29 +102,56 @@ class ActivityEngineDefaultImpl implements ActivityEngine {
 	@Override
 	public void doSimStep(double time) {
 		beforeFirstSimStep = false;
-		while (activityEndsList.peek() != null) {
-			if (activityEndsList.peek().activityEndTime <= time) {
-				MobsimAgent agent = activityEndsList.poll().agent;
+		if (stepRunner.isParallel()) {
+			doSimStepInParallel(time);
+			return;
+		}
+		MobsimAgent agent;
+		while ((agent = pollActivityEnd(time)) != null) {
+			unregisterAgentAtActivityLocation(agent);
+			agent.endActivityAndComputeNextState(time);
+			internalInterface.arrangeNextAgentState(agent);
+		}
+	}
+
+	/**
+	 * Ends the activities of all due agents in parallel, and only then hands the agents to the internal interface,
+	 * sequentially and in the order of the queue.  So the departures and the events are the same as without threads.
+	 */
+	private void doSimStepInParallel(double time) {
+		MobsimAgent agent;
+		while ((agent = pollActivityEnd(time)) != null) {
+			do {
 				unregisterAgentAtActivityLocation(agent);
-				agent.endActivityAndComputeNextState(time);
-				internalInterface.arrangeNextAgentState(agent);
-			} else {
-				return;
-			}
+				dueAgents.add(agent);
+			} while ((agent = pollActivityEnd(time)) != null);
+
+			stepRunner.run(dueAgents, internalInterface.getMobsim().getEventsManager(),
+					dueAgent -> dueAgent.endActivityAndComputeNextState(time), internalInterface::arrangeNextAgentState);
+			dueAgents.clear();
+		}
+	}
+
+	private MobsimAgent pollActivityEnd(double time) {
+		synchronized (activityEndsList) {
+			return activityEndsList.poll(time);
 		}
 	}
 
 	@Override
 	public void afterSim() {
 		double now = this.internalInterface.getMobsim().getSimTimer().getTimeOfDay();
-		for (AgentEntry entry : activityEndsList) {
-			if (entry.activityEndTime != Double.POSITIVE_INFINITY) {
-				// since we are at an activity, it is not plausible to assume that the agents know mode or destination
-				// link id.  Thus generating the event with ``null'' in the corresponding entries.  kai, mar'12
-				eventsManager.processEvent(new PersonStuckEvent(now, entry.agent.getId(), null, null));
-			}
+		synchronized (activityEndsList) {
+			activityEndsList.forEach((agent, activityEndTime) -> {
+				if (activityEndTime != Double.POSITIVE_INFINITY) {
+					// since we are at an activity, it is not plausible to assume that the agents know mode or destination
+					// link id.  Thus generating the event with ``null'' in the corresponding entries.  kai, mar'12
+					eventsManager.processEvent(new PersonStuckEvent(now, agent.getId(), null, null));
+				}
+			});
+			activityEndsList.clear();
 		}
-		activityEndsList.clear();
+		stepRunner.shutdown();
 	}
 
 	@Override
@@ -155,8 +183,9 @@ class ActivityEngineDefaultImpl implements ActivityEngine {
 			internalInterface.arrangeNextAgentState(agent) ;
 		} else {
 			// The agent commences an activity on this link.
-			final AgentEntry agentEntry = new AgentEntry(agent, agent.getActivityEndTime());
-			activityEndsList.add(agentEntry);
+			synchronized (activityEndsList) {
+				activityEndsList.add(agent.getActivityEndTime(), agent);
+			}
 			internalInterface.registerAdditionalAgentOnLink(agent);
 		}
 		// Why beforeFirstSimStep matters:
@@ -188,16 +217,21 @@ class ActivityEngineDefaultImpl implements ActivityEngine {
 
 
 		double newActivityEndTime = agent.getActivityEndTime();
-		AgentEntry oldEntry = removeAgentFromQueue(agent);
+		boolean wasQueued;
+		synchronized (activityEndsList) {
+			wasQueued = activityEndsList.remove(agent);
+		}
 
 		// The intention in the following is that an agent that is no longer alive has an activity end time of infinity.  The number of
 		// alive agents is only modified when an activity end time is changed between a finite time and infinite.  kai, jun'11
-		if (oldEntry == null) {
+		if (!wasQueued) {
 			if (newActivityEndTime == Double.POSITIVE_INFINITY) {
 				// agent was de-activated and still should be de-activated - nothing to do here
 			} else {
 				// re-activate the agent
-				activityEndsList.add(new AgentEntry(agent, newActivityEndTime));
+				synchronized (activityEndsList) {
+					activityEndsList.add(newActivityEndTime, agent);
+				}
 				internalInterface.registerAdditionalAgentOnLink(agent);
 				((org.matsim.core.mobsim.qsim.AgentCounter) internalInterface.getMobsim().getAgentCounter()).incLiving();
 			}
@@ -212,20 +246,10 @@ class ActivityEngineDefaultImpl implements ActivityEngine {
 			/*
 			 *  The activity is just rescheduled during the day, so we keep the agent active. cdobler, oct'11
 			 */
-			activityEndsList.add(new AgentEntry(agent, newActivityEndTime));
-		}
-	}
-
-	private AgentEntry removeAgentFromQueue(MobsimAgent agent) {
-		Iterator<AgentEntry> iterator = activityEndsList.iterator();
-		while (iterator.hasNext()) {
-			AgentEntry entry = iterator.next();
-			if (entry.agent == agent) {
-				iterator.remove();
-				return entry;
+			synchronized (activityEndsList) {
+				activityEndsList.add(newActivityEndTime, agent);
 			}
 		}
-		return null;
 	}
 
 	private void unregisterAgentAtActivityLocation(final MobsimAgent agent) {
@@ -21,11 +21,10 @@
 
  package org.matsim.core.mobsim.qsim;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.LinkedHashMap;
-import java.util.PriorityQueue;
-import java.util.Queue;
+import java.util.List;
 
 import jakarta.inject.Inject;
 
@@ -39,9 +38,10 @@ import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
+import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.network.NetworkUtils;
-import org.matsim.core.utils.collections.Tuple;
+import org.matsim.core.utils.collections.CalendarQueue;
 import org.matsim.facilities.Facility;
 import org.matsim.vis.snapshotwriters.AgentSnapshotInfo;
 import org.matsim.vis.snapshotwriters.TeleportationVisData;
@@ -53,27 +53,16 @@ import org.matsim.vis.snapshotwriters.TeleportationVisData;
 public final class DefaultTeleportationEngine implements TeleportationEngine {
 	private static final Logger log = LogManager.getLogger( DefaultTeleportationEngine.class ) ;
 
-	private final Queue<Tuple<Double, MobsimAgent>> teleportationList = new PriorityQueue<>(
-			30, new Comparator<Tuple<Double, MobsimAgent>>() {
-
-		@Override
-		public int compare(Tuple<Double, MobsimAgent> o1, Tuple<Double, MobsimAgent> o2) {
-			int ret = o1.getFirst().compareTo(o2.getFirst()); // first compare time information
-			if (ret == 0) {
-				ret = o2.getSecond()
-						.getId()
-						.compareTo(o1.getSecond()
-								.getId()); // if they're equal, compare the Ids: the one with the larger Id should be first
-			}
-			return ret;
-		}
-	});
+	private final CalendarQueue<MobsimAgent> teleportationList = new CalendarQueue<>(
+			(a0, a1) -> a1.getId().compareTo(a0.getId())); // if the arrival times are equal, the one with the larger Id should be first
 	private final LinkedHashMap<Id<Person>, TeleportationVisData> teleportationData = new LinkedHashMap<>();
 	private InternalInterface internalInterface;
 	private Scenario scenario;
 	private EventsManager eventsManager;
 
 	private final boolean withTravelTimeCheck;
+	private final ParallelAgentStepRunner stepRunner;
+	private final List<MobsimAgent> arrivingAgents = new ArrayList<>();
 
 	@Inject
 	public DefaultTeleportationEngine(Scenario scenario, EventsManager eventsManager) {
@@ -84,6 +73,9 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 		this.scenario = scenario;
 		this.eventsManager = eventsManager;
 		this.withTravelTimeCheck = withTravelTimeCheck;
+		QSimConfigGroup qsimConfig = scenario.getConfig().qsim();
+		this.stepRunner = new ParallelAgentStepRunner(
+				qsimConfig.isUsingParallelActivityAndTeleportationEngines() ? qsimConfig.getNumberOfThreads() : 1, "TeleportationEngine");
 	}
 
 	@Override
@@ -103,7 +95,7 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 		}
 
 		double arrivalTime = now + travelTime ;
-		this.teleportationList.add(new Tuple<>(arrivalTime, agent));
+		this.teleportationList.add(arrivalTime, agent);
 
 		// === below here is only visualization, no dynamics ===
 		Id<Person> agentId = agent.getId();
@@ -133,24 +125,46 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 	}
 
 	private void handleTeleportationArrivals(double now) {
-		while (!teleportationList.isEmpty()) {
-			Tuple<Double, MobsimAgent> entry = teleportationList.peek();
-			if (entry.getFirst() <= now) {
-				teleportationList.poll();
-				MobsimAgent personAgent = entry.getSecond();
-				personAgent.notifyArrivalOnLinkByNonNetworkMode(personAgent.getDestinationLinkId());
-				double distance = personAgent.getExpectedTravelDistance();
-				this.eventsManager.processEvent(
-						new TeleportationArrivalEvent(now, personAgent.getId(), distance, personAgent.getMode()));
-				personAgent.endLegAndComputeNextState(now);
-				this.teleportationData.remove(personAgent.getId());
-				internalInterface.arrangeNextAgentState(personAgent);
-			} else {
-				break;
-			}
+		if (stepRunner.isParallel()) {
+			handleTeleportationArrivalsInParallel(now);
+			return;
+		}
+		MobsimAgent personAgent;
+		while ((personAgent = teleportationList.poll(now)) != null) {
+			arrive(personAgent, now, this.eventsManager);
+			this.teleportationData.remove(personAgent.getId());
+			internalInterface.arrangeNextAgentState(personAgent);
+		}
+	}
+
+	/**
+	 * Lets all due agents arrive in parallel, and only then hands them to the internal interface, sequentially and in
+	 * the order of the queue.  The events are passed to the events manager of the mobsim, which collects them per agent,
+	 * so they are the same as without threads.
+	 */
+	private void handleTeleportationArrivalsInParallel(double now) {
+		EventsManager events = internalInterface.getMobsim().getEventsManager();
+		MobsimAgent personAgent;
+		while ((personAgent = teleportationList.poll(now)) != null) {
+			do {
+				arrivingAgents.add(personAgent);
+			} while ((personAgent = teleportationList.poll(now)) != null);
+
+			stepRunner.run(arrivingAgents, events, agent -> arrive(agent, now, events), agent -> {
+				this.teleportationData.remove(agent.getId());
+				internalInterface.arrangeNextAgentState(agent);
+			});
+			arrivingAgents.clear();
 		}
 	}
 
+	private static void arrive(MobsimAgent personAgent, double now, EventsManager events) {
+		personAgent.notifyArrivalOnLinkByNonNetworkMode(personAgent.getDestinationLinkId());
+		double distance = personAgent.getExpectedTravelDistance();
+		events.processEvent(new TeleportationArrivalEvent(now, personAgent.getId(), distance, personAgent.getMode()));
+		personAgent.endLegAndComputeNextState(now);
+	}
+
 	@Override
 	public void onPrepareSim() {
 	}
@@ -158,11 +172,10 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 	@Override
 	public void afterSim() {
 		double now = internalInterface.getMobsim().getSimTimer().getTimeOfDay();
-		for (Tuple<Double, MobsimAgent> entry : teleportationList) {
-			MobsimAgent agent = entry.getSecond();
-			eventsManager.processEvent(new PersonStuckEvent(now, agent.getId(), agent.getDestinationLinkId(), agent.getMode()));
-		}
+		teleportationList.forEach((agent, arrivalTime) ->
+			eventsManager.processEvent(new PersonStuckEvent(now, agent.getId(), agent.getDestinationLinkId(), agent.getMode())));
 		teleportationList.clear();
+		stepRunner.shutdown();
 	}
 
 	@Override
@@ -0,0 +1,238 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.mobsim.qsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.handler.EventHandler;
+import org.matsim.core.mobsim.framework.MobsimAgent;
+import org.matsim.core.mobsim.qsim.agents.BasicPlanAgentImpl;
+import org.matsim.core.mobsim.qsim.agents.PersonDriverAgentImpl;
+
+/**
+ * Applies a per-agent step to a batch of agents that are due in the same time step, using several threads
+ * if the batch is large enough, and then hands the agents on one by one in their original order.
+ * <p></p>
+ * Only the default agents ({@link PersonDriverAgentImpl} and {@link BasicPlanAgentImpl}, but not subclasses) are known
+ * not to modify shared state in their step, so only they are handled by the pool; all other agents are handled
+ * on the calling thread.  The events emitted by an agent on the pool are collected per agent and passed on right
+ * before the agent is handed on, so the event stream is the same as without threads.  This requires that the agents
+ * emit their events to the events manager returned by {@link #collectingEvents(EventsManager)}, i.e. to the events
+ * manager of the mobsim.
+ * <p></p>
+ * Used by the activity and the teleportation engine, see
+ * {@link org.matsim.core.config.groups.QSimConfigGroup#isUsingParallelActivityAndTeleportationEngines()}.
+ */
+final class ParallelAgentStepRunner {
+
+	/**
+	 * Below this many agents per thread, handing the work to the pool costs more than it saves.
+	 */
+	private static final int MIN_AGENTS_PER_THREAD = 32;
+
+	private final int numberOfThreads;
+	private final String threadName;
+	private final List<Callable<Void>> tasks = new ArrayList<>();
+	/** the events of the agents handled by the pool, by position in the batch */
+	private final List<List<Event>> agentEvents = new ArrayList<>();
+	private ExecutorService pool;
+
+	ParallelAgentStepRunner(int numberOfThreads, String threadName) {
+		this.numberOfThreads = numberOfThreads;
+		this.threadName = threadName;
+	}
+
+	boolean isParallel() {
+		return this.numberOfThreads > 1;
+	}
+
+	/**
+	 * Wraps the events manager of the mobsim, so that the events emitted on the threads of a runner are collected per agent.
+	 */
+	static EventsManager collectingEvents(EventsManager events) {
+		return events instanceof CollectingEventsManager ? events : new CollectingEventsManager(events);
+	}
+
+	/**
+	 * Applies <code>step</code> to all agents, and then <code>next</code> to each of them in their order.
+	 *
+	 * @param events the events manager of the mobsim
+	 */
+	void run(List<MobsimAgent> agents, EventsManager events, Consumer<MobsimAgent> step, Consumer<MobsimAgent> next) {
+		int size = agents.size();
+		int threads = Math.min(this.numberOfThreads, size / MIN_AGENTS_PER_THREAD);
+		if (threads <= 1 || !(events instanceof CollectingEventsManager collectingEvents)) {
+			for (MobsimAgent agent : agents) {
+				step.accept(agent);
+				next.accept(agent);
+			}
+			return;
+		}
+
+		if (this.pool == null) {
+			this.pool = Executors.newFixedThreadPool(this.numberOfThreads, new StepThreadFactory(this.threadName));
+		}
+		while (this.agentEvents.size() < size) {
+			this.agentEvents.add(new ArrayList<>());
+		}
+
+		this.tasks.clear();
+		for (int t = 0; t < threads; t++) {
+			int from = (int) ((long) size * t / threads);
+			int to = (int) ((long) size * (t + 1) / threads);
+			this.tasks.add(() -> {
+				StepThread thread = (StepThread) Thread.currentThread();
+				try {
+					for (int i = from; i < to; i++) {
+						MobsimAgent agent = agents.get(i);
+						if (isParallelizable(agent)) {
+							thread.events = this.agentEvents.get(i);
+							step.accept(agent);
+						}
+					}
+				} finally {
+					thread.events = null;
+				}
+				return null;
+			});
+		}
+
+		try {
+			for (Future<Void> future : this.pool.invokeAll(this.tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+
+		for (int i = 0; i < size; i++) {
+			MobsimAgent agent = agents.get(i);
+			if (isParallelizable(agent)) {
+				List<Event> eventsOfAgent = this.agentEvents.get(i);
+				for (Event event : eventsOfAgent) {
+					collectingEvents.delegate.processEvent(event);
+				}
+				eventsOfAgent.clear();
+			} else {
+				step.accept(agent);
+			}
+			next.accept(agent);
+		}
+	}
+
+	void shutdown() {
+		if (this.pool != null) {
+			this.pool.shutdown();
+			this.pool = null;
+		}
+	}
+
+	private static boolean isParallelizable(MobsimAgent agent) {
+		return agent instanceof BasicPlanAgentImpl || agent.getClass() == PersonDriverAgentImpl.class;
+	}
+
+	private static final class StepThread extends Thread {
+		/** where the events of the current agent go; <code>null</code> outside of a step */
+		private List<Event> events;
+
+		StepThread(Runnable runnable, String name) {
+			super(runnable, name);
+		}
+	}
+
+	private static final class StepThreadFactory implements ThreadFactory {
+		private final String name;
+		private int count = 0;
+
+		StepThreadFactory(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new StepThread(r, this.name + "_PooledThread_" + this.count++);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	/**
+	 * Collects the events emitted on the threads of a runner; all other events are passed on directly.
+	 */
+	private static final class CollectingEventsManager implements EventsManager {
+		private final EventsManager delegate;
+
+		CollectingEventsManager(EventsManager delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void processEvent(Event event) {
+			if (Thread.currentThread() instanceof StepThread thread && thread.events != null) {
+				thread.events.add(event);
+			} else {
+				this.delegate.processEvent(event);
+			}
+		}
+
+		@Override
+		public void addHandler(EventHandler handler) {
+			this.delegate.addHandler(handler);
+		}
+
+		@Override
+		public void removeHandler(EventHandler handler) {
+			this.delegate.removeHandler(handler);
+		}
+
+		@Override
+		public void resetHandlers(int iteration) {
+			this.delegate.resetHandlers(iteration);
+		}
+
+		@Override
+		public void initProcessing() {
+			this.delegate.initProcessing();
+		}
+
+		@Override
+		public void afterSimStep(double time) {
+			this.delegate.afterSimStep(time);
+		}
+
+		@Override
+		public void finishProcessing() {
+			this.delegate.finishProcessing();
+		}
+	}
+}
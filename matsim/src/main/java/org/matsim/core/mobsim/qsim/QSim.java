@@ -214,7 +214,12 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 	private QSim( final Scenario sc, EventsManager events, Injector childInjector ) {
 		this.scenario = sc;
 		if ( sc.getConfig().qsim().getNumberOfThreads() > 1) {
-			this.events = EventsUtils.getParallelFeedableInstance( events );
+			EventsManager parallelFeedableEvents = EventsUtils.getParallelFeedableInstance( events );
+			if ( sc.getConfig().qsim().isUsingParallelActivityAndTeleportationEngines() ) {
+				// so that the events of the agents handled in parallel can be passed on in a deterministic order
+				parallelFeedableEvents = ParallelAgentStepRunner.collectingEvents( parallelFeedableEvents );
+			}
+			this.events = parallelFeedableEvents;
 		} else {
 			this.events = events;
 		}
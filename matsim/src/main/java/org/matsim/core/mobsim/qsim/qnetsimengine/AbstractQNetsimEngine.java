@@ -20,6 +20,7 @@
 
 package org.matsim.core.mobsim.qsim.qnetsimengine;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -84,9 +85,13 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 //	private final Set<QLinkI> linksToActivateInitially = new HashSet<>();
 	protected final int numOfThreads;
 	protected final QNetwork qNetwork;
+	private final double loadBalancingPeriod;
 
 	private double infoTime = 0;
 	private List<A> engines;
+	private NetElementLoadBalancer loadBalancer = null;
+	private double nextLoadBalancingTime;
+	private long wallTime = 0;
 	private InternalInterface internalInterface = null;
 
 	AbstractQNetsimEngine(final QSim sim, QNetworkFactory netsimNetworkFactory) {
@@ -129,6 +134,7 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		qNetwork.initialize(this, sim.getAgentCounter(), sim.getSimTimer() );
 
 		this.numOfThreads = sim.getScenario().getConfig().qsim().getNumberOfThreads();
+		this.loadBalancingPeriod = qSimConfigGroup.getLoadBalancingPeriod();
 	}
 
 	static AbstractAgentSnapshotInfoBuilder createAgentSnapshotInfoBuilder(Scenario scenario, SnapshotLinkWidthCalculator linkWidthCalculator) {
@@ -162,7 +168,14 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		 */
 
 		this.engines = initQSimEngineRunners();
-		assignNetElementActivators();
+		if (this.loadBalancingPeriod > 0 && this.engines.size() > 1) {
+			this.loadBalancer = new NetElementLoadBalancer(qNetwork.getNetwork().getNodes().values(), this.engines.size());
+			for (AbstractQNetsimEngineRunner engine : this.engines) {
+				engine.setWork(this.loadBalancer.getWork());
+			}
+			this.nextLoadBalancingTime = internalInterface.getMobsim().getSimTimer().getSimStartTime() + this.loadBalancingPeriod;
+		}
+		assignNetElementActivators(true);
 		initMultiThreading();
 	}
 
@@ -184,6 +197,7 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		}
 
 		finishMultiThreading();
+		printRunnerIdleTimes();
 
 		/* Reset vehicles on ALL links. We cannot iterate only over the active links
 		 * (this.simLinksArray), because there may be links that have vehicles only
@@ -221,7 +235,15 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 	 */
 	@Override
 	public final void doSimStep(final double time) {
+		if (this.loadBalancer != null && time >= this.nextLoadBalancingTime) {
+			this.nextLoadBalancingTime = time + this.loadBalancingPeriod;
+			printRunnerIdleTimes();
+			reassignNetElementActivators();
+		}
+
+		long start = System.nanoTime();
 		run(time);
+		this.wallTime += System.nanoTime() - start;
 
 		this.printSimLog(time);
 	}
@@ -382,7 +404,7 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 	 * over a Node which is processed by that Thread. So we can assign each QLink
 	 * to the Thread that handles its InNode.
 	 */
-	private void assignNetElementActivators() {
+	private void assignNetElementActivators(boolean printStatistics) {
 
 		// only for statistics
 		int nodes[] = new int[this.engines.size()];
@@ -390,7 +412,7 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 
 		int roundRobin = 0;
 		for (QNodeI node : qNetwork.getNetsimNodes().values()) {
-			int i = roundRobin % this.engines.size();
+			int i = this.loadBalancer == null ? roundRobin % this.engines.size() : this.loadBalancer.getRunner(node.getNode());
 			if( node instanceof AbstractQNode){
 				((AbstractQNode) node).setNetElementActivationRegistry(this.engines.get(i));
 			}
@@ -422,13 +444,57 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		}
 
 		// print some statistics
-		for (int i = 0; i < this.engines.size(); i++) {
-			log.info("Assigned " + nodes[i] + " nodes and " + links[i] + " links to QSimEngineRunner #" + i);
+		if (printStatistics) {
+			for (int i = 0; i < this.engines.size(); i++) {
+				log.info("Assigned " + nodes[i] + " nodes and " + links[i] + " links to QSimEngineRunner #" + i);
+			}
 		}
 
 //		this.linksToActivateInitially.clear();
 	}
 
+	/*
+	 * Moves nodes and links between the runners according to the work measured since the last call.  This is called
+	 * between two time steps, when no runner is active, so the active nodes and links can simply be collected from
+	 * their old runners and registered with their new ones.  Links still go with their from-node, see above.
+	 */
+	private void reassignNetElementActivators() {
+		List<QNodeI> activeNodes = new ArrayList<>();
+		List<QLinkI> activeLinks = new ArrayList<>();
+		for (AbstractQNetsimEngineRunner engine : this.engines) {
+			engine.removeActiveNetElements(activeNodes, activeLinks);
+		}
+
+		this.loadBalancer.rebalance();
+		// not printing the assignment again, this happens every load balancing period
+		assignNetElementActivators(false);
+
+		for (QNodeI node : activeNodes) {
+			this.engines.get(this.loadBalancer.getRunner(node.getNode())).registerNodeAsActive(node);
+		}
+		for (QLinkI link : activeLinks) {
+			this.engines.get(this.loadBalancer.getRunner(link.getLink().getFromNode())).registerLinkAsActive(link);
+		}
+	}
+
+	/*
+	 * The idle time of a runner is the time the engine spent in run(time) minus the time the runner was busy, i.e. mostly
+	 * the time the runner waited for the slowest runner at the end of the node or link phase.  Only printed with load
+	 * balancing, to see its effect.
+	 */
+	private void printRunnerIdleTimes() {
+		if (this.loadBalancer == null || this.wallTime == 0) {
+			return;
+		}
+		for (int i = 0; i < this.engines.size(); i++) {
+			long busy = this.engines.get(i).getAndResetBusyTime();
+			long idle = Math.max(0, this.wallTime - busy);
+			log.info("QSimEngineRunner #" + i + ": busy " + busy / 1_000_000 + " ms, idle " + idle / 1_000_000 + " ms ("
+					+ (100 * idle / this.wallTime) + "%)");
+		}
+		this.wallTime = 0;
+	}
+
 	private final void arrangeNextAgentState(MobsimAgent pp) {
 		internalInterface.arrangeNextAgentState(pp);
 	}
@@ -20,6 +20,7 @@
 
 package org.matsim.core.mobsim.qsim.qnetsimengine;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -70,6 +71,17 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 	private boolean lockNodes = false;
 	private boolean lockLinks = false;
 
+	/*
+	 * If not null, every time step in which a node or link is active adds one unit of work to the node (for links:
+	 * to their from-node), see NetElementLoadBalancer.
+	 */
+	private int[] work = null;
+
+	/*
+	 * Time spent in moveNodes() and moveLinks(), for the idle time statistics of the engine.
+	 */
+	private long busyTime = 0;
+
 	/*package*/ long[] runTimes;
 	private long startTime = 0;
 	{	
@@ -90,6 +102,7 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 		Iterator<QNodeI> simNodes = this.nodesQueue.iterator();
 		while (simNodes.hasNext()) {
 			node = simNodes.next();
+			if (work != null) work[node.getNode().getId().index()]++;
 			remainsActive = node.doSimStep(time);
 			if (!remainsActive) simNodes.remove();
 		}
@@ -103,6 +116,7 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 		ListIterator<QLinkI> simLinks = this.linksList.listIterator();
 		while (simLinks.hasNext()) {
 			link = simLinks.next();
+			if (work != null) work[link.getLink().getFromNode().getId().index()]++;
 
 			remainsActive = link.doSimStep();
 
@@ -149,6 +163,31 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 		return this.nodesQueue.size();
 	}
 
+	/*package*/ final void setWork(int[] work) {
+		this.work = work;
+	}
+
+	/*package*/ final void addBusyTime(long nanos) {
+		this.busyTime += nanos;
+	}
+
+	/*package*/ final long getAndResetBusyTime() {
+		long busy = this.busyTime;
+		this.busyTime = 0;
+		return busy;
+	}
+
+	/*
+	 * Hands all active nodes and links over to the caller, e.g. to re-register them with other runners.  Must only be
+	 * called between time steps.
+	 */
+	/*package*/ final void removeActiveNetElements(Collection<QNodeI> activeNodes, Collection<QLinkI> activeLinks) {
+		activeNodes.addAll(this.nodesQueue);
+		this.nodesQueue.clear();
+		activeLinks.addAll(this.linksList);
+		this.linksList.clear();
+	}
+
 	protected final void startMeasure() {
 		if (QSim.analyzeRunTimes) this.startTime = System.nanoTime();		
 	}
@@ -0,0 +1,123 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Queue;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+
+/**
+ * Decides which {@link AbstractQNetsimEngineRunner} handles which node (and thereby which out-links, see
+ * {@link AbstractQNetsimEngine}), based on the work measured on the nodes.
+ * <p></p>
+ * The nodes are brought once into a breadth-first order over the (undirected) network, so that nodes which are
+ * close in that order are mostly connected by links.  Each runner then gets a contiguous range of that order, with
+ * the ranges chosen such that every runner gets about the same amount of work.  This keeps the nodes of a runner
+ * together, and a vehicle moving from one node to the next usually stays with the same runner.
+ * <p></p>
+ * The work of a node is the number of time steps in which it was active, plus the number of time steps in which its
+ * out-links were active, during the last measurement period.  The runners write their counts into
+ * {@link #getWork()} without synchronization; this is fine since every node (with its out-links) is handled by
+ * exactly one runner.
+ */
+final class NetElementLoadBalancer {
+
+	private final int numberOfRunners;
+	private final Node[] nodesInOrder;
+	private final int[] work;
+	private final int[] runnerOfNode;
+
+	NetElementLoadBalancer(Collection<? extends Node> nodes, int numberOfRunners) {
+		this.numberOfRunners = numberOfRunners;
+		this.nodesInOrder = createBreadthFirstOrder(nodes);
+		this.work = new int[Id.getNumberOfIds(Node.class)];
+		this.runnerOfNode = new int[this.work.length];
+		rebalance();
+	}
+
+	private static Node[] createBreadthFirstOrder(Collection<? extends Node> nodes) {
+		Node[] order = new Node[nodes.size()];
+		boolean[] visited = new boolean[Id.getNumberOfIds(Node.class)];
+		Queue<Node> queue = new ArrayDeque<>();
+		int size = 0;
+		for (Node start : nodes) {
+			if (visited[start.getId().index()]) {
+				continue;
+			}
+			visited[start.getId().index()] = true;
+			queue.add(start);
+			while (!queue.isEmpty()) {
+				Node node = queue.poll();
+				order[size++] = node;
+				for (Link link : node.getOutLinks().values()) {
+					Node next = link.getToNode();
+					if (!visited[next.getId().index()]) {
+						visited[next.getId().index()] = true;
+						queue.add(next);
+					}
+				}
+				for (Link link : node.getInLinks().values()) {
+					Node next = link.getFromNode();
+					if (!visited[next.getId().index()]) {
+						visited[next.getId().index()] = true;
+						queue.add(next);
+					}
+				}
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * Re-computes the runner of every node from the work measured since the last call, and resets the work.
+	 * Every node counts with at least one unit of work, so that without any measurement the nodes are split
+	 * into ranges of equal size.
+	 */
+	void rebalance() {
+		long total = 0;
+		for (Node node : this.nodesInOrder) {
+			total += this.work[node.getId().index()] + 1;
+		}
+		long prefix = 0;
+		for (Node node : this.nodesInOrder) {
+			int index = node.getId().index();
+			long nodeWork = this.work[index] + 1;
+			// assign by the middle of the node's work, so that a single heavy node does not push its neighbours away
+			int runner = (int) ((prefix + nodeWork / 2) * this.numberOfRunners / total);
+			this.runnerOfNode[index] = Math.min(runner, this.numberOfRunners - 1);
+			prefix += nodeWork;
+		}
+		Arrays.fill(this.work, 0);
+	}
+
+	int getRunner(Node node) {
+		return this.runnerOfNode[node.getId().index()];
+	}
+
+	int[] getWork() {
+		return this.work;
+	}
+}
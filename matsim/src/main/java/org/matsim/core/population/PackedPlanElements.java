@@ -0,0 +1,283 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.api.core.v01.population.Route;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteFactories;
+import org.matsim.core.utils.misc.OptionalTime;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * The plan elements of a {@link PlanImpl} stored in a few primitive arrays instead of one object per activity, leg and route.
+ * <p>
+ * Network routes are stored as arrays of link indices and re-created with the configured {@link RouteFactories} when the
+ * plan elements are unpacked. Other route types and non-empty attributes are kept as references. Plans containing
+ * elements that cannot be restored exactly (e.g. custom implementations of {@link Activity} or {@link Leg}) are not packed.
+ *
+ * @see PopulationUtils#compactNonSelectedPlans(org.matsim.api.core.v01.population.Population)
+ */
+/* deliberately package */ final class PackedPlanElements {
+
+	private static final byte ACTIVITY = 0;
+	private static final byte INTERACTION_ACTIVITY = 1;
+	private static final byte LEG = 2;
+
+	// activity: start time, end time, maximum duration, x, y, z; leg: departure time, travel time, route distance, route travel time, route travel cost
+	private static final int VALUES_PER_ELEMENT = 6;
+	private static final int START_TIME = 0;
+	private static final int END_TIME = 1;
+	private static final int MAXIMUM_DURATION = 2;
+	private static final int X = 3;
+	private static final int Y = 4;
+	private static final int Z = 5;
+	private static final int DEPARTURE_TIME = 0;
+	private static final int TRAVEL_TIME = 1;
+	private static final int ROUTE_DISTANCE = 2;
+	private static final int ROUTE_TRAVEL_TIME = 3;
+	private static final int ROUTE_TRAVEL_COST = 4;
+
+	private final RouteFactories routeFactories;
+	private final byte[] kinds;
+	private final String[] names; // 2 per element: activity type resp. leg mode, routing mode
+	private final double[] values;
+	private final byte[] defined; // per element: bit i is set if value i is defined, e.g. if an activity has an end time
+	private final int[] indices; // 2 per element: activity link and facility, resp. route vehicle; -1 if undefined
+	private final int[][] routeLinks; // per element: start link, end link, links in between; null if no network route is packed
+	private final Object[] references; // 2 per element: route if not packed, attributes if not empty; null if there are none
+
+	private PackedPlanElements(RouteFactories routeFactories, int size, boolean hasRouteLinks, boolean hasReferences) {
+		this.routeFactories = routeFactories;
+		this.kinds = new byte[size];
+		this.names = new String[2 * size];
+		this.values = new double[VALUES_PER_ELEMENT * size];
+		this.defined = new byte[size];
+		this.indices = new int[2 * size];
+		this.routeLinks = hasRouteLinks ? new int[size][] : null;
+		this.references = hasReferences ? new Object[2 * size] : null;
+	}
+
+	/**
+	 * @param networkRouteClass the class of the network routes created by the route factories. Network routes of other classes are kept as references.
+	 * @return the packed elements, or <code>null</code> if the elements cannot be packed without losing information
+	 */
+	static PackedPlanElements pack(List<PlanElement> elements, RouteFactories routeFactories, Class<?> networkRouteClass) {
+		int size = elements.size();
+		boolean hasRouteLinks = false;
+		boolean hasReferences = false;
+		for (PlanElement pe : elements) {
+			if (pe instanceof ActivityImpl act) {
+				if (!act.getAttributes().isEmpty()) {
+					hasReferences = true;
+				}
+			} else if (pe instanceof LegImpl leg) {
+				Route route = leg.getRoute();
+				if (route != null && route.getClass() == networkRouteClass) {
+					hasRouteLinks = true;
+				} else if (route != null) {
+					hasReferences = true;
+				}
+				if (!leg.getAttributes().isEmpty()) {
+					hasReferences = true;
+				}
+			} else if (!(pe instanceof InteractionActivity)) {
+				return null;
+			}
+		}
+
+		PackedPlanElements packed = new PackedPlanElements(routeFactories, size, hasRouteLinks, hasReferences);
+		for (int i = 0; i < size; i++) {
+			PlanElement pe = elements.get(i);
+			if (pe instanceof Leg leg) {
+				packed.packLeg(i, (LegImpl) leg, networkRouteClass);
+			} else {
+				Activity act = (Activity) pe;
+				packed.kinds[i] = pe instanceof InteractionActivity ? INTERACTION_ACTIVITY : ACTIVITY;
+				packed.names[2 * i] = act.getType();
+				packed.setValue(i, START_TIME, act.getStartTime());
+				packed.setValue(i, END_TIME, act.getEndTime());
+				packed.setValue(i, MAXIMUM_DURATION, act.getMaximumDuration());
+				Coord coord = act.getCoord();
+				if (coord != null) {
+					packed.setValue(i, X, coord.getX());
+					packed.setValue(i, Y, coord.getY());
+					if (coord.hasZ()) {
+						packed.setValue(i, Z, coord.getZ());
+					}
+				}
+				packed.indices[2 * i] = act.getLinkId() == null ? -1 : act.getLinkId().index();
+				packed.indices[2 * i + 1] = act.getFacilityId() == null ? -1 : act.getFacilityId().index();
+				if (packed.references != null && !act.getAttributes().isEmpty()) {
+					packed.references[2 * i + 1] = act.getAttributes();
+				}
+			}
+		}
+		return packed;
+	}
+
+	private void packLeg(int i, LegImpl leg, Class<?> networkRouteClass) {
+		this.kinds[i] = LEG;
+		this.names[2 * i] = leg.getMode();
+		this.names[2 * i + 1] = leg.getRoutingMode();
+		setValue(i, DEPARTURE_TIME, leg.getDepartureTime());
+		setValue(i, TRAVEL_TIME, leg.getTravelTime());
+		this.indices[2 * i] = -1;
+		this.indices[2 * i + 1] = -1;
+		Route route = leg.getRoute();
+		if (route != null && route.getClass() == networkRouteClass) {
+			NetworkRoute networkRoute = (NetworkRoute) route;
+			List<Id<Link>> linkIds = networkRoute.getLinkIds();
+			int[] links = new int[linkIds.size() + 2];
+			links[0] = networkRoute.getStartLinkId() == null ? -1 : networkRoute.getStartLinkId().index();
+			links[1] = networkRoute.getEndLinkId() == null ? -1 : networkRoute.getEndLinkId().index();
+			for (int l = 0; l < linkIds.size(); l++) {
+				links[l + 2] = linkIds.get(l).index();
+			}
+			this.routeLinks[i] = links;
+			setValue(i, ROUTE_DISTANCE, networkRoute.getDistance());
+			setValue(i, ROUTE_TRAVEL_TIME, networkRoute.getTravelTime());
+			setValue(i, ROUTE_TRAVEL_COST, networkRoute.getTravelCost());
+			this.indices[2 * i] = networkRoute.getVehicleId() == null ? -1 : networkRoute.getVehicleId().index();
+		} else if (route != null) {
+			this.references[2 * i] = route;
+		}
+		if (this.references != null && !leg.getAttributes().isEmpty()) {
+			this.references[2 * i + 1] = leg.getAttributes();
+		}
+	}
+
+	/**
+	 * @return newly created plan elements equal to the packed ones
+	 */
+	ArrayList<PlanElement> unpack() {
+		ArrayList<PlanElement> elements = new ArrayList<>(this.kinds.length);
+		for (int i = 0; i < this.kinds.length; i++) {
+			if (this.kinds[i] == LEG) {
+				elements.add(unpackLeg(i));
+				continue;
+			}
+			Activity act;
+			if (this.kinds[i] == INTERACTION_ACTIVITY) {
+				act = new InteractionActivity(this.names[2 * i]);
+			} else {
+				act = new ActivityImpl(this.names[2 * i]);
+				if (isDefined(i, START_TIME)) {
+					act.setStartTime(getValue(i, START_TIME));
+				}
+				if (isDefined(i, END_TIME)) {
+					act.setEndTime(getValue(i, END_TIME));
+				}
+				if (isDefined(i, MAXIMUM_DURATION)) {
+					act.setMaximumDuration(getValue(i, MAXIMUM_DURATION));
+				}
+			}
+			if (isDefined(i, X)) {
+				act.setCoord(isDefined(i, Z) ? new Coord(getValue(i, X), getValue(i, Y), getValue(i, Z)) : new Coord(getValue(i, X), getValue(i, Y)));
+			}
+			if (this.indices[2 * i] >= 0) {
+				act.setLinkId(Id.get(this.indices[2 * i], Link.class));
+			}
+			if (this.indices[2 * i + 1] >= 0) {
+				act.setFacilityId(Id.get(this.indices[2 * i + 1], ActivityFacility.class));
+			}
+			copyAttributes(i, act.getAttributes());
+			elements.add(act);
+		}
+		return elements;
+	}
+
+	private Leg unpackLeg(int i) {
+		LegImpl leg = new LegImpl(this.names[2 * i]);
+		leg.setRoutingMode(this.names[2 * i + 1]);
+		if (isDefined(i, DEPARTURE_TIME)) {
+			leg.setDepartureTime(getValue(i, DEPARTURE_TIME));
+		}
+		if (isDefined(i, TRAVEL_TIME)) {
+			leg.setTravelTime(getValue(i, TRAVEL_TIME));
+		}
+		int[] links = this.routeLinks == null ? null : this.routeLinks[i];
+		if (links != null) {
+			NetworkRoute route = this.routeFactories.createRoute(NetworkRoute.class, linkId(links[0]), linkId(links[1]));
+			List<Id<Link>> linkIds = new ArrayList<>(links.length - 2);
+			for (int l = 2; l < links.length; l++) {
+				linkIds.add(Id.get(links[l], Link.class));
+			}
+			route.setLinkIds(linkId(links[0]), linkIds, linkId(links[1]));
+			route.setDistance(getValue(i, ROUTE_DISTANCE));
+			if (isDefined(i, ROUTE_TRAVEL_TIME)) {
+				route.setTravelTime(getValue(i, ROUTE_TRAVEL_TIME));
+			} else {
+				route.setTravelTimeUndefined();
+			}
+			route.setTravelCost(getValue(i, ROUTE_TRAVEL_COST));
+			route.setVehicleId(this.indices[2 * i] < 0 ? null : Id.get(this.indices[2 * i], Vehicle.class));
+			leg.setRoute(route);
+		} else if (this.references != null && this.references[2 * i] != null) {
+			leg.setRoute((Route) this.references[2 * i]);
+		}
+		copyAttributes(i, leg.getAttributes());
+		return leg;
+	}
+
+	private void setValue(int i, int value, double v) {
+		this.values[VALUES_PER_ELEMENT * i + value] = v;
+		this.defined[i] |= (byte) (1 << value);
+	}
+
+	private void setValue(int i, int value, OptionalTime time) {
+		time.ifDefined(seconds -> setValue(i, value, seconds));
+	}
+
+	private boolean isDefined(int i, int value) {
+		return (this.defined[i] & (1 << value)) != 0;
+	}
+
+	private double getValue(int i, int value) {
+		return this.values[VALUES_PER_ELEMENT * i + value];
+	}
+
+	private void copyAttributes(int i, Attributes target) {
+		if (this.references != null && this.references[2 * i + 1] != null) {
+			for (Map.Entry<String, Object> e : ((Attributes) this.references[2 * i + 1]).getAsMap().entrySet()) {
+				target.putAttribute(e.getKey(), e.getValue());
+			}
+		}
+	}
+
+	private static Id<Link> linkId(int index) {
+		return index < 0 ? null : Id.get(index, Link.class);
+	}
+
+	int size() {
+		return this.kinds.length;
+	}
+}
@@ -33,6 +33,7 @@ import org.matsim.api.core.v01.population.Leg;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.core.population.routes.RouteFactories;
 import org.matsim.core.replanning.inheritance.PlanInheritanceModule;
 import org.matsim.core.scenario.CustomizableUtils;
 import org.matsim.utils.objectattributes.attributable.Attributes;
@@ -43,6 +44,8 @@ import org.matsim.utils.objectattributes.attributable.AttributesImpl;
 	private Id<Plan> id=  null;
 
 	private ArrayList<PlanElement> actsLegs = new ArrayList<>();
+	// if set, actsLegs is null until the plan elements are accessed. Volatile, so a thread that sees it unset also sees the unpacked actsLegs.
+	private volatile PackedPlanElements packedActsLegs = null;
 
 	private Double score = null;
 	private Person person = null;
@@ -166,17 +169,49 @@ import org.matsim.utils.objectattributes.attributable.AttributesImpl;
 
 	@Override
 	public final List<PlanElement> getPlanElements() {
+		if (this.packedActsLegs != null) {
+			unpack();
+		}
 		return this.actsLegs;
 	}
 
+	private synchronized void unpack() {
+		// another thread may have unpacked the plan elements in the meantime
+		PackedPlanElements packed = this.packedActsLegs;
+		if (packed != null) {
+			this.actsLegs = packed.unpack();
+			this.packedActsLegs = null;
+		}
+	}
+
 	@Override
 	public final void addLeg(final Leg leg) {
-		this.actsLegs.add(leg);
+		getPlanElements().add(leg);
 	}
 
 	@Override
 	public final void addActivity(final Activity act) {
-		this.actsLegs.add(act);
+		getPlanElements().add(act);
+	}
+
+	/**
+	 * Stores the plan elements in packed form until they are accessed the next time. Accessing them then creates new
+	 * {@link PlanElement} instances, so references to the previous instances (e.g. in a map keyed by activities) no longer
+	 * belong to this plan. Must not be called while other threads access the plan.
+	 *
+	 * @return <code>true</code> if the plan elements are packed
+	 */
+	/* package */ synchronized boolean pack(RouteFactories routeFactories, Class<?> networkRouteClass) {
+		if (this.packedActsLegs != null) {
+			return true;
+		}
+		PackedPlanElements packed = PackedPlanElements.pack(this.actsLegs, routeFactories, networkRouteClass);
+		if (packed == null) {
+			return false;
+		}
+		this.packedActsLegs = packed;
+		this.actsLegs = null;
+		return true;
 	}
 
 	@Override
@@ -190,10 +225,11 @@ import org.matsim.utils.objectattributes.attributable.AttributesImpl;
 		if ( this.getPerson() != null ) {
 			personIdString = this.getPerson().getId().toString() ;
 		}
+		PackedPlanElements packed = this.packedActsLegs;
 
 		return "[score=" + scoreString + "]" +
 //				"[selected=" + PersonUtils.isSelected(this) + "]" +
-				"[nof_acts_legs=" + getPlanElements().size() + "]" +
+				"[nof_acts_legs=" + (packed != null ? packed.size() : this.actsLegs.size()) + "]" +
 				"[type=" + this.type + "]" +
 				"[personId=" + personIdString + "]" ;
 	}
@@ -68,6 +68,7 @@ import org.matsim.core.population.routes.RouteFactory;
 import org.matsim.core.population.routes.RouteUtils;
 import org.matsim.core.population.routes.heavycompressed.HeavyCompressedNetworkRouteFactory;
 import org.matsim.core.population.routes.mediumcompressed.MediumCompressedNetworkRouteFactory;
+import org.matsim.core.population.routes.packed.PackedNetworkRouteFactory;
 import org.matsim.core.router.TripStructureUtils;
 import org.matsim.core.router.TripStructureUtils.StageActivityHandling;
 import org.matsim.core.scenario.MutableScenario;
@@ -136,6 +137,8 @@ public final class PopulationUtils {
 			factory = new LinkNetworkRouteFactory();
 		} else if (PlansConfigGroup.NetworkRouteType.MediumCompressedNetworkRoute.equals(networkRouteType) && network != null) {
 			factory = new MediumCompressedNetworkRouteFactory();
+		} else if (PlansConfigGroup.NetworkRouteType.PackedNetworkRoute.equals(networkRouteType)) {
+			factory = new PackedNetworkRouteFactory();
 		} else if (PlansConfigGroup.NetworkRouteType.HeavyCompressedNetworkRoute.equals(networkRouteType) && network != null) {
 			factory = new HeavyCompressedNetworkRouteFactory(network, TransportMode.car);
 		} else if (PlansConfigGroup.NetworkRouteType.CompressedNetworkRoute.equals(networkRouteType) && network != null) {
@@ -1118,6 +1121,28 @@ public final class PopulationUtils {
 		}
 	}
 
+	/**
+	 * Stores the plan elements of all non-selected plans in a packed form, using much less memory. The plan elements
+	 * are restored transparently when they are accessed the next time, e.g. when such a plan is selected again. Restoring
+	 * creates new {@link PlanElement} instances, so previously obtained references to them are no longer part of the plan.
+	 * Must not be called while other threads access the plans.
+	 *
+	 * @return the number of packed plans
+	 */
+	public static long compactNonSelectedPlans( Population population ) {
+		RouteFactories routeFactories = population.getFactory().getRouteFactories();
+		Class<?> networkRouteClass = routeFactories.createRoute(NetworkRoute.class, null, null).getClass();
+		return population.getPersons().values().parallelStream().mapToLong(person -> {
+			long count = 0;
+			for (Plan plan : person.getPlans()) {
+				if (plan != person.getSelectedPlan() && plan instanceof PlanImpl planImpl && planImpl.pack(routeFactories, networkRouteClass)) {
+					count++;
+				}
+			}
+			return count;
+		}).sum();
+	}
+
 	public static void printPlansCount( Population population ) {
 		log.info(" person # " + population.getPersons().size() );
 	}
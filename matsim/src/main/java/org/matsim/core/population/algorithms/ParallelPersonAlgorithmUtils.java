@@ -27,8 +27,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.api.core.v01.population.Population;
+import org.matsim.core.gbl.MatsimRandom;
 import org.matsim.core.utils.misc.Counter;
 
 /**
@@ -73,6 +75,17 @@ public final class ParallelPersonAlgorithmUtils {
 	 * @param algoProvider
 	 */
 	public static void run(final Population population, final int numberOfThreads, final PersonAlgorithmProvider algoProvider) {
+		run(population, numberOfThreads, algoProvider, null);
+	}
+
+	/**
+	 * Like {@link #run(Population, int, PersonAlgorithmProvider)}, but if <code>personStreamName</code> is not <code>null</code>,
+	 * each person is handled with its own random stream (see {@link MatsimRandom#runWithPersonStream(Id, String, Runnable)}),
+	 * so the results do not depend on the number of threads.  Callers should use different names, so that the streams
+	 * of a person are not the same in different steps of an iteration.
+	 */
+	public static void run(final Population population, final int numberOfThreads, final PersonAlgorithmProvider algoProvider,
+			final String personStreamName) {
 		int numOfThreads = Math.max(numberOfThreads, 1); // it should be at least 1 here; we allow 0 in other places for "no threads"
 		PersonAlgoThread[] algoThreads = new PersonAlgoThread[numOfThreads];
 		Thread[] threads = new Thread[numOfThreads];
@@ -89,7 +102,8 @@ public final class ParallelPersonAlgorithmUtils {
 				name = algo.getClass().getSimpleName();
 				counter = new Counter("[" + name + "] handled person # ");
 			}
-			PersonAlgoThread algothread = new PersonAlgoThread(algo, counter);
+			String streamName = personStreamName == null ? null : personStreamName + ":" + algo.getClass().getName();
+			PersonAlgoThread algothread = new PersonAlgoThread(algo, counter, streamName);
 			Thread thread = new Thread(algothread, name + "." + i);
 			thread.setUncaughtExceptionHandler(uncaughtExceptionHandler);
 			threads[i] = thread;
@@ -130,10 +144,12 @@ public final class ParallelPersonAlgorithmUtils {
 		private final PersonAlgorithm personAlgo;
 		private final List<Person> persons = new LinkedList<Person>();
 		private final Counter counter;
+		private final String streamName;
 
-		public PersonAlgoThread(final PersonAlgorithm algo, final Counter counter) {
+		public PersonAlgoThread(final PersonAlgorithm algo, final Counter counter, final String streamName) {
 			this.personAlgo = algo;
 			this.counter = counter;
+			this.streamName = streamName;
 		}
 
 		public void handlePerson(final Person person) {
@@ -143,7 +159,11 @@ public final class ParallelPersonAlgorithmUtils {
 		@Override
 		public void run() {
 			for (Person person : this.persons) {
-				this.personAlgo.run(person);
+				if (this.streamName != null) {
+					MatsimRandom.runWithPersonStream(person.getId(), this.streamName, () -> this.personAlgo.run(person));
+				} else {
+					this.personAlgo.run(person);
+				}
 				counter.incCounter();
 			}
 		}
@@ -0,0 +1,93 @@
+package org.matsim.core.population.routes.packed;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.population.routes.AbstractNetworkRoute;
+import org.matsim.core.population.routes.NetworkRoute;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * <p>Implementation of {@link NetworkRoute} that stores the links of the route
+ * as an array of link indices (see {@link Id#index()}) instead of a List of link-ids.</p>
+ *
+ * <p>Compared to the default {@code LinkNetworkRouteImpl}, this needs 4 bytes per link
+ * instead of an object reference per link plus the list objects. Compared to
+ * {@link org.matsim.core.population.routes.mediumcompressed.MediumCompressedNetworkRoute},
+ * {@link #getLinkIds()} does not need to decode the route: it returns a new unmodifiable view
+ * on the array, which is a small object independent of the length of the route. {@link #getLinkCount()}
+ * and {@link #getLinkIndex(int)} access the route without allocating memory.</p>
+ */
+public class PackedNetworkRoute extends AbstractNetworkRoute {
+
+	private final static int[] EMPTY_ROUTE = new int[0];
+	private int[] route = EMPTY_ROUTE;
+
+	public PackedNetworkRoute(Id<Link> startLinkId, Id<Link> endLinkId) {
+		this.setStartLinkId(startLinkId);
+		this.setEndLinkId(endLinkId);
+	}
+
+	@Override
+	public void setLinkIds(Id<Link> startLinkId, List<Id<Link>> linkIds, Id<Link> endLinkId) {
+		this.setStartLinkId(startLinkId);
+		this.setEndLinkId(endLinkId);
+		if (linkIds == null || linkIds.isEmpty()) {
+			this.route = EMPTY_ROUTE;
+			return;
+		}
+		int[] route = new int[linkIds.size()];
+		int i = 0;
+		for (Id<Link> linkId : linkIds) {
+			route[i] = linkId.index();
+			i++;
+		}
+		this.route = route;
+	}
+
+	@Override
+	public List<Id<Link>> getLinkIds() {
+		return new LinkIdsView(this.route);
+	}
+
+	/**
+	 * @return the number of links between the start and the end link
+	 */
+	public int getLinkCount() {
+		return this.route.length;
+	}
+
+	/**
+	 * @return the index of the link at the given position, i.e. the same as <code>getLinkIds().get(position).index()</code>
+	 */
+	public int getLinkIndex(int position) {
+		return this.route[position];
+	}
+
+	@Override
+	public PackedNetworkRoute clone() {
+		// the array is never modified, only replaced, so it can be shared with the clone
+		return (PackedNetworkRoute) super.clone();
+	}
+
+	private static final class LinkIdsView extends AbstractList<Id<Link>> implements RandomAccess {
+		private final int[] route;
+
+		LinkIdsView(int[] route) {
+			this.route = route;
+		}
+
+		@Override
+		public Id<Link> get(int index) {
+			return Id.get(this.route[index], Link.class);
+		}
+
+		@Override
+		public int size() {
+			return this.route.length;
+		}
+	}
+
+}
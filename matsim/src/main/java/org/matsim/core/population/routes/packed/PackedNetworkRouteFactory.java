@@ -0,0 +1,20 @@
+package org.matsim.core.population.routes.packed;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteFactory;
+
+public class PackedNetworkRouteFactory implements RouteFactory {
+
+	@Override
+	public NetworkRoute createRoute(final Id<Link> startLinkId, final Id<Link> endLinkId) {
+		return new PackedNetworkRoute(startLinkId, endLinkId);
+	}
+
+	@Override
+	public String getCreatedRouteType() {
+		return "links";
+	}
+
+}
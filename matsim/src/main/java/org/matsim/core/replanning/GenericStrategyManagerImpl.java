@@ -26,13 +26,17 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.population.*;
+import org.matsim.core.gbl.MatsimRandom;
 import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.replanning.choosers.StrategyChooser;
 import org.matsim.core.replanning.choosers.WeightedStrategyChooser;
+import org.matsim.core.replanning.modules.ReplanningThreadPool;
 import org.matsim.core.replanning.selectors.PlanSelector;
 import org.matsim.core.replanning.selectors.GenericWorstPlanForRemovalSelector;
 import org.matsim.core.replanning.selectors.RandomPlanSelector;
@@ -88,6 +92,10 @@ public class GenericStrategyManagerImpl<PL extends BasicPlan, AG extends HasPlan
 
 	private final StrategyChooser<PL, AG> strategyChooser;
 
+	private int numberOfThreadsForFinishing = 0;
+
+	private boolean usingPersonStreams = false;
+
 
 //	private String subpopulationAttributeName = null;
 	
@@ -217,33 +225,53 @@ public class GenericStrategyManagerImpl<PL extends BasicPlan, AG extends HasPlan
 
 		// then go through the population and ...
 		for (HasPlansAndId<PL, AG> person : persons ) {
+			if (this.usingPersonStreams) {
+				// so that the choices for a person do not depend on the other persons
+				MatsimRandom.runWithPersonStream(person.getId(), "strategyManager", () -> replanPerson(person, replanningContext));
+			} else {
+				replanPerson(person, replanningContext);
+			}
+		}
 
-			// ... reduce the number of plans to the allowed maximum (in evol comp lang this is "selection")
-			if ((this.maxPlansPerAgent > 0) && (person.getPlans().size() > this.maxPlansPerAgent)) {
-				removePlans( person, this.maxPlansPerAgent);
+		// finally make sure all strategies have finished there work
+		if (this.numberOfThreadsForFinishing > 0) {
+			// each person is handled by only one strategy, so the strategies can finish independently of each other
+			ForkJoinPool pool = ReplanningThreadPool.get(this.numberOfThreadsForFinishing);
+			List<ForkJoinTask<?>> tasks = new ArrayList<>();
+			for (GenericPlanStrategy<PL, AG> strategy : distinctStrategies()) {
+				tasks.add(pool.submit(strategy::finish));
+			}
+			for (ForkJoinTask<?> task : tasks) {
+				task.join();
+			}
+		} else {
+			for (GenericPlanStrategy<PL, AG> strategy : distinctStrategies()) {
+				strategy.finish();
 			}
+		}
+
+	}
 
-			// ... choose the strategy to be used for this person (in evol comp lang this would be the choice of the mutation operator)
+	private void replanPerson(final HasPlansAndId<PL, AG> person, final ReplanningContext replanningContext) {
+		// ... reduce the number of plans to the allowed maximum (in evol comp lang this is "selection")
+		if ((this.maxPlansPerAgent > 0) && (person.getPlans().size() > this.maxPlansPerAgent)) {
+			removePlans( person, this.maxPlansPerAgent);
+		}
+
+		// ... choose the strategy to be used for this person (in evol comp lang this would be the choice of the mutation operator)
 //			String subpopName = null;
 //			if (this.subpopulationAttributeName != null) {
 //				subpopName = (String) PopulationUtils.getPersonAttribute( person, this.subpopulationAttributeName) ;
 //			}
-			String subpopName = PopulationUtils.getSubpopulation( person );
-			GenericPlanStrategy<PL, AG> strategy = this.chooseStrategy(person, subpopName, replanningContext);
-
-			if (strategy==null) {
-				throw new RuntimeException("No strategy found! Have you defined at least one replanning strategy per subpopulation? Current subpopulation = " + subpopName);
-			}
-			
-			// ... and run the strategy:
-			strategy.run(person);
-		}
+		String subpopName = PopulationUtils.getSubpopulation( person );
+		GenericPlanStrategy<PL, AG> strategy = this.chooseStrategy(person, subpopName, replanningContext);
 
-		// finally make sure all strategies have finished there work
-		for (GenericPlanStrategy<PL, AG> strategy : distinctStrategies()) {
-			strategy.finish();
+		if (strategy==null) {
+			throw new RuntimeException("No strategy found! Have you defined at least one replanning strategy per subpopulation? Current subpopulation = " + subpopName);
 		}
-
+		
+		// ... and run the strategy:
+		strategy.run(person);
 	}
 
 	private Collection<GenericPlanStrategy<PL, AG>> distinctStrategies() {
@@ -309,6 +337,22 @@ public class GenericStrategyManagerImpl<PL extends BasicPlan, AG extends HasPlan
 		this.maxPlansPerAgent = maxPlansPerAgent;
 	}
 
+	/**
+	 * Finishes all strategies concurrently on the shared {@link ReplanningThreadPool} with the given number of threads,
+	 * instead of one after the other.  Zero (the default) finishes the strategies sequentially.
+	 */
+	public final void setNumberOfThreadsForFinishing( final int numberOfThreads ) {
+		this.numberOfThreadsForFinishing = numberOfThreads;
+	}
+
+	/**
+	 * Chooses the strategy of each person with the random stream of that person, see
+	 * {@link MatsimRandom#runWithPersonStream(org.matsim.api.core.v01.Id, String, Runnable)}.  Default is <code>false</code>.
+	 */
+	public final void setUsingPersonStreams( final boolean usingPersonStreams ) {
+		this.usingPersonStreams = usingPersonStreams;
+	}
+
 	/**
 	 * Schedules a {@link #changeWeightOfStrategy(GenericPlanStrategy, String, double)} command for a later iteration. The
 	 * change will take place before the strategies are applied.
@@ -27,6 +27,7 @@ import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.population.Population;
 import org.matsim.core.api.internal.MatsimManager;
 import org.matsim.core.config.groups.ControllerConfigGroup;
+import org.matsim.core.config.groups.GlobalConfigGroup;
 import org.matsim.core.config.groups.ReplanningConfigGroup;
 import org.matsim.core.replanning.choosers.StrategyChooser;
 import org.matsim.core.replanning.selectors.PlanSelector;
@@ -65,12 +66,16 @@ public class StrategyManager implements MatsimManager {
 	private final GenericStrategyManagerImpl<Plan, Person> delegate;
 
 	@Inject
-	StrategyManager(ReplanningConfigGroup replanningConfigGroup,
+	StrategyManager(ReplanningConfigGroup replanningConfigGroup, GlobalConfigGroup globalConfigGroup,
 									ControllerConfigGroup controllerConfigGroup, StrategyChooser<Plan, Person> strategyChooser,
 									Map<ReplanningConfigGroup.StrategySettings, PlanStrategy> planStrategies ) {
 
 		this(strategyChooser);
 		setMaxPlansPerAgent(replanningConfigGroup.getMaxAgentPlanMemorySize());
+		delegate.setUsingPersonStreams(globalConfigGroup.isUsingPersonRandomStreams());
+		if (globalConfigGroup.getReplanningScheduling() == GlobalConfigGroup.ReplanningScheduling.workStealing) {
+			delegate.setNumberOfThreadsForFinishing(globalConfigGroup.getNumberOfThreads());
+		}
 
 		int globalInnovationDisableAfter = (int) ((controllerConfigGroup.getLastIteration() - controllerConfigGroup.getFirstIteration())
 				* replanningConfigGroup.getFractionOfIterationsToDisableInnovation() + controllerConfigGroup.getFirstIteration());
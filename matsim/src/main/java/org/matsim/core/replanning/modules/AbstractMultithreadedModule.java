@@ -25,14 +25,22 @@ import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.replanning.PlanStrategyModule;
 import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.config.groups.GlobalConfigGroup.ReplanningScheduling;
+import org.matsim.core.gbl.MatsimRandom;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
 import org.matsim.core.replanning.ReplanningContext;
 import org.matsim.core.utils.misc.Counter;
 
 import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * An abstract strategy module for running multiple plan algorithms in parallel.
@@ -51,6 +59,16 @@ import java.util.concurrent.atomic.AtomicReference;
  * "fast threads"), it helps building reproducible runs.  Additionally, as the threads are only
  * started after all to-be-handled plans are added, we can use unsynchronized data structures.
  * <p></p>
+ * With {@link ReplanningScheduling#workStealing}, <code>finishReplanning()</code> instead splits the plans into small chunks
+ * which are handled by the shared {@link ReplanningThreadPool}.  Each chunk borrows one of the plan algorithm instances, so
+ * still only <code>numOfThreads</code> instances are required, but a plan is not always handled by the same instance.  To
+ * keep the results reproducible nevertheless, each plan is then always handled with the random stream of its person (see
+ * {@link MatsimRandom#runWithPersonStream}).  Plan algorithms must not keep other state that influences their results.
+ * <p></p>
+ * With {@link ReplanningScheduling#roundRobin}, the person streams are only used if {@link GlobalConfigGroup#isUsingPersonRandomStreams()},
+ * which makes the results independent of the number of threads.  The streams of a person differ between modules, as they
+ * depend on the class of the module and of its plan algorithm.
+ * <p></p>
  * Design comments/questions:<ul>
  * <li> As a consequence of the design, the instances that getPlanAlgoInstance() returns, need to be thread-safe.  kai, dec'12
  * For an example with discussions, see {@link tutorial.programming.multiThreadedPlanStrategy.RunWithMultithreadedModule}
@@ -60,18 +78,27 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 abstract public class AbstractMultithreadedModule implements PlanStrategyModule {
 	private final int numOfThreads;
+	private final ReplanningScheduling scheduling;
 
 	private PlanAlgoThread[] algothreads = null;
+	private List<Plan> plans = null;
+	private BlockingQueue<PlanAlgorithm> algos = null;
+	private PlanTimes planTimes = null;
 	private Thread[] threads = null;
 	private PlanAlgorithm directAlgo = null;
 	private String name = null;
 
 	private int count = 0;
+	private Counter counter = null;
+
+	private static final int CHUNKS_PER_THREAD = 8;
 
 	private final AtomicReference<Throwable> hadException = new AtomicReference<>(null);
 	private final ExceptionHandler exceptionHandler = new ExceptionHandler(this.hadException);
 
 	private ReplanningContext replanningContext;
+	private final boolean usingPersonStreams;
+	private String streamName = null;
 
 	static final private Logger log = LogManager.getLogger(AbstractMultithreadedModule.class);
 
@@ -84,11 +111,26 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	abstract public PlanAlgorithm getPlanAlgoInstance();
 
 	public AbstractMultithreadedModule(GlobalConfigGroup globalConfigGroup) {
-		this.numOfThreads = globalConfigGroup.getNumberOfThreads();
+		this(globalConfigGroup.getNumberOfThreads(), globalConfigGroup.getReplanningScheduling(), globalConfigGroup.isUsingPersonRandomStreams());
 	}
 
 	public AbstractMultithreadedModule(final int numOfThreads) {
+		this(numOfThreads, ReplanningScheduling.roundRobin);
+	}
+
+	public AbstractMultithreadedModule(final int numOfThreads, final ReplanningScheduling scheduling) {
+		this(numOfThreads, scheduling, false);
+	}
+
+	/**
+	 * @param usingPersonStreams whether each plan is handled with the random stream of its person. Always <code>true</code>
+	 * with {@link ReplanningScheduling#workStealing}.
+	 */
+	public AbstractMultithreadedModule(final int numOfThreads, final ReplanningScheduling scheduling, final boolean usingPersonStreams) {
 		this.numOfThreads = numOfThreads;
+		this.scheduling = scheduling;
+		// with work stealing, which algorithm instance handles a plan depends on the scheduling, so only person streams make the results reproducible
+		this.usingPersonStreams = usingPersonStreams || scheduling == ReplanningScheduling.workStealing;
 	}
 	
 	protected void beforePrepareReplanningHook(@SuppressWarnings("unused") ReplanningContext replanningContextTmp) {
@@ -106,6 +148,11 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 		if (this.numOfThreads == 0) {
 			// it seems, no threads are desired :(
 			this.directAlgo = getPlanAlgoInstance();
+			if (this.directAlgo != null) {
+				initName(this.directAlgo);
+			}
+		} else if (this.scheduling == ReplanningScheduling.workStealing) {
+			initAlgos();
 		} else {
 			initThreads();
 		}
@@ -118,11 +165,14 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 
 	@Override
 	public final void handlePlan(final Plan plan) {
-		if (this.directAlgo == null) {
+		if (this.plans != null) {
+			this.plans.add(plan);
+			this.count++;
+		} else if (this.directAlgo == null) {
 			this.algothreads[this.count % this.numOfThreads].addPlanToThread(plan);
 			this.count++;
 		} else {
-			this.directAlgo.run(plan);
+			runPlanAlgo(this.directAlgo, plan, this.usingPersonStreams, this.streamName);
 		}
 	}
 
@@ -137,7 +187,20 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	public final void finishReplanning() {
 		this.beforeFinishReplanningHook();
 		
-		if (this.directAlgo == null) {
+		long start = System.nanoTime();
+		if (this.plans != null) {
+			log.info("[" + this.name + "] handling " + this.count + " plans on the shared pool of " + this.numOfThreads + " threads");
+			int chunkSize = Math.max(1, this.count / (this.numOfThreads * CHUNKS_PER_THREAD));
+			try {
+				ReplanningThreadPool.get(this.numOfThreads).invoke(new PlansChunk(0, this.count, chunkSize));
+			} catch (RuntimeException e) {
+				throw new RuntimeException("Some threads crashed, thus not all plans may have been handled.", e);
+			} finally {
+				this.plans = null;
+				this.algos = null;
+			}
+			this.planTimes.log(this.name, System.nanoTime() - start);
+		} else if (this.directAlgo == null) {
 			// only try to start threads if we did not directly work on all the plans
 			log.info("[" + this.name + "] starting " + this.threads.length + " threads, handling " + this.count + " plans");
 
@@ -159,11 +222,13 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 			if (throwable != null) {
 				throw new RuntimeException("Some threads crashed, thus not all plans may have been handled.", throwable);
 			}
+			this.planTimes.log(this.name, System.nanoTime() - start);
 		}
 		// reset
 		this.algothreads = null;
 		this.threads = null;
 		this.replanningContext = null;
+		this.planTimes = null;
 		this.count = 0;
 		
 		this.afterFinishReplanningHook();
@@ -178,15 +243,16 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 		this.threads = new Thread[this.numOfThreads];
 		this.algothreads = new PlanAlgoThread[this.numOfThreads];
 
+		this.planTimes = new PlanTimes();
 		Counter counter = null;
 		// setup threads
 		for (int i = 0; i < this.numOfThreads; i++) {
 			PlanAlgorithm algo = getPlanAlgoInstance();
 			if (i == 0) {
-				this.name = algo.getClass().getSimpleName();
+				initName(algo);
 				counter = new Counter("[" + this.name + "] handled plan # ");
 			}
-			PlanAlgoThread algothread = new PlanAlgoThread(algo, counter);
+			PlanAlgoThread algothread = new PlanAlgoThread(algo, counter, this.planTimes, this.usingPersonStreams, this.streamName);
 			Thread thread = new Thread(algothread, this.name + "." + i);
 			thread.setUncaughtExceptionHandler(this.exceptionHandler);
 			this.threads[i] = thread;
@@ -194,6 +260,38 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 		}
 	}
 
+	private void initAlgos() {
+		if (this.plans != null) {
+			throw new RuntimeException("plan algorithms are already initialized");
+		}
+
+		this.plans = new ArrayList<>();
+		this.algos = new LinkedBlockingQueue<>();
+		this.planTimes = new PlanTimes();
+		for (int i = 0; i < this.numOfThreads; i++) {
+			PlanAlgorithm algo = getPlanAlgoInstance();
+			if (i == 0) {
+				initName(algo);
+				this.counter = new Counter("[" + this.name + "] handled plan # ");
+			}
+			this.algos.add(algo);
+		}
+	}
+
+	private void initName(final PlanAlgorithm algo) {
+		this.name = algo.getClass().getSimpleName();
+		// different modules may use the same plan algorithm, e.g. with different parameters
+		this.streamName = getClass().getName() + ":" + algo.getClass().getName();
+	}
+
+	private static void runPlanAlgo(final PlanAlgorithm algo, final Plan plan, final boolean usingPersonStreams, final String streamName) {
+		if (usingPersonStreams && plan != null && plan.getPerson() != null) {
+			MatsimRandom.runWithPersonStream(plan.getPerson().getId(), streamName, () -> algo.run(plan));
+		} else {
+			algo.run(plan);
+		}
+	}
+
 	/* package (for a test) */ final int getNumOfThreads() {
 		return numOfThreads;
 	}
@@ -214,15 +312,88 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 
 	}
 
+	/**
+	 * Handles a range of the plans, splitting it as long as it is larger than the chunk size, so that idle threads
+	 * of the pool can steal the other half.
+	 */
+	private final class PlansChunk extends RecursiveAction {
+
+		private final int from;
+		private final int to;
+		private final int chunkSize;
+
+		PlansChunk(final int from, final int to, final int chunkSize) {
+			this.from = from;
+			this.to = to;
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from > this.chunkSize) {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new PlansChunk(this.from, middle, this.chunkSize), new PlansChunk(middle, this.to, this.chunkSize));
+				return;
+			}
+			// there are never more chunks running than threads in the pool, unless the pool compensates blocked threads. Such
+			// additional threads wait for an instance, as getPlanAlgoInstance() must not be called concurrently.
+			PlanAlgorithm algo;
+			try {
+				algo = AbstractMultithreadedModule.this.algos.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+			try {
+				for (int i = this.from; i < this.to; i++) {
+					long start = System.nanoTime();
+					runPlanAlgo(algo, AbstractMultithreadedModule.this.plans.get(i), AbstractMultithreadedModule.this.usingPersonStreams, AbstractMultithreadedModule.this.streamName);
+					AbstractMultithreadedModule.this.planTimes.add(System.nanoTime() - start);
+					AbstractMultithreadedModule.this.counter.incCounter();
+				}
+			} finally {
+				AbstractMultithreadedModule.this.algos.add(algo);
+			}
+		}
+	}
+
+	/**
+	 * Collects how long the plan algorithms took, to find out whether a few slow plans dominate the replanning.
+	 */
+	private final static class PlanTimes {
+
+		private final LongAdder plansCount = new LongAdder();
+		private final LongAdder sumNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		void add(final long nanos) {
+			this.plansCount.increment();
+			this.sumNanos.add(nanos);
+			this.maxNanos.accumulateAndGet(nanos, Math::max);
+		}
+
+		void log(final String name, final long wallNanos) {
+			log.info("[" + name + "] handled " + this.plansCount.sum() + " plans in " + wallNanos / 1_000_000 + " ms"
+					+ ", sum of plan times: " + this.sumNanos.sum() / 1_000_000 + " ms"
+					+ ", max. plan time: " + this.maxNanos.get() / 1_000_000 + " ms");
+		}
+	}
+
 	private final static class PlanAlgoThread implements Runnable {
 
 		private final PlanAlgorithm planAlgo;
 		private final List<Plan> plans = new LinkedList<>();
 		private final Counter counter;
+		private final PlanTimes planTimes;
+		private final boolean usingPersonStreams;
+		private final String streamName;
 
-		public PlanAlgoThread(final PlanAlgorithm algo, final Counter counter) {
+		public PlanAlgoThread(final PlanAlgorithm algo, final Counter counter, final PlanTimes planTimes, final boolean usingPersonStreams, final String streamName) {
 			this.planAlgo = algo;
 			this.counter = counter;
+			this.planTimes = planTimes;
+			this.usingPersonStreams = usingPersonStreams;
+			this.streamName = streamName;
 		}
 
 		public void addPlanToThread(final Plan plan) {
@@ -232,7 +403,9 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 		@Override
 		public void run() {
 			for (Plan plan : this.plans) {
-				this.planAlgo.run(plan);
+				long start = System.nanoTime();
+				runPlanAlgo(this.planAlgo, plan, this.usingPersonStreams, this.streamName);
+				this.planTimes.add(System.nanoTime() - start);
 				this.counter.incCounter();
 			}
 		}
@@ -0,0 +1,47 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.replanning.modules;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The fork-join pool shared by all strategy modules and the strategy manager when the replanning uses
+ * {@link org.matsim.core.config.groups.GlobalConfigGroup.ReplanningScheduling#workStealing}.
+ * <p></p>
+ * Idle threads steal chunks of plans from busy ones, also across strategy modules that are finished concurrently, so a few slow
+ * plans do not leave the other threads waiting.  The pool is re-created when a different number of threads is requested.
+ */
+public final class ReplanningThreadPool {
+
+	private static ForkJoinPool pool = null;
+
+	private ReplanningThreadPool() {
+	}
+
+	public static synchronized ForkJoinPool get(final int numberOfThreads) {
+		if (pool == null || pool.getParallelism() != numberOfThreads) {
+			if (pool != null) {
+				pool.shutdown();
+			}
+			pool = new ForkJoinPool(numberOfThreads);
+		}
+		return pool;
+	}
+}
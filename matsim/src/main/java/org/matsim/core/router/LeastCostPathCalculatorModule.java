@@ -26,8 +26,12 @@ import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.ControllerConfigGroup;
 import org.matsim.core.controler.AbstractModule;
 import org.matsim.core.router.speedy.SpeedyALTFactory;
+import org.matsim.core.router.speedy.SpeedyCCHFactory;
+import org.matsim.core.router.speedy.SpeedyGraphCache;
 import org.matsim.core.router.util.*;
 
+import java.nio.file.Paths;
+
 public class LeastCostPathCalculatorModule extends AbstractModule {
 
     @Override
@@ -42,7 +46,18 @@ public class LeastCostPathCalculatorModule extends AbstractModule {
         } else if (config.controller().getRoutingAlgorithmType().equals(ControllerConfigGroup.RoutingAlgorithmType.AStarLandmarks)) {
             bind(LeastCostPathCalculatorFactory.class).to(AStarLandmarksFactory.class);
         } else if (config.controller().getRoutingAlgorithmType().equals(ControllerConfigGroup.RoutingAlgorithmType.SpeedyALT)) {
-            bind(LeastCostPathCalculatorFactory.class).to(SpeedyALTFactory.class);
+            String cacheDirectory = config.controller().getRoutingGraphCacheDirectory();
+            if (cacheDirectory == null) {
+                bind(LeastCostPathCalculatorFactory.class).to(SpeedyALTFactory.class);
+            } else {
+                bind(LeastCostPathCalculatorFactory.class).toInstance(new SpeedyALTFactory(new SpeedyGraphCache(Paths.get(cacheDirectory))));
+            }
+        } else if (config.controller().getRoutingAlgorithmType().equals(ControllerConfigGroup.RoutingAlgorithmType.SpeedyCCH)) {
+            // one instance for all routers, so the travel costs are customized only once per iteration
+            SpeedyCCHFactory factory = new SpeedyCCHFactory(SpeedyCCHFactory.DEFAULT_TIME_SLICE_SIZE,
+                    Math.max(1, (int) Math.ceil(config.travelTimeCalculator().getMaxTime() / SpeedyCCHFactory.DEFAULT_TIME_SLICE_SIZE)), config.global().getNumberOfThreads());
+            bind(LeastCostPathCalculatorFactory.class).toInstance(factory);
+            addControlerListenerBinding().toInstance(factory);
         }
     }
 
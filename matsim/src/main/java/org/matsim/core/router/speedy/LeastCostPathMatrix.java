@@ -0,0 +1,141 @@
+package org.matsim.core.router.speedy;
+
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calculates the travel times, costs and distances of the least-cost paths between all pairs of a set of origin and a set of destination nodes.
+ * <p>
+ * For each origin, a {@link LeastCostPathTree} is calculated that stops as soon as all destination nodes are settled, so only the part of the network
+ * between the origin and the farthest destination is searched. As the travel times and disutilities may depend on the time of day, a separate tree per
+ * origin is required; the origins are distributed among the given number of threads, each of them re-using its own tree.
+ * <p>
+ * The results are stored in dense arrays (row: origin, column: destination). Unreachable destinations have an infinite travel time, cost and distance.
+ * <p>
+ * Instances are immutable after the calculation and can be shared between threads.
+ */
+public final class LeastCostPathMatrix {
+
+	private final int destinationsCount;
+	private final double[] travelTimes;
+	private final double[] travelCosts;
+	private final double[] distances;
+
+	private LeastCostPathMatrix(int originsCount, int destinationsCount) {
+		this.destinationsCount = destinationsCount;
+		int size = originsCount * destinationsCount;
+		this.travelTimes = new double[size];
+		this.travelCosts = new double[size];
+		this.distances = new double[size];
+	}
+
+	/**
+	 * @param fromNodes the node indices of the origins
+	 * @param toNodes the node indices of the destinations
+	 * @param departureTime the departure time at all origins
+	 */
+	public static LeastCostPathMatrix calculate(SpeedyGraph graph, TravelTime tt, TravelDisutility td, int[] fromNodes, int[] toNodes, double departureTime,
+			int numberOfThreads) {
+		LeastCostPathMatrix matrix = new LeastCostPathMatrix(fromNodes.length, toNodes.length);
+
+		boolean[] isDestination = new boolean[graph.nodeCount];
+		int distinctDestinationsCount = 0;
+		for (int toNode : toNodes) {
+			if (!isDestination[toNode]) {
+				isDestination[toNode] = true;
+				distinctDestinationsCount++;
+			}
+		}
+		int destinationsToSettle = distinctDestinationsCount;
+
+		AtomicInteger nextOrigin = new AtomicInteger(0);
+		Runnable worker = () -> {
+			LeastCostPathTree tree = new LeastCostPathTree(graph, tt, td);
+			int[] settledCount = new int[1];
+			// a node is settled when it is taken from the queue, the stop criterion is evaluated exactly then
+			LeastCostPathTree.StopCriterion allDestinationsSettled = (nodeIndex, arrivalTime, travelCost, distance, depTime) ->
+					isDestination[nodeIndex] && ++settledCount[0] == destinationsToSettle;
+
+			int origin;
+			while ((origin = nextOrigin.getAndIncrement()) < fromNodes.length) {
+				settledCount[0] = 0;
+				tree.calculate(fromNodes[origin], departureTime, null, null, allDestinationsSettled);
+				matrix.setRow(origin, tree, toNodes, departureTime);
+			}
+		};
+
+		int threads = Math.max(1, Math.min(numberOfThreads, fromNodes.length));
+		if (threads == 1) {
+			worker.run();
+			return matrix;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>(threads);
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(worker));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		} finally {
+			executor.shutdown();
+		}
+		return matrix;
+	}
+
+	private void setRow(int origin, LeastCostPathTree tree, int[] toNodes, double departureTime) {
+		int offset = origin * this.destinationsCount;
+		for (int destination = 0; destination < toNodes.length; destination++) {
+			int toNode = toNodes[destination];
+			double cost = tree.getCost(toNode);
+			if (cost == Double.POSITIVE_INFINITY) {
+				this.travelTimes[offset + destination] = Double.POSITIVE_INFINITY;
+				this.travelCosts[offset + destination] = Double.POSITIVE_INFINITY;
+				this.distances[offset + destination] = Double.POSITIVE_INFINITY;
+			} else {
+				this.travelTimes[offset + destination] = tree.getTime(toNode).seconds() - departureTime;
+				this.travelCosts[offset + destination] = cost;
+				this.distances[offset + destination] = tree.getDistance(toNode);
+			}
+		}
+	}
+
+	public int getOriginsCount() {
+		return this.destinationsCount == 0 ? 0 : this.travelTimes.length / this.destinationsCount;
+	}
+
+	public int getDestinationsCount() {
+		return this.destinationsCount;
+	}
+
+	/**
+	 * @param origin the position of the origin in the array of origin nodes
+	 * @param destination the position of the destination in the array of destination nodes
+	 */
+	public double getTravelTime(int origin, int destination) {
+		return this.travelTimes[origin * this.destinationsCount + destination];
+	}
+
+	public double getTravelCost(int origin, int destination) {
+		return this.travelCosts[origin * this.destinationsCount + destination];
+	}
+
+	public double getDistance(int origin, int destination) {
+		return this.distances[origin * this.destinationsCount + destination];
+	}
+
+	public boolean isReachable(int origin, int destination) {
+		return this.travelCosts[origin * this.destinationsCount + destination] != Double.POSITIVE_INFINITY;
+	}
+}
@@ -7,6 +7,8 @@ import org.matsim.api.core.v01.network.Node;
 import org.matsim.core.router.speedy.SpeedyGraph.LinkIterator;
 import org.matsim.core.router.util.TravelDisutility;
 
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -18,7 +20,7 @@ import java.util.concurrent.Future;
 /**
  * Preprocessed data for the ALT algorithm, see {@link SpeedyALT}.
  *
- * This class is thread-safe and can safely be used by multiple threads.
+ * This class is thread-safe and can safely be used by multiple threads. The data is kept in arrays, unless it is read from a memory-mapped file, see {@link SpeedyGraphCache}.
  *
  * @author mrieser / Simunto, sponsored by SBB Swiss Federal Railways
  */
@@ -32,6 +34,9 @@ class SpeedyALTData {
 	private final int[] landmarksNodeIndices;
 	private final double[] nodesData; // for each node: 2 values per landmark
 	private final int[] deadendData;
+	// only used instead of the arrays if the data is memory-mapped
+	private final DoubleBuffer mappedNodesData;
+	private final IntBuffer mappedDeadendData;
 	private final double minTravelCostPerLength;
 
 	public SpeedyALTData(SpeedyGraph graph, int landmarksCount, TravelDisutility travelCosts) {
@@ -41,32 +46,49 @@ class SpeedyALTData {
 		this.landmarksNodeIndices = new int[landmarksCount];
 		this.nodesData = new double[graph.nodeCount * (landmarksCount * 2)];
 		this.deadendData = new int[graph.nodeCount];
+		this.mappedNodesData = null;
+		this.mappedDeadendData = null;
 
-		this.findDeadEnds();
-		this.calcLandmarks();
+		this.findDeadEnds(this.deadendData);
+		this.calcLandmarks(this.nodesData);
 		this.minTravelCostPerLength = this.calcMinTravelCostPerLength();
 	}
 
-	private void findDeadEnds() {
+	/**
+	 * Creates the data from previously calculated values, e.g. read from a file.
+	 */
+	SpeedyALTData(SpeedyGraph graph, int[] landmarksNodeIndices, DoubleBuffer mappedNodesData, IntBuffer mappedDeadendData, double minTravelCostPerLength) {
+		this.graph = graph;
+		this.landmarksCount = landmarksNodeIndices.length;
+		this.travelCosts = null;
+		this.landmarksNodeIndices = landmarksNodeIndices;
+		this.nodesData = null;
+		this.deadendData = null;
+		this.mappedNodesData = mappedNodesData;
+		this.mappedDeadendData = mappedDeadendData;
+		this.minTravelCostPerLength = minTravelCostPerLength;
+	}
+
+	private void findDeadEnds(int[] deadendData) {
 		LOG.info("find dead ends...");
 
 		LinkIterator outLI = this.graph.getOutLinkIterator();
 		LinkIterator inLI = this.graph.getInLinkIterator();
-		Arrays.fill(this.deadendData, -1);
+		Arrays.fill(deadendData, -1);
 		Map<Integer, Integer> mergedDeadends = new HashMap<>();
 
 		for (int nodeIdx = 0; nodeIdx < this.graph.nodeCount; nodeIdx++) {
 			Node node = this.graph.getNode(nodeIdx);
 			if (node == null) continue; // not all indices might be in use
 
-			if (this.deadendData[nodeIdx] >= 0) continue; // already detected as part of dead-end
+			if (deadendData[nodeIdx] >= 0) continue; // already detected as part of dead-end
 
 			int nIdx = nodeIdx;
-			int otherNodeIndex = checkNodeForDeadend(this.deadendData, mergedDeadends, nIdx, nodeIdx, outLI, inLI);
+			int otherNodeIndex = checkNodeForDeadend(deadendData, mergedDeadends, nIdx, nodeIdx, outLI, inLI);
 			while (otherNodeIndex >= 0) {
-				this.deadendData[nIdx] = nodeIdx;
+				deadendData[nIdx] = nodeIdx;
 				nIdx = otherNodeIndex;
-				otherNodeIndex = checkNodeForDeadend(this.deadendData, mergedDeadends, nIdx, nodeIdx, outLI, inLI);
+				otherNodeIndex = checkNodeForDeadend(deadendData, mergedDeadends, nIdx, nodeIdx, outLI, inLI);
 			}
 		}
 		Map<Integer, Integer> mergers = new HashMap<>();
@@ -80,9 +102,9 @@ class SpeedyALTData {
 			mergers.put(fromIdx, finalToIdx);
 		});
 		for (int nodeIdx = 0; nodeIdx < this.graph.nodeCount; nodeIdx++) {
-			int deadend = this.deadendData[nodeIdx];
+			int deadend = deadendData[nodeIdx];
 			if (deadend >= 0) {
-				this.deadendData[nodeIdx] = mergers.getOrDefault(deadend, deadend);
+				deadendData[nodeIdx] = mergers.getOrDefault(deadend, deadend);
 			}
 		}
 	}
@@ -128,7 +150,7 @@ class SpeedyALTData {
 		return otherNodeIndex;
 	}
 
-	private void calcLandmarks() {
+	private void calcLandmarks(double[] nodesData) {
 		LOG.info("calculate landmarks...");
 		Node firstNode = null;
 		for (int i = 0; i < this.graph.nodeCount; i++) {
@@ -161,7 +183,7 @@ class SpeedyALTData {
 		for (int i = 0; i < trees.length; i++) {
 			try {
 				double[] data = trees[i].get();
-				setNodeData(data, i);
+				setNodeData(nodesData, data, i);
 			} catch (InterruptedException | ExecutionException e) {
 				LOG.error(e);
 			}
@@ -184,10 +206,10 @@ class SpeedyALTData {
 		return minCost;
 	}
 
-	private void setNodeData(double[] data, int offset) {
+	private void setNodeData(double[] nodesData, double[] data, int offset) {
 		int multiplier = this.landmarksCount * 2;
 		for (int i = 0; i < this.graph.nodeCount; i++) {
-			this.nodesData[i * multiplier + offset] = data[i];
+			nodesData[i * multiplier + offset] = data[i];
 		}
 	}
 
@@ -300,7 +322,7 @@ class SpeedyALTData {
 	}
 
 	int getNodeDeadend(int nodeIndex) {
-		return this.deadendData[nodeIndex];
+		return this.deadendData != null ? this.deadendData[nodeIndex] : this.mappedDeadendData.get(nodeIndex);
 	}
 
 	int getLandmarksCount() {
@@ -308,11 +330,33 @@ class SpeedyALTData {
 	}
 
 	double getTravelCostFromLandmark(int nodeIndex, int landmarkIndex) {
-		return this.nodesData[nodeIndex * (this.landmarksCount * 2) + 2 * landmarkIndex];
+		return getNodesValue(nodeIndex * (this.landmarksCount * 2) + 2 * landmarkIndex);
 	}
 
 	double getTravelCostToLandmark(int nodeIndex, int landmarkIndex) {
-		return this.nodesData[nodeIndex * (this.landmarksCount * 2) + 2 * landmarkIndex + 1];
+		return getNodesValue(nodeIndex * (this.landmarksCount * 2) + 2 * landmarkIndex + 1);
+	}
+
+	private double getNodesValue(int index) {
+		return this.nodesData != null ? this.nodesData[index] : this.mappedNodesData.get(index);
+	}
+
+	int[] getLandmarksNodeIndices() {
+		return this.landmarksNodeIndices;
+	}
+
+	/**
+	 * @return a read-only view of the landmarks data, used to write it to a file.
+	 */
+	DoubleBuffer getNodesData() {
+		return (this.nodesData != null ? DoubleBuffer.wrap(this.nodesData) : this.mappedNodesData.duplicate().rewind()).asReadOnlyBuffer();
+	}
+
+	/**
+	 * @return a read-only view of the dead-end data, used to write it to a file.
+	 */
+	IntBuffer getDeadendData() {
+		return (this.deadendData != null ? IntBuffer.wrap(this.deadendData) : this.mappedDeadendData.duplicate().rewind()).asReadOnlyBuffer();
 	}
 
 	public double getMinTravelCostPerLength() {
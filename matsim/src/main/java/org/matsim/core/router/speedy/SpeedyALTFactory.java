@@ -16,18 +16,30 @@ public class SpeedyALTFactory implements LeastCostPathCalculatorFactory {
 
 	private final Map<Network, SpeedyGraph> graphs = new ConcurrentHashMap<>();
 	private final Map<SpeedyGraph, SpeedyALTData> landmarksData = new ConcurrentHashMap<>();
+	private final SpeedyGraphCache cache;
+
+	public SpeedyALTFactory() {
+		this(null);
+	}
+
+	/**
+	 * @param cache if not <code>null</code>, the graphs and landmarks are stored in and read from memory-mapped files.
+	 */
+	public SpeedyALTFactory(SpeedyGraphCache cache) {
+		this.cache = cache;
+	}
 
 	@Override
 	public LeastCostPathCalculator createPathCalculator(Network network, TravelDisutility travelCosts, TravelTime travelTimes) {
 		SpeedyGraph graph = this.graphs.get(network);
 		if (graph == null) {
-			graph = SpeedyGraphBuilder.build(network);
+			graph = this.cache == null ? SpeedyGraphBuilder.build(network) : this.cache.getGraph(network);
 			this.graphs.put(network, graph);
 		}
 		SpeedyALTData landmarks = this.landmarksData.get(graph);
 		if (landmarks == null) {
 			int landmarksCount = Math.min(16, graph.nodeCount);
-			landmarks = new SpeedyALTData(graph, landmarksCount, travelCosts);
+			landmarks = this.cache == null ? new SpeedyALTData(graph, landmarksCount, travelCosts) : this.cache.getALTData(graph, landmarksCount, travelCosts);
 			this.landmarksData.put(graph, landmarks);
 		}
 		return new SpeedyALT(landmarks, travelTimes, travelCosts);
@@ -0,0 +1,263 @@
+package org.matsim.core.router.speedy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A routing algorithm based on a customizable contraction hierarchy (CCH).
+ *
+ * Based on "Customizable Contraction Hierarchies" by Julian Dibbelt, Ben Strasser and Dorothea Wagner, 2016.
+ *
+ * The hierarchy ({@link SpeedyCCHData}) only depends on the structure of the network. The travel costs ({@link SpeedyCCHMetric}) are customized for a number of time slices,
+ * and a query uses the costs of the time slice containing the departure time. This approximates time-dependent routing: the path is optimal for the costs at the middle
+ * of the departure time slice, while the travel time and cost of the returned path are calculated with the exact time-dependent travel times and disutilities. Person- and
+ * vehicle-specific travel disutilities are not considered when searching the path.
+ *
+ * The queries search the elimination tree, i.e. both the forward and the backward search visit all higher ranked nodes reachable from the start resp. end node in
+ * the order of their rank, so no priority queue is required.
+ *
+ * This class is not thread-safe, but the {@link SpeedyCCHData} and {@link SpeedyCCHMetric} can be shared by multiple instances.
+ */
+public class SpeedyCCH implements LeastCostPathCalculator {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyCCH.class);
+
+	private final SpeedyGraph graph;
+	private final SpeedyCCHData cchData;
+	private final Supplier<SpeedyCCHMetric> metric;
+	private final TravelTime tt;
+	private final TravelDisutility td;
+	private final double[] forwardCosts;
+	private final double[] backwardCosts;
+	private final int[] forwardArcs;
+	private final int[] backwardArcs;
+	private final int[] backwardQueryIds;
+	private int currentQuery = 0;
+	private int[] backwardSearchSpace = new int[64];
+	private int[] stack = new int[64];
+
+	SpeedyCCH(SpeedyCCHData cchData, Supplier<SpeedyCCHMetric> metric, TravelTime tt, TravelDisutility td) {
+		this.graph = cchData.graph;
+		this.cchData = cchData;
+		this.metric = metric;
+		this.tt = tt;
+		this.td = td;
+		this.forwardCosts = new double[cchData.nodeCount];
+		this.backwardCosts = new double[cchData.nodeCount];
+		this.forwardArcs = new int[cchData.nodeCount];
+		this.backwardArcs = new int[cchData.nodeCount];
+		this.backwardQueryIds = new int[cchData.nodeCount];
+		Arrays.fill(this.forwardCosts, Double.POSITIVE_INFINITY);
+		Arrays.fill(this.backwardCosts, Double.POSITIVE_INFINITY);
+	}
+
+	@Override
+	public Path calcLeastCostPath(Node startNode, Node endNode, double startTime, Person person, Vehicle vehicle) {
+		SpeedyCCHMetric metric = this.metric.get();
+		int slice = metric.getTimeSlice(startTime);
+		float[] costs = metric.getCosts(slice);
+
+		int startRank = this.cchData.getRank(startNode.getId().index());
+		this.forwardCosts[startRank] = 0;
+		this.forwardArcs[startRank] = -1;
+		for (int rank = startRank; rank >= 0; rank = this.cchData.getParent(rank)) {
+			relax(rank, costs, 0, this.forwardCosts, this.forwardArcs);
+		}
+
+		// with turn restrictions, the end node may be represented by multiple graph nodes
+		int endNodeIndex = endNode.getId().index();
+		int backwardSearchSpaceSize;
+		this.currentQuery++;
+		if (this.currentQuery == Integer.MAX_VALUE) {
+			Arrays.fill(this.backwardQueryIds, 0);
+			this.currentQuery = 1;
+		}
+		if (this.cchData.hasNodeCopies()) {
+			backwardSearchSpaceSize = 0;
+			for (int pos = this.cchData.getFirstCopy(endNodeIndex), last = this.cchData.getLastCopy(endNodeIndex); pos < last; pos++) {
+				int endRank = this.cchData.getCopy(pos);
+				this.backwardCosts[endRank] = 0;
+				this.backwardArcs[endRank] = -1;
+				backwardSearchSpaceSize = collectSearchSpace(endRank, backwardSearchSpaceSize);
+			}
+			Arrays.sort(this.backwardSearchSpace, 0, backwardSearchSpaceSize);
+		} else {
+			int endRank = this.cchData.getRank(endNodeIndex);
+			this.backwardCosts[endRank] = 0;
+			this.backwardArcs[endRank] = -1;
+			backwardSearchSpaceSize = collectSearchSpace(endRank, 0);
+		}
+		for (int i = 0; i < backwardSearchSpaceSize; i++) {
+			relax(this.backwardSearchSpace[i], costs, 1, this.backwardCosts, this.backwardArcs);
+		}
+
+		int meetingRank = -1;
+		double bestCost = Double.POSITIVE_INFINITY;
+		for (int rank = startRank; rank >= 0; rank = this.cchData.getParent(rank)) {
+			double cost = this.forwardCosts[rank] + this.backwardCosts[rank];
+			if (cost < bestCost) {
+				bestCost = cost;
+				meetingRank = rank;
+			}
+		}
+
+		List<Link> links = meetingRank < 0 ? null : unpackPath(meetingRank, costs, metric.getTimeSliceMiddle(slice), metric);
+
+		for (int rank = startRank; rank >= 0; rank = this.cchData.getParent(rank)) {
+			this.forwardCosts[rank] = Double.POSITIVE_INFINITY;
+		}
+		for (int i = 0; i < backwardSearchSpaceSize; i++) {
+			this.backwardCosts[this.backwardSearchSpace[i]] = Double.POSITIVE_INFINITY;
+		}
+
+		if (links == null) {
+			LOG.warn("No route was found from node " + startNode.getId() + " to node " + endNode.getId() + ". Probably, the network is not connected.");
+			LOG.warn("This will now return null, but it may fail later with a NullPointerException.");
+			return null;
+		}
+		return constructPath(startNode, links, startTime, person, vehicle);
+	}
+
+	/**
+	 * Relaxes all upward arcs of the node, in the given direction (0: tail to head, 1: head to tail).
+	 */
+	private void relax(int rank, float[] costs, int direction, double[] nodeCosts, int[] usedArcs) {
+		double cost = nodeCosts[rank];
+		if (cost == Double.POSITIVE_INFINITY) {
+			return;
+		}
+		for (int arc = this.cchData.getFirstUpArc(rank), last = this.cchData.getLastUpArc(rank); arc < last; arc++) {
+			int head = this.cchData.getHead(arc);
+			double newCost = cost + costs[2 * arc + direction];
+			if (newCost < nodeCosts[head]) {
+				nodeCosts[head] = newCost;
+				usedArcs[head] = arc;
+			}
+		}
+	}
+
+	/**
+	 * Adds the node and all its ancestors in the elimination tree to the backward search space, unless they are already contained.
+	 */
+	private int collectSearchSpace(int rank, int size) {
+		for (int r = rank; r >= 0; r = this.cchData.getParent(r)) {
+			if (this.backwardQueryIds[r] == this.currentQuery) {
+				// already collected for another end node, and so are its ancestors
+				break;
+			}
+			this.backwardQueryIds[r] = this.currentQuery;
+			if (size == this.backwardSearchSpace.length) {
+				this.backwardSearchSpace = Arrays.copyOf(this.backwardSearchSpace, size * 2);
+			}
+			this.backwardSearchSpace[size++] = r;
+		}
+		return size;
+	}
+
+	private List<Link> unpackPath(int meetingRank, float[] costs, double time, SpeedyCCHMetric metric) {
+		List<Link> links = new ArrayList<>();
+		// the arcs from the start node to the meeting node, in reverse order
+		int size = 0;
+		for (int rank = meetingRank; this.forwardArcs[rank] >= 0; rank = this.cchData.getTail(this.forwardArcs[rank])) {
+			size = push(size, 2 * this.forwardArcs[rank]);
+		}
+		size = unpack(size, costs, time, metric, links);
+		// the arcs from the meeting node to the end node, reversed so that the first one is on top of the stack
+		for (int rank = meetingRank; this.backwardArcs[rank] >= 0; rank = this.cchData.getTail(this.backwardArcs[rank])) {
+			size = push(size, 2 * this.backwardArcs[rank] + 1);
+		}
+		for (int i = 0, j = size - 1; i < j; i++, j--) {
+			int tmp = this.stack[i];
+			this.stack[i] = this.stack[j];
+			this.stack[j] = tmp;
+		}
+		unpack(size, costs, time, metric, links);
+		return links;
+	}
+
+	/**
+	 * Unpacks the arc-directions on the stack (the top one being the first one of the path) into links.
+	 */
+	private int unpack(int size, float[] costs, double time, SpeedyCCHMetric metric, List<Link> links) {
+		while (size > 0) {
+			int arcDirection = this.stack[--size];
+			int arc = arcDirection >> 1;
+			int direction = arcDirection & 1;
+			float cost = costs[arcDirection];
+			int tail = this.cchData.getTail(arc);
+			int head = this.cchData.getHead(arc);
+
+			// find a lower triangle with the same cost, i.e. a node u connected to tail and head
+			boolean isShortcut = false;
+			int tailPos = this.cchData.getFirstDownArc(tail);
+			int tailLast = this.cchData.getLastDownArc(tail);
+			int headPos = this.cchData.getFirstDownArc(head);
+			int headLast = this.cchData.getLastDownArc(head);
+			while (tailPos < tailLast && headPos < headLast) {
+				int uTail = this.cchData.getDownTail(tailPos);
+				int uHead = this.cchData.getDownTail(headPos);
+				if (uTail < uHead) {
+					tailPos++;
+				} else if (uHead < uTail) {
+					headPos++;
+				} else {
+					int ut = this.cchData.getDownArc(tailPos);
+					int uh = this.cchData.getDownArc(headPos);
+					if (direction == 0 && costs[2 * ut + 1] + costs[2 * uh] == cost) {
+						// tail -> u -> head
+						size = push(size, 2 * uh);
+						size = push(size, 2 * ut + 1);
+						isShortcut = true;
+						break;
+					}
+					if (direction == 1 && costs[2 * uh + 1] + costs[2 * ut] == cost) {
+						// head -> u -> tail
+						size = push(size, 2 * ut);
+						size = push(size, 2 * uh + 1);
+						isShortcut = true;
+						break;
+					}
+					tailPos++;
+					headPos++;
+				}
+			}
+			if (!isShortcut) {
+				links.add(this.graph.getLink(metric.getMinCostLink(arcDirection, time)));
+			}
+		}
+		return size;
+	}
+
+	private int push(int size, int arcDirection) {
+		if (size == this.stack.length) {
+			this.stack = Arrays.copyOf(this.stack, size * 2);
+		}
+		this.stack[size] = arcDirection;
+		return size + 1;
+	}
+
+	private Path constructPath(Node startNode, List<Link> links, double startTime, Person person, Vehicle vehicle) {
+		List<Node> nodes = new ArrayList<>(links.size() + 1);
+		nodes.add(startNode);
+		double time = startTime;
+		double travelCost = 0;
+		for (Link link : links) {
+			travelCost += this.td.getLinkTravelDisutility(link, time, person, vehicle);
+			time += this.tt.getLinkTravelTime(link, time, person, vehicle);
+			nodes.add(link.getToNode());
+		}
+		return new Path(nodes, links, time - startTime, travelCost);
+	}
+}
@@ -0,0 +1,507 @@
+package org.matsim.core.router.speedy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.router.speedy.SpeedyGraph.LinkIterator;
+
+import java.util.Arrays;
+
+/**
+ * The metric-independent part of a customizable contraction hierarchy (CCH), see {@link SpeedyCCH}.
+ * <p>
+ * The nodes are ordered by nested dissection: the nodes are recursively split into two halves by their coordinates, and the nodes of one half connected to the other half
+ * (the separator) get a higher rank than all nodes of both halves. Then, all nodes are contracted in this order, adding a shortcut between all pairs of higher ranked
+ * neighbors of each contracted node. As this does not depend on the travel costs, no witness searches are required and the resulting graph is the same for all metrics.
+ * <p>
+ * The contracted graph is stored as undirected arcs from lower to higher ranked nodes, each with two directions (tail to head, head to tail). The metric is assigned to these
+ * arc-directions by {@link SpeedyCCHMetric}.
+ * <p>
+ * This class is thread-safe and can safely be used by multiple threads.
+ */
+class SpeedyCCHData {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyCCHData.class);
+
+	private final static int LEAF_SIZE = 8;
+
+	final SpeedyGraph graph;
+	final int nodeCount;
+	final int arcCount;
+	private final int[] rankOfNode; // for each graph node index, -1 if not in use
+	private final int[] nodeOfRank;
+	private final int[] parent; // parent in the elimination tree, i.e. the lowest ranked higher neighbor, for each rank
+	// upward arcs, for each rank sorted by the rank of the head
+	private final int[] upFirst;
+	private final int[] upHead;
+	private final int[] arcTail;
+	// downward arcs, for each rank sorted by the rank of the tail
+	private final int[] downFirst;
+	private final int[] downTail;
+	private final int[] downArc;
+	// graph link indices per arc-direction, 2 * arc: tail to head, 2 * arc + 1: head to tail
+	private final int[] linksFirst;
+	private final int[] links;
+	// ranks of all graph nodes representing a network node, only with turn restrictions
+	private final int[] copiesFirst;
+	private final int[] copies;
+
+	public SpeedyCCHData(SpeedyGraph graph) {
+		this.graph = graph;
+		this.rankOfNode = new int[graph.nodeCount];
+		Arrays.fill(this.rankOfNode, -1);
+
+		int[] nodes = new int[graph.nodeCount];
+		int count = 0;
+		for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+			if (graph.getNode(nodeIdx) != null) {
+				nodes[count++] = nodeIdx;
+			}
+		}
+		this.nodeCount = count;
+		this.nodeOfRank = new int[count];
+
+		LOG.info("order nodes...");
+		int[][] neighbors = collectNeighbors(graph);
+		new NestedDissection(graph, neighbors, this.rankOfNode, this.nodeOfRank).dissect(nodes, 0, count, count - 1);
+
+		LOG.info("contract nodes...");
+		this.upFirst = new int[count + 1];
+		this.upHead = contract(neighbors, this.rankOfNode, this.upFirst);
+		this.arcCount = this.upHead.length;
+		this.arcTail = new int[this.arcCount];
+		this.parent = new int[count];
+		for (int rank = 0; rank < count; rank++) {
+			for (int arc = this.upFirst[rank]; arc < this.upFirst[rank + 1]; arc++) {
+				this.arcTail[arc] = rank;
+			}
+			this.parent[rank] = this.upFirst[rank] < this.upFirst[rank + 1] ? this.upHead[this.upFirst[rank]] : -1;
+		}
+
+		this.downFirst = new int[count + 1];
+		this.downTail = new int[this.arcCount];
+		this.downArc = new int[this.arcCount];
+		for (int arc = 0; arc < this.arcCount; arc++) {
+			this.downFirst[this.upHead[arc] + 1]++;
+		}
+		for (int rank = 0; rank < count; rank++) {
+			this.downFirst[rank + 1] += this.downFirst[rank];
+		}
+		int[] downNext = Arrays.copyOf(this.downFirst, count);
+		for (int arc = 0; arc < this.arcCount; arc++) {
+			int pos = downNext[this.upHead[arc]]++;
+			this.downTail[pos] = this.arcTail[arc];
+			this.downArc[pos] = arc;
+		}
+
+		this.linksFirst = new int[2 * this.arcCount + 1];
+		this.links = assignLinks(graph, this.linksFirst);
+
+		if (graph.hasTurnRestrictions()) {
+			this.copiesFirst = new int[graph.nodeCount + 1];
+			this.copies = new int[count];
+			for (int rank = 0; rank < count; rank++) {
+				this.copiesFirst[originalNodeIndex(rank) + 1]++;
+			}
+			for (int i = 0; i < graph.nodeCount; i++) {
+				this.copiesFirst[i + 1] += this.copiesFirst[i];
+			}
+			int[] copiesNext = Arrays.copyOf(this.copiesFirst, graph.nodeCount);
+			for (int rank = 0; rank < count; rank++) {
+				this.copies[copiesNext[originalNodeIndex(rank)]++] = rank;
+			}
+		} else {
+			this.copiesFirst = null;
+			this.copies = null;
+		}
+		LOG.info("contraction hierarchy with " + count + " nodes and " + this.arcCount + " arcs created for " + graph.linkCount + " links.");
+	}
+
+	private int originalNodeIndex(int rank) {
+		return this.graph.getNode(this.nodeOfRank[rank]).getId().index();
+	}
+
+	/**
+	 * Returns the neighbors of each node, ignoring the direction of the links.
+	 */
+	private static int[][] collectNeighbors(SpeedyGraph graph) {
+		int[][] neighbors = new int[graph.nodeCount][];
+		LinkIterator outLI = graph.getOutLinkIterator();
+		LinkIterator inLI = graph.getInLinkIterator();
+		IntList list = new IntList();
+		for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+			if (graph.getNode(nodeIdx) == null) {
+				continue;
+			}
+			list.clear();
+			outLI.reset(nodeIdx);
+			while (outLI.next()) {
+				list.add(outLI.getToNodeIndex());
+			}
+			inLI.reset(nodeIdx);
+			while (inLI.next()) {
+				list.add(inLI.getFromNodeIndex());
+			}
+			neighbors[nodeIdx] = list.toSortedDistinctArray(nodeIdx);
+		}
+		return neighbors;
+	}
+
+	/**
+	 * Contracts all nodes by rank and returns the heads of the upward arcs, including the shortcuts.
+	 */
+	private static int[] contract(int[][] neighbors, int[] rankOfNode, int[] upFirst) {
+		int count = upFirst.length - 1;
+		IntList[] up = new IntList[count];
+		for (int nodeIdx = 0; nodeIdx < neighbors.length; nodeIdx++) {
+			int rank = rankOfNode[nodeIdx];
+			if (rank < 0) {
+				continue;
+			}
+			IntList list = up[rank] = new IntList();
+			for (int neighbor : neighbors[nodeIdx]) {
+				int neighborRank = rankOfNode[neighbor];
+				if (neighborRank > rank) {
+					list.add(neighborRank);
+				}
+			}
+		}
+		// contracting a node connects all its higher neighbors. It is sufficient to add them to the lowest of them, as this one is contracted next of them.
+		int arcCount = 0;
+		int[][] heads = new int[count][];
+		for (int rank = 0; rank < count; rank++) {
+			int[] h = up[rank].toSortedDistinctArray(-1);
+			up[rank] = null;
+			heads[rank] = h;
+			arcCount += h.length;
+			if (h.length > 1) {
+				IntList parentList = up[h[0]];
+				for (int i = 1; i < h.length; i++) {
+					parentList.add(h[i]);
+				}
+			}
+		}
+		int[] upHead = new int[arcCount];
+		int pos = 0;
+		for (int rank = 0; rank < count; rank++) {
+			upFirst[rank] = pos;
+			System.arraycopy(heads[rank], 0, upHead, pos, heads[rank].length);
+			pos += heads[rank].length;
+		}
+		upFirst[count] = pos;
+		return upHead;
+	}
+
+	private int[] assignLinks(SpeedyGraph graph, int[] linksFirst) {
+		LinkIterator outLI = graph.getOutLinkIterator();
+		for (int pass = 0; pass < 2; pass++) {
+			int[] links = pass == 0 ? null : new int[linksFirst[linksFirst.length - 1]];
+			int[] next = pass == 0 ? null : Arrays.copyOf(linksFirst, linksFirst.length - 1);
+			for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+				outLI.reset(nodeIdx);
+				while (outLI.next()) {
+					int fromRank = this.rankOfNode[outLI.getFromNodeIndex()];
+					int toRank = this.rankOfNode[outLI.getToNodeIndex()];
+					if (fromRank == toRank) {
+						continue; // loop links are never part of a least cost path
+					}
+					int slot = fromRank < toRank ? 2 * findArc(fromRank, toRank) : 2 * findArc(toRank, fromRank) + 1;
+					if (pass == 0) {
+						linksFirst[slot + 1]++;
+					} else {
+						links[next[slot]++] = outLI.getLinkIndex();
+					}
+				}
+			}
+			if (pass == 0) {
+				for (int i = 0; i < linksFirst.length - 1; i++) {
+					linksFirst[i + 1] += linksFirst[i];
+				}
+			} else {
+				return links;
+			}
+		}
+		throw new IllegalStateException();
+	}
+
+	/**
+	 * @return the index of the arc from <code>tail</code> to <code>head</code>, which must have a higher rank, or -1 if the nodes are not connected.
+	 */
+	int findArc(int tail, int head) {
+		int index = Arrays.binarySearch(this.upHead, this.upFirst[tail], this.upFirst[tail + 1], head);
+		return index < 0 ? -1 : index;
+	}
+
+	int getRank(int nodeIndex) {
+		return this.rankOfNode[nodeIndex];
+	}
+
+	int getNodeIndex(int rank) {
+		return this.nodeOfRank[rank];
+	}
+
+	int getParent(int rank) {
+		return this.parent[rank];
+	}
+
+	int getFirstUpArc(int rank) {
+		return this.upFirst[rank];
+	}
+
+	int getLastUpArc(int rank) {
+		return this.upFirst[rank + 1];
+	}
+
+	int getHead(int arc) {
+		return this.upHead[arc];
+	}
+
+	int getTail(int arc) {
+		return this.arcTail[arc];
+	}
+
+	int getFirstDownArc(int rank) {
+		return this.downFirst[rank];
+	}
+
+	int getLastDownArc(int rank) {
+		return this.downFirst[rank + 1];
+	}
+
+	/**
+	 * @param pos a position between {@link #getFirstDownArc(int)} and {@link #getLastDownArc(int)}
+	 */
+	int getDownTail(int pos) {
+		return this.downTail[pos];
+	}
+
+	/**
+	 * @param pos a position between {@link #getFirstDownArc(int)} and {@link #getLastDownArc(int)}
+	 */
+	int getDownArc(int pos) {
+		return this.downArc[pos];
+	}
+
+	int getFirstLink(int arcDirection) {
+		return this.linksFirst[arcDirection];
+	}
+
+	int getLastLink(int arcDirection) {
+		return this.linksFirst[arcDirection + 1];
+	}
+
+	int getLink(int pos) {
+		return this.links[pos];
+	}
+
+	boolean hasNodeCopies() {
+		return this.copies != null;
+	}
+
+	/**
+	 * Only available with turn restrictions: the ranks of all graph nodes representing the network node with the given index are stored between
+	 * {@link #getFirstCopy(int)} and {@link #getLastCopy(int)}.
+	 */
+	int getFirstCopy(int nodeIndex) {
+		return this.copiesFirst[nodeIndex];
+	}
+
+	int getLastCopy(int nodeIndex) {
+		return this.copiesFirst[nodeIndex + 1];
+	}
+
+	int getCopy(int pos) {
+		return this.copies[pos];
+	}
+
+	private static final class NestedDissection {
+		private final SpeedyGraph graph;
+		private final int[][] neighbors;
+		private final int[] rankOfNode;
+		private final int[] nodeOfRank;
+		private final int[] stamps;
+		private final double[] x;
+		private final double[] y;
+		private int stamp = 0;
+
+		NestedDissection(SpeedyGraph graph, int[][] neighbors, int[] rankOfNode, int[] nodeOfRank) {
+			this.graph = graph;
+			this.neighbors = neighbors;
+			this.rankOfNode = rankOfNode;
+			this.nodeOfRank = nodeOfRank;
+			this.stamps = new int[graph.nodeCount];
+			this.x = new double[graph.nodeCount];
+			this.y = new double[graph.nodeCount];
+			for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+				Node node = graph.getNode(nodeIdx);
+				if (node != null) {
+					Coord coord = node.getCoord();
+					this.x[nodeIdx] = coord.getX();
+					this.y[nodeIdx] = coord.getY();
+				}
+			}
+		}
+
+		/**
+		 * Assigns the ranks <code>highestRank - (to - from) + 1</code> to <code>highestRank</code> to the nodes in <code>nodes[from, to)</code>.
+		 */
+		void dissect(int[] nodes, int from, int to, int highestRank) {
+			int size = to - from;
+			if (size <= LEAF_SIZE) {
+				for (int i = from; i < to; i++) {
+					setRank(nodes[i], highestRank--);
+				}
+				return;
+			}
+			double minX = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY;
+			double maxY = Double.NEGATIVE_INFINITY;
+			for (int i = from; i < to; i++) {
+				int node = nodes[i];
+				minX = Math.min(minX, this.x[node]);
+				maxX = Math.max(maxX, this.x[node]);
+				minY = Math.min(minY, this.y[node]);
+				maxY = Math.max(maxY, this.y[node]);
+			}
+			double[] keys = (maxX - minX) >= (maxY - minY) ? this.x : this.y;
+			int mid = from + size / 2;
+			select(nodes, from, to - 1, mid, keys);
+
+			int stampA = ++this.stamp;
+			int stampB = ++this.stamp;
+			for (int i = from; i < to; i++) {
+				this.stamps[nodes[i]] = i < mid ? stampA : stampB;
+			}
+			int boundaryA = countBoundary(nodes, from, mid, stampB);
+			int boundaryB = countBoundary(nodes, mid, to, stampA);
+
+			// move the separator to the end of its half, and assign the highest ranks to it
+			int separatorStart;
+			int separatorEnd;
+			if (boundaryA <= boundaryB) {
+				separatorStart = moveBoundaryToEnd(nodes, from, mid, stampB);
+				separatorEnd = mid;
+			} else {
+				separatorStart = moveBoundaryToEnd(nodes, mid, to, stampA);
+				separatorEnd = to;
+			}
+			for (int i = separatorStart; i < separatorEnd; i++) {
+				setRank(nodes[i], highestRank--);
+			}
+			if (separatorEnd == mid) {
+				dissect(nodes, mid, to, highestRank);
+				dissect(nodes, from, separatorStart, highestRank - (to - mid));
+			} else {
+				dissect(nodes, mid, separatorStart, highestRank);
+				dissect(nodes, from, mid, highestRank - (separatorStart - mid));
+			}
+		}
+
+		private void setRank(int node, int rank) {
+			this.rankOfNode[node] = rank;
+			this.nodeOfRank[rank] = node;
+		}
+
+		private int countBoundary(int[] nodes, int from, int to, int otherStamp) {
+			int count = 0;
+			for (int i = from; i < to; i++) {
+				if (isBoundary(nodes[i], otherStamp)) {
+					count++;
+				}
+			}
+			return count;
+		}
+
+		private boolean isBoundary(int node, int otherStamp) {
+			for (int neighbor : this.neighbors[node]) {
+				if (this.stamps[neighbor] == otherStamp) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private int moveBoundaryToEnd(int[] nodes, int from, int to, int otherStamp) {
+			int end = to;
+			int i = from;
+			while (i < end) {
+				if (isBoundary(nodes[i], otherStamp)) {
+					end--;
+					int tmp = nodes[i];
+					nodes[i] = nodes[end];
+					nodes[end] = tmp;
+				} else {
+					i++;
+				}
+			}
+			return end;
+		}
+
+		/**
+		 * Partially sorts <code>nodes[left, right]</code>, so that the node at position <code>k</code> is at its sorted position, with nodes with smaller or equal keys
+		 * before and nodes with larger or equal keys after it.
+		 */
+		private static void select(int[] nodes, int left, int right, int k, double[] keys) {
+			while (right > left) {
+				double pivot = keys[nodes[(left + right) >>> 1]];
+				int i = left;
+				int j = right;
+				while (i <= j) {
+					while (keys[nodes[i]] < pivot) {
+						i++;
+					}
+					while (keys[nodes[j]] > pivot) {
+						j--;
+					}
+					if (i <= j) {
+						int tmp = nodes[i];
+						nodes[i] = nodes[j];
+						nodes[j] = tmp;
+						i++;
+						j--;
+					}
+				}
+				if (k <= j) {
+					right = j;
+				} else if (k >= i) {
+					left = i;
+				} else {
+					return;
+				}
+			}
+		}
+	}
+
+	private static final class IntList {
+		private int[] values = new int[8];
+		private int size = 0;
+
+		void add(int value) {
+			if (this.size == this.values.length) {
+				this.values = Arrays.copyOf(this.values, this.size * 2);
+			}
+			this.values[this.size++] = value;
+		}
+
+		void clear() {
+			this.size = 0;
+		}
+
+		/**
+		 * @param excluded a value that is not contained in the returned array
+		 */
+		int[] toSortedDistinctArray(int excluded) {
+			Arrays.sort(this.values, 0, this.size);
+			int count = 0;
+			for (int i = 0; i < this.size; i++) {
+				int value = this.values[i];
+				if (value != excluded && (count == 0 || this.values[count - 1] != value)) {
+					this.values[count++] = value;
+				}
+			}
+			return Arrays.copyOf(this.values, count);
+		}
+	}
+}
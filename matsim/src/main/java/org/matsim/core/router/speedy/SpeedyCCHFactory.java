@@ -0,0 +1,109 @@
+package org.matsim.core.router.speedy;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.controler.events.ReplanningEvent;
+import org.matsim.core.controler.listener.ReplanningListener;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates {@link SpeedyCCH} instances. The contraction hierarchy of each network is created once and shared by all instances. The travel costs are customized
+ * separately for each combination of network, travel disutility and travel time passed to {@link #createPathCalculator(Network, TravelDisutility, TravelTime)},
+ * so instances created with the same objects share them. They are customized lazily at the first routing request, and again in each iteration before the
+ * replanning.
+ */
+public class SpeedyCCHFactory implements LeastCostPathCalculatorFactory, ReplanningListener {
+
+	public static final double DEFAULT_TIME_SLICE_SIZE = 3600;
+	public static final int DEFAULT_TIME_SLICES_COUNT = 30;
+
+	private final double timeSliceSize;
+	private final int timeSlicesCount;
+	private final int numberOfThreads;
+	private final Map<Network, SpeedyGraph> graphs = new ConcurrentHashMap<>();
+	private final Map<SpeedyGraph, SpeedyCCHData> cchData = new ConcurrentHashMap<>();
+	private final Map<MetricKey, CustomizableMetric> metrics = new ConcurrentHashMap<>();
+
+	public SpeedyCCHFactory() {
+		this(DEFAULT_TIME_SLICE_SIZE, DEFAULT_TIME_SLICES_COUNT, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param timeSliceSize the duration of the time slices, in seconds.
+	 * @param timeSlicesCount the number of time slices. The last time slice is also used for all later departures.
+	 * @param numberOfThreads the number of threads used to customize the travel costs.
+	 */
+	public SpeedyCCHFactory(double timeSliceSize, int timeSlicesCount, int numberOfThreads) {
+		this.timeSliceSize = timeSliceSize;
+		this.timeSlicesCount = timeSlicesCount;
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
+
+	@Override
+	public LeastCostPathCalculator createPathCalculator(Network network, TravelDisutility travelCosts, TravelTime travelTimes) {
+		SpeedyGraph graph = this.graphs.get(network);
+		if (graph == null) {
+			graph = SpeedyGraphBuilder.build(network);
+			this.graphs.put(network, graph);
+		}
+		SpeedyCCHData cchData = this.cchData.computeIfAbsent(graph, SpeedyCCHData::new);
+		CustomizableMetric metric = this.metrics.computeIfAbsent(new MetricKey(graph, travelCosts, travelTimes), key -> new CustomizableMetric(cchData, travelCosts));
+		return new SpeedyCCH(cchData, metric::get, travelTimes, travelCosts);
+	}
+
+	/**
+	 * Discards the customized travel costs, so they are customized again with the current travel disutilities at the next routing request.
+	 */
+	public void resetTravelCosts() {
+		// combinations that were not used since the last reset most likely belong to routers that are not used anymore. Their instances still work, but
+		// no longer share their travel costs with new instances.
+		this.metrics.values().removeIf(metric -> !metric.reset());
+	}
+
+	@Override
+	public void notifyReplanning(ReplanningEvent event) {
+		resetTravelCosts();
+	}
+
+	private record MetricKey(SpeedyGraph graph, TravelDisutility travelCosts, TravelTime travelTimes) {
+	}
+
+	private final class CustomizableMetric {
+		private final SpeedyCCHData cchData;
+		private final TravelDisutility travelCosts;
+		private volatile SpeedyCCHMetric metric = null;
+
+		CustomizableMetric(SpeedyCCHData cchData, TravelDisutility travelCosts) {
+			this.cchData = cchData;
+			this.travelCosts = travelCosts;
+		}
+
+		SpeedyCCHMetric get() {
+			SpeedyCCHMetric metric = this.metric;
+			if (metric == null) {
+				synchronized (this) {
+					metric = this.metric;
+					if (metric == null) {
+						metric = new SpeedyCCHMetric(this.cchData, this.travelCosts, SpeedyCCHFactory.this.timeSliceSize, SpeedyCCHFactory.this.timeSlicesCount, SpeedyCCHFactory.this.numberOfThreads);
+						this.metric = metric;
+					}
+				}
+			}
+			return metric;
+		}
+
+		/**
+		 * @return <code>true</code> if the travel costs were customized since the last reset.
+		 */
+		boolean reset() {
+			boolean wasCustomized = this.metric != null;
+			this.metric = null;
+			return wasCustomized;
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package org.matsim.core.router.speedy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.core.router.util.TravelDisutility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The travel costs of all arcs of a {@link SpeedyCCHData customizable contraction hierarchy}, for a number of time slices.
+ * <p>
+ * For each time slice, the travel disutilities of the links are evaluated once at the middle of the slice, and the costs of the shortcuts are derived from them by
+ * processing all lower triangles of the hierarchy in the order of the node ranks. The travel disutilities are evaluated by the thread creating the metric, as
+ * they are not necessarily thread-safe, and without a person, so they must not depend on it. Only the shortcuts of the time slices are derived in parallel.
+ * <p>
+ * The costs are stored as float to reduce the memory consumption. The costs of the paths returned by {@link SpeedyCCH} are calculated with the exact travel disutilities.
+ * <p>
+ * This class is thread-safe and can safely be used by multiple threads.
+ */
+class SpeedyCCHMetric {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyCCHMetric.class);
+
+	private final SpeedyCCHData data;
+	private final TravelDisutility travelCosts;
+	private final double timeSliceSize;
+	private final float[][] costs; // per time slice: 2 values per arc (tail to head, head to tail)
+
+	SpeedyCCHMetric(SpeedyCCHData data, TravelDisutility travelCosts, double timeSliceSize, int timeSlicesCount, int numberOfThreads) {
+		this.data = data;
+		this.travelCosts = travelCosts;
+		this.timeSliceSize = timeSliceSize;
+		this.costs = new float[timeSlicesCount][];
+
+		LOG.info("customize contraction hierarchy for " + timeSlicesCount + " time slices...");
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(numberOfThreads, timeSlicesCount));
+		List<Future<float[]>> futures = new ArrayList<>();
+		for (int slice = 0; slice < timeSlicesCount; slice++) {
+			float[] costs = getArcCosts((slice + 0.5) * timeSliceSize);
+			futures.add(executor.submit(() -> customize(costs)));
+		}
+		try {
+			for (int slice = 0; slice < timeSlicesCount; slice++) {
+				this.costs[slice] = futures.get(slice).get();
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private float[] getArcCosts(double time) {
+		SpeedyCCHData data = this.data;
+		float[] costs = new float[2 * data.arcCount];
+		for (int arcDirection = 0; arcDirection < costs.length; arcDirection++) {
+			int linkIdx = getMinCostLink(arcDirection, time);
+			costs[arcDirection] = linkIdx < 0 ? Float.POSITIVE_INFINITY : (float) this.travelCosts.getLinkTravelDisutility(data.graph.getLink(linkIdx), time, null, null);
+		}
+		return costs;
+	}
+
+	/**
+	 * Derives the costs of the shortcuts from the costs of the links, in place.
+	 */
+	private float[] customize(float[] costs) {
+		SpeedyCCHData data = this.data;
+		// process all lower triangles (u, v, w) with rank(u) < rank(v) < rank(w). The arcs from u are final once u is processed.
+		for (int u = 0; u < data.nodeCount; u++) {
+			int last = data.getLastUpArc(u);
+			for (int uv = data.getFirstUpArc(u); uv < last; uv++) {
+				int v = data.getHead(uv);
+				float vToU = costs[2 * uv + 1];
+				float uToV = costs[2 * uv];
+				// all higher neighbors of u are also neighbors of v, and both lists are sorted by rank
+				int vw = data.getFirstUpArc(v);
+				for (int uw = uv + 1; uw < last; uw++) {
+					int w = data.getHead(uw);
+					while (data.getHead(vw) != w) {
+						vw++;
+					}
+					float vToW = vToU + costs[2 * uw];
+					if (vToW < costs[2 * vw]) {
+						costs[2 * vw] = vToW;
+					}
+					float wToV = costs[2 * uw + 1] + uToV;
+					if (wToV < costs[2 * vw + 1]) {
+						costs[2 * vw + 1] = wToV;
+					}
+				}
+			}
+		}
+		return costs;
+	}
+
+	/**
+	 * @return the index of the link with the minimal cost among the links represented by the arc-direction, or -1 if there are none.
+	 */
+	int getMinCostLink(int arcDirection, double time) {
+		SpeedyCCHData data = this.data;
+		int first = data.getFirstLink(arcDirection);
+		int last = data.getLastLink(arcDirection);
+		if (last - first == 1) {
+			return data.getLink(first);
+		}
+		int bestLinkIdx = -1;
+		double minCost = Double.POSITIVE_INFINITY;
+		for (int pos = first; pos < last; pos++) {
+			int linkIdx = data.getLink(pos);
+			double cost = this.travelCosts.getLinkTravelDisutility(data.graph.getLink(linkIdx), time, null, null);
+			if (bestLinkIdx < 0 || cost < minCost) {
+				bestLinkIdx = linkIdx;
+				minCost = cost;
+			}
+		}
+		return bestLinkIdx;
+	}
+
+	int getTimeSlice(double time) {
+		int slice = (int) (time / this.timeSliceSize);
+		return Math.max(0, Math.min(slice, this.costs.length - 1));
+	}
+
+	double getTimeSliceMiddle(int slice) {
+		return (slice + 0.5) * this.timeSliceSize;
+	}
+
+	float[] getCosts(int slice) {
+		return this.costs[slice];
+	}
+
+	int getTimeSlicesCount() {
+		return this.costs.length;
+	}
+}
@@ -15,12 +15,24 @@ import java.util.concurrent.ConcurrentHashMap;
 public class SpeedyDijkstraFactory implements LeastCostPathCalculatorFactory {
 
 	private final Map<Network, SpeedyGraph> graphs = new ConcurrentHashMap<>();
+	private final SpeedyGraphCache cache;
+
+	public SpeedyDijkstraFactory() {
+		this(null);
+	}
+
+	/**
+	 * @param cache if not <code>null</code>, the graphs are stored in and read from memory-mapped files.
+	 */
+	public SpeedyDijkstraFactory(SpeedyGraphCache cache) {
+		this.cache = cache;
+	}
 
 	@Override
 	public LeastCostPathCalculator createPathCalculator(Network network, TravelDisutility travelCosts, TravelTime travelTimes) {
 		SpeedyGraph graph = graphs.get(network);
 		if (graph == null) {
-			graph = SpeedyGraphBuilder.build(network);
+			graph = this.cache == null ? SpeedyGraphBuilder.build(network) : this.cache.getGraph(network);
 			graphs.put(network, graph);
 		}
 		return new SpeedyDijkstra(graph, travelTimes, travelCosts);
@@ -5,6 +5,7 @@ import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.network.Node;
 
+import java.nio.IntBuffer;
 import java.util.Arrays;
 
 /**
@@ -18,7 +19,9 @@ import java.util.Arrays;
  * We use simple int-arrays (int[]) to store the data. This should provide fast and thread-safe read-only access, but limits the number of nodes and links in the network to (Integer.MAX_VALUE/2 =
  * 1.073.741.823) nodes and (Integer.MAX_VALUE/6 = 357.913.941) links. I hope that for the foreseeable future, these limits are high enough.
  * <p>
- * This class is thread-safe, allowing a single graph to be used by multiple threads.
+ * This class is thread-safe, allowing a single graph to be used by multiple threads. Alternatively to the int-arrays, the int-data can be stored outside of the Java heap in a
+ * memory-mapped file (as {@link IntBuffer}), see {@link SpeedyGraphCache}, so that the graph can be shared by multiple instances and runs without being built again. Graphs built
+ * in memory always use the int-arrays.
  *
  * @author mrieser
  */
@@ -52,13 +55,26 @@ public class SpeedyGraph {
     final int linkCount;
     private final int[] nodeData;
     private final int[] linkData;
+    // only used instead of the arrays if the data is memory-mapped
+    private final IntBuffer mappedNodeData;
+    private final IntBuffer mappedLinkData;
     private final Link[] links;
     private final Node[] nodes;
 		private final boolean hasTurnRestrictions;
 
 	SpeedyGraph(int[] nodeData, int[] linkData, Node[] nodes, Link[] links, boolean hasTurnRestrictions) {
+		this(nodeData, linkData, null, null, nodes, links, hasTurnRestrictions);
+	}
+
+	SpeedyGraph(IntBuffer mappedNodeData, IntBuffer mappedLinkData, Node[] nodes, Link[] links, boolean hasTurnRestrictions) {
+		this(null, null, mappedNodeData, mappedLinkData, nodes, links, hasTurnRestrictions);
+	}
+
+	private SpeedyGraph(int[] nodeData, int[] linkData, IntBuffer mappedNodeData, IntBuffer mappedLinkData, Node[] nodes, Link[] links, boolean hasTurnRestrictions) {
 		this.nodeData = nodeData;
 		this.linkData = linkData;
+		this.mappedNodeData = mappedNodeData;
+		this.mappedLinkData = mappedLinkData;
 		this.nodes = nodes;
 		this.links = links;
 		this.nodeCount = this.nodes.length;
@@ -86,6 +102,28 @@ public class SpeedyGraph {
 			return this.hasTurnRestrictions;
 		}
 
+    int getNodeValue(int index) {
+        return this.nodeData != null ? this.nodeData[index] : this.mappedNodeData.get(index);
+    }
+
+    int getLinkValue(int index) {
+        return this.linkData != null ? this.linkData[index] : this.mappedLinkData.get(index);
+    }
+
+    /**
+     * @return a read-only view of the node data, used to write it to a file.
+     */
+    IntBuffer getNodeData() {
+        return (this.nodeData != null ? IntBuffer.wrap(this.nodeData) : this.mappedNodeData.duplicate().rewind()).asReadOnlyBuffer();
+    }
+
+    /**
+     * @return a read-only view of the link data, used to write it to a file.
+     */
+    IntBuffer getLinkData() {
+        return (this.linkData != null ? IntBuffer.wrap(this.linkData) : this.mappedLinkData.duplicate().rewind()).asReadOnlyBuffer();
+    }
+
     public interface LinkIterator {
 
         void reset(int nodeIdx);
@@ -129,22 +167,22 @@ public class SpeedyGraph {
 
         @Override
         final public int getFromNodeIndex() {
-            return this.graph.linkData[this.linkIdx * LINK_SIZE + 2];
+            return this.graph.getLinkValue(this.linkIdx * LINK_SIZE + 2);
         }
 
         @Override
         final public int getToNodeIndex() {
-            return this.graph.linkData[this.linkIdx * LINK_SIZE + 3];
+            return this.graph.getLinkValue(this.linkIdx * LINK_SIZE + 3);
         }
 
         @Override
         final public double getLength() {
-            return this.graph.linkData[this.linkIdx * LINK_SIZE + 4] / 100.0;
+            return this.graph.getLinkValue(this.linkIdx * LINK_SIZE + 4) / 100.0;
         }
 
         @Override
         final public double getFreespeedTravelTime() {
-            return this.graph.linkData[this.linkIdx * LINK_SIZE + 5] / 100.0;
+            return this.graph.getLinkValue(this.linkIdx * LINK_SIZE + 5) / 100.0;
         }
     }
 
@@ -160,9 +198,9 @@ public class SpeedyGraph {
                 return false;
             }
             if (this.linkIdx < 0) {
-                this.linkIdx = graph.nodeData[this.nodeIdx * NODE_SIZE];
+                this.linkIdx = graph.getNodeValue(this.nodeIdx * NODE_SIZE);
             } else {
-                this.linkIdx = graph.linkData[this.linkIdx * LINK_SIZE];
+                this.linkIdx = graph.getLinkValue(this.linkIdx * LINK_SIZE);
             }
             if (this.linkIdx < 0) {
                 this.nodeIdx = -1;
@@ -184,9 +222,9 @@ public class SpeedyGraph {
                 return false;
             }
             if (this.linkIdx < 0) {
-                this.linkIdx = graph.nodeData[this.nodeIdx * NODE_SIZE + 1];
+                this.linkIdx = graph.getNodeValue(this.nodeIdx * NODE_SIZE + 1);
             } else {
-                this.linkIdx = graph.linkData[this.linkIdx * LINK_SIZE + 1];
+                this.linkIdx = graph.getLinkValue(this.linkIdx * LINK_SIZE + 1);
             }
             if (this.linkIdx < 0) {
                 this.nodeIdx = -1;
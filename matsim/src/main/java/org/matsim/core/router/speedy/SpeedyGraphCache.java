@@ -0,0 +1,310 @@
+package org.matsim.core.router.speedy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.DisallowedNextLinks;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.utils.io.CacheFiles;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Stores {@link SpeedyGraph}s and {@link SpeedyALTData} in memory-mapped files in a directory.
+ * <p>
+ * If a file for the requested network (or graph and landmarks) already exists, it is mapped read-only instead of building the data again, so the landmarks do not have to be
+ * calculated again in later runs on the same network. The int- and double-data of the graph and the landmarks is then not stored on the Java heap, and all instances using the
+ * same file share the same memory, as the operating system only keeps one copy of a mapped file in its page cache. Only the references to the {@link Node} and {@link Link}
+ * objects remain on the heap.
+ * <p>
+ * The file names contain a fingerprint of the network, including the indices of the node and link ids, resp. of the graph and the minimum travel disutilities of the links. See
+ * {@link CacheFiles} for how changed inputs and concurrent runs are handled.
+ * <p>
+ * The data is stored in the native byte order of the platform, which is therefore also part of the fingerprint.
+ * <p>
+ * A single mapped section is limited to 2 GB. Landmarks data larger than this is kept on the heap and not written to a file.
+ */
+public final class SpeedyGraphCache {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyGraphCache.class);
+
+	private final static int GRAPH_MAGIC = 0x53504752; // SPGR
+	private final static int ALT_MAGIC = 0x5350414C; // SPAL
+	// version 2: data is stored in the native byte order
+	private final static int VERSION = 2;
+	private final static int HEADER_SIZE = 64;
+
+	private final Path directory;
+
+	public SpeedyGraphCache(Path directory) {
+		this.directory = directory;
+	}
+
+	public SpeedyGraph getGraph(Network network) {
+		Path file = this.directory.resolve("graph-" + fingerprint(network) + ".bin");
+		if (Files.exists(file)) {
+			LOG.info("mapping routing graph from " + file);
+			SpeedyGraph graph = readGraph(file, network);
+			if (graph != null) {
+				return graph;
+			}
+		}
+		SpeedyGraph graph = SpeedyGraphBuilder.build(network);
+		LOG.info("writing routing graph to " + file);
+		writeGraph(graph, file);
+		// use the mapped data, so the arrays of the built graph can be garbage collected
+		SpeedyGraph mappedGraph = readGraph(file, network);
+		return mappedGraph == null ? graph : mappedGraph;
+	}
+
+	SpeedyALTData getALTData(SpeedyGraph graph, int landmarksCount, TravelDisutility travelCosts) {
+		long nodesDataBytes = (long) graph.nodeCount * landmarksCount * 2 * Double.BYTES;
+		if (nodesDataBytes > Integer.MAX_VALUE) {
+			LOG.warn("landmarks data is too large to be memory-mapped, keeping it on the heap.");
+			return new SpeedyALTData(graph, landmarksCount, travelCosts);
+		}
+		Path file = this.directory.resolve("landmarks-" + fingerprint(graph, landmarksCount, travelCosts) + ".bin");
+		if (Files.exists(file)) {
+			LOG.info("mapping landmarks from " + file);
+			return readALTData(file, graph);
+		}
+		SpeedyALTData data = new SpeedyALTData(graph, landmarksCount, travelCosts);
+		LOG.info("writing landmarks to " + file);
+		writeALTData(data, file);
+		return readALTData(file, graph);
+	}
+
+	private static void writeGraph(SpeedyGraph graph, Path file) {
+		long[] offsets = graphSectionOffsets(graph.nodeCount, graph.linkCount);
+		writeAtomically(file, offsets[offsets.length - 1], channel -> {
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+			header.putInt(GRAPH_MAGIC).putInt(VERSION).putInt(graph.nodeCount).putInt(graph.linkCount).putInt(graph.hasTurnRestrictions() ? 1 : 0);
+
+			IntBuffer nodeIds = map(channel, FileChannel.MapMode.READ_WRITE, offsets[0], offsets[1] - offsets[0]).asIntBuffer();
+			for (int i = 0; i < graph.nodeCount; i++) {
+				Node node = graph.getNode(i);
+				nodeIds.put(node == null ? -1 : node.getId().index());
+			}
+			IntBuffer linkIds = map(channel, FileChannel.MapMode.READ_WRITE, offsets[1], offsets[2] - offsets[1]).asIntBuffer();
+			for (int i = 0; i < graph.linkCount; i++) {
+				Link link = graph.getLink(i);
+				linkIds.put(link == null ? -1 : link.getId().index());
+			}
+			map(channel, FileChannel.MapMode.READ_WRITE, offsets[2], offsets[3] - offsets[2]).asIntBuffer().put(graph.getNodeData());
+			map(channel, FileChannel.MapMode.READ_WRITE, offsets[3], offsets[4] - offsets[3]).asIntBuffer().put(graph.getLinkData());
+		});
+	}
+
+	/**
+	 * @return the graph, or <code>null</code> if the file does not match the network.
+	 */
+	private SpeedyGraph readGraph(Path file, Network network) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			checkHeader(header, GRAPH_MAGIC, file);
+			int nodeCount = header.getInt();
+			int linkCount = header.getInt();
+			boolean hasTurnRestrictions = header.getInt() != 0;
+			long[] offsets = graphSectionOffsets(nodeCount, linkCount);
+
+			Node[] nodesByIndex = new Node[Id.getNumberOfIds(Node.class)];
+			for (Node node : network.getNodes().values()) {
+				nodesByIndex[node.getId().index()] = node;
+			}
+			Link[] linksByIndex = new Link[Id.getNumberOfIds(Link.class)];
+			for (Link link : network.getLinks().values()) {
+				linksByIndex[link.getId().index()] = link;
+			}
+
+			Node[] nodes = new Node[nodeCount];
+			IntBuffer nodeIds = map(channel, FileChannel.MapMode.READ_ONLY, offsets[0], offsets[1] - offsets[0]).asIntBuffer();
+			for (int i = 0; i < nodeCount; i++) {
+				int index = nodeIds.get(i);
+				if (index >= 0) {
+					nodes[i] = index < nodesByIndex.length ? nodesByIndex[index] : null;
+					if (nodes[i] == null) {
+						LOG.warn("routing graph in " + file + " does not match the network, building it again.");
+						return null;
+					}
+				}
+			}
+			Link[] links = new Link[linkCount];
+			IntBuffer linkIds = map(channel, FileChannel.MapMode.READ_ONLY, offsets[1], offsets[2] - offsets[1]).asIntBuffer();
+			for (int i = 0; i < linkCount; i++) {
+				int index = linkIds.get(i);
+				if (index >= 0) {
+					links[i] = index < linksByIndex.length ? linksByIndex[index] : null;
+					if (links[i] == null) {
+						LOG.warn("routing graph in " + file + " does not match the network, building it again.");
+						return null;
+					}
+				}
+			}
+			IntBuffer nodeData = map(channel, FileChannel.MapMode.READ_ONLY, offsets[2], offsets[3] - offsets[2]).asIntBuffer();
+			IntBuffer linkData = map(channel, FileChannel.MapMode.READ_ONLY, offsets[3], offsets[4] - offsets[3]).asIntBuffer();
+			return new SpeedyGraph(nodeData, linkData, nodes, links, hasTurnRestrictions);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static long[] graphSectionOffsets(int nodeCount, int linkCount) {
+		// node ids, link ids, node data, link data, end of file
+		long[] offsets = new long[5];
+		offsets[0] = HEADER_SIZE;
+		offsets[1] = offsets[0] + (long) nodeCount * Integer.BYTES;
+		offsets[2] = offsets[1] + (long) linkCount * Integer.BYTES;
+		offsets[3] = offsets[2] + (long) nodeCount * SpeedyGraph.NODE_SIZE * Integer.BYTES;
+		offsets[4] = offsets[3] + (long) linkCount * SpeedyGraph.LINK_SIZE * Integer.BYTES;
+		return offsets;
+	}
+
+	private static void writeALTData(SpeedyALTData data, Path file) {
+		int[] landmarks = data.getLandmarksNodeIndices();
+		long[] offsets = altSectionOffsets(data.graph.nodeCount, landmarks.length);
+		writeAtomically(file, offsets[offsets.length - 1], channel -> {
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+			header.putInt(ALT_MAGIC).putInt(VERSION).putInt(data.graph.nodeCount).putInt(landmarks.length).putDouble(data.getMinTravelCostPerLength());
+
+			map(channel, FileChannel.MapMode.READ_WRITE, offsets[0], offsets[1] - offsets[0]).asIntBuffer().put(landmarks);
+			map(channel, FileChannel.MapMode.READ_WRITE, offsets[1], offsets[2] - offsets[1]).asIntBuffer().put(data.getDeadendData());
+			map(channel, FileChannel.MapMode.READ_WRITE, offsets[2], offsets[3] - offsets[2]).asDoubleBuffer().put(data.getNodesData());
+		});
+	}
+
+	private SpeedyALTData readALTData(Path file, SpeedyGraph graph) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			checkHeader(header, ALT_MAGIC, file);
+			int nodeCount = header.getInt();
+			int landmarksCount = header.getInt();
+			double minTravelCostPerLength = header.getDouble();
+			if (nodeCount != graph.nodeCount) {
+				throw new IllegalArgumentException("landmarks in " + file + " do not match the routing graph.");
+			}
+			long[] offsets = altSectionOffsets(nodeCount, landmarksCount);
+
+			int[] landmarks = new int[landmarksCount];
+			map(channel, FileChannel.MapMode.READ_ONLY, offsets[0], offsets[1] - offsets[0]).asIntBuffer().get(landmarks);
+			IntBuffer deadendData = map(channel, FileChannel.MapMode.READ_ONLY, offsets[1], offsets[2] - offsets[1]).asIntBuffer();
+			DoubleBuffer nodesData = map(channel, FileChannel.MapMode.READ_ONLY, offsets[2], offsets[3] - offsets[2]).asDoubleBuffer();
+			return new SpeedyALTData(graph, landmarks, nodesData, deadendData, minTravelCostPerLength);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static long[] altSectionOffsets(int nodeCount, int landmarksCount) {
+		// landmarks, dead ends, nodes data, end of file
+		long[] offsets = new long[4];
+		offsets[0] = HEADER_SIZE;
+		offsets[1] = offsets[0] + (long) landmarksCount * Integer.BYTES;
+		offsets[2] = offsets[1] + (long) nodeCount * Integer.BYTES;
+		// align the doubles to 8 bytes
+		offsets[2] = (offsets[2] + Double.BYTES - 1) / Double.BYTES * Double.BYTES;
+		offsets[3] = offsets[2] + (long) nodeCount * landmarksCount * 2 * Double.BYTES;
+		return offsets;
+	}
+
+	private static void checkHeader(ByteBuffer header, int magic, Path file) {
+		if (header.getInt() != magic) {
+			throw new IllegalArgumentException(file + " does not contain the expected routing data.");
+		}
+		int version = header.getInt();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("unsupported version " + version + " of routing data in " + file);
+		}
+	}
+
+	private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long offset, long size) throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("cannot map more than 2 GB, but requested " + size + " bytes.");
+		}
+		// the mapping stays valid after the channel is closed. The data (but not the header) uses the native byte order, so the bytes do not have to be swapped on every access.
+		return (MappedByteBuffer) channel.map(mode, offset, size).order(ByteOrder.nativeOrder());
+	}
+
+	private static void writeAtomically(Path file, long size, ChannelWriter writer) {
+		CacheFiles.writeAtomically(file, tmpFile -> {
+			try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				// mapping the sections for writing requires the file to have its full size
+				channel.truncate(size);
+				writer.write(channel);
+				channel.force(false);
+			}
+		});
+	}
+
+	private interface ChannelWriter {
+		void write(FileChannel channel) throws IOException;
+	}
+
+	private static String fingerprint(Network network) {
+		CacheFiles.Fingerprint fp = new CacheFiles.Fingerprint();
+		fp.putString(ByteOrder.nativeOrder().toString());
+		fp.putInt(Id.getNumberOfIds(Node.class));
+		fp.putInt(Id.getNumberOfIds(Link.class));
+		for (Node node : network.getNodes().values()) {
+			fp.putString(node.getId().toString());
+			fp.putInt(node.getId().index());
+		}
+		for (Link link : network.getLinks().values()) {
+			fp.putString(link.getId().toString());
+			fp.putInt(link.getId().index());
+			fp.putInt(link.getFromNode().getId().index());
+			fp.putInt(link.getToNode().getId().index());
+			fp.putDouble(link.getLength());
+			fp.putDouble(link.getFreespeed());
+			DisallowedNextLinks disallowedNextLinks = NetworkUtils.getDisallowedNextLinks(link);
+			if (disallowedNextLinks != null) {
+				for (List<Id<Link>> sequence : disallowedNextLinks.getMergedDisallowedLinkSequences()) {
+					fp.putInt(sequence.size());
+					for (Id<Link> linkId : sequence) {
+						fp.putString(linkId.toString());
+					}
+				}
+			}
+		}
+		return fp.toHex();
+	}
+
+	private static String fingerprint(SpeedyGraph graph, int landmarksCount, TravelDisutility travelCosts) {
+		CacheFiles.Fingerprint fp = new CacheFiles.Fingerprint();
+		fp.putString(ByteOrder.nativeOrder().toString());
+		fp.putInt(landmarksCount);
+		fp.putInt(graph.nodeCount);
+		fp.putInt(graph.linkCount);
+		for (int i = 0; i < graph.nodeCount; i++) {
+			Node node = graph.getNode(i);
+			fp.putString(node == null ? "" : node.getId().toString());
+			fp.putInt(graph.getNodeValue(i * SpeedyGraph.NODE_SIZE));
+			fp.putInt(graph.getNodeValue(i * SpeedyGraph.NODE_SIZE + 1));
+		}
+		for (int i = 0; i < graph.linkCount; i++) {
+			Link link = graph.getLink(i);
+			fp.putString(link == null ? "" : link.getId().toString());
+			for (int j = 0; j < SpeedyGraph.LINK_SIZE; j++) {
+				fp.putInt(graph.getLinkValue(i * SpeedyGraph.LINK_SIZE + j));
+			}
+			if (link != null) {
+				fp.putDouble(travelCosts.getLinkMinimumTravelDisutility(link));
+			}
+		}
+		return fp.toHex();
+	}
+}
@@ -63,8 +63,14 @@ import org.matsim.vehicles.Vehicle;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.matsim.core.router.TripStructureUtils.Trip;
@@ -73,6 +79,12 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
  * This class helps EventsToScore by keeping ScoringFunctions for the entire Population - one per Person -, and dispatching Activities
  * and Legs to the ScoringFunctions. It also gives out the ScoringFunctions, so they can be given other events by EventsToScore.
  * It is not independently useful. Please do not make public.
+ * <p></p>
+ * With {@link org.matsim.core.config.groups.ScoringConfigGroup#getNumberOfScoringThreads()} &gt; 0, the persons are distributed among
+ * that many shards, each with its own thread.  The events thread only does the work that is shared between persons (the vehicle-driver
+ * mapping and the legs and activities of {@link EventsToLegs} and {@link EventsToActivities}, which are used by other handlers as well)
+ * and passes everything that concerns the scoring function of a person to the queue of the person's shard.  As the queue keeps the order
+ * of the calls, each scoring function sees exactly the same calls as without threads, and the scores are the same.
  *
  * @author michaz
  *
@@ -92,6 +104,9 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 
 	private final Vehicle2DriverEventHandler vehicles2Drivers = new Vehicle2DriverEventHandler();
 
+	private final int numberOfScoringThreads;
+	private Shard[] shards = null;
+
 	@Inject
 	ScoringFunctionsForPopulation(ControlerListenerManager controlerListenerManager, EventsManager eventsManager, EventsToActivities eventsToActivities, EventsToLegs eventsToLegs,
 						 Population population, ScoringFunctionFactory scoringFunctionFactory, Config config) {
@@ -109,6 +124,7 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		this.legsDelegate = eventsToLegs;
 		this.actsDelegate = eventsToActivities;
 		this.scoringFunctionFactory = scoringFunctionFactory;
+		this.numberOfScoringThreads = config.scoring().getNumberOfScoringThreads();
 
 		eventsManager.addHandler(this);
 		eventsToActivities.addActivityHandler(this::handleActivity);
@@ -121,6 +137,13 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 			this.partialScores.put(person.getId(), new TDoubleArrayList());
 			this.tripRecords.put(person.getId(), PopulationUtils.createPlan());
 		}
+		if (this.numberOfScoringThreads > 0) {
+			shutdownShards();
+			this.shards = new Shard[this.numberOfScoringThreads];
+			for (int i = 0; i < this.shards.length; i++) {
+				this.shards[i] = new Shard(i, this.shards.length);
+			}
+		}
 	}
 
 	@Override
@@ -129,19 +152,11 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		// aggregated into legs and activities. for the time being, not all PersonEvents may "implement HasPersonId". link enter/leave events
 		// are NOT passed on, for performance reasons. kai/dominik, dec'12
 		if (o instanceof HasPersonId) {
-			ScoringFunction scoringFunction = getScoringFunctionForAgent(((HasPersonId) o).getPersonId());
-			if (scoringFunction != null) {
-				if (o instanceof PersonStuckEvent) {
-					scoringFunction.agentStuck(o.getTime());
-				} else if (o instanceof PersonMoneyEvent) {
-					scoringFunction.addMoney(((PersonMoneyEvent) o).getAmount());
-					// yy looking at this, I am a bit skeptic if it truly makes sense to not pass this additionally into the general events handling function below.
-					// A use case might be different utilities of money by money transaction type (e.g. toll, fare, reimbursement, ...).  kai, mar'17
-				} else if (o instanceof PersonScoreEvent) {
-					scoringFunction.addScore(((PersonScoreEvent) o).getAmount());
-				}
-				scoringFunction.handleEvent(o);
-				// passing this on in any case, see comment above.  kai, mar'17
+			Id<Person> personId = ((HasPersonId) o).getPersonId();
+			if (this.shards == null) {
+				handlePersonEvent(personId, o);
+			} else if (personId != null && this.agentScorers.containsKey(personId)) {
+				getShard(personId).add(Shard.PERSON_EVENT, personId, o);
 			}
 		}
 
@@ -164,10 +179,14 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		if (o instanceof LinkEnterEvent) {
 			Id<Vehicle> vehicleId = ((LinkEnterEvent)o).getVehicleId();
 			Id<Person> driverId = this.vehicles2Drivers.getDriverOfVehicle(vehicleId);
-			ScoringFunction scoringFunction = getScoringFunctionForAgent( driverId );
-			// (this will NOT do the scoring function lookup twice since LinkEnterEvent is not an instance of HasPersonId.  kai, mar'17)
-			if (scoringFunction != null) {
-				scoringFunction.handleEvent(o);
+			if (this.shards == null) {
+				ScoringFunction scoringFunction = getScoringFunctionForAgent( driverId );
+				// (this will NOT do the scoring function lookup twice since LinkEnterEvent is not an instance of HasPersonId.  kai, mar'17)
+				if (scoringFunction != null) {
+					scoringFunction.handleEvent(o);
+				}
+			} else if (driverId != null && this.agentScorers.containsKey(driverId)) {
+				getShard(driverId).add(Shard.DRIVER_EVENT, driverId, o);
 			}
 		}
 
@@ -195,7 +214,28 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 	private void handleActivityStart(ActivityStartEvent event) {
 		this.actsDelegate.handleEvent(event);
 		if (!StageActivityTypeIdentifier.isStageActivity( event.getActType() ) ) {
-			this.callTripScoring(event);
+			if (this.shards == null) {
+				this.callTripScoring(event);
+			} else if (this.tripRecords.containsKey(event.getPersonId())) {
+				getShard(event.getPersonId()).add(Shard.TRIP, event.getPersonId(), event);
+			}
+		}
+	}
+
+	private void handlePersonEvent(Id<Person> personId, Event o) {
+		ScoringFunction scoringFunction = getScoringFunctionForAgent(personId);
+		if (scoringFunction != null) {
+			if (o instanceof PersonStuckEvent) {
+				scoringFunction.agentStuck(o.getTime());
+			} else if (o instanceof PersonMoneyEvent) {
+				scoringFunction.addMoney(((PersonMoneyEvent) o).getAmount());
+				// yy looking at this, I am a bit skeptic if it truly makes sense to not pass this additionally into the general events handling function below.
+				// A use case might be different utilities of money by money transaction type (e.g. toll, fare, reimbursement, ...).  kai, mar'17
+			} else if (o instanceof PersonScoreEvent) {
+				scoringFunction.addScore(((PersonScoreEvent) o).getAmount());
+			}
+			scoringFunction.handleEvent(o);
+			// passing this on in any case, see comment above.  kai, mar'17
 		}
 	}
 
@@ -225,6 +265,14 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 	}
 
 	void handleLeg(PersonExperiencedLeg o) {
+		if (this.shards != null) {
+			getShard(o.getAgentId()).add(Shard.LEG, o.getAgentId(), o);
+		} else {
+			scoreLeg(o);
+		}
+	}
+
+	private void scoreLeg(PersonExperiencedLeg o) {
 		Id<Person> agentId = o.getAgentId();
 		Leg leg = o.getLeg();
 		ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(agentId);
@@ -240,6 +288,14 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 	}
 
 	void handleActivity(PersonExperiencedActivity o) {
+		if (this.shards != null) {
+			getShard(o.getAgentId()).add(Shard.ACTIVITY, o.getAgentId(), o);
+		} else {
+			scoreActivity(o);
+		}
+	}
+
+	private void scoreActivity(PersonExperiencedActivity o) {
 		Id<Person> agentId = o.getAgentId();
 		Activity activity = o.getActivity();
 		ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(agentId);
@@ -270,6 +326,23 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 	}
 
 	void finishScoringFunctions() {
+		boolean finishedByShards = this.shards != null;
+		if (finishedByShards) {
+			// the shards first handle everything that is still queued, then finish their scoring functions
+			List<Future<?>> futures = new ArrayList<>(this.shards.length);
+			for (Shard shard : this.shards) {
+				futures.add(shard.finish());
+			}
+			try {
+				for (Future<?> future : futures) {
+					future.get();
+				}
+			} catch (InterruptedException | ExecutionException e) {
+				throw new RuntimeException(e);
+			} finally {
+				shutdownShards();
+			}
+		}
 		// Rethrow an exception in a scoring function (user code) if there was one.
 		Throwable throwable = this.exception.get();
 		if (throwable != null) {
@@ -279,6 +352,9 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 				throw new RuntimeException(throwable);
 			}
 		}
+		if (finishedByShards) {
+			return;
+		}
 		for (ScoringFunction sf : this.agentScorers.values()) {
 			sf.finish();
 		}
@@ -287,6 +363,118 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		}
 	}
 
+	private Shard getShard(Id<Person> personId) {
+		return this.shards[personId.index() % this.shards.length];
+	}
+
+	private void shutdownShards() {
+		if (this.shards != null) {
+			for (Shard shard : this.shards) {
+				shard.executor.shutdown();
+			}
+			this.shards = null;
+		}
+	}
+
+	/**
+	 * The persons whose id index modulo the number of shards is the index of this shard.  The calls for these persons are collected in
+	 * batches, which are run by a single thread in the order they were added.
+	 */
+	private final class Shard {
+		static final byte PERSON_EVENT = 0;
+		static final byte DRIVER_EVENT = 1;
+		static final byte LEG = 2;
+		static final byte ACTIVITY = 3;
+		static final byte TRIP = 4;
+
+		private static final int BATCH_SIZE = 1024;
+		private static final int MAX_QUEUED_BATCHES = 64;
+
+		private final int index;
+		private final int count;
+		private final ThreadPoolExecutor executor;
+		private Batch batch = new Batch();
+
+		Shard(int index, int count) {
+			this.index = index;
+			this.count = count;
+			// blocks the events thread if the shard is too far behind, instead of queueing all events of the iteration
+			this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_QUEUED_BATCHES), runnable -> {
+				Thread thread = new Thread(runnable, "scoring." + index);
+				thread.setDaemon(true);
+				return thread;
+			}, (runnable, executor) -> {
+				try {
+					executor.getQueue().put(runnable);
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			});
+		}
+
+		void add(byte kind, Id<Person> personId, Object item) {
+			Batch batch = this.batch;
+			batch.kinds[batch.size] = kind;
+			batch.personIds[batch.size] = personId;
+			batch.items[batch.size] = item;
+			batch.size++;
+			if (batch.size == BATCH_SIZE) {
+				this.executor.execute(batch);
+				this.batch = new Batch();
+			}
+		}
+
+		Future<?> finish() {
+			if (this.batch.size > 0) {
+				this.executor.execute(this.batch);
+				this.batch = new Batch();
+			}
+			return this.executor.submit(() -> {
+				if (exception.get() != null) {
+					return;
+				}
+				for (Entry<Id<Person>, ScoringFunction> entry : agentScorers.entrySet()) {
+					if (entry.getKey().index() % this.count == this.index) {
+						ScoringFunction sf = entry.getValue();
+						sf.finish();
+						partialScores.get(entry.getKey()).add(sf.getScore());
+					}
+				}
+			});
+		}
+	}
+
+	private final class Batch implements Runnable {
+		private final byte[] kinds = new byte[Shard.BATCH_SIZE];
+		@SuppressWarnings("unchecked")
+		private final Id<Person>[] personIds = new Id[Shard.BATCH_SIZE];
+		private final Object[] items = new Object[Shard.BATCH_SIZE];
+		private int size = 0;
+
+		@Override
+		public void run() {
+			if (exception.get() != null) {
+				// a scoring function crashed already, it will be rethrown when finishing
+				return;
+			}
+			try {
+				for (int i = 0; i < this.size; i++) {
+					Object item = this.items[i];
+					switch (this.kinds[i]) {
+						case Shard.PERSON_EVENT -> handlePersonEvent(this.personIds[i], (Event) item);
+						case Shard.DRIVER_EVENT -> getScoringFunctionForAgent(this.personIds[i]).handleEvent((Event) item);
+						case Shard.LEG -> scoreLeg((PersonExperiencedLeg) item);
+						case Shard.ACTIVITY -> scoreActivity((PersonExperiencedActivity) item);
+						case Shard.TRIP -> callTripScoring((ActivityStartEvent) item);
+						default -> throw new IllegalStateException("unknown kind " + this.kinds[i]);
+					}
+				}
+			} catch (Throwable t) {
+				exception.compareAndSet(null, t);
+			}
+		}
+	}
+
 	void writePartialScores(String iterationFilename) {
 		try ( BufferedWriter out = IOUtils.getBufferedWriter(iterationFilename) ) {
 			for (Entry<Id<Person>, TDoubleCollection> entry : this.partialScores.entrySet()) {
@@ -0,0 +1,173 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+
+/**
+ * Link travel times per time bin, stored in a binary file that is memory-mapped when it is read. Opening only reads the
+ * link ids; the travel times are read by the operating system when they are accessed. Links are matched by their id.
+ * Used by {@link TravelTimeSnapshot} and by the binary travel time files of DVRP, which are told apart by the magic
+ * number at the beginning of the file.
+ * <p>
+ * File layout: int magic, int version, double bin size, int number of bins, int number of links, per link the UTF-8
+ * encoded id (int length, bytes), padding to a multiple of 4 bytes, and finally the travel times as float per link and
+ * bin, ordered by link.
+ */
+public final class MappedLinkTravelTimes {
+
+	private static final int VERSION = 1;
+
+	public interface RowWriter {
+		double getTravelTime(int row, int bin);
+	}
+
+	private final double binSize;
+	private final int numberOfBins;
+	// row of each link in the file, indexed by link id index, -1 if the link is not contained in the file
+	private final int[] rowOfLink;
+	// a mapped buffer cannot be larger than 2 GB, so larger files are mapped in several regions
+	private final int rowsPerRegion;
+	private final FloatBuffer[] regions;
+
+	private MappedLinkTravelTimes(double binSize, int numberOfBins, int[] rowOfLink, int rowsPerRegion, FloatBuffer[] regions) {
+		this.binSize = binSize;
+		this.numberOfBins = numberOfBins;
+		this.rowOfLink = rowOfLink;
+		this.rowsPerRegion = rowsPerRegion;
+		this.regions = regions;
+	}
+
+	/**
+	 * Writes one row of travel times per link, as returned by <code>rows</code> for the index of the link in
+	 * <code>linkIds</code>.
+	 */
+	public static void write(Path file, int magic, double binSize, int numberOfBins, List<Id<Link>> linkIds, RowWriter rows) {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.writeInt(magic);
+			out.writeInt(VERSION);
+			out.writeDouble(binSize);
+			out.writeInt(numberOfBins);
+			out.writeInt(linkIds.size());
+			for (Id<Link> linkId : linkIds) {
+				byte[] bytes = linkId.toString().getBytes(StandardCharsets.UTF_8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+			while (out.size() % Float.BYTES != 0) {
+				out.writeByte(0);
+			}
+			for (int row = 0; row < linkIds.size(); row++) {
+				for (int bin = 0; bin < numberOfBins; bin++) {
+					out.writeFloat((float) rows.getTravelTime(row, bin));
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @param description the kind of file expected, used in error messages
+	 */
+	public static MappedLinkTravelTimes open(Path file, int magic, String description) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long dataOffset;
+			double binSize;
+			int numberOfBins;
+			int[] linkIndices;
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+				if (in.readInt() != magic) {
+					throw new IllegalArgumentException(file + " is not a " + description + ".");
+				}
+				int version = in.readInt();
+				if (version != VERSION) {
+					throw new IllegalArgumentException("unsupported version of " + description + ": " + version);
+				}
+				binSize = in.readDouble();
+				numberOfBins = in.readInt();
+				linkIndices = new int[in.readInt()];
+				// magic, version, bin size, number of bins, number of links
+				long position = 4 * Integer.BYTES + Double.BYTES;
+				for (int row = 0; row < linkIndices.length; row++) {
+					byte[] bytes = new byte[in.readInt()];
+					in.readFully(bytes);
+					linkIndices[row] = Id.createLinkId(new String(bytes, StandardCharsets.UTF_8)).index();
+					position += Integer.BYTES + bytes.length;
+				}
+				dataOffset = (position + Float.BYTES - 1) / Float.BYTES * Float.BYTES;
+			}
+
+			int[] rowOfLink = new int[Id.getNumberOfIds(Link.class)];
+			Arrays.fill(rowOfLink, -1);
+			for (int row = 0; row < linkIndices.length; row++) {
+				rowOfLink[linkIndices[row]] = row;
+			}
+
+			long rowBytes = (long) numberOfBins * Float.BYTES;
+			int rowsPerRegion = (int) Math.max(1, Integer.MAX_VALUE / rowBytes);
+			FloatBuffer[] regions = new FloatBuffer[(linkIndices.length + rowsPerRegion - 1) / rowsPerRegion];
+			for (int r = 0; r < regions.length; r++) {
+				int rows = Math.min(rowsPerRegion, linkIndices.length - r * rowsPerRegion);
+				// the mapping stays valid after the channel is closed
+				regions[r] = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset + r * rowsPerRegion * rowBytes, rows * rowBytes).asFloatBuffer();
+			}
+			return new MappedLinkTravelTimes(binSize, numberOfBins, rowOfLink, rowsPerRegion, regions);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public double getBinSize() {
+		return this.binSize;
+	}
+
+	public int getNumberOfBins() {
+		return this.numberOfBins;
+	}
+
+	/**
+	 * @return the row of the link, or -1 if the link is not contained in the file
+	 */
+	public int getRow(Id<Link> linkId) {
+		int index = linkId.index();
+		return index < this.rowOfLink.length ? this.rowOfLink[index] : -1;
+	}
+
+	public double getTravelTime(int row, int bin) {
+		return this.regions[row / this.rowsPerRegion].get((row % this.rowsPerRegion) * this.numberOfBins + bin);
+	}
+}
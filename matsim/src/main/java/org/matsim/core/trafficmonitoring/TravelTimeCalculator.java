@@ -23,7 +23,6 @@ import com.google.inject.Inject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.Id;
-import org.matsim.api.core.v01.IdMap;
 import org.matsim.api.core.v01.events.LinkEnterEvent;
 import org.matsim.api.core.v01.events.LinkLeaveEvent;
 import org.matsim.api.core.v01.events.VehicleAbortsEvent;
@@ -42,6 +41,7 @@ import org.matsim.core.api.experimental.events.VehicleArrivesAtFacilityEvent;
 import org.matsim.core.api.experimental.events.handler.VehicleArrivesAtFacilityEventHandler;
 import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.events.handler.PartitionedEventHandler;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.core.router.util.LinkToLinkTravelTime;
 import org.matsim.core.router.util.TravelTime;
@@ -50,7 +50,8 @@ import org.matsim.core.utils.collections.Tuple;
 import org.matsim.vehicles.Vehicle;
 import org.matsim.vehicles.VehicleType;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -62,13 +63,19 @@ import java.util.concurrent.ConcurrentHashMap;
  * <br>
  * Travel times on links are collected and averaged in bins/slots with a specified size
  * (<code>binSize</code>, in seconds, default 900 seconds = 15 minutes).
+ * <br>
+ * All state per vehicle is only touched by events of that vehicle, so the calculator is a {@link PartitionedEventHandler}
+ * partitioned by vehicle. The pending link enters are kept in primitive arrays indexed by vehicle, see
+ * {@link VehicleLinkEnters}. Measured link travel times are first collected in a buffer per events handling thread and
+ * only added to the data per link, which is shared between the vehicles, in batches: when a buffer is full, before
+ * travel times are requested, and before the data is reset.
  *
  * @author dgrether
  * @author mrieser
  */
 public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEventHandler,
 									     VehicleEntersTrafficEventHandler, VehicleLeavesTrafficEventHandler, VehicleArrivesAtFacilityEventHandler,
-									     VehicleAbortsEventHandler {
+									     VehicleAbortsEventHandler, PartitionedEventHandler {
 	private static final Logger log = LogManager.getLogger(TravelTimeCalculator.class);
 
 	private static final String ERROR_STUCK_AND_LINKTOLINK = "Using the stuck feature with turning move travel times is not available. As the next link of a stucked" +
@@ -79,13 +86,20 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	TimeSlotComputation aggregator;
 
 	private final Network network;
-	private IdMap<Link, TravelTimeDataArray> linkData;
+	private Map<Id<Link>, TravelTimeDataArray> linkData;
 
 	private Map<Tuple<Id<Link>, Id<Link>>, TravelTimeDataArray> linkToLinkData;
 
-	private final Map<Id<Vehicle>, LinkEnterEvent> linkEnterEvents;
+	private final VehicleLinkEnters linkEnters;
+
+	// replaced in reset(), so that all threads start with empty buffers
+	private volatile ThreadLocal<TravelTimeBuffer> travelTimeBuffers;
+	private final List<TravelTimeBuffer> allTravelTimeBuffers = new ArrayList<>();
+	private volatile boolean hasBufferedTravelTimes = false;
+
+	private TravelTime initialTravelTimes = null;
+	private volatile boolean hasObservedTravelTimes = false;
 
-	private final Set<Id<Vehicle>> vehiclesToIgnore;
 	private final Set<String> analyzedModes;
 
 	private final boolean filterAnalyzedModes;
@@ -216,50 +230,53 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		this.aggregator = new TimeSlotComputation(this.numSlots, this.timeSlice);
 		this.travelTimeGetter = new AveragingTravelTimeGetter( this.aggregator ) ;
 		if (this.calculateLinkTravelTimes) {
-			this.linkData = new IdMap<>(Link.class);
+			// events of different vehicles may be handled concurrently, see getPartitioning()
+			this.linkData = new ConcurrentHashMap<>(network.getLinks().size());
 		}
 		if (this.calculateLinkToLinkTravelTimes){
 			// assume that every link has 2 outgoing links as default
 			this.linkToLinkData = new ConcurrentHashMap<>((int) (network.getLinks().size() * 1.4 * 2));
 		}
-		this.linkEnterEvents = new ConcurrentHashMap<>();
-
 		// if we just look at one mode, we need to ignore all vehicles with a different mode. However, the info re the mode is only in
-		// the vehicleEntersTraffic event.  So we need to memorize the ignored vehicles from there ...
-		this.vehiclesToIgnore = new HashSet<>();
+		// the vehicleEntersTraffic event.  So we need to memorize the ignored vehicles from there (see VehicleLinkEnters) ...
+		this.linkEnters = new VehicleLinkEnters();
 
 		this.reset(0);
 	}
 
+	@Override
+	public Partitioning getPartitioning() {
+		return Partitioning.VEHICLE;
+	}
+
 	@Override
 	public void handleEvent(final LinkEnterEvent e) {
 		/* if only some modes are analyzed, we check whether the vehicles
 		 * performs a trip with one of those modes. if not, we skip the event. */
-		if (filterAnalyzedModes && vehiclesToIgnore.contains(e.getVehicleId())) return;
+		if (filterAnalyzedModes && this.linkEnters.isIgnored(e.getVehicleId())) return;
 
-		LinkEnterEvent oldEvent = this.linkEnterEvents.put(e.getVehicleId(), e);
-		if ((oldEvent != null) && this.calculateLinkToLinkTravelTimes) {
-			Tuple<Id<Link>, Id<Link>> fromToLink = new Tuple<>(oldEvent.getLinkId(), e.getLinkId());
+		double enterTime = this.linkEnters.getTime(e.getVehicleId());
+		int previousLinkIndex = this.linkEnters.enter(e.getVehicleId(), e.getLinkId().index(), e.getTime());
+		if ((previousLinkIndex != VehicleLinkEnters.NO_LINK) && this.calculateLinkToLinkTravelTimes) {
+			Tuple<Id<Link>, Id<Link>> fromToLink = new Tuple<>(Id.get(previousLinkIndex, Link.class), e.getLinkId());
 			TravelTimeData data = getLinkToLinkTravelTimeData(fromToLink );
-			double enterTime = oldEvent.getTime();
 
 			final int timeSlot = this.aggregator.getTimeSlotIndex(enterTime );
-			data.addTravelTime(timeSlot, e.getTime() - enterTime );
-			data.setNeedsConsolidation( true );
+			synchronized (data) {
+				data.addTravelTime(timeSlot, e.getTime() - enterTime );
+				data.setNeedsConsolidation( true );
+			}
 		}
 	}
 
 	@Override
 	public void handleEvent(final LinkLeaveEvent e) {
 		if (this.calculateLinkTravelTimes) {
-			LinkEnterEvent oldEvent = this.linkEnterEvents.get(e.getVehicleId());
-			if (oldEvent != null) {
-				TravelTimeData data = this.getTravelTimeData(e.getLinkId(), true);
-				double enterTime = oldEvent.getTime();
+			if (this.linkEnters.getLinkIndex(e.getVehicleId()) != VehicleLinkEnters.NO_LINK) {
+				double enterTime = this.linkEnters.getTime(e.getVehicleId());
 
 				final int timeSlot = this.aggregator.getTimeSlotIndex(enterTime );
-				data.addTravelTime(timeSlot, e.getTime() - enterTime );
-				data.setNeedsConsolidation( true );
+				this.bufferTravelTime(e.getLinkId().index(), timeSlot, e.getTime() - enterTime );
 			}
 		}
 	}
@@ -270,7 +287,7 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		 * starts a leg on a non analyzed transport mode, add the vehicle
 		 * to the filtered vehicles set. */
 		if (filterAnalyzedModes && !analyzedModes.contains(event.getNetworkMode())) {
-			this.vehiclesToIgnore.add(event.getVehicleId());
+			this.linkEnters.setIgnored(event.getVehicleId(), true);
 		}
 	}
 
@@ -279,10 +296,10 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		/* remove EnterEvents from list when a vehicle arrives.
 		 * otherwise, the activity duration would be counted as travel time, when the
 		 * vehicle departs again and leaves the link! */
-		this.linkEnterEvents.remove(event.getVehicleId());
+		this.linkEnters.remove(event.getVehicleId());
 
 		// try to remove vehicles from set with filtered vehicles
-		if (filterAnalyzedModes) this.vehiclesToIgnore.remove(event.getVehicleId());
+		if (filterAnalyzedModes) this.linkEnters.setIgnored(event.getVehicleId(), false);
 	}
 
 	@Override
@@ -290,14 +307,14 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		/* remove EnterEvents from list when a bus stops on a link.
 		 * otherwise, the stop time would be counted as travel time, when the
 		 * bus departs again and leaves the link! */
-		this.linkEnterEvents.remove(event.getVehicleId());
+		this.linkEnters.remove(event.getVehicleId());
 	}
 
 	@Override
 	public void handleEvent(VehicleAbortsEvent event) {
-		LinkEnterEvent e = this.linkEnterEvents.remove(event.getVehicleId());
-		if (e != null) {
-			TravelTimeData data = this.getTravelTimeData(e.getLinkId(), true);
+		int linkIndex = this.linkEnters.remove(event.getVehicleId());
+		if (linkIndex != VehicleLinkEnters.NO_LINK) {
+			TravelTimeData data = this.getTravelTimeData(Id.get(linkIndex, Link.class), true);
 			data.setNeedsConsolidation( true );
 
 			//			this.aggregator.addStuckEventTravelTime(data, e.getTime(), event.getTime());
@@ -313,25 +330,67 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		}
 
 		// try to remove vehicle from set with filtered vehicles
-		if (filterAnalyzedModes) this.vehiclesToIgnore.remove(event.getVehicleId());
+		if (filterAnalyzedModes) this.linkEnters.setIgnored(event.getVehicleId(), false);
+	}
+
+	private void bufferTravelTime(int linkIndex, int timeSlot, double travelTime) {
+		TravelTimeBuffer buffer = this.travelTimeBuffers.get();
+		// only the owning thread adds to the buffer, so no lock is needed here (see TravelTimeBuffer)
+		if (!buffer.add(linkIndex, timeSlot, travelTime)) {
+			flush(buffer);
+			buffer.add(linkIndex, timeSlot, travelTime);
+		}
+		if (!this.hasBufferedTravelTimes) {
+			this.hasBufferedTravelTimes = true;
+			this.hasObservedTravelTimes = true;
+		}
+	}
+
+	private TravelTimeBuffer createTravelTimeBuffer() {
+		TravelTimeBuffer buffer = new TravelTimeBuffer();
+		synchronized (this.allTravelTimeBuffers) {
+			this.allTravelTimeBuffers.add(buffer);
+		}
+		return buffer;
+	}
+
+	private void flushTravelTimeBuffers() {
+		this.hasBufferedTravelTimes = false;
+		List<TravelTimeBuffer> buffers;
+		synchronized (this.allTravelTimeBuffers) {
+			buffers = new ArrayList<>(this.allTravelTimeBuffers);
+		}
+		for (TravelTimeBuffer buffer : buffers) {
+			flush(buffer);
+		}
+	}
+
+	/**
+	 * Adds the published, not yet consumed travel times of the buffer to the data per link. May be called by any thread.
+	 */
+	private void flush(TravelTimeBuffer buffer) {
+		synchronized (buffer) {
+			int published = buffer.size;
+			for (int i = buffer.consumed; i < published; i++) {
+				TravelTimeData data = this.getTravelTimeData(Id.get(buffer.links[i], Link.class), true);
+				synchronized (data) {
+					data.addTravelTime(buffer.timeSlots[i], buffer.travelTimes[i]);
+					data.setNeedsConsolidation( true );
+				}
+			}
+			buffer.consumed = published;
+		}
 	}
 
 	private TravelTimeDataArray getTravelTimeData(final Id<Link> linkId, final boolean createIfMissing) {
-		TravelTimeDataArray data = this.linkData.get(linkId);
-		if ((null == data) && createIfMissing) {
-			data = this.createTravelTimeData(linkId);
-			this.linkData.put(linkId, data);
+		if (createIfMissing) {
+			return this.linkData.computeIfAbsent(linkId, this::createTravelTimeData);
 		}
-		return data;
+		return this.linkData.get(linkId);
 	}
 
 	private TravelTimeDataArray getLinkToLinkTravelTimeData( Tuple<Id<Link>, Id<Link>> fromLinkToLink ) {
-		TravelTimeDataArray data = this.linkToLinkData.get(fromLinkToLink);
-		if ( null == data ) {
-			data = this.createTravelTimeData(fromLinkToLink.getFirst()) ;
-			this.linkToLinkData.put(fromLinkToLink, data);
-		}
-		return data;
+		return this.linkToLinkData.computeIfAbsent(fromLinkToLink, fromTo -> this.createTravelTimeData(fromTo.getFirst()));
 	}
 
 	private TravelTimeDataArray createTravelTimeData(Id<Link> linkId) {
@@ -340,6 +399,9 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 
 	private double getLinkTravelTime(final Id<Link> linkId, final double time) {
 		if (this.calculateLinkTravelTimes) {
+			if (this.hasBufferedTravelTimes) {
+				flushTravelTimeBuffers();
+			}
 
 			TravelTimeData data = this.getTravelTimeData(linkId, true);
 			if ( data.isNeedingConsolidation() ) {
@@ -365,6 +427,8 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 
 	@Override
 	public void reset(int iteration) {
+		// add the last partial batches before the data is reset, so that no measurement outlives its iteration
+		flushTravelTimeBuffers();
 		if (this.calculateLinkTravelTimes) {
 			for (TravelTimeData data : this.linkData.values()){
 				data.resetTravelTimes();
@@ -377,8 +441,13 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 				data.setNeedsConsolidation( false );
 			}
 		}
-		this.linkEnterEvents.clear();
-		this.vehiclesToIgnore.clear();
+		this.linkEnters.clear();
+		// measurements not yet added to the data belong to the previous iteration
+		this.travelTimeBuffers = ThreadLocal.withInitial(this::createTravelTimeBuffer);
+		synchronized (this.allTravelTimeBuffers) {
+			this.allTravelTimeBuffers.clear();
+		}
+		this.hasBufferedTravelTimes = false;
 	}
 
 	/**
@@ -432,13 +501,67 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		}
 	}
 
+	/**
+	 * Link travel times measured by one thread, which are not yet added to the data of the links.
+	 * <p>
+	 * Only the owning (events handling) thread adds entries, without locking: it writes the entry and then publishes it
+	 * by the volatile write of {@link #size}. Any thread may consume the published entries (see {@link #flush}) under
+	 * the lock of the buffer. When the buffer is full, the owning thread consumes the remaining entries itself and
+	 * starts over; this is the only time it takes the lock.
+	 */
+	private static final class TravelTimeBuffer {
+		private static final int CAPACITY = 1024;
+
+		private final int[] links = new int[CAPACITY];
+		private final int[] timeSlots = new int[CAPACITY];
+		private final double[] travelTimes = new double[CAPACITY];
+		private volatile int size = 0; // written by the owning thread only
+		private int consumed = 0; // guarded by the lock of the buffer
+
+		/**
+		 * @return <code>false</code> if the buffer is full and needs to be flushed first
+		 */
+		private boolean add(int linkIndex, int timeSlot, double travelTime) {
+			int index = this.size;
+			if (index == CAPACITY) {
+				synchronized (this) {
+					if (this.consumed < CAPACITY) {
+						return false;
+					}
+					this.consumed = 0;
+					this.size = 0;
+				}
+				index = 0;
+			}
+			this.links[index] = linkIndex;
+			this.timeSlots[index] = timeSlot;
+			this.travelTimes[index] = travelTime;
+			this.size = index + 1;
+			return true;
+		}
+	}
+
 	private static int cnt = 0 ;
 
+	/**
+	 * Sets the link travel times which are returned by {@link #getLinkTravelTimes()} until the first link travel time
+	 * is observed, e.g. a {@link TravelTimeSnapshot} of a previous run. Without initial travel times, the free speed
+	 * travel times are returned.
+	 */
+	public void setInitialTravelTimes(TravelTime initialTravelTimes) {
+		this.initialTravelTimes = initialTravelTimes;
+	}
+
 	public TravelTime getLinkTravelTimes() {
 		return new TravelTime() {
 
 			@Override
 			public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+				TravelTime initialTravelTimes = TravelTimeCalculator.this.initialTravelTimes;
+				if (initialTravelTimes != null && !TravelTimeCalculator.this.hasObservedTravelTimes) {
+					return initialTravelTimes.getLinkTravelTime(link, time, person, vehicle);
+				}
+
 				// right now, the link speed limit comes from the travel time calculator, and this here just overrides it.  One might consider doing all of this here;
 				// possibly would make the code easier to read.  kai/mads, feb'19
 
@@ -111,6 +111,9 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 			}
 		}
 
+		if (getConfig().travelTimeCalculator().getWriteSnapshotInterval() > 0 || getConfig().travelTimeCalculator().getInitialSnapshotFile() != null) {
+			addControlerListenerBinding().to(TravelTimeSnapshotControlerListener.class);
+		}
 	}
 
 	private static class SingleModeTravelTimeCalculatorProvider implements Provider<TravelTimeCalculator> {
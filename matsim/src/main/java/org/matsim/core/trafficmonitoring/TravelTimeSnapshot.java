@@ -0,0 +1,88 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Link travel times per time bin, stored in a {@link MappedLinkTravelTimes binary file} that is memory-mapped when it is
+ * read.
+ * <p>
+ * A snapshot is {@link #write(Network, TravelTime, double, int, Path) written} e.g. from the travel times observed by the
+ * {@link TravelTimeCalculator} in the last iteration of a run, and can be {@link #open(Path) opened} in another run
+ * without replaying any events. Links are matched by their id, so the network may differ between the runs. For links
+ * not contained in the snapshot, the free speed travel time is returned.
+ */
+public final class TravelTimeSnapshot implements TravelTime {
+
+	private static final int MAGIC = 0x4D545453;
+
+	private final MappedLinkTravelTimes travelTimes;
+
+	private TravelTimeSnapshot(MappedLinkTravelTimes travelTimes) {
+		this.travelTimes = travelTimes;
+	}
+
+	/**
+	 * Writes the travel times of all links of the network, as returned by <code>travelTime</code> for the middle of
+	 * each time bin.
+	 */
+	public static void write(Network network, TravelTime travelTime, double binSize, int numberOfBins, Path file) {
+		List<Link> links = List.copyOf(network.getLinks().values());
+		MappedLinkTravelTimes.write(file, MAGIC, binSize, numberOfBins, links.stream().map(Link::getId).toList(),
+				(row, bin) -> travelTime.getLinkTravelTime(links.get(row), (bin + 0.5) * binSize, null, null));
+	}
+
+	public static TravelTimeSnapshot open(Path file) {
+		return new TravelTimeSnapshot(MappedLinkTravelTimes.open(file, MAGIC, "travel time snapshot"));
+	}
+
+	public double getBinSize() {
+		return this.travelTimes.getBinSize();
+	}
+
+	public int getNumberOfBins() {
+		return this.travelTimes.getNumberOfBins();
+	}
+
+	@Override
+	public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+		int row = this.travelTimes.getRow(link.getId());
+		double travelTime;
+		if (row < 0) {
+			travelTime = link.getLength() / link.getFreespeed(time);
+		} else {
+			int bin = TimeBinUtils.getTimeBinIndex(time, getBinSize(), getNumberOfBins());
+			travelTime = this.travelTimes.getTravelTime(row, bin);
+		}
+		// as in TravelTimeCalculator, the vehicle cannot be faster than its maximum velocity
+		if (vehicle != null && vehicle.getType() != null) {
+			travelTime = Math.max(travelTime, link.getLength() / vehicle.getType().getMaximumVelocity());
+		}
+		return travelTime;
+	}
+}
@@ -0,0 +1,114 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigGroup;
+import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.events.StartupEvent;
+import org.matsim.core.controler.listener.IterationEndsListener;
+import org.matsim.core.controler.listener.StartupListener;
+import org.matsim.core.router.util.TravelTime;
+
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
+
+import jakarta.inject.Inject;
+
+/**
+ * Writes {@link TravelTimeSnapshot}s of the observed link travel times at the end of iterations, and initializes the
+ * {@link TravelTimeCalculator}s with the travel times of a snapshot of a previous run, see
+ * {@link TravelTimeCalculatorConfigGroup#getWriteSnapshotInterval()} and
+ * {@link TravelTimeCalculatorConfigGroup#getInitialSnapshotFile()}.
+ */
+final class TravelTimeSnapshotControlerListener implements StartupListener, IterationEndsListener {
+	private static final Logger log = LogManager.getLogger(TravelTimeSnapshotControlerListener.class);
+
+	static final String MODE_PLACEHOLDER = "<mode>";
+
+	@Inject
+	private Config config;
+	@Inject
+	private Network network;
+	@Inject
+	private OutputDirectoryHierarchy controlerIO;
+	@Inject
+	private Map<String, TravelTime> travelTimes;
+	@Inject
+	private Injector injector;
+
+	@Override
+	public void notifyStartup(StartupEvent event) {
+		TravelTimeCalculatorConfigGroup ttConfig = this.config.travelTimeCalculator();
+		String file = ttConfig.getInitialSnapshotFile();
+		if (file == null || !ttConfig.isCalculateLinkTravelTimes()) {
+			return;
+		}
+		if (ttConfig.getSeparateModes()) {
+			for (String mode : this.config.routing().getNetworkModes()) {
+				if (ttConfig.getAnalyzedModes().contains(mode)) {
+					TravelTimeCalculator calculator = this.injector.getInstance(Key.get(TravelTimeCalculator.class, Names.named(mode)));
+					calculator.setInitialTravelTimes(openSnapshot(file.replace(MODE_PLACEHOLDER, mode)));
+				}
+			}
+		} else {
+			this.injector.getInstance(TravelTimeCalculator.class).setInitialTravelTimes(openSnapshot(file));
+		}
+	}
+
+	private TravelTimeSnapshot openSnapshot(String file) {
+		URL url = ConfigGroup.getInputFileURL(this.config.getContext(), file);
+		log.info("reading initial link travel times from " + url);
+		try {
+			return TravelTimeSnapshot.open(Paths.get(url.toURI()));
+		} catch (URISyntaxException e) {
+			throw new IllegalArgumentException("travel time snapshots must be local files: " + url, e);
+		}
+	}
+
+	@Override
+	public void notifyIterationEnds(IterationEndsEvent event) {
+		TravelTimeCalculatorConfigGroup ttConfig = this.config.travelTimeCalculator();
+		int interval = ttConfig.getWriteSnapshotInterval();
+		if (interval <= 0 || (event.getIteration() % interval != 0 && !event.isLastIteration())) {
+			return;
+		}
+		int numberOfBins = TimeBinUtils.getTimeBinCount(ttConfig.getMaxTime(), ttConfig.getTraveltimeBinSize());
+		for (String mode : this.config.routing().getNetworkModes()) {
+			TravelTime travelTime = this.travelTimes.get(mode);
+			if (travelTime != null && ttConfig.getAnalyzedModes().contains(mode)) {
+				Path file = Paths.get(this.controlerIO.getIterationFilename(event.getIteration(), "travelTimes." + mode + ".bin"));
+				TravelTimeSnapshot.write(this.network, travelTime, ttConfig.getTraveltimeBinSize(), numberOfBins, file);
+			}
+		}
+	}
+}
@@ -0,0 +1,152 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import java.util.Arrays;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Stores the link and time of the last link enter of each vehicle in primitive arrays indexed by the index of the
+ * vehicle id, so that no objects are created per event.
+ * <p>
+ * The arrays are allocated in chunks, as vehicles may be created while the simulation is running. The entry of a
+ * vehicle must only be accessed by one thread at a time, but entries of different vehicles may be accessed
+ * concurrently.
+ */
+final class VehicleLinkEnters {
+
+	static final int NO_LINK = -1;
+
+	private static final int CHUNK_BITS = 10;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private volatile Chunk[] chunks = new Chunk[0];
+
+	/**
+	 * Stores the link enter of the vehicle and returns the index of the link previously entered, or {@link #NO_LINK}.
+	 * The time of the previous link enter is available from {@link #getTime(Id)} before this method is called.
+	 */
+	int enter(Id<Vehicle> vehicleId, int linkIndex, double time) {
+		Chunk chunk = getOrCreateChunk(vehicleId.index());
+		int i = vehicleId.index() & CHUNK_MASK;
+		int previousLink = chunk.links[i];
+		chunk.links[i] = linkIndex;
+		chunk.times[i] = time;
+		return previousLink;
+	}
+
+	/**
+	 * Returns the index of the link last entered by the vehicle, or {@link #NO_LINK}.
+	 */
+	int getLinkIndex(Id<Vehicle> vehicleId) {
+		Chunk chunk = getChunk(vehicleId.index());
+		return chunk == null ? NO_LINK : chunk.links[vehicleId.index() & CHUNK_MASK];
+	}
+
+	double getTime(Id<Vehicle> vehicleId) {
+		Chunk chunk = getChunk(vehicleId.index());
+		return chunk == null ? Double.NaN : chunk.times[vehicleId.index() & CHUNK_MASK];
+	}
+
+	/**
+	 * Removes the link enter of the vehicle and returns the index of the link, or {@link #NO_LINK}.
+	 */
+	int remove(Id<Vehicle> vehicleId) {
+		Chunk chunk = getChunk(vehicleId.index());
+		if (chunk == null) {
+			return NO_LINK;
+		}
+		int i = vehicleId.index() & CHUNK_MASK;
+		int link = chunk.links[i];
+		chunk.links[i] = NO_LINK;
+		return link;
+	}
+
+	void setIgnored(Id<Vehicle> vehicleId, boolean ignored) {
+		if (ignored) {
+			getOrCreateChunk(vehicleId.index()).ignored[vehicleId.index() & CHUNK_MASK] = true;
+		} else {
+			Chunk chunk = getChunk(vehicleId.index());
+			if (chunk != null) {
+				chunk.ignored[vehicleId.index() & CHUNK_MASK] = false;
+			}
+		}
+	}
+
+	boolean isIgnored(Id<Vehicle> vehicleId) {
+		Chunk chunk = getChunk(vehicleId.index());
+		return chunk != null && chunk.ignored[vehicleId.index() & CHUNK_MASK];
+	}
+
+	void clear() {
+		for (Chunk chunk : this.chunks) {
+			if (chunk != null) {
+				chunk.clear();
+			}
+		}
+	}
+
+	private Chunk getChunk(int vehicleIndex) {
+		Chunk[] chunks = this.chunks;
+		int c = vehicleIndex >>> CHUNK_BITS;
+		return c < chunks.length ? chunks[c] : null;
+	}
+
+	private Chunk getOrCreateChunk(int vehicleIndex) {
+		Chunk chunk = getChunk(vehicleIndex);
+		if (chunk != null) {
+			return chunk;
+		}
+		synchronized (this) {
+			int c = vehicleIndex >>> CHUNK_BITS;
+			Chunk[] chunks = this.chunks;
+			if (c >= chunks.length) {
+				chunks = Arrays.copyOf(chunks, Math.max(c + 1, chunks.length * 2));
+			} else if (chunks[c] != null) {
+				return chunks[c];
+			} else {
+				chunks = chunks.clone();
+			}
+			chunk = new Chunk();
+			chunks[c] = chunk;
+			// publish a new array, so threads reading without the lock see the chunk fully initialized
+			this.chunks = chunks;
+			return chunk;
+		}
+	}
+
+	private static final class Chunk {
+		private final int[] links = new int[CHUNK_SIZE];
+		private final double[] times = new double[CHUNK_SIZE];
+		private final boolean[] ignored = new boolean[CHUNK_SIZE];
+
+		private Chunk() {
+			clear();
+		}
+
+		private void clear() {
+			Arrays.fill(this.links, NO_LINK);
+			Arrays.fill(this.ignored, false);
+		}
+	}
+}
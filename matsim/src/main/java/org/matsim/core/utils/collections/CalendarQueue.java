@@ -0,0 +1,329 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * A priority queue for elements that become due at a point in (simulation) time, e.g. agents ending an activity.
+ * <br />
+ * The elements are kept in a wheel of buckets, one per second, which covers a window of <code>wheelSize</code> seconds
+ * starting at the current second. Elements due later are kept in an overflow heap and moved into the wheel when the
+ * window reaches them. A bucket is only sorted when its second becomes the current one, so adding an element is
+ * usually O(1) and polling is O(log b), with b the number of elements due in the same second.
+ * <br />
+ * The elements are returned in the order of their time, and elements with the same time in the order of the given
+ * comparator, i.e. in the same order as a {@link PriorityQueue} with the corresponding comparator would return them.
+ * <br />
+ * On the first {@link #remove(Object)}, an index from the elements to their times is built and maintained from then on,
+ * so that a removal only needs to look at the bucket of the element's second. Without removals, no index is kept.
+ * An element must therefore not be contained more than once.
+ * <br />
+ * This class is not thread-safe.
+ */
+public final class CalendarQueue<E> {
+
+	public static final int DEFAULT_WHEEL_SIZE = 1 << 16;
+
+	private static final class Entry<E> {
+		private final double time;
+		private final E element;
+
+		Entry(double time, E element) {
+			this.time = time;
+			this.element = element;
+		}
+	}
+
+	private final Comparator<Entry<E>> comparator;
+	private final int wheelMask;
+	@SuppressWarnings("unchecked")
+	private final Entry<E>[][] buckets;
+	private final int[] bucketSizes;
+	private int wheelCount = 0;
+	private final PriorityQueue<Entry<E>> overflow;
+
+	/** the elements due in the current second, sorted */
+	private Entry<E>[] current = newEntries(16);
+	private int currentPos = 0;
+	private int currentSize = 0;
+	/** the elements added for the current or an earlier second after the current second was sorted */
+	private final PriorityQueue<Entry<E>> late;
+
+	/** the current second; all elements in the wheel are due later, all elements in the overflow heap at least a wheel size later */
+	private long cursor = -1;
+	private int size = 0;
+
+	/** the entries of the elements, by identity; <code>null</code> until the first removal */
+	private Map<E, Entry<E>> index = null;
+
+	/**
+	 * @param tieBreaker the order of elements with the same time
+	 */
+	public CalendarQueue(Comparator<? super E> tieBreaker) {
+		this(tieBreaker, DEFAULT_WHEEL_SIZE);
+	}
+
+	/**
+	 * @param tieBreaker the order of elements with the same time
+	 * @param wheelSize the number of seconds covered by the buckets, must be a power of two
+	 */
+	@SuppressWarnings("unchecked")
+	public CalendarQueue(Comparator<? super E> tieBreaker, int wheelSize) {
+		if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+			throw new IllegalArgumentException("wheelSize must be a power of two, but is " + wheelSize);
+		}
+		this.comparator = (e0, e1) -> {
+			int cmp = Double.compare(e0.time, e1.time);
+			return cmp != 0 ? cmp : tieBreaker.compare(e0.element, e1.element);
+		};
+		this.wheelMask = wheelSize - 1;
+		this.buckets = new Entry[wheelSize][];
+		this.bucketSizes = new int[wheelSize];
+		this.overflow = new PriorityQueue<>(this.comparator);
+		this.late = new PriorityQueue<>(this.comparator);
+	}
+
+	public void add(double time, E element) {
+		Entry<E> entry = new Entry<>(time, element);
+		if (this.index != null) {
+			this.index.put(element, entry);
+		}
+		long second = second(time);
+		if (second <= this.cursor) {
+			this.late.add(entry);
+		} else if (second < this.cursor + this.buckets.length) {
+			addToBucket(second, entry);
+		} else {
+			this.overflow.add(entry);
+		}
+		this.size++;
+	}
+
+	/**
+	 * Removes and returns the first element that is due at the given time, i.e. whose time is smaller than or equal to it.
+	 *
+	 * @return the element, or <code>null</code> if no element is due.
+	 */
+	public E poll(double now) {
+		long limit = second(now);
+		while (true) {
+			Entry<E> first = this.currentPos < this.currentSize ? this.current[this.currentPos] : null;
+			Entry<E> firstLate = this.late.peek();
+			if (first != null || firstLate != null) {
+				boolean fromLate = first == null || (firstLate != null && this.comparator.compare(firstLate, first) < 0);
+				Entry<E> entry = fromLate ? firstLate : first;
+				if (entry.time > now) {
+					// all other elements are in later seconds
+					return null;
+				}
+				if (fromLate) {
+					this.late.poll();
+				} else {
+					this.current[this.currentPos++] = null;
+				}
+				this.size--;
+				if (this.index != null) {
+					this.index.remove(entry.element);
+				}
+				return entry.element;
+			}
+			if (this.size == 0 || this.cursor >= limit) {
+				return null;
+			}
+			advance(limit);
+		}
+	}
+
+	/**
+	 * Removes the element, comparing by identity.
+	 *
+	 * @return <code>true</code> if the element was contained.
+	 */
+	public boolean remove(E element) {
+		if (this.index == null) {
+			buildIndex();
+		}
+		Entry<E> entry = this.index.remove(element);
+		if (entry == null) {
+			return false;
+		}
+		long second = second(entry.time);
+		if (second <= this.cursor) {
+			// either sorted into the current second or added after that
+			if (!removeFromCurrent(entry) && !this.late.remove(entry)) {
+				throw new IllegalStateException("element is indexed, but not contained: " + element);
+			}
+		} else if (second < this.cursor + this.buckets.length) {
+			removeFromBucket((int) (second & this.wheelMask), entry);
+		} else if (!this.overflow.remove(entry)) {
+			throw new IllegalStateException("element is indexed, but not contained: " + element);
+		}
+		this.size--;
+		return true;
+	}
+
+	/**
+	 * Passes all elements with their time to the action, in the order they would be polled.
+	 */
+	public void forEach(ObjDoubleConsumer<? super E> action) {
+		List<Entry<E>> entries = new ArrayList<>(this.size);
+		for (int i = this.currentPos; i < this.currentSize; i++) {
+			entries.add(this.current[i]);
+		}
+		entries.addAll(this.late);
+		entries.addAll(this.overflow);
+		for (int b = 0; b < this.buckets.length; b++) {
+			for (int i = 0; i < this.bucketSizes[b]; i++) {
+				entries.add(this.buckets[b][i]);
+			}
+		}
+		entries.sort(this.comparator);
+		for (Entry<E> entry : entries) {
+			action.accept(entry.element, entry.time);
+		}
+	}
+
+	public void clear() {
+		Arrays.fill(this.current, null);
+		this.currentPos = 0;
+		this.currentSize = 0;
+		this.late.clear();
+		this.overflow.clear();
+		Arrays.fill(this.buckets, null);
+		Arrays.fill(this.bucketSizes, 0);
+		this.wheelCount = 0;
+		this.size = 0;
+		this.index = null;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Moves the cursor to the next second that has elements, but not beyond the limit, and sorts the elements of that second.
+	 */
+	private void advance(long limit) {
+		if (this.wheelCount > 0) {
+			this.cursor++;
+		} else if (this.overflow.isEmpty()) {
+			this.cursor = limit;
+		} else {
+			this.cursor = Math.min(limit, Math.max(this.cursor + 1, second(this.overflow.peek().time)));
+		}
+		while (!this.overflow.isEmpty() && second(this.overflow.peek().time) < this.cursor + this.buckets.length) {
+			Entry<E> entry = this.overflow.poll();
+			addToBucket(Math.max(this.cursor, second(entry.time)), entry);
+		}
+
+		int b = (int) (this.cursor & this.wheelMask);
+		int bucketSize = this.bucketSizes[b];
+		if (bucketSize > 0) {
+			// swap the bucket with the array of the current second, to re-use both
+			Entry<E>[] bucket = this.buckets[b];
+			Arrays.sort(bucket, 0, bucketSize, this.comparator);
+			this.buckets[b] = this.current;
+			this.bucketSizes[b] = 0;
+			this.current = bucket;
+			this.currentPos = 0;
+			this.currentSize = bucketSize;
+			this.wheelCount -= bucketSize;
+		}
+	}
+
+	private void addToBucket(long second, Entry<E> entry) {
+		int b = (int) (second & this.wheelMask);
+		Entry<E>[] bucket = this.buckets[b];
+		int bucketSize = this.bucketSizes[b];
+		if (bucket == null) {
+			bucket = newEntries(4);
+			this.buckets[b] = bucket;
+		} else if (bucketSize == bucket.length) {
+			bucket = Arrays.copyOf(bucket, bucketSize * 2);
+			this.buckets[b] = bucket;
+		}
+		bucket[bucketSize] = entry;
+		this.bucketSizes[b] = bucketSize + 1;
+		this.wheelCount++;
+	}
+
+	private void buildIndex() {
+		this.index = new IdentityHashMap<>(Math.max(16, 2 * this.size));
+		for (int i = this.currentPos; i < this.currentSize; i++) {
+			this.index.put(this.current[i].element, this.current[i]);
+		}
+		for (Entry<E> entry : this.late) {
+			this.index.put(entry.element, entry);
+		}
+		for (Entry<E> entry : this.overflow) {
+			this.index.put(entry.element, entry);
+		}
+		for (int b = 0; b < this.buckets.length; b++) {
+			for (int i = 0; i < this.bucketSizes[b]; i++) {
+				this.index.put(this.buckets[b][i].element, this.buckets[b][i]);
+			}
+		}
+	}
+
+	private boolean removeFromCurrent(Entry<E> entry) {
+		for (int i = this.currentPos; i < this.currentSize; i++) {
+			if (this.current[i] == entry) {
+				System.arraycopy(this.current, i + 1, this.current, i, this.currentSize - i - 1);
+				this.current[--this.currentSize] = null;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void removeFromBucket(int b, Entry<E> entry) {
+		Entry<E>[] bucket = this.buckets[b];
+		for (int i = 0; i < this.bucketSizes[b]; i++) {
+			if (bucket[i] == entry) {
+				System.arraycopy(bucket, i + 1, bucket, i, this.bucketSizes[b] - i - 1);
+				bucket[--this.bucketSizes[b]] = null;
+				this.wheelCount--;
+				return;
+			}
+		}
+		throw new IllegalStateException("element is indexed, but not contained: " + entry.element);
+	}
+
+	private static long second(double time) {
+		return (long) Math.floor(time);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E> Entry<E>[] newEntries(int length) {
+		return new Entry[length];
+	}
+}
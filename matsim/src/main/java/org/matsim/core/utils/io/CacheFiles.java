@@ -0,0 +1,112 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Helpers for directories that cache data derived from the inputs of a run, so later runs on the same inputs can read
+ * it instead of calculating it again.
+ * <p>
+ * A cache file is named after a {@link Fingerprint} of the inputs it was derived from, so changed inputs result in a new
+ * file and outdated files are never read. They are never deleted either. Files are written with
+ * {@link #writeAtomically(Path, ContentWriter)}, so concurrent runs using the same directory either see a complete file
+ * or none.
+ */
+public final class CacheFiles {
+
+	private CacheFiles() {
+	}
+
+	public interface ContentWriter {
+		void write(Path file) throws IOException;
+	}
+
+	/**
+	 * Lets the writer write the content to a temporary file in the same directory, which is then moved to the given file
+	 * in one step. The directory is created if it does not exist yet.
+	 */
+	public static void writeAtomically(Path file, ContentWriter writer) {
+		try {
+			Path directory = file.toAbsolutePath().getParent();
+			Files.createDirectories(directory);
+			Path tmpFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+			try {
+				writer.write(tmpFile);
+				Files.move(tmpFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				Files.deleteIfExists(tmpFile);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * A SHA-256 hash of a sequence of values, for use in the names of cache files. Strings are prefixed with their
+	 * length, so different sequences of strings do not result in the same bytes.
+	 */
+	public static final class Fingerprint {
+		private final MessageDigest digest;
+		private final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+
+		public Fingerprint() {
+			try {
+				this.digest = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		public Fingerprint putInt(int value) {
+			this.digest.update(this.buffer.clear().putInt(value).flip());
+			return this;
+		}
+
+		public Fingerprint putDouble(double value) {
+			this.digest.update(this.buffer.clear().putDouble(value).flip());
+			return this;
+		}
+
+		public Fingerprint putString(String value) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			putInt(bytes.length);
+			this.digest.update(bytes);
+			return this;
+		}
+
+		/**
+		 * @return the first 128 bits of the hash as hex string. Afterwards, the fingerprint must not be used anymore.
+		 */
+		public String toHex() {
+			// 128 bits are enough to make collisions practically impossible
+			return HexFormat.of().formatHex(this.digest.digest(), 0, 16);
+		}
+	}
+}
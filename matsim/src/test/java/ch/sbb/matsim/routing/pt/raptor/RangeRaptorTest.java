@@ -0,0 +1,181 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package ch.sbb.matsim.routing.pt.raptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.core.router.DefaultRoutingRequest;
+import org.matsim.core.router.TripStructureUtils;
+import org.matsim.core.utils.misc.Time;
+import org.matsim.pt.routes.TransitPassengerRoute;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+import ch.sbb.matsim.routing.pt.raptor.RangeRaptor.ProfileEntry;
+
+public class RangeRaptorTest {
+
+	private static final double EARLIEST = 7 * 3600;
+	private static final double LATEST = 9 * 3600;
+
+	@Test
+	void testProfileContainsDirectConnection() {
+		Fixture f = new Fixture();
+		f.init();
+		SwissRailRaptorData data = createData(f);
+		RaptorParameters raptorParams = RaptorUtils.createParameters(f.config);
+
+		TransitStopFacility fromStop = f.schedule.getFacilities().get(Id.create(23, TransitStopFacility.class));
+		Map<Id<TransitStopFacility>, List<ProfileEntry>> profiles = new RangeRaptor(data).calcProfile(fromStop, EARLIEST, LATEST, raptorParams);
+
+		// green line, directly reachable, see SwissRailRaptorTreeTest
+		List<ProfileEntry> profile = profiles.get(Id.create(18, TransitStopFacility.class));
+		Assertions.assertNotNull(profile, "stop 18 is not reachable.");
+		Assertions.assertTrue(profile.stream().anyMatch(e -> e.departureTime == Time.parseTime("07:41:00")
+				&& e.arrivalTime == Time.parseTime("07:50:00") && e.transferCount == 0), "missing direct connection: " + profile);
+		Assertions.assertNull(profiles.get(fromStop.getId()), "the start stop should not have a profile.");
+	}
+
+	/**
+	 * The profile must give the same earliest arrivals as a separate query for each departure time, and must not
+	 * contain dominated entries.
+	 */
+	@Test
+	void testProfileMatchesSingleDepartures() {
+		Fixture f = new Fixture();
+		f.init();
+		SwissRailRaptorData data = createData(f);
+		RaptorParameters raptorParams = RaptorUtils.createParameters(f.config);
+		RangeRaptor raptor = new RangeRaptor(data);
+
+		// SwissRailRaptor minimizes generalized costs. With the same costs for every second and no transfer penalty, these are the
+		// travel time from the departure, so its routes arrive as early as possible.
+		RaptorParameters timeParams = RaptorUtils.createParameters(f.config);
+		timeParams.setMarginalUtilityOfTravelTime_utl_s(TransportMode.pt, -1.0 / 3600);
+		timeParams.setMarginalUtilityOfTravelTime_utl_s(TransportMode.walk, -1.0 / 3600);
+		timeParams.setMarginalUtilityOfWaitingPt_utl_s(-1.0 / 3600);
+		timeParams.setTransferPenaltyFixCostPerTransfer(0);
+		timeParams.setTransferPenaltyPerTravelTimeHour(0);
+		timeParams.setTransferPenaltyMinimum(0);
+		timeParams.setTransferPenaltyMaximum(0);
+		SwissRailRaptor swissRailRaptor = new SwissRailRaptor.Builder(
+				SwissRailRaptorData.create(f.scenario.getTransitSchedule(), null, RaptorUtils.createStaticConfig(f.config), f.scenario.getNetwork(), null), f.config)
+				.with((RaptorParametersForPerson) person -> timeParams).build();
+
+		int comparedRoutes = 0;
+		for (int fromStopId : new int[] {0, 6, 19, 23}) {
+			TransitStopFacility fromStop = f.schedule.getFacilities().get(Id.create(fromStopId, TransitStopFacility.class));
+			Map<Id<TransitStopFacility>, List<ProfileEntry>> profiles = raptor.calcProfile(fromStop, EARLIEST, LATEST, raptorParams);
+			Assertions.assertFalse(profiles.isEmpty(), "nothing reachable from stop " + fromStopId);
+
+			TreeSet<Double> departureTimes = new TreeSet<>();
+			for (List<ProfileEntry> profile : profiles.values()) {
+				assertParetoOptimal(profile);
+				profile.forEach(e -> departureTimes.add(e.departureTime));
+			}
+
+			for (double departureTime : departureTimes) {
+				for (Map.Entry<Id<TransitStopFacility>, List<ProfileEntry>> e : profiles.entrySet()) {
+					TransitStopFacility toStop = f.schedule.getFacilities().get(e.getKey());
+					List<? extends PlanElement> route = swissRailRaptor.calcRoute(DefaultRoutingRequest.withoutAttributes(fromStop, toStop, departureTime, null));
+					List<Leg> ptLegs = route == null ? List.of() : TripStructureUtils.getLegs(route).stream()
+							.filter(leg -> leg.getRoute() instanceof TransitPassengerRoute).toList();
+					// the range raptor only starts at the start stop and ends with arrivals at the target stop, while SwissRailRaptor may
+					// also walk from or to stops nearby
+					if (ptLegs.isEmpty()
+							|| !((TransitPassengerRoute) ptLegs.get(0).getRoute()).getAccessStopId().equals(fromStop.getId())
+							|| !((TransitPassengerRoute) ptLegs.get(ptLegs.size() - 1).getRoute()).getEgressStopId().equals(toStop.getId())) {
+						continue;
+					}
+					Leg lastLeg = ptLegs.get(ptLegs.size() - 1);
+					double expected = lastLeg.getDepartureTime().seconds() + lastLeg.getTravelTime().seconds();
+					double actual = earliestArrival(e.getValue(), departureTime);
+					Assertions.assertEquals(expected, actual, 0.0, "wrong earliest arrival at stop " + e.getKey() + " from stop " + fromStopId
+							+ " departing at " + Time.writeTime(departureTime));
+					comparedRoutes++;
+				}
+			}
+		}
+		Assertions.assertTrue(comparedRoutes > 0, "no routes compared");
+	}
+
+	@Test
+	void testParallelProfilesAreTheSame() {
+		Fixture f = new Fixture();
+		f.init();
+		SwissRailRaptorData data = createData(f);
+		RaptorParameters raptorParams = RaptorUtils.createParameters(f.config);
+
+		List<TransitStopFacility> fromStops = new ArrayList<>(f.schedule.getFacilities().values());
+		Map<Id<TransitStopFacility>, Map<Id<TransitStopFacility>, List<ProfileEntry>>> parallel =
+				new ParallelRangeRaptor(data, 4).calcProfiles(fromStops, EARLIEST, LATEST, raptorParams);
+
+		Assertions.assertEquals(fromStops.size(), parallel.size());
+		RangeRaptor raptor = new RangeRaptor(data);
+		for (TransitStopFacility fromStop : fromStops) {
+			Map<Id<TransitStopFacility>, List<ProfileEntry>> expected = raptor.calcProfile(fromStop, EARLIEST, LATEST, raptorParams);
+			Map<Id<TransitStopFacility>, List<ProfileEntry>> actual = parallel.get(fromStop.getId());
+			Assertions.assertEquals(expected.keySet(), actual.keySet());
+			for (Id<TransitStopFacility> toStopId : expected.keySet()) {
+				Assertions.assertEquals(expected.get(toStopId).toString(), actual.get(toStopId).toString());
+			}
+		}
+	}
+
+	private static SwissRailRaptorData createData(Fixture f) {
+		RaptorStaticConfig config = RaptorUtils.createStaticConfig(f.config);
+		config.setOptimization(RaptorStaticConfig.RaptorOptimization.OneToAllRouting);
+		return SwissRailRaptorData.create(f.scenario.getTransitSchedule(), null, config, f.scenario.getNetwork(), null);
+	}
+
+	private static double earliestArrival(List<ProfileEntry> profile, double departureTime) {
+		double earliest = Double.POSITIVE_INFINITY;
+		if (profile != null) {
+			for (ProfileEntry e : profile) {
+				if (e.departureTime >= departureTime) {
+					earliest = Math.min(earliest, e.arrivalTime);
+				}
+			}
+		}
+		return earliest;
+	}
+
+	private static void assertParetoOptimal(List<ProfileEntry> profile) {
+		for (int i = 1; i < profile.size(); i++) {
+			Assertions.assertTrue(profile.get(i - 1).departureTime <= profile.get(i).departureTime, "profile not sorted: " + profile);
+		}
+		for (ProfileEntry a : profile) {
+			for (ProfileEntry b : profile) {
+				if (a != b) {
+					boolean dominates = b.departureTime >= a.departureTime && b.arrivalTime <= a.arrivalTime && b.transferCount <= a.transferCount;
+					Assertions.assertFalse(dominates, b + " dominates " + a);
+				}
+			}
+		}
+	}
+}
@@ -19,16 +19,30 @@
  * *********************************************************************** */
 package ch.sbb.matsim.routing.pt.raptor;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.matsim.api.core.v01.Id;
 import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+import org.matsim.testcases.MatsimTestUtils;
 
 /**
  * @author mrieser / SBB
  */
 public class SwissRailRaptorDataTest {
 
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
 	@Test
 	void testTransfersFromSchedule() {
         Fixture f = new Fixture();
@@ -97,4 +111,94 @@ public class SwissRailRaptorDataTest {
         Assertions.assertEquals(data2.transfers.length, data4.transfers.length, "number of transfers should have stayed the same.");
     }
 
+	@Test
+	void testIncrementalUpdate() {
+		Fixture f = new Fixture();
+		f.init();
+		RaptorStaticConfig raptorConfig = RaptorUtils.createStaticConfig(f.config);
+		SwissRailRaptorData data = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+
+		f.schedule.removeTransitLine(f.greenLine);
+		SwissRailRaptorData updated = SwissRailRaptorData.update(data, f.schedule, null, f.network, null);
+		SwissRailRaptorData expected = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+		Assertions.assertTrue(getTransfers(updated).size() < getTransfers(data).size(), "the transfers to the green line should have been removed.");
+		Assertions.assertEquals(getTransfers(expected), getTransfers(updated));
+
+		f.schedule.addTransitLine(f.greenLine);
+		SwissRailRaptorData updatedAgain = SwissRailRaptorData.update(updated, f.schedule, null, f.network, null);
+		Assertions.assertEquals(getTransfers(data), getTransfers(updatedAgain));
+	}
+
+	@Test
+	void testIncrementalUpdateWithAdaptiveTransfers() {
+		Fixture f = new Fixture();
+		f.init();
+		RaptorStaticConfig raptorConfig = RaptorUtils.createStaticConfig(f.config);
+		raptorConfig.setTransferCalculation(RaptorStaticConfig.RaptorTransferCalculation.Adaptive);
+		SwissRailRaptorData data = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+		for (SwissRailRaptorData.RRouteStop routeStop : data.routeStops) {
+			data.calculateTransfers(routeStop);
+		}
+
+		f.schedule.removeTransitLine(f.greenLine);
+		SwissRailRaptorData updated = SwissRailRaptorData.update(data, f.schedule, null, f.network, null);
+		SwissRailRaptorData expected = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+		int copied = 0;
+		for (int i = 0; i < updated.routeStops.length; i++) {
+			if (updated.transferCache[i] != null) {
+				copied++;
+				Assertions.assertEquals(describe(expected, expected.calculateTransfers(expected.routeStops[i])), describe(updated, updated.transferCache[i]));
+			}
+		}
+		Assertions.assertTrue(copied > 0, "no transfers were copied.");
+		for (int i = 0; i < updated.routeStops.length; i++) {
+			Assertions.assertEquals(describe(expected, expected.calculateTransfers(expected.routeStops[i])), describe(updated, updated.calculateTransfers(updated.routeStops[i])));
+		}
+	}
+
+	@Test
+	void testDataCache() {
+		Fixture f = new Fixture();
+		f.init();
+		RaptorStaticConfig raptorConfig = RaptorUtils.createStaticConfig(f.config);
+		Path directory = Paths.get(utils.getOutputDirectory(), "raptor");
+		SwissRailRaptorDataCache cache = new SwissRailRaptorDataCache(directory);
+
+		// the first call calculates and writes the transfers, the second one only reads them
+		SwissRailRaptorData data = cache.getData(f.schedule, null, raptorConfig, f.network, null);
+		Assertions.assertEquals(1, countFiles(directory));
+		SwissRailRaptorData cached = cache.getData(f.schedule, null, raptorConfig, f.network, null);
+		Assertions.assertEquals(1, countFiles(directory));
+		Assertions.assertEquals(getTransfers(data), getTransfers(cached));
+		Assertions.assertEquals(getTransfers(SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null)), getTransfers(cached));
+
+		// a changed schedule results in a new file
+		f.schedule.removeTransitLine(f.greenLine);
+		cache.getData(f.schedule, null, raptorConfig, f.network, null);
+		Assertions.assertEquals(2, countFiles(directory));
+	}
+
+	private static Set<String> getTransfers(SwissRailRaptorData data) {
+		return describe(data, data.transfers);
+	}
+
+	private static Set<String> describe(SwissRailRaptorData data, SwissRailRaptorData.RTransfer[] transfers) {
+		Set<String> descriptions = new HashSet<>();
+		for (SwissRailRaptorData.RTransfer t : transfers) {
+			descriptions.add(describe(data.routeStops[t.fromRouteStop]) + " -> " + describe(data.routeStops[t.toRouteStop]) + " " + t.transferTime + "s " + t.transferDistance + "m");
+		}
+		return descriptions;
+	}
+
+	private static String describe(SwissRailRaptorData.RRouteStop routeStop) {
+		return routeStop.line.getId() + "/" + routeStop.route.getId() + "/" + routeStop.route.getStops().indexOf(routeStop.routeStop);
+	}
+
+	private static long countFiles(Path directory) {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.count();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
 }
@@ -23,7 +23,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.events.handler.EventHandler;
 
@@ -69,6 +72,49 @@ public class EventsManagerImplTest {
 		}
 	}
 
+	@Test
+	void testProcessEvent_ExceptionInStandardEventHandlerIsNotWrapped() {
+		EventsManager manager = new EventsManagerImpl();
+		IllegalStateException exception = new IllegalStateException();
+		manager.addHandler((LinkEnterEventHandler) event -> {
+			throw exception;
+		});
+		manager.initProcessing();
+		RuntimeException e = Assertions.assertThrows(RuntimeException.class,
+				() -> manager.processEvent(new LinkEnterEvent(1.0, Id.createVehicleId(1), Id.createLinkId(1))));
+		Assertions.assertSame(exception, e);
+	}
+
+	@Test
+	void testProcessEvent_WithoutSynchronizationOnHandlers() {
+		EventsManager manager = new EventsManagerImpl(false);
+		CountingMyEventHandler handler1 = new CountingMyEventHandler();
+		CountingMyEventHandler handler2 = new CountingMyEventHandler();
+		manager.addHandler(handler1);
+		manager.addHandler(handler2);
+		manager.initProcessing();
+		manager.processEvent(new MyEvent(123.45));
+		manager.removeHandler(handler1);
+		manager.processEvent(new MyEvent(234.56));
+		manager.finishProcessing();
+		Assertions.assertEquals(1, handler1.counter);
+		Assertions.assertEquals(2, handler2.counter);
+	}
+
+	@Test
+	void testProcessEvent_DifferentHandlerInterfacesForSameEvent() {
+		EventsManager manager = EventsUtils.createEventsManager();
+		CountingMyEventHandler handler1 = new CountingMyEventHandler();
+		OtherMyEventHandler handler2 = new OtherMyEventHandler();
+		manager.addHandler(handler1);
+		manager.addHandler(handler2);
+		manager.initProcessing();
+		manager.processEvent(new MyEvent(123.45));
+		manager.finishProcessing();
+		Assertions.assertEquals(1, handler1.counter);
+		Assertions.assertEquals(1, handler2.counter);
+	}
+
 	/*package*/ static class MyEvent extends Event {
 		public MyEvent(final double time) {
 			super(time);
@@ -109,4 +155,16 @@ public class EventsManagerImplTest {
 			System.out.println(i);
 		}
 	}
+
+	private interface AnotherMyEventHandler extends EventHandler {
+		void handleEvent(final MyEvent e);
+	}
+
+	private static class OtherMyEventHandler implements AnotherMyEventHandler {
+		private int counter = 0;
+		@Override
+		public void handleEvent(final MyEvent e) {
+			this.counter++;
+		}
+	}
 }
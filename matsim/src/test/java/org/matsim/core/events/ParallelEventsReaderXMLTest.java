@@ -0,0 +1,107 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.GenericEvent;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.ControllerConfigGroup;
+import org.matsim.core.events.algorithms.EventWriterXML;
+import org.matsim.testcases.utils.EventsCollector;
+import org.matsim.vehicles.Vehicle;
+
+public class ParallelEventsReaderXMLTest {
+
+	@Test
+	void testSameEventsAsSequentialReader() {
+		byte[] xml = writeEvents(10_000);
+
+		List<Event> sequential = read(xml, 1);
+		List<Event> parallel = read(xml, 4);
+
+		Assertions.assertEquals(10_000 + 2_000 + 1_000, sequential.size());
+		Assertions.assertEquals(sequential.size(), parallel.size());
+		for (int i = 0; i < sequential.size(); i++) {
+			Assertions.assertEquals(sequential.get(i).toString(), parallel.get(i).toString());
+			Assertions.assertEquals(sequential.get(i).getClass(), parallel.get(i).getClass());
+		}
+	}
+
+	@Test
+	void testCustomEventMapper() {
+		byte[] xml = writeEvents(100);
+
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		MatsimEventsReader reader = new MatsimEventsReader(events);
+		reader.setNumberOfThreads(2);
+		reader.addCustomEventMapper("custom", event -> new GenericEvent("mapped", event.getTime()));
+		events.initProcessing();
+		reader.readStream(new ByteArrayInputStream(xml), ControllerConfigGroup.EventsFileFormat.xml);
+		events.finishProcessing();
+
+		long mapped = collector.getEvents().stream().filter(e -> e.getEventType().equals("mapped")).count();
+		Assertions.assertEquals(10, mapped);
+		Assertions.assertTrue(collector.getEvents().stream().noneMatch(e -> e.getEventType().equals("custom")));
+	}
+
+	private static byte[] writeEvents(int count) {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		EventWriterXML writer = new EventWriterXML(baos);
+		for (int i = 0; i < count; i++) {
+			double time = i;
+			if (i % 5 == 0) {
+				writer.handleEvent(new PersonDepartureEvent(time, Id.create("person" + i, Person.class), Id.create("link" + (i % 7), Link.class), "car", "car"));
+			}
+			if (i % 10 == 0) {
+				GenericEvent event = new GenericEvent("custom", time);
+				event.getAttributes().put("index", Integer.toString(i));
+				writer.handleEvent(event);
+			}
+			writer.handleEvent(new LinkEnterEvent(time, Id.create("vehicle" + i, Vehicle.class), Id.create("link" + (i % 7), Link.class)));
+		}
+		writer.closeFile();
+		return baos.toByteArray();
+	}
+
+	private static List<Event> read(byte[] xml, int numberOfThreads) {
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		MatsimEventsReader reader = new MatsimEventsReader(events);
+		reader.setNumberOfThreads(numberOfThreads);
+		events.initProcessing();
+		reader.readStream(new ByteArrayInputStream(xml), ControllerConfigGroup.EventsFileFormat.xml);
+		events.finishProcessing();
+		return collector.getEvents();
+	}
+}
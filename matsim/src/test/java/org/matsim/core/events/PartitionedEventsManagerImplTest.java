@@ -0,0 +1,158 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.core.events.handler.PartitionedEventHandler;
+import org.matsim.testcases.utils.EventsCollector;
+import org.matsim.vehicles.Vehicle;
+
+public class PartitionedEventsManagerImplTest {
+
+	@Test
+	void testPartitionedHandlerSeesEachEventOnceAndInOrderPerVehicle() {
+		PartitionedEventsManagerImpl events = new PartitionedEventsManagerImpl(4);
+		VehicleLinkHandler partitioned = new VehicleLinkHandler();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(partitioned);
+		events.addHandler(collector);
+
+		events.initProcessing();
+		for (int time = 0; time < 10; time++) {
+			for (int v = 0; v < 20; v++) {
+				events.processEvent(new LinkEnterEvent(time, Id.createVehicleId(v), Id.createLinkId(time)));
+				events.processEvent(new LinkLeaveEvent(time, Id.createVehicleId(v), Id.createLinkId(time)));
+			}
+			events.afterSimStep(time);
+			// all events of the time step must have been processed
+			Assertions.assertThat(partitioned.eventCount()).isEqualTo((time + 1) * 40);
+		}
+		events.finishProcessing();
+
+		Assertions.assertThat(collector.getEvents()).hasSize(400);
+		Assertions.assertThat(partitioned.linksPerVehicle).hasSize(20);
+		for (List<String> links : partitioned.linksPerVehicle.values()) {
+			Assertions.assertThat(links).containsExactly(
+					"+0", "-0", "+1", "-1", "+2", "-2", "+3", "-3", "+4", "-4", "+5", "-5", "+6", "-6", "+7", "-7", "+8", "-8", "+9", "-9");
+		}
+		for (Map.Entry<Id<Vehicle>, String> e : partitioned.threadPerVehicle.entrySet()) {
+			Assertions.assertThat(e.getValue()).isNotEqualTo("inconsistent");
+		}
+	}
+
+	@Test
+	void testEventsAreProcessedSequentiallyOutsideOfMobsim() {
+		PartitionedEventsManagerImpl events = new PartitionedEventsManagerImpl(2);
+		VehicleLinkHandler partitioned = new VehicleLinkHandler();
+		events.addHandler(partitioned);
+		events.processEvent(new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		Assertions.assertThat(partitioned.eventCount()).isEqualTo(1);
+	}
+
+	@Test
+	void testEventHandlerCanProduceAdditionalEventLateInSimStep() {
+		final PartitionedEventsManagerImpl events = new PartitionedEventsManagerImpl(4);
+		events.addHandler(new LinkEnterEventHandler() {
+			@Override
+			public void handleEvent(LinkEnterEvent event) {
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+				events.processEvent(new PersonStuckEvent(event.getTime(), Id.createPersonId(0), Id.createLinkId(0), "car"));
+			}
+		});
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		events.initProcessing();
+		events.processEvent(new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.afterSimStep(0.0);
+		Assertions.assertThat(collector.getEvents()).hasSize(2);
+		events.processEvent(new LinkEnterEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.afterSimStep(1.0);
+		Assertions.assertThat(collector.getEvents()).hasSize(4);
+		events.finishProcessing();
+
+		Assertions.assertThat(collector.getEvents()).containsExactly(
+				new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)),
+				new PersonStuckEvent(0.0, Id.createPersonId(0), Id.createLinkId(0), "car"),
+				new LinkEnterEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)),
+				new PersonStuckEvent(1.0, Id.createPersonId(0), Id.createLinkId(0), "car"));
+	}
+
+	@Test
+	void testExceptionInHandlerIsRethrown() {
+		PartitionedEventsManagerImpl events = new PartitionedEventsManagerImpl(2);
+		events.addHandler((LinkEnterEventHandler) event -> {
+			throw new IllegalStateException("expected");
+		});
+		events.initProcessing();
+		events.processEvent(new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		Assertions.assertThatThrownBy(() -> {
+			events.afterSimStep(0.0);
+			events.finishProcessing();
+		}).isInstanceOf(RuntimeException.class);
+	}
+
+	private static class VehicleLinkHandler implements LinkEnterEventHandler, LinkLeaveEventHandler, PartitionedEventHandler {
+
+		private final Map<Id<Vehicle>, List<String>> linksPerVehicle = new ConcurrentHashMap<>();
+		private final Map<Id<Vehicle>, String> threadPerVehicle = new ConcurrentHashMap<>();
+
+		@Override
+		public Partitioning getPartitioning() {
+			return Partitioning.VEHICLE;
+		}
+
+		@Override
+		public void handleEvent(LinkEnterEvent event) {
+			record(event.getVehicleId(), "+" + event.getLinkId());
+		}
+
+		@Override
+		public void handleEvent(LinkLeaveEvent event) {
+			record(event.getVehicleId(), "-" + event.getLinkId());
+		}
+
+		private void record(Id<Vehicle> vehicleId, String entry) {
+			this.linksPerVehicle.computeIfAbsent(vehicleId, id -> new CopyOnWriteArrayList<>()).add(entry);
+			String thread = Thread.currentThread().getName();
+			this.threadPerVehicle.merge(vehicleId, thread, (a, b) -> a.equals(b) ? a : "inconsistent");
+		}
+
+		int eventCount() {
+			return this.linksPerVehicle.values().stream().mapToInt(List::size).sum();
+		}
+	}
+
+}
@@ -0,0 +1,156 @@
+package org.matsim.core.events.algorithms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.GenericEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.PersonMoneyEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.ControllerConfigGroup;
+import org.matsim.core.events.EventsReaderBinary;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.testcases.utils.EventsCollector;
+import org.matsim.vehicles.Vehicle;
+
+public class EventWriterBinaryTest {
+
+	@Test
+	void testSpecialCharacters() {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		EventWriterBinary writer = new EventWriterBinary(baos);
+
+		writer.handleEvent(new LinkLeaveEvent(3600.0, Id.create("vehicle>3", Vehicle.class), Id.create("link<2", Link.class)));
+		writer.handleEvent(new LinkLeaveEvent(3601.5, Id.create("vehicle\"4", Vehicle.class), Id.create("link'3ä", Link.class)));
+		writer.closeFile();
+
+		List<Event> events = read(baos);
+
+		Assertions.assertEquals(2, events.size(), "there must be 2 events.");
+		LinkLeaveEvent event1 = (LinkLeaveEvent) events.get(0);
+		LinkLeaveEvent event2 = (LinkLeaveEvent) events.get(1);
+
+		Assertions.assertEquals(3600.0, event1.getTime(), 0.0);
+		Assertions.assertEquals("link<2", event1.getLinkId().toString());
+		Assertions.assertEquals("vehicle>3", event1.getVehicleId().toString());
+
+		Assertions.assertEquals(3601.5, event2.getTime(), 0.0);
+		Assertions.assertEquals("link'3ä", event2.getLinkId().toString());
+		Assertions.assertEquals("vehicle\"4", event2.getVehicleId().toString());
+	}
+
+	@Test
+	void testNullAttribute() {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		EventWriterBinary writer = new EventWriterBinary(baos);
+
+		GenericEvent event = new GenericEvent("TEST", 3600.0);
+		event.getAttributes().put("dummy", null);
+		writer.handleEvent(event);
+		writer.closeFile();
+
+		List<Event> events = read(baos);
+
+		Assertions.assertEquals(1, events.size(), "there must be 1 event.");
+		GenericEvent event1 = (GenericEvent) events.get(0);
+		Assertions.assertTrue(event1.getAttributes().containsKey("dummy"));
+		Assertions.assertNull(event1.getAttributes().get("dummy"));
+	}
+
+	@Test
+	void testOnlyIdsInDictionary() {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		EventWriterBinary writer = new EventWriterBinary(baos, 10);
+		for (int i = 0; i < 100; i++) {
+			writer.handleEvent(new PersonMoneyEvent(i, Id.create("person" + (i % 3), Person.class), i * 0.25, "toll " + i, "partner", ""));
+		}
+		// type, 5 attribute names and 3 persons
+		Assertions.assertEquals(9, writer.getDictionarySize());
+		writer.closeFile();
+
+		List<Event> events = read(baos);
+
+		Assertions.assertEquals(100, events.size());
+		PersonMoneyEvent last = (PersonMoneyEvent) events.get(99);
+		Assertions.assertEquals("person0", last.getPersonId().toString());
+		Assertions.assertEquals(99 * 0.25, last.getAmount(), 0.0);
+		Assertions.assertEquals("toll 99", last.getPurpose());
+		Assertions.assertEquals("partner", last.getTransactionPartner());
+		Assertions.assertEquals("", last.getReference());
+	}
+
+	@Test
+	void testMultipleBlocks() {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		EventWriterBinary writer = new EventWriterBinary(baos, 10);
+		writeEvents(writer, 105);
+		writer.closeFile();
+
+		List<Event> events = read(baos);
+
+		Assertions.assertEquals(105 + 21, events.size());
+		Assertions.assertEquals(21, events.stream().filter(e -> e instanceof PersonDepartureEvent).count());
+		for (int i = 1; i < events.size(); i++) {
+			Assertions.assertTrue(events.get(i - 1).getTime() <= events.get(i).getTime());
+		}
+		LinkLeaveEvent last = (LinkLeaveEvent) events.get(events.size() - 1);
+		Assertions.assertEquals(104 * 10.0, last.getTime(), 0.0);
+		Assertions.assertEquals("link6", last.getLinkId().toString());
+		Assertions.assertEquals("vehicle104", last.getVehicleId().toString());
+	}
+
+	@Test
+	void testFilters() {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		EventWriterBinary writer = new EventWriterBinary(baos, 10);
+		writeEvents(writer, 105);
+		writer.closeFile();
+
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		eventsManager.addHandler(collector);
+		EventsReaderBinary reader = new EventsReaderBinary(eventsManager);
+		reader.setTimeWindow(200.0, 500.0);
+		reader.setEventTypes(Set.of(PersonDepartureEvent.EVENT_TYPE));
+		eventsManager.initProcessing();
+		reader.readStream(new ByteArrayInputStream(baos.toByteArray()));
+		eventsManager.finishProcessing();
+
+		// departures every 50 seconds
+		Assertions.assertEquals(7, collector.getEvents().size());
+		for (Event event : collector.getEvents()) {
+			Assertions.assertInstanceOf(PersonDepartureEvent.class, event);
+			Assertions.assertTrue(event.getTime() >= 200.0 && event.getTime() <= 500.0);
+		}
+	}
+
+	private static void writeEvents(EventWriterBinary writer, int count) {
+		for (int i = 0; i < count; i++) {
+			double time = i * 10.0;
+			if (i % 5 == 0) {
+				writer.handleEvent(new PersonDepartureEvent(time, Id.create("person" + i, Person.class), Id.create("link" + (i % 7), Link.class), "car", "car"));
+			}
+			writer.handleEvent(new LinkLeaveEvent(time, Id.create("vehicle" + i, Vehicle.class), Id.create("link" + (i % 7), Link.class)));
+		}
+	}
+
+	private static List<Event> read(ByteArrayOutputStream baos) {
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		events.initProcessing();
+		new MatsimEventsReader(events).readStream(new ByteArrayInputStream(baos.toByteArray()), ControllerConfigGroup.EventsFileFormat.binary);
+		events.finishProcessing();
+		return collector.getEvents();
+	}
+}
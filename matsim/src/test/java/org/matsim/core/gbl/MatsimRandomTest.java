@@ -21,12 +21,14 @@
 package org.matsim.core.gbl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Id;
 import org.matsim.testcases.MatsimTestUtils;
 
 /**
@@ -123,6 +125,46 @@ public class MatsimRandomTest {
 		assertTrue(Math.abs(value1 - value2b) > MatsimTestUtils.EPSILON);
 	}
 
+	/**
+	 * Tests that the random numbers drawn in a person stream only depend on the person and module, and not on
+	 * the random numbers drawn before or on the random number generator used.
+	 */
+	@Test
+	void testPersonStreams() {
+		MatsimRandom.reset(123L);
+		Random local1 = MatsimRandom.getLocalInstance();
+		Random local2 = MatsimRandom.getLocalInstance();
+		local2.nextDouble();
+		double[] values = new double[4];
+		MatsimRandom.runWithPersonStream(Id.createPersonId("a"), "module", () -> values[0] = local1.nextDouble());
+		MatsimRandom.runWithPersonStream(Id.createPersonId("a"), "module", () -> values[1] = local2.nextDouble());
+		MatsimRandom.runWithPersonStream(Id.createPersonId("a"), "module", () -> {
+			values[2] = MatsimRandom.getRandom().nextDouble();
+			// a nested stream must not change the outer one
+			MatsimRandom.runWithPersonStream(Id.createPersonId("b"), "module", () -> local1.nextGaussian());
+			values[3] = MatsimRandom.getRandom().nextDouble();
+		});
+		assertEquals(values[0], values[1], 0.0);
+		assertEquals(values[0], values[2], 0.0);
+
+		double[] other = new double[3];
+		MatsimRandom.runWithPersonStream(Id.createPersonId("b"), "module", () -> other[0] = local1.nextDouble());
+		MatsimRandom.runWithPersonStream(Id.createPersonId("a"), "other", () -> other[1] = local1.nextDouble());
+		// the controler resets the seed in every iteration
+		MatsimRandom.reset(124L);
+		MatsimRandom.runWithPersonStream(Id.createPersonId("a"), "module", () -> other[2] = local1.nextDouble());
+		MatsimRandom.reset(123L);
+		for (double value : other) {
+			assertNotEquals(values[0], value);
+		}
+
+		MatsimRandom.runWithPersonStream(Id.createPersonId("a"), "module", () -> {
+			local1.nextDouble();
+			other[0] = local1.nextDouble();
+		});
+		assertEquals(other[0], values[3], 0.0);
+	}
+
 	/** Test that two (Pseudo)Random Number Generators are equil by
 	 * drawing a series of random numbers and comparing those.
 	 *
@@ -0,0 +1,173 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.hermes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.RoutingConfigGroup;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.router.TripStructureUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.utils.EventsCollector;
+
+/**
+ * Compares runs of Hermes with a partitioned network against the sequential realm.
+ */
+public class ParallelHermesTest {
+
+	private static final int GRID_SIZE = 6;
+
+	@BeforeEach
+	public void prepareTest() {
+		Id.resetCaches();
+		ScenarioImporter.flush();
+		HermesConfigGroup.SIM_STEPS = 30 * 60 * 60;
+	}
+
+	@Test
+	void testSameEventsAsSequentialRealmWithoutCongestion() {
+		List<Event> sequential = runHermes(1, 36000.0, 10, false);
+		List<Event> parallel = runHermes(4, 36000.0, 10, false);
+
+		Assertions.assertTrue(parallel.stream().anyMatch(e -> e instanceof LinkEnterEvent));
+		assertSameEvents(sequential, parallel);
+	}
+
+	@Test
+	void testSameEventsAsSequentialRealmWithCongestion() {
+		List<Event> sequential = runHermes(1, 300.0, 40, true);
+		Assertions.assertTrue(lastTime(sequential) > lastTime(runHermes(1, 36000.0, 40, false)), "scenario is not congested");
+
+		// queues spill back over the boundary links, so the order of pushes and pops on them matters
+		assertSameEvents(sequential, runHermes(4, 300.0, 40, true));
+		assertSameEvents(sequential, runHermes(3, 300.0, 40, true));
+	}
+
+	private static void assertSameEvents(List<Event> expected, List<Event> actual) {
+		Assertions.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assertions.assertEquals(expected.get(i).toString(), actual.get(i).toString(), "event " + i);
+		}
+	}
+
+	private static double lastTime(List<Event> events) {
+		return events.get(events.size() - 1).getTime();
+	}
+
+	private static List<Event> runHermes(int numberOfThreads, double capacity, int agentsPerRoute, boolean spillback) {
+		ScenarioImporter.flush();
+		Scenario scenario = createGridScenario(capacity, agentsPerRoute, spillback);
+		scenario.getConfig().hermes().setNumberOfThreads(numberOfThreads);
+
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		HermesTest.createHermes(scenario, events).run();
+		return collector.getEvents();
+	}
+
+	/**
+	 * Creates a grid with links in both directions and agents driving along all rows and columns, so that every
+	 * route crosses the boundaries between realms. With spillback, each route ends in a bottleneck and only a few
+	 * vehicles fit on a link.
+	 */
+	private static Scenario createGridScenario(double capacity, int agentsPerRoute, boolean spillback) {
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		scenario.getConfig().routing().setNetworkRouteConsistencyCheck(RoutingConfigGroup.NetworkRouteConsistencyCheck.disable);
+		Network network = scenario.getNetwork();
+		Node[][] nodes = new Node[GRID_SIZE][GRID_SIZE];
+		for (int x = 0; x < GRID_SIZE; x++) {
+			for (int y = 0; y < GRID_SIZE; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * 500, y * 500));
+			}
+		}
+		List<List<Id<Link>>> routes = new ArrayList<>();
+		for (int i = 0; i < GRID_SIZE; i++) {
+			List<Id<Link>> east = new ArrayList<>();
+			List<Id<Link>> west = new ArrayList<>();
+			List<Id<Link>> north = new ArrayList<>();
+			List<Id<Link>> south = new ArrayList<>();
+			for (int j = 0; j < GRID_SIZE - 1; j++) {
+				east.add(createLink(network, nodes[j][i], nodes[j + 1][i], capacity));
+				west.add(0, createLink(network, nodes[j + 1][i], nodes[j][i], capacity));
+				north.add(createLink(network, nodes[i][j], nodes[i][j + 1], capacity));
+				south.add(0, createLink(network, nodes[i][j + 1], nodes[i][j], capacity));
+			}
+			routes.add(east);
+			routes.add(west);
+			routes.add(north);
+			routes.add(south);
+		}
+		if (spillback) {
+			scenario.getConfig().hermes().setStorageCapacityFactor(0.1);
+			for (List<Id<Link>> route : routes) {
+				network.getLinks().get(route.get(route.size() - 1)).setCapacity(capacity / 4);
+			}
+		}
+
+		PopulationFactory pf = scenario.getPopulation().getFactory();
+		int personId = 0;
+		for (List<Id<Link>> route : routes) {
+			for (int i = 0; i < agentsPerRoute; i++) {
+				Person person = pf.createPerson(Id.createPersonId(personId++));
+				Plan plan = pf.createPlan();
+				Activity home = pf.createActivityFromLinkId("h", route.get(0));
+				home.setEndTime(6 * 3600 + i * 5);
+				plan.addActivity(home);
+				Leg leg = pf.createLeg(TransportMode.car);
+				TripStructureUtils.setRoutingMode(leg, TransportMode.car);
+				leg.setRoute(RouteUtils.createLinkNetworkRouteImpl(route.get(0), route.subList(1, route.size() - 1), route.get(route.size() - 1)));
+				plan.addLeg(leg);
+				plan.addActivity(pf.createActivityFromLinkId("w", route.get(route.size() - 1)));
+				person.addPlan(plan);
+				scenario.getPopulation().addPerson(person);
+			}
+		}
+		return scenario;
+	}
+
+	private static Id<Link> createLink(Network network, Node from, Node to, double capacity) {
+		Id<Link> id = Id.createLinkId(from.getId() + "-" + to.getId());
+		NetworkUtils.createAndAddLink(network, id, from, to, 500, 10, capacity, 1);
+		return id;
+	}
+}
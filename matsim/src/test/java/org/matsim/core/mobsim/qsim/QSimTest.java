@@ -30,6 +30,7 @@ import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -1780,6 +1781,65 @@ public class QSimTest {
 		}
 	}
 
+	/**
+	 * Many agents end their activity and arrive from a teleported leg in the same time step.  With the parallel
+	 * activity and teleportation engines, they must depart in the same order and produce the same events, in the
+	 * same order, as without.
+	 */
+	@Test
+	void testParallelActivityAndTeleportationEngines() {
+		List<Event> sequentialEvents = runManyTeleportedAgents(false);
+		List<Event> parallelEvents = runManyTeleportedAgents(true);
+
+		Assertions.assertEquals(sequentialEvents.size(), parallelEvents.size(), "wrong number of events.");
+		Assertions.assertEquals(getDepartures(sequentialEvents), getDepartures(parallelEvents), "departures in different order.");
+		for (int i = 0; i < sequentialEvents.size(); i++) {
+			Assertions.assertEquals(sequentialEvents.get(i), parallelEvents.get(i), "different event at position " + i);
+		}
+	}
+
+	private static List<Event> runManyTeleportedAgents(boolean usingParallelEngines) {
+		Fixture f = new Fixture(true, 4);
+		f.config.qsim().setUsingParallelActivityAndTeleportationEngines(usingParallelEngines);
+
+		for (int i = 0; i < 1000; i++) {
+			Person person = PopulationUtils.getFactory().createPerson(Id.create(i, Person.class));
+			Plan plan = PersonUtils.createAndAddPlan(person, true);
+			Activity a1 = PopulationUtils.createAndAddActivityFromLinkId(plan, "h", f.link1.getId());
+			a1.setEndTime(6*3600 + i % 3);
+			Leg leg1 = PopulationUtils.createAndAddLeg( plan, "other" );
+			TripStructureUtils.setRoutingMode( leg1, "other" );
+			Route route1 = RouteUtils.createGenericRouteImpl(f.link1.getId(), f.link3.getId());
+			route1.setTravelTime(15.0);
+			leg1.setRoute(route1);
+			Activity a2 = PopulationUtils.createAndAddActivityFromLinkId(plan, "w", f.link3.getId());
+			a2.setMaximumDuration(60.0);
+			Leg leg2 = PopulationUtils.createAndAddLeg( plan, "other" );
+			TripStructureUtils.setRoutingMode( leg2, "other" );
+			Route route2 = RouteUtils.createGenericRouteImpl(f.link3.getId(), f.link1.getId());
+			route2.setTravelTime(15.0 + i % 5);
+			leg2.setRoute(route2);
+			PopulationUtils.createAndAddActivityFromLinkId(plan, "h", f.link1.getId());
+			f.plans.addPerson(person);
+		}
+
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		createQSim(f, events).run();
+		return collector.getEvents();
+	}
+
+	private static List<Id<Person>> getDepartures(List<Event> events) {
+		List<Id<Person>> departures = new ArrayList<>();
+		for (Event event : events) {
+			if (event instanceof PersonDepartureEvent departure) {
+				departures.add(departure.getPersonId());
+			}
+		}
+		return departures;
+	}
+
 	/**
 	 * Initializes some commonly used data in the tests.
 	 *
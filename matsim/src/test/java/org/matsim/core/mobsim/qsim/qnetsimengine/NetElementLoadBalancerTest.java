@@ -0,0 +1,86 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.NetworkUtils;
+
+public class NetElementLoadBalancerTest {
+
+	/**
+	 * Without measured work, a chain of nodes is split into contiguous ranges of equal size.
+	 */
+	@Test
+	void testEqualRangesWithoutWork() {
+		Network network = createChain(100);
+		NetElementLoadBalancer balancer = new NetElementLoadBalancer(network.getNodes().values(), 4);
+
+		int[] nodesPerRunner = new int[4];
+		int previousRunner = 0;
+		for (int i = 0; i < 100; i++) {
+			int runner = balancer.getRunner(network.getNodes().get(Id.createNodeId("balancer_" + i)));
+			Assertions.assertTrue(runner >= previousRunner, "ranges are not contiguous");
+			previousRunner = runner;
+			nodesPerRunner[runner]++;
+		}
+		Assertions.assertArrayEquals(new int[] {25, 25, 25, 25}, nodesPerRunner);
+	}
+
+	/**
+	 * If the first nodes carry most of the work, they are spread over more runners.
+	 */
+	@Test
+	void testRebalanceByWork() {
+		Network network = createChain(100);
+		NetElementLoadBalancer balancer = new NetElementLoadBalancer(network.getNodes().values(), 4);
+
+		for (int i = 0; i < 10; i++) {
+			balancer.getWork()[Id.createNodeId("balancer_" + i).index()] = 99;
+		}
+		balancer.rebalance();
+
+		Assertions.assertEquals(0, balancer.getRunner(network.getNodes().get(Id.createNodeId("balancer_0"))));
+		Assertions.assertEquals(2, balancer.getRunner(network.getNodes().get(Id.createNodeId("balancer_6"))));
+		Assertions.assertEquals(3, balancer.getRunner(network.getNodes().get(Id.createNodeId("balancer_50"))));
+		Assertions.assertEquals(3, balancer.getRunner(network.getNodes().get(Id.createNodeId("balancer_99"))));
+		Assertions.assertEquals(0, balancer.getWork()[Id.createNodeId("balancer_0").index()], "work is not reset");
+	}
+
+	private static Network createChain(int numberOfNodes) {
+		Network network = NetworkUtils.createNetwork();
+		Node previous = null;
+		for (int i = 0; i < numberOfNodes; i++) {
+			Node node = NetworkUtils.createAndAddNode(network, Id.createNodeId("balancer_" + i), new Coord(i * 100, 0));
+			if (previous != null) {
+				NetworkUtils.createAndAddLink(network, Id.create(i + "f", Link.class), previous, node, 100, 10, 1000, 1);
+				NetworkUtils.createAndAddLink(network, Id.create(i + "b", Link.class), node, previous, 100, 10, 1000, 1);
+			}
+			previous = node;
+		}
+		return network;
+	}
+}
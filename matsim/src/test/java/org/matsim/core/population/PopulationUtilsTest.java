@@ -27,6 +27,9 @@ import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.population.*;
 import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.population.routes.NetworkRoute;
+
+import java.util.List;
 
 /**
  * @author thibautd
@@ -79,4 +82,68 @@ public class PopulationUtilsTest {
 				"unexpected attribute" );
 	}
 
+	@Test
+	void testCompactNonSelectedPlans() {
+		final Population population = PopulationUtils.createPopulation(ConfigUtils.createConfig() );
+		final PopulationFactory pf = population.getFactory();
+		final Person person = pf.createPerson(Id.createPersonId( "compact" ));
+		population.addPerson( person );
+
+		final Plan selected = pf.createPlan();
+		selected.addActivity( pf.createActivityFromCoord( "home" , new Coord( 0 , 0 ) ) );
+		person.addPlan( selected );
+		person.setSelectedPlan( selected );
+
+		final Plan plan = pf.createPlan();
+		final Activity home = pf.createActivityFromCoord( "home" , new Coord( 0 , 0 ) );
+		home.setLinkId( Id.createLinkId( "1" ) );
+		home.setEndTime( 7 * 3600 );
+		home.getAttributes().putAttribute( "purpose" , "sleep" );
+		plan.addActivity( home );
+		final Leg leg = pf.createLeg( "car" );
+		leg.setRoutingMode( "car" );
+		leg.setDepartureTime( 7 * 3600 );
+		leg.setTravelTime( 600 );
+		NetworkRoute route = pf.getRouteFactories().createRoute( NetworkRoute.class , Id.createLinkId( "1" ) , Id.createLinkId( "4" ) );
+		route.setLinkIds( Id.createLinkId( "1" ) , List.of( Id.createLinkId( "2" ) , Id.createLinkId( "3" ) ) , Id.createLinkId( "4" ) );
+		route.setDistance( 1234 );
+		route.setTravelTime( 600 );
+		route.setVehicleId( Id.createVehicleId( "compact_car" ) );
+		leg.setRoute( route );
+		plan.addLeg( leg );
+		plan.addActivity( pf.createInteractionActivityFromLinkId( "car interaction" , Id.createLinkId( "4" ) ) );
+		final Leg walk = pf.createLeg( "walk" );
+		walk.setRoute( pf.getRouteFactories().createRoute( Route.class , Id.createLinkId( "4" ) , Id.createLinkId( "5" ) ) );
+		plan.addLeg( walk );
+		final Activity work = pf.createActivityFromLinkId( "work" , Id.createLinkId( "5" ) );
+		work.setCoord( new Coord( 100 , 200 , 30 ) );
+		work.setMaximumDuration( 8 * 3600 );
+		plan.addActivity( work );
+		person.addPlan( plan );
+
+		Assertions.assertEquals( 1 , PopulationUtils.compactNonSelectedPlans( population ) );
+		Assertions.assertSame( selected , person.getSelectedPlan() );
+		Assertions.assertEquals( 2 , person.getPlans().size() );
+
+		Assertions.assertEquals( 5 , plan.getPlanElements().size() );
+		final Activity homeCopy = (Activity) plan.getPlanElements().get( 0 );
+		Assertions.assertNotSame( home , homeCopy );
+		Assertions.assertEquals( "sleep" , homeCopy.getAttributes().getAttribute( "purpose" ) );
+		Assertions.assertEquals( 7 * 3600 , homeCopy.getEndTime().seconds() , 0 );
+		Assertions.assertTrue( homeCopy.getStartTime().isUndefined() );
+		Assertions.assertTrue( homeCopy.getMaximumDuration().isUndefined() );
+		Assertions.assertFalse( homeCopy.getCoord().hasZ() );
+		final Leg legCopy = (Leg) plan.getPlanElements().get( 1 );
+		Assertions.assertEquals( "car" , legCopy.getRoutingMode() );
+		final NetworkRoute routeCopy = (NetworkRoute) legCopy.getRoute();
+		Assertions.assertEquals( route.getClass() , routeCopy.getClass() );
+		Assertions.assertEquals( route.getLinkIds() , routeCopy.getLinkIds() );
+		Assertions.assertEquals( Id.createLinkId( "4" ) , routeCopy.getEndLinkId() );
+		Assertions.assertEquals( 1234 , routeCopy.getDistance() , 0 );
+		Assertions.assertEquals( 600 , routeCopy.getTravelTime().seconds() , 0 );
+		Assertions.assertEquals( Id.createVehicleId( "compact_car" ) , routeCopy.getVehicleId() );
+		Assertions.assertSame( walk.getRoute() , ((Leg) plan.getPlanElements().get( 3 )).getRoute() );
+		Assertions.assertEquals( 30 , ((Activity) plan.getPlanElements().get( 4 )).getCoord().getZ() , 0 );
+	}
+
 }
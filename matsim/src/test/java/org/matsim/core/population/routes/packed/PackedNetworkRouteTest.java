@@ -0,0 +1,43 @@
+package org.matsim.core.population.routes.packed;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.population.routes.AbstractNetworkRouteTest;
+import org.matsim.core.population.routes.NetworkRoute;
+
+import java.util.List;
+
+public class PackedNetworkRouteTest extends AbstractNetworkRouteTest {
+
+	@Override
+	public NetworkRoute getNetworkRouteInstance(final Id<Link> fromLinkId, final Id<Link> toLinkId, final Network network) {
+		return new PackedNetworkRouteFactory().createRoute(fromLinkId, toLinkId);
+	}
+
+	@Test
+	void testGetLinkIndices() {
+		Network network = createTestNetwork();
+		Id<Link> link1 = Id.create("1", Link.class);
+		Id<Link> link4 = Id.create("4", Link.class);
+		List<Id<Link>> linkIds = List.of(Id.create("22", Link.class), Id.create("12", Link.class), Id.create("13", Link.class));
+
+		PackedNetworkRoute route = (PackedNetworkRoute) getNetworkRouteInstance(link1, link4, network);
+		route.setLinkIds(link1, linkIds, link4);
+
+		Assertions.assertEquals(linkIds.size(), route.getLinkCount());
+		Assertions.assertEquals(linkIds, route.getLinkIds());
+		for (int i = 0; i < linkIds.size(); i++) {
+			Assertions.assertEquals(linkIds.get(i).index(), route.getLinkIndex(i));
+		}
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> route.getLinkIds().add(link4));
+
+		PackedNetworkRoute clone = route.clone();
+		route.setLinkIds(link1, null, link4);
+		Assertions.assertEquals(0, route.getLinkIds().size());
+		Assertions.assertEquals(linkIds, clone.getLinkIds());
+	}
+
+}
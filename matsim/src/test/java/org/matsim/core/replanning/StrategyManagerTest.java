@@ -29,15 +29,21 @@ import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.population.Population;
 import org.matsim.api.core.v01.replanning.PlanStrategyModule;
 import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.GlobalConfigGroup.ReplanningScheduling;
 import org.matsim.core.gbl.MatsimRandom;
 import org.matsim.core.population.PersonUtils;
 import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.population.algorithms.PlanAlgorithm;
+import org.matsim.core.replanning.modules.AbstractMultithreadedModule;
 import org.matsim.core.replanning.selectors.BestPlanSelector;
+import org.matsim.core.replanning.selectors.KeepSelected;
 import org.matsim.core.replanning.selectors.PlanSelector;
 import org.matsim.core.replanning.selectors.RandomPlanSelector;
 import org.matsim.core.scenario.ScenarioUtils;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -380,6 +386,73 @@ public class StrategyManagerTest {
 	 *
 	 * @author mrieser
 	 */
+	/**
+	 * Tests that finishing the strategies concurrently on the shared pool handles each plan exactly once, by the module of
+	 * the chosen strategy.
+	 */
+	@Test
+	void testConcurrentFinish() {
+		MatsimRandom.reset(4711);
+		Population population = ScenarioUtils.createScenario(ConfigUtils.createConfig()).getPopulation();
+		for (int i = 0; i < 1000; i++) {
+			Person person = PopulationUtils.getFactory().createPerson(Id.create(i, Person.class));
+			PersonUtils.createAndAddPlan(person, true);
+			population.addPerson(person);
+		}
+
+		GenericStrategyManagerImpl<Plan, Person> manager = new GenericStrategyManagerImpl<>();
+		manager.setNumberOfThreadsForFinishing(4);
+		Set<Plan> handled1 = ConcurrentHashMap.newKeySet();
+		Set<Plan> handled2 = ConcurrentHashMap.newKeySet();
+		manager.addStrategy(new PlanStrategyImpl.Builder(new KeepSelected<>()).addStrategyModule(new CollectingModule(handled1)).build(), null, 0.5);
+		manager.addStrategy(new PlanStrategyImpl.Builder(new KeepSelected<>()).addStrategyModule(new CollectingModule(handled2)).build(), null, 0.5);
+
+		manager.run(population.getPersons().values(), 1, null);
+
+		assertFalse(handled1.isEmpty());
+		assertFalse(handled2.isEmpty());
+		assertEquals(1000, handled1.size() + handled2.size());
+		for (Person person : population.getPersons().values()) {
+			Plan selectedPlan = person.getSelectedPlan();
+			assertTrue(handled1.contains(selectedPlan) ^ handled2.contains(selectedPlan), "plan of person " + person.getId());
+		}
+	}
+
+	@Test
+	void testConcurrentFinishPropagatesExceptions() {
+		Population population = ScenarioUtils.createScenario(ConfigUtils.createConfig()).getPopulation();
+		Person person = PopulationUtils.getFactory().createPerson(Id.create(1, Person.class));
+		PersonUtils.createAndAddPlan(person, true);
+		population.addPerson(person);
+
+		GenericStrategyManagerImpl<Plan, Person> manager = new GenericStrategyManagerImpl<>();
+		manager.setNumberOfThreadsForFinishing(2);
+		manager.addStrategy(new PlanStrategyImpl.Builder(new KeepSelected<>()).addStrategyModule(new AbstractMultithreadedModule(2, ReplanningScheduling.workStealing) {
+			@Override
+			public PlanAlgorithm getPlanAlgoInstance() {
+				return plan -> {
+					throw new IllegalStateException("just some exception to crash the replanning.");
+				};
+			}
+		}).build(), null, 1.0);
+
+		assertThrows(RuntimeException.class, () -> manager.run(population.getPersons().values(), 1, null));
+	}
+
+	static private class CollectingModule extends AbstractMultithreadedModule {
+		private final Set<Plan> handled;
+
+		CollectingModule(final Set<Plan> handled) {
+			super(2, ReplanningScheduling.workStealing);
+			this.handled = handled;
+		}
+
+		@Override
+		public PlanAlgorithm getPlanAlgoInstance() {
+			return plan -> assertTrue(this.handled.add(plan), "plan handled twice");
+		}
+	}
+
 	static private class StrategyCounter implements PlanStrategy {
 		
 		private PlanStrategyImpl planStrategyDelegate = null ;
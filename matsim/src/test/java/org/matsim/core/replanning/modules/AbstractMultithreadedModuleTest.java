@@ -24,11 +24,21 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.population.Person;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.config.groups.GlobalConfigGroup.ReplanningScheduling;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * @author mrieser
  */
@@ -61,6 +71,80 @@ public class AbstractMultithreadedModuleTest {
 
 	}
 
+	@Test
+	void testCrashingThreadWorkStealing() {
+		DummyCrashingModule testee = new DummyCrashingModule(2, ReplanningScheduling.workStealing);
+		testee.prepareReplanning(null);
+		testee.handlePlan(null);
+		testee.handlePlan(null);
+		testee.handlePlan(null);
+		Assertions.assertThrows(RuntimeException.class, testee::finishReplanning);
+	}
+
+	@Test
+	void testWorkStealingHandlesEachPlanOnce() {
+		CountingModule testee = new CountingModule(3);
+		List<Plan> plans = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			plans.add(PopulationUtils.createPlan());
+		}
+		for (int iteration = 0; iteration < 2; iteration++) {
+			testee.prepareReplanning(null);
+			for (Plan plan : plans) {
+				testee.handlePlan(plan);
+			}
+			testee.finishReplanning();
+		}
+		for (Plan plan : plans) {
+			Assertions.assertEquals(2.0, plan.getScore(), 0.0);
+		}
+	}
+
+	@Test
+	void testErrorIsNotWrappedWorkStealing() {
+		AbstractMultithreadedModule testee = new AbstractMultithreadedModule(2, ReplanningScheduling.workStealing) {
+			@Override
+			public PlanAlgorithm getPlanAlgoInstance() {
+				return plan -> {
+					throw new AssertionError("just some error to crash this thread.");
+				};
+			}
+		};
+		testee.prepareReplanning(null);
+		testee.handlePlan(PopulationUtils.createPlan());
+		Assertions.assertThrows(AssertionError.class, testee::finishReplanning);
+	}
+
+	@Test
+	void testWorkStealingIsReproducible() {
+		List<Plan> plans = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			Person person = PopulationUtils.getFactory().createPerson(Id.createPersonId(i));
+			Plan plan = PopulationUtils.createPlan(person);
+			person.addPlan(plan);
+			plans.add(plan);
+		}
+
+		double[] scores = new double[plans.size()];
+		for (int numOfThreads : new int[] { 1, 4 }) {
+			MatsimRandom.reset(4711);
+			RandomScoreModule testee = new RandomScoreModule(numOfThreads);
+			testee.prepareReplanning(null);
+			for (Plan plan : plans) {
+				testee.handlePlan(plan);
+			}
+			testee.finishReplanning();
+			Assertions.assertEquals(numOfThreads, testee.instances.get(), "plan algorithm instances");
+			for (int i = 0; i < plans.size(); i++) {
+				if (numOfThreads == 1) {
+					scores[i] = plans.get(i).getScore();
+				} else {
+					Assertions.assertEquals(scores[i], plans.get(i).getScore(), 0.0);
+				}
+			}
+		}
+	}
+
 	private static class DummyAbstractMultithreadedModule extends AbstractMultithreadedModule {
 		public DummyAbstractMultithreadedModule(GlobalConfigGroup globalConfigGroup) {
 			super(globalConfigGroup);
@@ -75,12 +159,38 @@ public class AbstractMultithreadedModuleTest {
 		public DummyCrashingModule(final int nOfThreads) {
 			super(nOfThreads);
 		}
+		public DummyCrashingModule(final int nOfThreads, final ReplanningScheduling scheduling) {
+			super(nOfThreads, scheduling);
+		}
 		@Override
 		public PlanAlgorithm getPlanAlgoInstance() {
 			return new CrashingPlanAlgo();
 		}
 	}
 
+	private static class CountingModule extends AbstractMultithreadedModule {
+		public CountingModule(final int nOfThreads) {
+			super(nOfThreads, ReplanningScheduling.workStealing);
+		}
+		@Override
+		public PlanAlgorithm getPlanAlgoInstance() {
+			return plan -> plan.setScore(plan.getScore() == null ? 1.0 : plan.getScore() + 1.0);
+		}
+	}
+
+	private static class RandomScoreModule extends AbstractMultithreadedModule {
+		private final AtomicInteger instances = new AtomicInteger();
+		public RandomScoreModule(final int nOfThreads) {
+			super(nOfThreads, ReplanningScheduling.workStealing);
+		}
+		@Override
+		public PlanAlgorithm getPlanAlgoInstance() {
+			this.instances.incrementAndGet();
+			Random random = MatsimRandom.getLocalInstance();
+			return plan -> plan.setScore(random.nextDouble());
+		}
+	}
+
 	private static class CrashingPlanAlgo implements PlanAlgorithm {
 		@Override
 		public void run(Plan plan) {
@@ -0,0 +1,75 @@
+package org.matsim.core.router.speedy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.groups.ScoringConfigGroup;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+
+import java.util.Random;
+
+public class LeastCostPathMatrixTest {
+
+	@Test
+	void testSameResultsAsLeastCostPathTree() {
+		Network network = NetworkUtils.createNetwork();
+		Random random = new Random(42);
+		int size = 10;
+		Node[][] grid = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				grid[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId("m" + x + "_" + y), new Coord(x * 100, y * 100));
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					addLink(network, grid[x][y], grid[x + 1][y], random);
+					addLink(network, grid[x + 1][y], grid[x][y], random);
+				}
+				if (y + 1 < size) {
+					addLink(network, grid[x][y], grid[x][y + 1], random);
+					addLink(network, grid[x][y + 1], grid[x][y], random);
+				}
+			}
+		}
+		Node isolated = NetworkUtils.createAndAddNode(network, Id.createNodeId("m_isolated"), new Coord(5000, 5000));
+
+		int[] fromNodes = new int[] {grid[0][0].getId().index(), grid[3][7].getId().index(), grid[9][9].getId().index(), isolated.getId().index()};
+		int[] toNodes = new int[] {grid[0][0].getId().index(), grid[5][5].getId().index(), grid[5][5].getId().index(), grid[9][0].getId().index(), isolated.getId().index()};
+
+		FreespeedTravelTimeAndDisutility tc = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+		SpeedyGraph graph = SpeedyGraphBuilder.build(network);
+		LeastCostPathMatrix matrix = LeastCostPathMatrix.calculate(graph, tc, tc, fromNodes, toNodes, 8 * 3600, 2);
+		Assertions.assertEquals(fromNodes.length, matrix.getOriginsCount());
+		Assertions.assertEquals(toNodes.length, matrix.getDestinationsCount());
+
+		LeastCostPathTree tree = new LeastCostPathTree(graph, tc, tc);
+		for (int i = 0; i < fromNodes.length; i++) {
+			tree.calculate(fromNodes[i], 8 * 3600, null, null);
+			for (int j = 0; j < toNodes.length; j++) {
+				if (tree.getTime(toNodes[j]).isUndefined()) {
+					Assertions.assertFalse(matrix.isReachable(i, j));
+					Assertions.assertEquals(Double.POSITIVE_INFINITY, matrix.getTravelTime(i, j));
+				} else {
+					Assertions.assertTrue(matrix.isReachable(i, j));
+					Assertions.assertEquals(tree.getTime(toNodes[j]).seconds() - 8 * 3600, matrix.getTravelTime(i, j), 1e-9);
+					Assertions.assertEquals(tree.getCost(toNodes[j]), matrix.getTravelCost(i, j), 1e-9);
+					Assertions.assertEquals(tree.getDistance(toNodes[j]), matrix.getDistance(i, j), 1e-9);
+				}
+			}
+		}
+
+		Assertions.assertEquals(0, matrix.getTravelTime(0, 0), 1e-9);
+		Assertions.assertTrue(matrix.isReachable(3, 4));
+		Assertions.assertFalse(matrix.isReachable(3, 0));
+	}
+
+	private static void addLink(Network network, Node from, Node to, Random random) {
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(from.getId() + "-" + to.getId()), from, to, 100 + random.nextInt(100), 5 + random.nextInt(20), 1000, 1);
+	}
+}
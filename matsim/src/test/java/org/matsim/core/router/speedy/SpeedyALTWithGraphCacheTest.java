@@ -0,0 +1,62 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.speedy;
+
+import org.junit.jupiter.api.Assertions;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.config.groups.ScoringConfigGroup;
+import org.matsim.core.router.AbstractLeastCostPathCalculatorTestWithTurnRestrictions;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+/**
+ * Runs the routing tests with graphs and landmarks read from memory-mapped files.
+ */
+public class SpeedyALTWithGraphCacheTest extends AbstractLeastCostPathCalculatorTestWithTurnRestrictions {
+
+	@Override
+	protected LeastCostPathCalculator getLeastCostPathCalculator(final Network network) {
+		FreespeedTravelTimeAndDisutility travelTimeCostCalculator = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+		Path directory = Paths.get(utils.getOutputDirectory(), "graphs");
+		SpeedyGraphCache cache = new SpeedyGraphCache(directory);
+
+		// the first factory builds and writes the data, the second one only reads it
+		new SpeedyALTFactory(cache).createPathCalculator(network, travelTimeCostCalculator, travelTimeCostCalculator);
+		Assertions.assertEquals(2, countFiles(directory));
+		LeastCostPathCalculator router = new SpeedyALTFactory(cache).createPathCalculator(network, travelTimeCostCalculator, travelTimeCostCalculator);
+		Assertions.assertEquals(2, countFiles(directory));
+		return router;
+	}
+
+	private static long countFiles(Path directory) {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.count();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,181 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.speedy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.groups.ControllerConfigGroup;
+import org.matsim.core.config.groups.ScoringConfigGroup;
+import org.matsim.core.controler.Controler;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.router.AbstractLeastCostPathCalculatorTestWithTurnRestrictions;
+import org.matsim.core.router.TripStructureUtils;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.costcalculators.OnlyTimeDependentTravelDisutility;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+import org.matsim.vehicles.Vehicle;
+
+import java.util.List;
+
+public class SpeedyCCHTest extends AbstractLeastCostPathCalculatorTestWithTurnRestrictions {
+
+	@Override
+	protected LeastCostPathCalculator getLeastCostPathCalculator(final Network network) {
+		FreespeedTravelTimeAndDisutility travelTimeCostCalculator = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+		return new SpeedyCCHFactory(3600, 2, 2).createPathCalculator(network, travelTimeCostCalculator, travelTimeCostCalculator);
+	}
+
+	/**
+	 * Creates a network with two routes from node 1 to node 4: via node 2 (200s at free speed) and via node 3 (210s at free speed).
+	 */
+	private static Network createTwoRoutesNetwork() {
+		Network network = NetworkUtils.createNetwork();
+		Node node1 = NetworkUtils.createAndAddNode(network, Id.createNodeId(1), new Coord(0, 0));
+		Node node2 = NetworkUtils.createAndAddNode(network, Id.createNodeId(2), new Coord(1000, 500));
+		Node node3 = NetworkUtils.createAndAddNode(network, Id.createNodeId(3), new Coord(1000, -500));
+		Node node4 = NetworkUtils.createAndAddNode(network, Id.createNodeId(4), new Coord(2000, 0));
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(12), node1, node2, 1000, 10, 1000, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(24), node2, node4, 1000, 10, 1000, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(13), node1, node3, 1000, 10, 1000, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(34), node3, node4, 1100, 10, 1000, 1);
+		return network;
+	}
+
+	private static List<Id<Link>> getLinkIds(Path path) {
+		return path.links.stream().map(Link::getId).toList();
+	}
+
+	@Test
+	void testTimeSlicesMatchTimeDependentRouting() {
+		Network network = createTwoRoutesNetwork();
+		// link 12 is congested between 1:00 and 2:00
+		TravelTime travelTime = (link, time, person, vehicle) -> link.getLength() / link.getFreespeed()
+			* (link.getId().equals(Id.createLinkId(12)) && time >= 3600 && time < 7200 ? 10 : 1);
+		TravelDisutility travelDisutility = new OnlyTimeDependentTravelDisutility(travelTime);
+
+		LeastCostPathCalculator cch = new SpeedyCCHFactory(3600, 3, 2).createPathCalculator(network, travelDisutility, travelTime);
+		SpeedyGraph graph = SpeedyGraphBuilder.build(network);
+		LeastCostPathCalculator alt = new SpeedyALT(new SpeedyALTData(graph, 2, travelDisutility), travelTime, travelDisutility);
+
+		Node fromNode = network.getNodes().get(Id.createNodeId(1));
+		Node toNode = network.getNodes().get(Id.createNodeId(4));
+		for (double departureTime : new double[] { 0, 1800, 3700, 5400, 7300, 12000 }) {
+			Path cchPath = cch.calcLeastCostPath(fromNode, toNode, departureTime, null, null);
+			Path altPath = alt.calcLeastCostPath(fromNode, toNode, departureTime, null, null);
+			Assertions.assertEquals(getLinkIds(altPath), getLinkIds(cchPath), "departure at " + departureTime);
+			Assertions.assertEquals(altPath.travelTime, cchPath.travelTime, 1e-6, "departure at " + departureTime);
+			Assertions.assertEquals(altPath.travelCost, cchPath.travelCost, 1e-6, "departure at " + departureTime);
+		}
+		Assertions.assertEquals(List.of(Id.createLinkId(13), Id.createLinkId(34)),
+			getLinkIds(cch.calcLeastCostPath(fromNode, toNode, 5400, null, null)));
+	}
+
+	@Test
+	void testDifferentTravelDisutilitiesOnSameNetwork() {
+		Network network = createTwoRoutesNetwork();
+		TravelTime travelTime = (link, time, person, vehicle) -> link.getLength() / link.getFreespeed();
+		TravelDisutility timeDisutility = new OnlyTimeDependentTravelDisutility(travelTime);
+		// penalizes link 12, so the route via node 3 becomes cheaper
+		TravelDisutility penaltyDisutility = new OnlyTimeDependentTravelDisutility(travelTime) {
+			@Override
+			public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+				return super.getLinkTravelDisutility(link, time, person, vehicle) + (link.getId().equals(Id.createLinkId(12)) ? 100 : 0);
+			}
+		};
+
+		SpeedyCCHFactory factory = new SpeedyCCHFactory(3600, 2, 2);
+		LeastCostPathCalculator timeRouter = factory.createPathCalculator(network, timeDisutility, travelTime);
+		LeastCostPathCalculator penaltyRouter = factory.createPathCalculator(network, penaltyDisutility, travelTime);
+
+		Node fromNode = network.getNodes().get(Id.createNodeId(1));
+		Node toNode = network.getNodes().get(Id.createNodeId(4));
+		Assertions.assertEquals(List.of(Id.createLinkId(12), Id.createLinkId(24)), getLinkIds(timeRouter.calcLeastCostPath(fromNode, toNode, 0, null, null)));
+		Assertions.assertEquals(List.of(Id.createLinkId(13), Id.createLinkId(34)), getLinkIds(penaltyRouter.calcLeastCostPath(fromNode, toNode, 0, null, null)));
+	}
+
+	@Test
+	void testResetCustomizesAgain() {
+		Network network = createTwoRoutesNetwork();
+		double[] factor = { 1 };
+		TravelTime travelTime = (link, time, person, vehicle) -> link.getLength() / link.getFreespeed()
+			* (link.getId().equals(Id.createLinkId(12)) ? factor[0] : 1);
+		TravelDisutility travelDisutility = new OnlyTimeDependentTravelDisutility(travelTime);
+
+		SpeedyCCHFactory factory = new SpeedyCCHFactory(3600, 2, 2);
+		LeastCostPathCalculator router = factory.createPathCalculator(network, travelDisutility, travelTime);
+		Node fromNode = network.getNodes().get(Id.createNodeId(1));
+		Node toNode = network.getNodes().get(Id.createNodeId(4));
+		Assertions.assertEquals(List.of(Id.createLinkId(12), Id.createLinkId(24)), getLinkIds(router.calcLeastCostPath(fromNode, toNode, 0, null, null)));
+
+		// the customized travel costs are kept until the next reset
+		factor[0] = 10;
+		Assertions.assertEquals(List.of(Id.createLinkId(12), Id.createLinkId(24)), getLinkIds(router.calcLeastCostPath(fromNode, toNode, 0, null, null)));
+
+		factory.resetTravelCosts();
+		Assertions.assertEquals(List.of(Id.createLinkId(13), Id.createLinkId(34)), getLinkIds(router.calcLeastCostPath(fromNode, toNode, 0, null, null)));
+	}
+
+	private Controler createControler() {
+		Config config = utils.loadConfig(IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "config.xml"));
+		config.controller().setOutputDirectory(utils.getOutputDirectory());
+		config.controller().setOverwriteFileSetting(OutputDirectoryHierarchy.OverwriteFileSetting.deleteDirectoryIfExists);
+		config.controller().setLastIteration(1);
+		config.controller().setRoutingAlgorithmType(ControllerConfigGroup.RoutingAlgorithmType.SpeedyCCH);
+		config.global().setNumberOfThreads(2);
+		return new Controler(config);
+	}
+
+	@Test
+	void testControlerRejectsRandomizedRouting() {
+		// the default routing config uses a randomizing travel disutility, which needs the person
+		Controler controler = createControler();
+		IllegalStateException e = Assertions.assertThrows(IllegalStateException.class, controler::run);
+		Assertions.assertTrue(e.getMessage().contains("routingRandomness"), e.getMessage());
+	}
+
+	@Test
+	void testControlerWithoutRoutingRandomness() {
+		Controler controler = createControler();
+		controler.getConfig().routing().setRoutingRandomness(0);
+		controler.run();
+
+		for (Person person : controler.getScenario().getPopulation().getPersons().values()) {
+			for (Leg leg : TripStructureUtils.getLegs(person.getSelectedPlan())) {
+				Assertions.assertInstanceOf(NetworkRoute.class, leg.getRoute(), person.getId().toString());
+			}
+		}
+	}
+
+}
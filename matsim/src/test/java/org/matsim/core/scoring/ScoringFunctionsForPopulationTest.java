@@ -43,6 +43,8 @@ import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.router.TripStructureUtils;
 import org.matsim.core.scenario.ScenarioUtils;
 
+import java.util.Random;
+
 	/**
  * @author mrieser / Simunto GmbH
  */
@@ -134,6 +136,91 @@ public class ScoringFunctionsForPopulationTest {
 		Assertions.assertEquals(1.234+2.345, rsf.separateScoreSum, 1e-7);
 	}
 
+	 @Test
+	 void testScoringThreadsGiveSameScores() {
+		double[] sequentialScores = scoreRandomEvents(0);
+		double[] parallelScores = scoreRandomEvents(3);
+		Assertions.assertArrayEquals(sequentialScores, parallelScores, 0.0);
+	}
+
+	private static double[] scoreRandomEvents(int numberOfScoringThreads) {
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		scenario.getConfig().scoring().setNumberOfScoringThreads(numberOfScoringThreads);
+		Population population = scenario.getPopulation();
+		PopulationFactory pf = population.getFactory();
+		int personCount = 100;
+		for (int i = 0; i < personCount; i++) {
+			population.addPerson(pf.createPerson(Id.create(i, Person.class)));
+		}
+
+		ControlerListenerManagerImpl controlerListenerManager = new ControlerListenerManagerImpl();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		ScoringFunctionFactory scoringFunctionFactory = agentId -> new OrderSensitiveScoringFunction();
+		ScoringFunctionsForPopulation sf = new ScoringFunctionsForPopulation(controlerListenerManager, eventsManager, new EventsToActivities(), new EventsToLegs(scenario), population, scoringFunctionFactory, scenario.getConfig());
+		controlerListenerManager.fireControlerIterationStartsEvent(0, false);
+
+		Random random = new Random(42);
+		eventsManager.initProcessing();
+		for (int i = 0; i < 10000; i++) {
+			Id<Person> personId = Id.create(random.nextInt(personCount), Person.class);
+			if (random.nextInt(10) == 0) {
+				eventsManager.processEvent(new ActivityStartEvent(i, personId, null, null, "work", new Coord(0, 0)));
+			} else {
+				eventsManager.processEvent(new PersonScoreEvent(i, personId, random.nextDouble(), "testing"));
+			}
+		}
+		eventsManager.finishProcessing();
+		sf.finishScoringFunctions();
+
+		double[] scores = new double[personCount];
+		for (int i = 0; i < personCount; i++) {
+			scores[i] = sf.getScoringFunctionForAgent(Id.create(i, Person.class)).getScore();
+		}
+		return scores;
+	}
+
+	private static class OrderSensitiveScoringFunction implements ScoringFunction {
+
+		double score = 0;
+
+		@Override
+		public void handleActivity(Activity activity) {
+			this.score = this.score * 0.5 + activity.getType().length();
+		}
+
+		@Override
+		public void handleLeg(Leg leg) {
+		}
+
+		@Override
+		public void agentStuck(double time) {
+		}
+
+		@Override
+		public void addMoney(double amount) {
+		}
+
+		@Override
+		public void addScore(double amount) {
+			this.score = this.score * 0.9 + amount;
+		}
+
+		@Override
+		public void finish() {
+			this.score = -this.score;
+		}
+
+		@Override
+		public double getScore() {
+			return this.score;
+		}
+
+		@Override
+		public void handleEvent(Event event) {
+			this.score += event.getTime() * 1e-6;
+		}
+	}
+
 	private static class RecordingScoringFunction implements ScoringFunction {
 
 		int tripCounter = 0;
@@ -0,0 +1,65 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class MappedLinkTravelTimesTest {
+
+	private static final int MAGIC = 0x54455354;
+
+	@RegisterExtension private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testWriteAndOpen() {
+		Path file = Path.of(utils.getOutputDirectory(), "travelTimes.bin");
+		// ids of different lengths, so the travel times have to be aligned after them
+		List<Id<Link>> linkIds = List.of(Id.createLinkId("mapped-1"), Id.createLinkId("mapped-äb"));
+		MappedLinkTravelTimes.write(file, MAGIC, 900, 3, linkIds, (row, bin) -> 10 * row + bin + 0.5);
+
+		MappedLinkTravelTimes travelTimes = MappedLinkTravelTimes.open(file, MAGIC, "test file");
+		Assertions.assertEquals(900, travelTimes.getBinSize(), 0.0);
+		Assertions.assertEquals(3, travelTimes.getNumberOfBins());
+		for (int row = 0; row < linkIds.size(); row++) {
+			Assertions.assertEquals(row, travelTimes.getRow(linkIds.get(row)));
+			for (int bin = 0; bin < 3; bin++) {
+				Assertions.assertEquals(10 * row + bin + 0.5, travelTimes.getTravelTime(row, bin), 0.0);
+			}
+		}
+		Assertions.assertEquals(-1, travelTimes.getRow(Id.createLinkId("mapped-missing")));
+	}
+
+	@Test
+	void testOpenOtherFile() {
+		Path file = Path.of(utils.getOutputDirectory(), "travelTimes.bin");
+		MappedLinkTravelTimes.write(file, MAGIC, 900, 3, List.of(), (row, bin) -> 0);
+		IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class,
+				() -> MappedLinkTravelTimes.open(file, MAGIC + 1, "DVRP travel time file"));
+		Assertions.assertEquals(file + " is not a DVRP travel time file.", e.getMessage());
+	}
+}
@@ -412,6 +412,48 @@ public class TravelTimeCalculatorTest {
 
 	}
 
+	@Test
+	void testGetLinkTravelTime_concurrentVehicles() throws InterruptedException {
+		Network network = NetworkUtils.createNetwork();
+		TravelTimeCalculatorConfigGroup config = new TravelTimeCalculatorConfigGroup();
+		config.setTraveltimeBinSize(900);
+		TravelTimeCalculator ttc = new TravelTimeCalculator(network, config);
+
+		Node n1 = network.getFactory().createNode(Id.create(1, Node.class), new Coord(0, 0));
+		Node n2 = network.getFactory().createNode(Id.create(2, Node.class), new Coord(1000, 0));
+		network.addNode(n1);
+		network.addNode(n2);
+		Link link1 = network.getFactory().createLink(Id.create(1, Link.class), n1, n2);
+		link1.setLength(1000);
+		link1.setFreespeed(20);
+		network.addLink(link1);
+
+		// events of different vehicles are handled concurrently, as by a partitioned events manager
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			final int thread = t;
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 2500; i++) {
+					Id<Vehicle> vehId = Id.create("veh" + thread + "_" + i, Vehicle.class);
+					double enterTime = thread * 900 + i % 800;
+					ttc.handleEvent(new LinkEnterEvent(enterTime, vehId, link1.getId()));
+					ttc.handleEvent(new LinkLeaveEvent(enterTime + 100 + thread * 20, vehId, link1.getId()));
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		for (int t = 0; t < threads.length; t++) {
+			Assertions.assertEquals(100.0 + t * 20, ttc.getLinkTravelTimes().getLinkTravelTime(link1, t * 900 + 200, null, null), 1e-8);
+		}
+
+		ttc.reset(1);
+		Assertions.assertEquals(50.0, ttc.getLinkTravelTimes().getLinkTravelTime(link1, 200, null, null), 1e-8, "The travel times of the last iteration should be removed");
+	}
+
 	/**
 	 * Enable filtering but set an empty string as modes to analyze.
 	 * Expect that all link travel times are ignored.
@@ -0,0 +1,126 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.testcases.MatsimTestUtils;
+import org.matsim.vehicles.Vehicle;
+
+public class TravelTimeSnapshotTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testWriteAndOpen() {
+		Network network = createNetwork();
+		Link link1 = network.getLinks().get(Id.createLinkId(1));
+		Link link2 = network.getLinks().get(Id.createLinkId(2));
+		TravelTimeCalculator ttc = createCalculator(network);
+		Id<Vehicle> vehId = Id.create("veh", Vehicle.class);
+		ttc.handleEvent(new LinkEnterEvent(100, vehId, link1.getId()));
+		ttc.handleEvent(new LinkLeaveEvent(250, vehId, link1.getId()));
+		ttc.handleEvent(new LinkEnterEvent(1000, vehId, link1.getId()));
+		ttc.handleEvent(new LinkLeaveEvent(1300, vehId, link1.getId()));
+
+		Path file = Paths.get(utils.getOutputDirectory(), "travelTimes.bin");
+		TravelTime observed = ttc.getLinkTravelTimes();
+		TravelTimeSnapshot.write(network, observed, 900, 5, file);
+
+		TravelTimeSnapshot snapshot = TravelTimeSnapshot.open(file);
+		Assertions.assertEquals(900, snapshot.getBinSize(), 0.0);
+		Assertions.assertEquals(5, snapshot.getNumberOfBins());
+		for (double time = 0; time < 4500; time += 300) {
+			Assertions.assertEquals(observed.getLinkTravelTime(link1, time, null, null), snapshot.getLinkTravelTime(link1, time, null, null), 1e-3);
+			Assertions.assertEquals(observed.getLinkTravelTime(link2, time, null, null), snapshot.getLinkTravelTime(link2, time, null, null), 1e-3);
+		}
+		Assertions.assertEquals(150.0, snapshot.getLinkTravelTime(link1, 200, null, null), 1e-3);
+		Assertions.assertEquals(300.0, snapshot.getLinkTravelTime(link1, 1000, null, null), 1e-3);
+		// the last bin is used for all later times
+		Assertions.assertEquals(snapshot.getLinkTravelTime(link1, 4000, null, null), snapshot.getLinkTravelTime(link1, 40000, null, null), 0.0);
+	}
+
+	@Test
+	void testLinkNotInSnapshot() {
+		Network network = createNetwork();
+		Path file = Paths.get(utils.getOutputDirectory(), "travelTimes.bin");
+		TravelTimeSnapshot.write(network, new FreeSpeedTravelTime(), 900, 5, file);
+
+		Node n3 = network.getNodes().get(Id.createNodeId(3));
+		Node n4 = NetworkUtils.createAndAddNode(network, Id.createNodeId(4), new Coord(3000, 0));
+		Link link3 = NetworkUtils.createAndAddLink(network, Id.createLinkId(3), n3, n4, 500, 5, 1000, 1);
+
+		TravelTimeSnapshot snapshot = TravelTimeSnapshot.open(file);
+		Assertions.assertEquals(100.0, snapshot.getLinkTravelTime(link3, 0, null, null), 1e-8);
+	}
+
+	@Test
+	void testInitialTravelTimes() {
+		Network network = createNetwork();
+		Link link1 = network.getLinks().get(Id.createLinkId(1));
+		TravelTimeCalculator previousRun = createCalculator(network);
+		Id<Vehicle> vehId = Id.create("veh", Vehicle.class);
+		previousRun.handleEvent(new LinkEnterEvent(100, vehId, link1.getId()));
+		previousRun.handleEvent(new LinkLeaveEvent(400, vehId, link1.getId()));
+		Path file = Paths.get(utils.getOutputDirectory(), "travelTimes.bin");
+		TravelTimeSnapshot.write(network, previousRun.getLinkTravelTimes(), 900, 5, file);
+
+		TravelTimeCalculator ttc = createCalculator(network);
+		ttc.setInitialTravelTimes(TravelTimeSnapshot.open(file));
+		Assertions.assertEquals(300.0, ttc.getLinkTravelTimes().getLinkTravelTime(link1, 200, null, null), 1e-3);
+
+		ttc.reset(1);
+		ttc.handleEvent(new LinkEnterEvent(100, vehId, link1.getId()));
+		ttc.handleEvent(new LinkLeaveEvent(200, vehId, link1.getId()));
+		Assertions.assertEquals(100.0, ttc.getLinkTravelTimes().getLinkTravelTime(link1, 200, null, null), 1e-3, "observed travel times must replace the initial ones");
+	}
+
+	private static TravelTimeCalculator createCalculator(Network network) {
+		TravelTimeCalculatorConfigGroup config = new TravelTimeCalculatorConfigGroup();
+		config.setTraveltimeBinSize(900);
+		config.setMaxTime(3600);
+		return new TravelTimeCalculator(network, config);
+	}
+
+	private static Network createNetwork() {
+		Network network = NetworkUtils.createNetwork();
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.createNodeId(1), new Coord(0, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.createNodeId(2), new Coord(1000, 0));
+		Node n3 = NetworkUtils.createAndAddNode(network, Id.createNodeId(3), new Coord(2000, 0));
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(1), n1, n2, 1000, 10, 1000, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(2), n2, n3, 1000, 20, 1000, 1);
+		return network;
+	}
+}
@@ -0,0 +1,127 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+public class CalendarQueueTest {
+
+	private record Item(int id, double time) {
+	}
+
+	private static final Comparator<Item> TIE_BREAKER = (i0, i1) -> Integer.compare(i1.id, i0.id);
+
+	@Test
+	void testSameOrderAsPriorityQueue() {
+		Random random = new Random(42);
+		// a small wheel, so that many elements are in the overflow heap
+		CalendarQueue<Item> calendarQueue = new CalendarQueue<>(TIE_BREAKER, 64);
+		PriorityQueue<Item> priorityQueue = new PriorityQueue<>(Comparator.comparingDouble(Item::time).thenComparing(TIE_BREAKER));
+		int id = 0;
+		for (; id < 1000; id++) {
+			Item item = new Item(id, random.nextInt(3600) + (random.nextBoolean() ? 0.5 : 0));
+			calendarQueue.add(item.time, item);
+			priorityQueue.add(item);
+		}
+		List<Item> removed = new ArrayList<>();
+		for (int now = 0; now < 5000; now++) {
+			Item expected;
+			while ((expected = priorityQueue.peek()) != null && expected.time <= now) {
+				priorityQueue.poll();
+				Assertions.assertSame(expected, calendarQueue.poll(now));
+				if (random.nextInt(4) == 0) {
+					// e.g. a zero-duration activity or teleportation, or some time later
+					Item item = new Item(id++, random.nextBoolean() ? now : now + random.nextInt(500) + 0.25);
+					calendarQueue.add(item.time, item);
+					priorityQueue.add(item);
+				}
+				if (random.nextInt(20) == 0 && !priorityQueue.isEmpty()) {
+					Item toRemove = priorityQueue.stream().skip(random.nextInt(priorityQueue.size())).findFirst().orElseThrow();
+					priorityQueue.remove(toRemove);
+					Assertions.assertTrue(calendarQueue.remove(toRemove));
+					removed.add(toRemove);
+				}
+			}
+			Assertions.assertNull(calendarQueue.poll(now));
+			Assertions.assertEquals(priorityQueue.size(), calendarQueue.size());
+		}
+		Assertions.assertTrue(calendarQueue.isEmpty());
+		for (Item item : removed) {
+			Assertions.assertFalse(calendarQueue.remove(item));
+		}
+	}
+
+	@Test
+	void testRemove() {
+		CalendarQueue<Item> calendarQueue = new CalendarQueue<>(TIE_BREAKER, 16);
+		Item late = new Item(1, 3);
+		Item current = new Item(2, 5);
+		Item wheel = new Item(3, 10);
+		Item overflow = new Item(4, 100);
+		calendarQueue.add(current.time, current);
+		calendarQueue.add(wheel.time, wheel);
+		calendarQueue.add(overflow.time, overflow);
+		calendarQueue.add(5, new Item(5, 5));
+		Assertions.assertEquals(5, calendarQueue.poll(5).id);
+		calendarQueue.add(late.time, late);
+
+		Assertions.assertTrue(calendarQueue.remove(overflow));
+		Assertions.assertTrue(calendarQueue.remove(wheel));
+		Assertions.assertTrue(calendarQueue.remove(late));
+		Assertions.assertFalse(calendarQueue.remove(late));
+		Assertions.assertEquals(1, calendarQueue.size());
+
+		// the index is kept up to date after the first removal
+		calendarQueue.add(wheel.time, wheel);
+		Assertions.assertSame(current, calendarQueue.poll(5));
+		Assertions.assertFalse(calendarQueue.remove(current));
+		Assertions.assertTrue(calendarQueue.remove(wheel));
+		Assertions.assertTrue(calendarQueue.isEmpty());
+		Assertions.assertNull(calendarQueue.poll(200));
+	}
+
+		@Test
+	void testForEachAndClear() {
+		CalendarQueue<Item> calendarQueue = new CalendarQueue<>(TIE_BREAKER, 16);
+		calendarQueue.add(1000, new Item(1, 1000));
+		calendarQueue.add(5, new Item(2, 5));
+		calendarQueue.add(5, new Item(3, 5));
+		calendarQueue.add(-10, new Item(4, -10));
+		Assertions.assertEquals(4, calendarQueue.poll(-10).id);
+
+		List<Integer> ids = new ArrayList<>();
+		calendarQueue.forEach((item, time) -> {
+			Assertions.assertEquals(item.time, time, 0.0);
+			ids.add(item.id);
+		});
+		Assertions.assertEquals(List.of(3, 2, 1), ids);
+
+		calendarQueue.clear();
+		Assertions.assertTrue(calendarQueue.isEmpty());
+		Assertions.assertNull(calendarQueue.poll(2000));
+	}
+}
@@ -0,0 +1,76 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.io;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.testcases.MatsimTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class CacheFilesTest {
+
+	@RegisterExtension private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testFingerprint() {
+		String fingerprint = new CacheFiles.Fingerprint().putInt(1).putDouble(2.5).putString("ab").toHex();
+		Assertions.assertEquals(32, fingerprint.length());
+		Assertions.assertEquals(fingerprint, new CacheFiles.Fingerprint().putInt(1).putDouble(2.5).putString("ab").toHex());
+		Assertions.assertNotEquals(fingerprint, new CacheFiles.Fingerprint().putInt(1).putDouble(2.5).putString("abc").toHex());
+		// strings are prefixed with their length
+		Assertions.assertNotEquals(new CacheFiles.Fingerprint().putString("ab").putString("c").toHex(),
+				new CacheFiles.Fingerprint().putString("a").putString("bc").toHex());
+	}
+
+	@Test
+	void testWriteAtomically() throws IOException {
+		Path directory = Path.of(utils.getOutputDirectory(), "cache");
+		Path file = directory.resolve("data.bin");
+		CacheFiles.writeAtomically(file, tmpFile -> {
+			Assertions.assertFalse(Files.exists(file));
+			Files.writeString(tmpFile, "data");
+		});
+		Assertions.assertEquals("data", Files.readString(file));
+		try (Stream<Path> files = Files.list(directory)) {
+			Assertions.assertEquals(List.of(file), files.toList());
+		}
+	}
+
+	@Test
+	void testWriteAtomicallyFails() throws IOException {
+		Path directory = Path.of(utils.getOutputDirectory(), "cache");
+		Path file = directory.resolve("data.bin");
+		Assertions.assertThrows(UncheckedIOException.class, () -> CacheFiles.writeAtomically(file, tmpFile -> {
+			Files.writeString(tmpFile, "incomplete");
+			throw new IOException("failed");
+		}));
+		// neither the file nor the temporary file remain
+		try (Stream<Path> files = Files.list(directory)) {
+			Assertions.assertEquals(0, files.count());
+		}
+	}
+}